@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.benchmark;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.chrisali.javaflightsim.simulation.aircraft.Aerodynamics;
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.LookupTable;
+import com.chrisali.javaflightsim.simulation.aircraft.StabilityDerivatives;
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsSnapshot;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+/**
+ * Benchmarks aerodynamic force calculation by {@link Aerodynamics} and interpolation of the {@link LookupTable} stability derivatives
+ * of the selected aircraft. Inputs are cycled through a range of angles of attack so that the results cannot be constant folded
+ * 
+ * @author Christopher Ali
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AircraftBenchmark {
+	
+	private static final int ALPHAS = 64;
+	
+	private Aerodynamics aero;
+	private LookupTable clAlpha;
+	private FlightControlsSnapshot controls;
+	
+	private Map<EnvironmentParameters, Double> environmentParameters = new EnumMap<>(EnvironmentParameters.class);
+	private double[][] windParameters = new double[ALPHAS][];
+	private double[] angularRates = {0.01, 0.02, -0.01};
+	
+	private int index;
+	
+	@Setup
+	public void setUp() {
+		SimulationConfiguration configuration = FileUtilities.readSimulationConfiguration();
+		Aircraft aircraft = FileUtilities.readAircraftConfiguration(configuration.getSelectedAircraft());
+		
+		aero = new Aerodynamics(aircraft);
+		clAlpha = aircraft.getStabilityDerivative(StabilityDerivatives.CL_ALPHA);
+		controls = new FlightControlsSnapshot(configuration.getInitialControls());
+		
+		Environment.getAndUpdateEnvironmentParams(new double[] {0, 0, 5000}, environmentParameters);
+		
+		// Angles of attack from -0.15 to 0.25 rad at 200 ft/sec
+		for (int i = 0; i < ALPHAS; i++)
+			windParameters[i] = new double[] {200, 0.01, -0.15 + 0.4 * i / ALPHAS};
+	}
+	
+	private double[] nextWindParameters() {
+		index = (index + 1) & (ALPHAS - 1);
+		
+		return windParameters[index];
+	}
+	
+	@Benchmark
+	public double[] calculateBodyForces() {
+		return aero.calculateBodyForces(nextWindParameters(), angularRates, environmentParameters, controls, 0.0, 5000);
+	}
+	
+	@Benchmark
+	public double lookupTableInterpolate() {
+		return clAlpha.interpolate(nextWindParameters()[2], 0.0);
+	}
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares JMH results written in JSON format (-rf json) against a baseline results file, logging the change in score and in 
+ * bytes allocated per operation (from -prof gc) of each benchmark. Benchmarks whose score or allocation worsened by more than
+ * a tolerance are reported as regressions, failing the comparison if there were any.<br>
+ * Arguments are: [baseline results] [new results] [tolerance, as a fraction of the baseline; 0.20 by default]<br>
+ * Baseline scores are only meaningful on the machine that recorded them; to record a new baseline, copy the new results over the 
+ * baseline file
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class BaselineComparison {
+	
+	private static final Logger logger = LogManager.getLogger(BaselineComparison.class);
+	
+	private static final double DEFAULT_TOLERANCE = 0.20;
+	
+	private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+	
+	// Allocation changes smaller than this are within the noise of TLAB sampling
+	private static final double ALLOCATION_NOISE_BYTES = 16;
+	
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2)
+			throw new IllegalArgumentException("Usage: BaselineComparison [baseline results] [new results] [tolerance]");
+		
+		double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+		
+		ObjectMapper mapper = new ObjectMapper();
+		Map<String, JsonNode> baseline = readResults(mapper.readTree(new File(args[0])));
+		Map<String, JsonNode> results  = readResults(mapper.readTree(new File(args[1])));
+		
+		int regressions = 0;
+		StringBuilder report = new StringBuilder(String.format("%n%-60s %14s %14s %8s %12s %12s", "Benchmark", "Baseline", "Result", 
+															   "Change", "Base B/op", "Result B/op"));
+		
+		for (Map.Entry<String, JsonNode> entry : results.entrySet()) {
+			JsonNode result = entry.getValue();
+			JsonNode base = baseline.get(entry.getKey());
+			
+			double score = result.at("/primaryMetric/score").asDouble();
+			String unit = result.at("/primaryMetric/scoreUnit").asText();
+			double allocation = allocation(result);
+			
+			if (base == null) {
+				report.append(String.format("%n%-60s %14s %14s %8s %12s %12.1f", entry.getKey(), "-", format(score, unit), "new", "-", 
+											allocation));
+				continue;
+			}
+			
+			double baseScore = base.at("/primaryMetric/score").asDouble();
+			double baseAllocation = allocation(base);
+			
+			// Throughput modes get worse as the score falls, time modes as it rises
+			double change = (score - baseScore) / baseScore;
+			double worsening = "thrpt".equals(result.path("mode").asText()) ? -change : change;
+			
+			boolean regressed = worsening > tolerance 
+								|| (allocation - baseAllocation > ALLOCATION_NOISE_BYTES && allocation > baseAllocation * (1 + tolerance));
+			if (regressed)
+				regressions++;
+			
+			report.append(String.format("%n%-60s %14s %14s %+7.1f%% %12.1f %12.1f%s", entry.getKey(), format(baseScore, unit), 
+										format(score, unit), change * 100, baseAllocation, allocation, regressed ? "  REGRESSION" : ""));
+		}
+		
+		logger.info(report);
+		
+		if (regressions > 0)
+			throw new IllegalStateException(regressions + " benchmark(s) regressed by more than " + (tolerance * 100) + "% of the baseline!");
+		
+		logger.info("No benchmarks regressed by more than " + (tolerance * 100) + "% of the baseline");
+	}
+	
+	/**
+	 * @param results root array of a JMH JSON results file
+	 * @return each benchmark result keyed by its name and parameters
+	 */
+	private static Map<String, JsonNode> readResults(JsonNode results) {
+		Map<String, JsonNode> resultMap = new LinkedHashMap<>();
+		
+		for (JsonNode result : results) {
+			StringBuilder key = new StringBuilder(result.path("benchmark").asText().replace(BaselineComparison.class.getPackage().getName() + ".", ""));
+			
+			for (Iterator<Map.Entry<String, JsonNode>> it = result.path("params").fields(); it.hasNext();) {
+				Map.Entry<String, JsonNode> param = it.next();
+				key.append(':').append(param.getKey()).append('=').append(param.getValue().asText());
+			}
+			
+			resultMap.put(key.toString(), result);
+		}
+		
+		return resultMap;
+	}
+	
+	/**
+	 * @param result
+	 * @return bytes allocated per operation by the benchmark, or NaN if it was not run with -prof gc
+	 */
+	private static double allocation(JsonNode result) {
+		for (Iterator<Map.Entry<String, JsonNode>> it = result.path("secondaryMetrics").fields(); it.hasNext();) {
+			Map.Entry<String, JsonNode> metric = it.next();
+			
+			// Older versions of JMH prefix secondary metric names with a middle dot
+			if (metric.getKey().endsWith(ALLOCATION_METRIC))
+				return metric.getValue().path("score").asDouble();
+		}
+		
+		return Double.NaN;
+	}
+	
+	private static String format(double score, String unit) { return String.format("%.3f %s", score, unit); }
+}
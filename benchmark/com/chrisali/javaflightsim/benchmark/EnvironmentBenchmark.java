@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.benchmark;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+
+/**
+ * Benchmarks calculation of the atmosphere by {@link Environment} at altitudes cycled from sea level to 20,000 ft
+ * 
+ * @author Christopher Ali
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvironmentBenchmark {
+	
+	private static final int ALTITUDES = 64;
+	
+	private Map<EnvironmentParameters, Double> environmentParameters = new EnumMap<>(EnvironmentParameters.class);
+	private double[][] NEDPositions = new double[ALTITUDES][];
+	
+	private int index;
+	
+	@Setup
+	public void setUp() {
+		for (int i = 0; i < ALTITUDES; i++)
+			NEDPositions[i] = new double[] {0, 0, 20000.0 * i / ALTITUDES};
+	}
+	
+	@Benchmark
+	public Map<EnvironmentParameters, Double> getAndUpdateEnvironmentParams() {
+		index = (index + 1) & (ALTITUDES - 1);
+		
+		return Environment.getAndUpdateEnvironmentParams(NEDPositions[index], environmentParameters);
+	}
+}
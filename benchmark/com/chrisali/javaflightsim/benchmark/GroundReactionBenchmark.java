@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsSnapshot;
+import com.chrisali.javaflightsim.simulation.integration.IntegrateGroundReaction;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+/**
+ * Benchmarks a single step of {@link IntegrateGroundReaction} with the aircraft rolling along level ground
+ * 
+ * @author Christopher Ali
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroundReactionBenchmark {
+	
+	private IntegrateGroundReaction groundReaction;
+	
+	@Setup
+	public void setUp() {
+		SimulationConfiguration configuration = FileUtilities.readSimulationConfiguration();
+		Aircraft aircraft = FileUtilities.readAircraftConfiguration(configuration.getSelectedAircraft());
+		Map<IntegratorConfig, Double> integratorConfig = configuration.getIntegratorConfig();
+		
+		groundReaction = new IntegrateGroundReaction(new double[] {30, 0, 0}, 		   // linear velocities
+													 new double[] {0, 0, 0}, 		   // NED position
+													 new double[] {0, 0, 0}, 		   // euler angles
+													 new double[] {0, 0, 0}, 		   // angular rates
+													 new double[] {30, 0, 0}, 		   // wind parameters
+													 new double[14], 				   // 6DOF derivatives
+													 new double[] {integratorConfig.get(IntegratorConfig.STARTTIME),
+																   integratorConfig.get(IntegratorConfig.DT),
+																   integratorConfig.get(IntegratorConfig.ENDTIME)},
+													 aircraft,
+													 new FlightControlsSnapshot(configuration.getInitialControls()));
+	}
+	
+	@Benchmark
+	public double[] integrateStep() {
+		groundReaction.integrateStep(0.0);
+		
+		return groundReaction.getTotalGroundForces();
+	}
+}
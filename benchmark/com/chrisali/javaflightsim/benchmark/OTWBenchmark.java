@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.chrisali.javaflightsim.lwjgl.loader.HeadlessLoader;
+import com.chrisali.javaflightsim.lwjgl.loader.Loader;
+import com.chrisali.javaflightsim.lwjgl.loader.OBJLoader;
+import com.chrisali.javaflightsim.lwjgl.models.RawModel;
+import com.chrisali.javaflightsim.lwjgl.terrain.Terrain;
+import com.chrisali.javaflightsim.lwjgl.utilities.OTWDirectories;
+import com.chrisali.javaflightsim.simulation.terrain.WorldTerrain;
+
+/**
+ * Benchmarks the parts of the out the window display that do not need an OpenGL context: height lookups on a {@link Terrain} 
+ * generated from the height map in Resources/Terrain, and parsing of the aircraft model by {@link OBJLoader}. Models are passed
+ * to a {@link HeadlessLoader} instead of being loaded into OpenGL
+ * 
+ * @author Christopher Ali
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OTWBenchmark {
+	
+	private static final int POSITIONS = 256;
+	
+	private Loader loader = new HeadlessLoader();
+	private Terrain terrain;
+	
+	private float[] worldX = new float[POSITIONS];
+	private float[] worldZ = new float[POSITIONS];
+	
+	private int index;
+	
+	@Setup
+	public void setUp() {
+		terrain = new Terrain(0, 0, WorldTerrain.getHeightField(), OTWDirectories.TERRAIN.toString(), null, null, null);
+		
+		// Positions spread in a diagonal line across the terrain 
+		for (int i = 0; i < POSITIONS; i++) {
+			worldX[i] = Terrain.getSize() * (i + 0.5f) / POSITIONS;
+			worldZ[i] = Terrain.getSize() * (POSITIONS - i - 0.3f) / POSITIONS;
+		}
+	}
+	
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public float getTerrainHeight() {
+		index = (index + 1) & (POSITIONS - 1);
+		
+		return terrain.getTerrainHeight(worldX[index], worldZ[index]);
+	}
+	
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public RawModel loadObjModel() {
+		return OBJLoader.loadObjModel("airplane", OTWDirectories.ENTITIES.toString(), loader);
+	}
+}
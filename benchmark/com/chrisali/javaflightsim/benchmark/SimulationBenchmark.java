@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.benchmark;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.chrisali.javaflightsim.simulation.AnalysisSimulation;
+import com.chrisali.javaflightsim.simulation.SimulationCheckpoint;
+import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControls;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.Trimming;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+/**
+ * Benchmarks a single step of {@link Integrate6DOFEquations} in trimmed flight, and trimming of the aircraft by 
+ * {@link Trimming#trimSim(SimulationConfiguration, boolean)}
+ * 
+ * @author Christopher Ali
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+	
+	private SimulationConfiguration configuration;
+	
+	private AnalysisSimulation analysis;
+	private Integrate6DOFEquations simulation;
+	private SimulationCheckpoint trimmed;
+	
+	@Setup
+	public void setUp() {
+		configuration = FileUtilities.readSimulationConfiguration();
+		configuration.updateOptions(EnumSet.of(Options.ANALYSIS_MODE));
+		
+		// No control inputs, so that each iteration steps the same trimmed flight 
+		AnalysisControls noInputs = new AnalysisControls();
+		noInputs.setAnalysisInputs(new ArrayList<>());
+		
+		analysis = new AnalysisSimulation(configuration, noInputs);
+		simulation = analysis.getSimulation();
+		trimmed = analysis.checkpoint();
+	}
+	
+	/**
+	 * Returns to trimmed flight each iteration, so that a long iteration cannot wander into a different flight regime 
+	 */
+	@Setup(Level.Iteration)
+	public void restoreTrim() {
+		analysis.restore(trimmed);
+	}
+	
+	@Benchmark
+	public double integrate6DOFStep() {
+		simulation.step();
+		simulation.clearLogsOut();
+		
+		return simulation.getTime();
+	}
+	
+	@Benchmark
+	public SimulationConfiguration trimSim() {
+		Trimming.trimSim(configuration, true);
+		
+		return configuration;
+	}
+}
@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.benchmark;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.imageio.ImageIO;
+
+import org.lwjgl.util.vector.Vector2f;
+import org.lwjgl.util.vector.Vector3f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.chrisali.javaflightsim.lwjgl.entities.Entity;
+import com.chrisali.javaflightsim.lwjgl.terrain.Terrain;
+import com.chrisali.javaflightsim.lwjgl.utilities.OTWDirectories;
+import com.chrisali.javaflightsim.lwjgl.utilities.OTWFiles;
+import com.chrisali.javaflightsim.lwjgl.utilities.RenderingUtilities;
+import com.chrisali.javaflightsim.simulation.terrain.HeightField;
+import com.chrisali.javaflightsim.simulation.terrain.WorldTerrain;
+import com.chrisali.javaflightsim.simulation.utilities.SimDirectories;
+import com.chrisali.javaflightsim.simulation.utilities.SimFiles;
+
+/**
+ * Benchmarks generating the meshes and autogen entities of the default 10 by 10 tile world at start up. legacyWorld generates 
+ * each tile the way that {@link Terrain} used to, one after another: reading the height map and autogen images from disk for 
+ * every tile, reading five pixels of the height map for every vertex and allocating a vector for every normal. world decodes the 
+ * height map once into a {@link HeightField} shared by every tile, and generates the tiles, and the rows of each tile's mesh, in 
+ * parallel
+ * 
+ * @author Christopher Ali
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class TerrainStartupBenchmark {
+	
+	private static final int TILES_PER_SIDE = WorldTerrain.TILES_PER_SIDE;
+	
+	private static final String DIRECTORY = OTWDirectories.TERRAIN.toString();
+	
+	@Benchmark
+	public List<LegacyTerrain> legacyWorld() throws IOException {
+		List<LegacyTerrain> terrains = new ArrayList<>();
+		
+		for (int i = 0; i < TILES_PER_SIDE; i++) {
+			for (int j = 0; j < TILES_PER_SIDE; j++)
+				terrains.add(new LegacyTerrain(i, j));
+		}
+		
+		return terrains;
+	}
+	
+	@Benchmark
+	public List<Terrain> world() throws IOException {
+		File file = new File(SimDirectories.TERRAIN.toString(), SimFiles.HEIGHT_MAP.toString() + SimFiles.HEIGHT_MAP_EXT.toString());
+		HeightField heightField = WorldTerrain.readHeightMap(file, TILES_PER_SIDE, WorldTerrain.TILE_SIZE, WorldTerrain.MAX_HEIGHT);
+		int median = TILES_PER_SIDE / 2;
+		
+		return IntStream.range(0, TILES_PER_SIDE * TILES_PER_SIDE).parallel()
+						.mapToObj(tile -> new Terrain(tile / TILES_PER_SIDE - median, tile % TILES_PER_SIDE - median, heightField, 
+													  DIRECTORY, null, null, null))
+						.collect(Collectors.toList());
+	}
+	
+	/**
+	 * Mesh and autogen entities of a terrain tile, generated as {@link Terrain} used to generate them
+	 */
+	static class LegacyTerrain {
+		
+		private static final float SIZE = Terrain.getSize();
+		private static final float MAX_HEIGHT = Terrain.getMaxHeight();
+		private static final float MAX_PIXEL_COLOR = 256 * 256 * 256;
+		
+		private float x, z;
+		
+		private float[][] heightArray;
+		private float[] vertices;
+		private float[] normals;
+		private float[] textureCoords;
+		private int[] indices;
+		
+		private List<Entity> staticEntities = new ArrayList<>();
+		
+		LegacyTerrain(int gridX, int gridZ) throws IOException {
+			x = gridX * SIZE;
+			z = gridZ * SIZE;
+			
+			generateTerrain(ImageIO.read(new File(imagePath("heightMap"))));
+			createAutogenImageEntities(ImageIO.read(new File(imagePath("autogen"))));
+		}
+		
+		private static String imagePath(String fileName) {
+			return OTWDirectories.RESOURCES.toString() + File.separator + DIRECTORY + File.separator + fileName + OTWFiles.TEXTURE_EXT.toString();
+		}
+		
+		private void generateTerrain(BufferedImage image) {
+			int VERTEX_COUNT = image.getHeight();
+			int count = VERTEX_COUNT * VERTEX_COUNT;
+			
+			heightArray = new float[VERTEX_COUNT][VERTEX_COUNT];
+			vertices = new float[count * 3];
+			normals = new float[count * 3];
+			textureCoords = new float[count*2];
+			indices = new int[6*(VERTEX_COUNT-1)*(VERTEX_COUNT-1)];
+			
+			int vertexPointer = 0;
+			for(int i=0;i<VERTEX_COUNT;i++){
+				for(int j=0;j<VERTEX_COUNT;j++){
+					vertices[vertexPointer*3] = (float)j/((float)VERTEX_COUNT - 1) * SIZE;
+					
+					float height = getHeightFromImage(j, i, image);
+					heightArray[j][i] = height;
+					
+					vertices[vertexPointer*3+1] = getHeightFromImage(j, i, image);
+					vertices[vertexPointer*3+2] = (float)i/((float)VERTEX_COUNT - 1) * SIZE;
+					
+					Vector3f normal = calculateNormal(j, i, image);
+					normals[vertexPointer*3]   = normal.x;
+					normals[vertexPointer*3+1] = normal.y;
+					normals[vertexPointer*3+2] = normal.z;
+					
+					textureCoords[vertexPointer*2] = (float)j/((float)VERTEX_COUNT - 1);
+					textureCoords[vertexPointer*2+1] = (float)i/((float)VERTEX_COUNT - 1);
+					
+					vertexPointer++;
+				}
+			}
+			
+			int pointer = 0;
+			for(int gz=0;gz<VERTEX_COUNT-1;gz++){
+				for(int gx=0;gx<VERTEX_COUNT-1;gx++){
+					int topLeft = (gz*VERTEX_COUNT)+gx;
+					int topRight = topLeft + 1;
+					int bottomLeft = ((gz+1)*VERTEX_COUNT)+gx;
+					int bottomRight = bottomLeft + 1;
+					
+					indices[pointer++] = topLeft;
+					indices[pointer++] = bottomLeft;
+					indices[pointer++] = topRight;
+					indices[pointer++] = topRight;
+					indices[pointer++] = bottomLeft;
+					indices[pointer++] = bottomRight;
+				}
+			}
+		}
+		
+		private Vector3f calculateNormal(int x, int z, BufferedImage image) {
+			float heightL = getHeightFromImage(x-1, z  , image);
+			float heightR = getHeightFromImage(x+1, z  , image);
+			float heightD = getHeightFromImage(x  , z-1, image);
+			float heightU = getHeightFromImage(x  , z+1, image);
+			
+			Vector3f normal = new Vector3f(heightL - heightR, 2f, heightD - heightU);
+			normal.normalise();
+			
+			return normal;
+		}
+		
+		private float getHeightFromImage(int x, int z, BufferedImage image) {
+			if (x < 0 || x >= image.getHeight() || z < 0 || z >= image.getWidth())
+				return 0;
+			
+			float height = image.getRGB(x, z);
+			height += MAX_PIXEL_COLOR/2f;
+			height /= MAX_PIXEL_COLOR/2f;
+			height *= MAX_HEIGHT;
+			
+			return height;
+		}
+		
+		private void createAutogenImageEntities(BufferedImage image) {
+			float imageScale = SIZE/image.getHeight();
+			Color readColor;
+			
+			for (int x = 0; x < image.getWidth(); x+=6) {
+				for (int z = 0; z < image.getHeight(); z+=6) {
+					readColor = new Color(image.getRGB(x, z));
+					
+					if(readColor.getRed() <= 250 && readColor.getGreen() > 250)
+						createRandomTrees(x * imageScale, z * imageScale);
+				}
+			}
+		}
+		
+		private void createRandomTrees(float x, float z) {
+			Random random = new Random();
+			
+			x += this.x;
+			z += this.z;
+			float y = getTerrainHeight(x, z);
+			
+			if (random.nextInt(100) % 3 == 0)
+				staticEntities.add(new Entity(null, new Vector3f(x, y-2, z), 0, random.nextFloat()*360, 0, random.nextFloat() + 6));
+		}
+		
+		private float getTerrainHeight(float worldX, float worldZ) {
+			float terrainX = worldX - this.x;
+			float terrainZ = worldZ - this.z;
+			
+			float gridSquareSize = SIZE / ((float)heightArray.length - 1);
+			
+			int gridX = (int) Math.floor(terrainX/gridSquareSize);
+			int gridZ = (int) Math.floor(terrainZ/gridSquareSize);
+			
+			if (gridX >= (heightArray.length - 1) || gridZ >= (heightArray.length - 1) || gridX < 0 || gridZ < 0)
+				return 0;
+			
+			float xCoord = (terrainX % gridSquareSize) / gridSquareSize;
+			float zCoord = (terrainZ % gridSquareSize) / gridSquareSize;
+			
+			if (xCoord <= (1-zCoord)) {
+				return RenderingUtilities.barycentric(new Vector3f(0, heightArray[gridX][gridZ], 0), 
+													  new Vector3f(1, heightArray[gridX + 1][gridZ], 0), 
+													  new Vector3f(0, heightArray[gridX][gridZ + 1], 1), 
+													  new Vector2f(xCoord, zCoord));
+			} else {
+				return RenderingUtilities.barycentric(new Vector3f(1, heightArray[gridX + 1][gridZ], 0), 
+													  new Vector3f(1, heightArray[gridX + 1][gridZ + 1], 1), 
+													  new Vector3f(0, heightArray[gridX][gridZ + 1], 1), 
+													  new Vector2f(xCoord, zCoord));
+			}
+		}
+	}
+}
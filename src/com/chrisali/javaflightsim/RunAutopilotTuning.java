@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim;
+
+import java.io.IOException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.autopilot.AutopilotConfiguration;
+import com.chrisali.javaflightsim.simulation.autopilot.AutopilotGainOptimizer;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.Trimming;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+/**
+ * Runner class to tune the autopilot gains of an aircraft with an {@link AutopilotGainOptimizer}, starting from the gains in its 
+ * Aircraft/{aircraftName}/AutopilotConfiguration.json and saving the tuned gains back to it. The aircraft is trimmed at the initial 
+ * conditions of SimConfig/SimulationConfiguration.json. Optional arguments are: [generations] [population] [workers] [aircraft name];
+ * by default 10 generations of 32 candidates are simulated by one worker per available processor, tuning the selected aircraft
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class RunAutopilotTuning {
+	private static final Logger logger = LogManager.getLogger(RunAutopilotTuning.class);
+	
+	private static final long SEED = 6;
+	
+	public static void main(String[] args) {
+		logger.debug("===============================================");
+		logger.debug("Java Flight Simulator v0.4a by Christopher Ali");
+		logger.debug("===============================================");
+		
+		int generations = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int population  = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+		int workers 	= args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		
+		SimulationConfiguration configuration = FileUtilities.readSimulationConfiguration();
+		if (args.length > 3)
+			configuration.setSelectedAircraft(args[3]);
+		
+		String aircraftName = configuration.getSelectedAircraft();
+		
+		Trimming.trimSim(configuration, true);
+		
+		AutopilotConfiguration autopilot = FileUtilities.readAutopilotConfiguration(aircraftName);
+		
+		long start = System.nanoTime();
+		
+		try (AutopilotGainOptimizer optimizer = new AutopilotGainOptimizer(configuration, workers)) {
+			optimizer.optimizeAll(autopilot, generations, population, SEED);
+		} catch (IOException e) {
+			logger.error("Unable to set up autopilot tuning of " + aircraftName + "!", e);
+			return;
+		}
+		
+		logger.info("Tuned autopilot of " + aircraftName + " in " + (System.nanoTime() - start) / 1000000000 + " sec");
+		logger.info(autopilot);
+		
+		autopilot.save(aircraftName);
+	}
+}
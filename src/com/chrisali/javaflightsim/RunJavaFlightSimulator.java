@@ -38,6 +38,6 @@ public class RunJavaFlightSimulator {
 		logger.debug("Java Flight Simulator v0.4a by Christopher Ali");
 		logger.debug("===============================================");
 		
-		Initializer.selectRunConfigurationAndRun();
+		Initializer.selectRunConfigurationAndRun(args);
 	}
 }
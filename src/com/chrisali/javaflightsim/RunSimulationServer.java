@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.server.SimulationServer;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+import com.chrisali.javaflightsim.simulation.utilities.SimDirectories;
+
+/**
+ * Runner class to start Java Flight Simulator as a headless {@link SimulationServer}, which runs analysis jobs submitted over 
+ * HTTP on this machine. Jobs are overlaid onto SimConfig/SimulationConfiguration.json and their results are written to the Results
+ * directory. Optional arguments are: [port] [workers] [queue capacity]; by default the server listens on port 4960, runs one job
+ * per available processor and queues up to four jobs per worker
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class RunSimulationServer {
+	private static final Logger logger = LogManager.getLogger(RunSimulationServer.class);
+	
+	private static final int DEFAULT_PORT = 4960;
+	
+	public static void main(String[] args) {
+		logger.debug("===============================================");
+		logger.debug("Java Flight Simulator v0.4a by Christopher Ali");
+		logger.debug("===============================================");
+		
+		int port 		  = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		int workers 	  = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int queueCapacity = args.length > 2 ? Integer.parseInt(args[2]) : 4 * workers;
+		
+		SimulationConfiguration defaults = FileUtilities.readSimulationConfiguration();
+		
+		try {
+			SimulationServer server = new SimulationServer(defaults, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 
+														   workers, queueCapacity, new File(SimDirectories.RESULTS.toString()));
+			
+			Runtime.getRuntime().addShutdownHook(new Thread(server::close, "Simulation Server Shutdown"));
+			
+			server.start();
+		} catch (IOException e) {
+			logger.error("Unable to start simulation server on port " + port + "!", e);
+		}
+	}
+}
@@ -23,10 +23,12 @@ public class Initializer {
 	public static final Logger logger = LogManager.getLogger(Initializer.class);
 	
 	/**
-	 * Selects an appropriate initialization process based on the the RunDisplayMode enum read/parsed in ______
-	 * and then run the application
+	 * Selects an appropriate initialization process based on the the RunDisplayMode enum parsed from the first command line 
+	 * argument (e.g. "NETWORK"), and then run the application. If no argument is given, Swing with LWJGL is used
+	 * 
+	 * @param args command line arguments
 	 */
-	public static void selectRunConfigurationAndRun() {
+	public static void selectRunConfigurationAndRun(String[] args) {
 		
 		logger.debug("Configuring simulation options...");
 		
@@ -42,9 +44,16 @@ public class Initializer {
 			return;
 		}
 		
-		// Temporarily set mode to LWJGL Swing mode until parse method is decided
 		RunDisplayMode mode = RunDisplayMode.LWJGL_SWING;
 		
+		if (args != null && args.length > 0) {
+			try {
+				mode = RunDisplayMode.valueOf(args[0].toUpperCase());
+			} catch (IllegalArgumentException e) {
+				logger.error("Invalid run mode " + args[0] + " selected, defaulting to Swing with LWJGL!");
+			}
+		}
+		
 		switch (mode) {
 		case LWJGL_SWING:
 			logger.debug(mode.toString() + " selected");
@@ -126,12 +135,22 @@ public class Initializer {
 	}
 	
 	/**
-	 * To be implemented later; initializes network adapter for UDP packet transmission
+	 * Initializes {@link NetworkSimulationController} and starts the simulation without any GUI, sending telemetry over UDP
+	 * until the simulation ends or the application is shut down
 	 * 
 	 * @param configuration
 	 */
 	private static void runNetworkApp(SimulationConfiguration configuration) {
-		logger.fatal("This mode is not implemented yet!");
-		return;
+		try {
+			NetworkSimulationController controller = new NetworkSimulationController(configuration);
+			
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> controller.stopSimulation()));
+			
+			controller.startSimulation();
+		} catch (Exception e) {
+			logger.fatal("Error setting up network controller: ", e);
+			
+			return;
+		}
 	}
 }
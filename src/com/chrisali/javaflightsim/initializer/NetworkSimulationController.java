@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.initializer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.interfaces.SimulationController;
+import com.chrisali.javaflightsim.simulation.SimulationRunner;
+import com.chrisali.javaflightsim.simulation.datatransfer.TelemetryPublisher;
+import com.chrisali.javaflightsim.simulation.setup.NetworkConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.Trimming;
+
+/**
+ * Controls the running of the simulation component of JavaFlightSim without any GUI or out the window display. Instead, 
+ * {@link SimulationRunner} sends telemetry over UDP with a {@link TelemetryPublisher}, configured by {@link NetworkConfiguration}
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class NetworkSimulationController implements SimulationController {
+	
+	//Logging
+	private static final Logger logger = LogManager.getLogger(NetworkSimulationController.class);
+	
+	// Configuration
+	private SimulationConfiguration configuration;
+	
+	// Simulation and Threads
+	private SimulationRunner runner;
+	private Thread runnerThread;
+	
+	public NetworkSimulationController(SimulationConfiguration configuration) {
+		this.configuration = configuration;
+	}
+	
+	/**
+	 * @return instance of configuraion
+	 */
+	@Override
+	public SimulationConfiguration getConfiguration() { return configuration; }
+	
+	/**
+	 * Trims the aircraft and starts the simulation runner thread
+	 */
+	@Override
+	public void startSimulation() {
+		if (runner != null && runner.isRunning()) {
+			logger.warn("Simulation is already running! Please wait until it has finished");
+			return;
+		}
+		
+		logger.debug("Starting simulation...");
+		
+		logger.debug("Trimming aircraft...");
+		Trimming.trimSim(configuration, false);
+		
+		logger.debug("Initializing simulation runner...");
+		runner = new SimulationRunner(this);
+
+		logger.debug("Initializaing and starting simulation runner thread...");
+		runnerThread = new Thread(runner);
+		runnerThread.start();
+	}
+	
+	/**
+	 * Stops the simulation runner thread and waits for it to finish
+	 */
+	@Override
+	public void stopSimulation() {
+		if (runner == null || !runner.isRunning())
+			return;
+		
+		logger.debug("Stopping simulation...");
+
+		runner.setRunning(false);
+		
+		try {
+			runnerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Plots are not available without a GUI; simulation data can instead be read from telemetry
+	 */
+	@Override
+	public void plotSimulation() {
+		logger.info("Plotting is not available in network mode");
+	}
+
+	@Override
+	public boolean isPlotWindowVisible() { return false; }
+
+	/**
+	 * The raw data console is not available without a GUI; simulation data can instead be read from telemetry
+	 */
+	@Override
+	public void initializeConsole() {
+		logger.info("The flight data console is not available in network mode");
+	}
+
+	@Override
+	public boolean isHeadless() { return true; }
+	
+	/**
+	 * @return simulation runner, or null if the simulation has not been started
+	 */
+	public SimulationRunner getRunner() { return runner; }
+}
@@ -6,7 +6,7 @@ package com.chrisali.javaflightsim.initializer;
  *	<p>LWJGL_SWING - Uses the legacy LWJGL engine with Swing GUI, administered by {@link LWJGLSwingSimulationController}</p>
  *  <p>SWING_ONLY - Only uses the legacy Swing GUI for menus and for simulation output, administered by *controller goes here*</p>
  *  <p>JMONKEYENGINE - Uses the JMonkeyEngine implementation for menus and disply, administered by *controller goes here*</p>
- *  <p>NETWORK - Uses a TCP/UDP repeater to remotely transmit simulation data to another program such as X-Plane</p>
+ *  <p>NETWORK - Runs the simulation without a GUI, transmitting telemetry over UDP to external displays and monitoring tools, administered by {@link NetworkSimulationController}</p>
  */
 public enum RunDisplayMode {
 	LWJGL_SWING   ("LWJGL Swing"),
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.interfaces;
+
+import com.chrisali.javaflightsim.simulation.SimulationCheckpoint;
+
+/**
+ * Interface that simulation components use to copy their complete state into, and back out of, a flat array of primitives so that
+ * the simulation can be checkpointed and forked mid-flight (see {@link SimulationCheckpoint}). Components write and read the same
+ * number of values in the same order, starting at an offset into the array, so that they can be nested within each other
+ * 
+ * @author Christopher Ali
+ *
+ */
+public interface Checkpointable {
+	
+	/**
+	 * @return number of values that {@link #writeCheckpoint(double[], int)} writes 
+	 */
+	public int getCheckpointSize();
+	
+	/**
+	 * Copies the state of this object into state, starting at offset
+	 * 
+	 * @param state
+	 * @param offset
+	 * @return offset following the last value written
+	 */
+	public int writeCheckpoint(double[] state, int offset);
+	
+	/**
+	 * Sets the state of this object from values written by {@link #writeCheckpoint(double[], int)}, starting at offset
+	 * 
+	 * @param state
+	 * @param offset
+	 * @return offset following the last value read
+	 */
+	public int readCheckpoint(double[] state, int offset);
+}
@@ -25,4 +25,9 @@ public interface SimulationController {
 	public void startSimulation();
 
 	public void stopSimulation();
+	
+	/**
+	 * @return true if the simulation runs without an out the window display, sending its data over the network instead
+	 */
+	public default boolean isHeadless() { return false; }
 }
\ No newline at end of file
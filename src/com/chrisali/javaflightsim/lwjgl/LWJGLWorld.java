@@ -24,7 +24,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.TreeMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -41,6 +40,7 @@ import com.chrisali.javaflightsim.lwjgl.entities.Camera;
 import com.chrisali.javaflightsim.lwjgl.entities.EntityCollections;
 import com.chrisali.javaflightsim.lwjgl.entities.Light;
 import com.chrisali.javaflightsim.lwjgl.entities.Ownship;
+import com.chrisali.javaflightsim.lwjgl.entities.TrafficEntities;
 import com.chrisali.javaflightsim.lwjgl.events.WindowClosedListener;
 import com.chrisali.javaflightsim.lwjgl.interfaces.gauges.InstrumentPanel;
 import com.chrisali.javaflightsim.lwjgl.interfaces.text.FontType;
@@ -56,26 +56,26 @@ import com.chrisali.javaflightsim.lwjgl.particles.ParticleTexture;
 import com.chrisali.javaflightsim.lwjgl.renderengine.DisplayManager;
 import com.chrisali.javaflightsim.lwjgl.renderengine.InterfaceRenderer;
 import com.chrisali.javaflightsim.lwjgl.renderengine.MasterRenderer;
-import com.chrisali.javaflightsim.lwjgl.terrain.Terrain;
 import com.chrisali.javaflightsim.lwjgl.terrain.TerrainCollection;
 import com.chrisali.javaflightsim.lwjgl.textures.ModelTexture;
 import com.chrisali.javaflightsim.lwjgl.utilities.OTWDirectories;
 import com.chrisali.javaflightsim.simulation.SimulationRunner;
 import com.chrisali.javaflightsim.simulation.datatransfer.FlightData;
-import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataListener;
-import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataType;
+import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataSnapshot;
 import com.chrisali.javaflightsim.simulation.setup.CameraMode;
 import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.terrain.WorldTerrain;
+import com.chrisali.javaflightsim.simulation.traffic.TrafficEngine;
 import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
 
 /**
  * Out the window display for Java Flight Sim. It utilizes LWJGL to create a 3D world in OpenGL. 
- * This runs in a simulation runner thread that receives data from {@link FlightData} via {@link FlightDataListener} 
+ * This runs in a simulation runner thread that pulls data from {@link FlightData} via a {@link FlightDataSnapshot} 
  * 
  * @author Christopher Ali
  *
  */
-public class LWJGLWorld implements FlightDataListener, OTWWorld {
+public class LWJGLWorld implements OTWWorld {
 	
 	private static final Logger logger = LogManager.getLogger(LWJGLWorld.class);
 	
@@ -94,6 +94,10 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 	private Ownship ownship;
 	private Camera camera;
 	
+	// AI traffic, if enabled
+	private TrafficEngine traffic;
+	private TrafficEntities trafficEntities;
+	
 	// Interface
 	private SimulationTexts simTexts;
 	private Map<String, List<InterfaceTexture>> interfaceTextures;
@@ -102,6 +106,9 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 	
 	private SimulationConfiguration configuration;
 	
+	// Flight data pulled from the simulation each frame
+	private FlightDataSnapshot flightData;
+	
 	// Event Listeners
 	private List<WindowClosedListener> windowClosedListeners = new ArrayList<>();
 			
@@ -125,9 +132,18 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 	@Override
 	public void step() {
 		try {
+			if (flightData != null && flightData.refresh())
+				updateFromFlightData();
+			
+			if (trafficEntities != null)
+				trafficEntities.update(traffic.getSnapshot());
+			
 			ParticleMaster.update(camera);
 			
-			masterRenderer.renderWholeScene(entities, terrainCollection.getTerrainTree(), 
+			terrainCollection.update();
+			terrainCollection.selectLevelsOfDetail(camera.getPosition());
+			
+			masterRenderer.renderWholeScene(entities, terrainCollection.getTerrains(), 
 											lights, camera, new Vector4f(0, 1, 0, 0));
 			
 			ParticleMaster.renderParticles(camera);
@@ -168,6 +184,9 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 		try {  
 			logger.debug("Cleaning up and closing LWJGL display...");
 			
+			if (terrainCollection != null)
+				terrainCollection.close();
+			
 			AudioMaster.cleanUp();
 			ParticleMaster.cleanUp();
 			TextMaster.cleanUp();
@@ -197,7 +216,7 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 		
 		logger.debug("Generating fog and sky...");
 		
-		masterRenderer = new MasterRenderer();
+		masterRenderer = new MasterRenderer(loader);
 		MasterRenderer.setSkyColor(new Vector3f(0.70f, 0.90f, 1.0f));
 		MasterRenderer.setFogDensity(0.0005f);
 		MasterRenderer.setFogGradient(3.5f);
@@ -243,7 +262,7 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 
 		ownship = new Ownship(airplane, configuration.getInitialConditions(), 1.25f);
 		ownship.setRender(configuration.getCameraConfiguration().getMode() == CameraMode.CHASE);
-		entities.addToStaticEntities(ownship);
+		entities.addToMovingEntities(ownship);
 		
 		logger.debug("Setting up camera...");
 		
@@ -253,8 +272,8 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 		
 		logger.debug("Generating terrain...");
 		
-		terrainCollection = new TerrainCollection(10, loader, ownship);
-		entities.setTerrainTree(terrainCollection.getTerrainTree());
+		terrainCollection = new TerrainCollection(loader, ownship, WorldTerrain.getTerrain(configuration), configuration.getTerrainConfiguration());
+		entities.setTerrainCollection(terrainCollection);
 		
 		//=============================== Particles ==========================================================
 		
@@ -291,34 +310,49 @@ public class LWJGLWorld implements FlightDataListener, OTWWorld {
 		if (terrainCollection == null)
 			return 0.0f;
 		
-		TreeMap<String, Terrain> terrainTree = terrainCollection.getTerrainTree();
 		Vector3f position = ownship.getPosition();
 		
-		// Terrain object ownship is currently on
-		Terrain currentTerrain = Terrain.getCurrentTerrain(terrainTree, position.x, position.z);
-		
-		// If outside world bounds, return 0 as terrain height
-		return (currentTerrain == null) ? 0.0f : currentTerrain.getTerrainHeight(position.x, position.z);
+		// If no terrain is loaded under the ownship, return 0 as terrain height
+		return terrainCollection.getTerrainHeight(position.x, position.z);
 	}
 
-	@Override
-	public void onFlightDataReceived(FlightData flightData) {
-		Map<FlightDataType, Double> receivedFlightData = flightData.getFlightData();
+	/**
+	 * Sets the {@link FlightDataSnapshot} that this display refreshes at the start of every frame to move the ownship
+	 * and update sounds, text and gauges
+	 * 
+	 * @param flightData snapshot created by {@link FlightData#createSnapshot()}
+	 */
+	public void setFlightData(FlightDataSnapshot flightData) { this.flightData = flightData; }
+	
+	/**
+	 * Shows the AI aircraft of traffic that are within its draw distance of its observer, the ownship; must be called after 
+	 * {@link #init()}
+	 * 
+	 * @param traffic
+	 */
+	public void setTraffic(TrafficEngine traffic) {
+		this.traffic = traffic;
 		
-		if (!receivedFlightData.containsValue(null) && receivedFlightData != null) {
-			// Update sound gains/volumes with flight data
-			soundCollection.update(receivedFlightData);
-			
-			// Ownship movement; let camera track ownhip 1-1 for now
-			ownship.move(receivedFlightData);
-			camera.move(configuration);
+		if (ownship != null)
+			trafficEntities = new TrafficEntities(ownship.getModel(), ownship.getScale(), entities);
+	}
+	
+	/**
+	 * Updates sounds, ownship, camera, text and instrument panel using the values most recently pulled into flightData
+	 */
+	private void updateFromFlightData() {
+		// Update sound gains/volumes with flight data
+		soundCollection.update(flightData);
+		
+		// Ownship movement; let camera track ownhip 1-1 for now
+		ownship.move(flightData);
+		camera.move(configuration);
 
-			// Record flight data into text string to display on OTW screen 
-			simTexts.update(receivedFlightData, configuration, camera, ownship);
-			
-			// Instrument Panel
-			panel.update(receivedFlightData);
-		}
+		// Record flight data into text string to display on OTW screen 
+		simTexts.update(flightData, configuration, camera, ownship);
+		
+		// Instrument Panel
+		panel.update(flightData);
 	}
 	
 	// =============================== Events =====================================
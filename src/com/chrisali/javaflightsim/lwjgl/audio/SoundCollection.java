@@ -31,9 +31,10 @@ import com.chrisali.javaflightsim.lwjgl.LWJGLWorld;
 import com.chrisali.javaflightsim.lwjgl.utilities.OTWDirectories;
 import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
 import com.chrisali.javaflightsim.simulation.datatransfer.FlightData;
-import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataListener;
+import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataSnapshot;
 import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataType;
 import com.chrisali.javaflightsim.simulation.propulsion.Engine;
+import com.chrisali.javaflightsim.simulation.propulsion.EngineChannels;
 import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
 import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
 
@@ -73,6 +74,22 @@ public class SoundCollection {
 		ENGINE_4_MED,
 		ENGINE_4_HIGH,
 		ENGINE_4_MAX,
+		ENGINE_5_LOW,
+		ENGINE_5_MED,
+		ENGINE_5_HIGH,
+		ENGINE_5_MAX,
+		ENGINE_6_LOW,
+		ENGINE_6_MED,
+		ENGINE_6_HIGH,
+		ENGINE_6_MAX,
+		ENGINE_7_LOW,
+		ENGINE_7_MED,
+		ENGINE_7_HIGH,
+		ENGINE_7_MAX,
+		ENGINE_8_LOW,
+		ENGINE_8_MED,
+		ENGINE_8_HIGH,
+		ENGINE_8_MAX,
 		FLAPS,
 		GEAR,
 		STALL,
@@ -88,10 +105,6 @@ public class SoundCollection {
 	 *
 	 */
 	public enum SoundCategory {
-		RPM_1,
-		RPM_2,
-		RPM_3,
-		RPM_4,
 		FLAPS,
 		PREV_STEP_FLAPS,
 		GEAR,
@@ -111,6 +124,11 @@ public class SoundCollection {
 		
 	private Map<SoundCategory, Double> soundValues;
 	
+	// Per-engine tables resolved at construction, indexed in the same order as engineRPM 
+	private int[] engineChannels;
+	private SoundEvent[][] engineSoundEvents;
+	private double[] engineRPM;
+	
 	/**
 	 * Used to record soundValues data to PREV_STEP_* enums to stop sounds looping if a control stops moving
 	 */
@@ -143,7 +161,12 @@ public class SoundCollection {
 		int engineNumber;
 		double[] enginePosition;
 		Set<Engine> engineList = aircraft.getEngines();
-				
+		
+		engineChannels    = new int[engineList.size()];
+		engineSoundEvents = new SoundEvent[engineList.size()][];
+		engineRPM         = new double[engineList.size()];
+		
+		int engineIndex = 0;
 		for (Engine engine : engineList) {
 			engineNumber    = engine.getEngineNumber(); 
 			enginePosition  = engine.getEnginePosition();
@@ -154,6 +177,9 @@ public class SoundCollection {
 			SoundEvent engHigh = Enum.valueOf(SoundEvent.class, "ENGINE_" + engineNumber + "_HIGH");
 			SoundEvent engMax  = Enum.valueOf(SoundEvent.class, "ENGINE_" + engineNumber + "_MAX");
 			
+			engineChannels[engineIndex]      = engine.getChannel();
+			engineSoundEvents[engineIndex++] = new SoundEvent[] {engLow, engMed, engHigh, engMax};
+			
 			soundSources.put(engLow, new SoundSource(OTWDirectories.AUDIO.toString(), "engineLow"));
 			soundSources.get(engLow).setVolume(0);
 			soundSources.get(engLow).setLooping(true);
@@ -207,16 +233,15 @@ public class SoundCollection {
 	/**
 	 * Wrapper method to call setRPM(), setControl(), setWind() and setStallHorn() at once;
 	 * uses an EnumMap of {@link SoundCategory} enums to set the double values retrieved by 
-	 * {@link FlightDataListener} in {@link LWJGLWorld}.
+	 * {@link FlightDataSnapshot} in {@link LWJGLWorld}.
 	 * 
 	 * @param soundValues
 	 */
-	public void update(Map<FlightDataType, Double> flightData) {
+	public void update(FlightDataSnapshot flightData) {
 		// Set values for each sound in the simulation that depends on flight data
-		soundValues.put(SoundCategory.RPM_1, flightData.get(FlightDataType.RPM_1));
-		soundValues.put(SoundCategory.RPM_2, flightData.get(FlightDataType.RPM_2));
-		soundValues.put(SoundCategory.RPM_3, flightData.get(FlightDataType.RPM_3));
-		soundValues.put(SoundCategory.RPM_4, flightData.get(FlightDataType.RPM_4));
+		for (int i = 0; i < engineRPM.length; i++)
+			engineRPM[i] = flightData.get(EngineChannels.RPM_DATA[engineChannels[i]]);
+		
 		soundValues.put(SoundCategory.WIND, flightData.get(FlightDataType.TAS));
 		soundValues.put(SoundCategory.FLAPS, flightData.get(FlightDataType.FLAPS));
 		soundValues.put(SoundCategory.GEAR, flightData.get(FlightDataType.GEAR));
@@ -297,20 +322,14 @@ public class SoundCollection {
 	public void setRPM() {
 		float gainLow, pitchLow, gainMed, pitchMed, gainHi, pitchHi, gainMax, pitchMax;
 		double RPM;
-		int engineNumber;
-		Set<Engine> engineList = aircraft.getEngines();
 				
-		for (Engine engine : engineList) {
-			engineNumber = engine.getEngineNumber(); 
-		
-			SoundEvent engLow  = Enum.valueOf(SoundEvent.class, "ENGINE_" + engineNumber + "_LOW");
-			SoundEvent engMed  = Enum.valueOf(SoundEvent.class, "ENGINE_" + engineNumber + "_MED");
-			SoundEvent engHigh = Enum.valueOf(SoundEvent.class, "ENGINE_" + engineNumber + "_HIGH");
-			SoundEvent engMax  = Enum.valueOf(SoundEvent.class, "ENGINE_" + engineNumber + "_MAX");
-			
-			SoundCategory rpmEnum = Enum.valueOf(SoundCategory.class, "RPM_" + engineNumber);
+		for (int i = 0; i < engineRPM.length; i++) {
+			SoundEvent engLow  = engineSoundEvents[i][0];
+			SoundEvent engMed  = engineSoundEvents[i][1];
+			SoundEvent engHigh = engineSoundEvents[i][2];
+			SoundEvent engMax  = engineSoundEvents[i][3];
 			
-			RPM = soundValues.get(rpmEnum);
+			RPM = engineRPM[i];
 			
 			gainLow  = (float) ((RPM >  300 && RPM < 1800) ? Math.cos((RPM-600)/500) : 0);
 			pitchLow = (float) ((RPM >  300 && RPM < 1800) ? ((1.5-0.75)*(RPM-300))/(1800-300) + 0.75 : 0);
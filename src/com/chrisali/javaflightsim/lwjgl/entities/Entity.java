@@ -112,6 +112,13 @@ public class Entity {
 	public float getScale() {
 		return scale;
 	}
+	
+	/**
+	 * @return radius of a sphere around the entity's position that contains all of its model
+	 */
+	public float getBoundingRadius() {
+		return model == null ? 0 : model.getRawModel().getBoundingRadius() * scale;
+	}
 
 	public void setScale(float scale) {
 		this.scale = scale;
@@ -19,16 +19,10 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.lwjgl.entities;
 
-import java.awt.Color;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
-import java.util.TreeMap;
-
-import javax.imageio.ImageIO;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -36,17 +30,22 @@ import org.lwjgl.util.vector.Vector3f;
 
 import com.chrisali.javaflightsim.lwjgl.loader.Loader;
 import com.chrisali.javaflightsim.lwjgl.loader.OBJLoader;
+import com.chrisali.javaflightsim.lwjgl.models.InstancedModel;
 import com.chrisali.javaflightsim.lwjgl.models.TexturedModel;
+import com.chrisali.javaflightsim.lwjgl.terrain.AutogenMap;
 import com.chrisali.javaflightsim.lwjgl.terrain.Terrain;
+import com.chrisali.javaflightsim.lwjgl.terrain.TerrainCollection;
 import com.chrisali.javaflightsim.lwjgl.textures.ModelTexture;
 import com.chrisali.javaflightsim.lwjgl.utilities.OTWDirectories;
-import com.chrisali.javaflightsim.lwjgl.utilities.OTWFiles;
+import com.chrisali.javaflightsim.simulation.spatial.SpatialIndex;
 
 /**
  * Contains methods to create {@link Entity} objects to world, which are rendered by OpenGL; these objects are
  * normally tied to a {@link Terrain} object and spawned using an autogen texture mapping scheme, but other objects can also
  * be generated at specific locations in the world. These are added instead to a local list inside of this class using 
- * provided static methods 
+ * provided static methods, and are packed into an {@link InstancedModel} for each model, whose instance data is only uploaded once.
+ * Entities that move (i.e. the ownship and traffic) are kept in a {@link SpatialIndex} so that only those near the camera need to 
+ * be rendered, and are moved in the index each frame 
  * 
  * @author Christopher Ali
  *
@@ -56,11 +55,21 @@ public class EntityCollections {
 	//Logging
 	private static final Logger logger = LogManager.getLogger(EntityCollections.class);
 	
+	private static final float ENTITY_INDEX_CELL_SIZE = 800;
+	
 	private List<Entity> miscStaticEntities = new ArrayList<>();
 	private List<Entity> miscLitEntities = new ArrayList<>();
 	private List<Light> lights;
 	
-	private TreeMap<String, Terrain> terrainTree;
+	// Static and lit entities, packed again only after more are created
+	private List<InstancedModel> staticInstancedModels = new ArrayList<>();
+	private boolean staticEntitiesChanged;
+	
+	// Entities that move, indexed by their position in movingEntities
+	private SpatialIndex entityIndex = new SpatialIndex(ENTITY_INDEX_CELL_SIZE, 64);
+	private List<Entity> movingEntities = new ArrayList<>();
+	
+	private TerrainCollection terrainCollection;
 	private Loader loader;
 	
 	//==================== Models =======================
@@ -86,8 +95,8 @@ public class EntityCollections {
 		initializeEntities();
 	}
 	
-	public void setTerrainTree(TreeMap<String, Terrain> terrainTree) {
-		this.terrainTree = terrainTree;
+	public void setTerrainCollection(TerrainCollection terrainCollection) {
+		this.terrainCollection = terrainCollection;
 	}
 
 	/**
@@ -127,38 +136,18 @@ public class EntityCollections {
 	 * involves adding the objects to a List in the terrain object. This list is then iterated through to render
 	 * each entity 
 	 * 
-	 * <p>Each pixel adds a new object, so they should be added to the autogen image (autogen.png) judiciously
+	 * <p>Each pixel adds a new object, so they should be added to the autogen image (autogen.png) judiciously. The image is only 
+	 * decoded once into an {@link AutogenMap}, which is shared by every terrain
 	 * 
 	 * @param terrain
 	 * @param fileName
 	 * @param directory
 	 */
 	public static void createAutogenImageEntities(Terrain terrain, String fileName, String directory) {
+		AutogenMap autogenMap = AutogenMap.getAutogenMap(fileName, directory);
 		
-		BufferedImage image = null;
-		
-		try {image = ImageIO.read(new File(OTWDirectories.RESOURCES.toString() + File.separator + directory + File.separator + fileName + OTWFiles.TEXTURE_EXT.toString()));} 
-		catch (IOException e) {logger.error("Could not load autogen file: " + fileName + OTWFiles.TEXTURE_EXT.toString() + "!", e);}
-		
-		float imageScale = Terrain.getSize()/image.getHeight();
-		float scaledX, scaledZ;
-		Color readColor;
-		
-		for (int x = 0; x < image.getWidth(); x+=6) {
-			for (int z = 0; z < image.getHeight(); z+=6) {
-				readColor = new Color(image.getRGB(x, z));
-				scaledX = x * imageScale;
-				scaledZ = z * imageScale;
-				
-				if(readColor.getRed() > 250) {
-					// Create buildings here
-				} else if(readColor.getGreen() > 250) {
-					createRandomTrees(terrain, scaledX, scaledZ);
-				} else if(readColor.getBlue() > 250) {
-					// Create airport here
-				}
-			}
-		}
+		for (int tree = 0; tree < autogenMap.getTreeCount(); tree++)
+			createRandomTrees(terrain, autogenMap.getTreeX(tree), autogenMap.getTreeZ(tree));
 	}
 	
 	/**
@@ -173,12 +162,13 @@ public class EntityCollections {
 	 */
 	private static void createRandomTrees(Terrain terrain, float x, float z) {
 		
-		Random random = new Random();
+		// Terrain is generated on several threads at once
+		ThreadLocalRandom random = ThreadLocalRandom.current();
 		
-		float y = terrain.getTerrainHeight(x, z);
 		// (absolute world position of terrain's origin) + (position relative to origin) 
 		x += terrain.getX();
 		z += terrain.getZ();
+		float y = terrain.getTerrainHeight(x, z);
 		
 		Entity staticEntity;
 		
@@ -219,7 +209,7 @@ public class EntityCollections {
 		TexturedModel staticEntity =  new TexturedModel(OBJLoader.loadObjModel(entityName, OTWDirectories.ENTITIES.toString(), loader), 
 														new ModelTexture(loader.loadTexture(entityName, OTWDirectories.ENTITIES.toString())));
 		
-		miscStaticEntities.add(new Entity(staticEntity, position, xRot, yRot, zRot, scale));
+		addToStaticEntities(new Entity(staticEntity, position, xRot, yRot, zRot, scale));
 	}
 	
 	/**
@@ -233,7 +223,7 @@ public class EntityCollections {
 	 * @param scale
 	 */
 	public void createStaticEntity(String entityName, float xPos, float zPos, float yRot, float scale) {
-		float yPos = Terrain.getCurrentTerrain(terrainTree, xPos, zPos).getTerrainHeight(xPos, zPos);
+		float yPos = terrainCollection.getTerrainHeight(xPos, zPos);
 		
 		createStaticEntity(entityName, new Vector3f(xPos, yPos, zPos), 0, yRot, 0, scale);
 	}
@@ -272,6 +262,7 @@ public class EntityCollections {
 													 new ModelTexture(loader.loadTexture(entityName, OTWDirectories.ENTITIES.toString())));
 		
 		miscLitEntities.add(new Entity(litEntity, position, xRot, yRot, zRot, scale));
+		staticEntitiesChanged = true;
 		
 		Light light = new Light(Vector3f.add(position, lightPosOffset, position), color, attenuation);
 		lights.add(light);
@@ -295,7 +286,7 @@ public class EntityCollections {
 	 */
 	public void createLitEntity(String entityName, float xPos, float zPos, float yRot, float scale, 
 								 Vector3f color, Vector3f attenuation, Vector3f lightPosOffset) {
-		float yPos = Terrain.getCurrentTerrain(terrainTree, xPos, zPos).getTerrainHeight(xPos, zPos);
+		float yPos = terrainCollection.getTerrainHeight(xPos, zPos);
 		
 		createLitEntity(entityName, new Vector3f(xPos, yPos, zPos), 0, yRot, 0, scale, color, attenuation, lightPosOffset);
 	}
@@ -321,6 +312,61 @@ public class EntityCollections {
 	
 	public void addToStaticEntities(Entity entity) {
 		miscStaticEntities.add(entity);
+		staticEntitiesChanged = true;
+	}
+	
+	/**
+	 * Adds an entity whose position changes, such as the ownship; its position in the index is refreshed before each query of 
+	 * {@link #forEachEntityWithin(Vector3f, float, Consumer)}
+	 * 
+	 * @param entity
+	 */
+	public void addToMovingEntities(Entity entity) {
+		Vector3f position = entity.getPosition();
+		
+		entityIndex.insert(movingEntities.size(), position.x, position.z, position.y);
+		movingEntities.add(entity);
+	}
+	
+	/**
+	 * Visits every moving entity within range of position
+	 * 
+	 * @param position
+	 * @param range
+	 * @param visitor
+	 */
+	public void forEachEntityWithin(Vector3f position, float range, Consumer<Entity> visitor) {
+		for (int id = 0; id < movingEntities.size(); id++) {
+			Vector3f moved = movingEntities.get(id).getPosition();
+			entityIndex.update(id, moved.x, moved.z, moved.y);
+		}
+		
+		entityIndex.queryRange(position.x, position.z, position.y, range, id -> visitor.accept(movingEntities.get(id)));
+	}
+	
+	/**
+	 * Packs the static and lit entities into an {@link InstancedModel} for each model the first time they are needed, and again 
+	 * only after more are created, so that their instance data isn't streamed every frame; must be called on the thread rendering 
+	 * the display
+	 * 
+	 * @return instanced models of the static and lit entities not tied to a terrain tile
+	 */
+	public List<InstancedModel> getStaticInstancedModels() {
+		if (staticEntitiesChanged) {
+			for (InstancedModel instancedModel : staticInstancedModels)
+				instancedModel.unload(loader);
+			
+			List<Entity> entities = new ArrayList<>(miscStaticEntities);
+			entities.addAll(miscLitEntities);
+			
+			staticInstancedModels = InstancedModel.groupByModel(entities);
+			for (InstancedModel instancedModel : staticInstancedModels)
+				instancedModel.upload(loader);
+			
+			staticEntitiesChanged = false;
+		}
+		
+		return staticInstancedModels;
 	}
 	
 	public List<Entity> getLitEntities() {
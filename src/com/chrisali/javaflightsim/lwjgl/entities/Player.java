@@ -19,14 +19,12 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.lwjgl.entities;
 
-import java.util.TreeMap;
-
 import org.lwjgl.input.Keyboard;
 import org.lwjgl.util.vector.Vector3f;
 
 import com.chrisali.javaflightsim.lwjgl.models.TexturedModel;
 import com.chrisali.javaflightsim.lwjgl.renderengine.DisplayManager;
-import com.chrisali.javaflightsim.lwjgl.terrain.Terrain;
+import com.chrisali.javaflightsim.lwjgl.terrain.TerrainCollection;
 
 /**
  * An {@link Entity} that the user can move around the world with the keyboard
@@ -54,9 +52,9 @@ public class Player extends Entity {
 	/**
 	 * Simple physics to move the player around the world while being tied to the ground
 	 * 
-	 * @param terrainMap
+	 * @param terrainCollection
 	 */
-	public void move(TreeMap<String, Terrain> terrainMap) {
+	public void move(TerrainCollection terrainCollection) {
 		checkInputs();
 		
 		super.increaseRotation(0, currentTurnSpeed * DisplayManager.getFrameTimeSeconds(), 0);
@@ -69,8 +67,7 @@ public class Player extends Entity {
 		currentVerticalSpeed += GRAVITY * DisplayManager.getFrameTimeSeconds();
 		super.increasePosition(0, currentVerticalSpeed * DisplayManager.getFrameTimeSeconds(), 0);
 		
-		Terrain terrain = Terrain.getCurrentTerrain(terrainMap, super.getPosition().x, super.getPosition().z);
-		float terrainHeight = terrain.getTerrainHeight(super.getPosition().x, super.getPosition().z);
+		float terrainHeight = terrainCollection.getTerrainHeight(super.getPosition().x, super.getPosition().z);
 		
 		if (super.getPosition().y < terrainHeight) {
 			currentVerticalSpeed = 0;
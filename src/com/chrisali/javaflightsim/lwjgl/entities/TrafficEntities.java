@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.lwjgl.entities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.lwjgl.util.vector.Vector3f;
+
+import com.chrisali.javaflightsim.lwjgl.models.TexturedModel;
+import com.chrisali.javaflightsim.simulation.traffic.TrafficEngine;
+import com.chrisali.javaflightsim.simulation.traffic.TrafficSnapshot;
+
+/**
+ * Shows the AI aircraft of a {@link TrafficEngine} within draw distance of the ownship as {@link Entity} objects. Entities are 
+ * kept in a pool that grows to the largest number of aircraft seen at once; each frame, one entity is moved to each aircraft of 
+ * the latest {@link TrafficSnapshot} and the remaining entities are hidden, so that no entities are created as traffic comes 
+ * in and out of range
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TrafficEntities {
+	
+	private final TexturedModel model;
+	private final float scale;
+	private final EntityCollections entities;
+	
+	private final List<Entity> pool = new ArrayList<>();
+	
+	private TrafficSnapshot shown;
+	
+	/**
+	 * @param model model of every AI aircraft
+	 * @param scale
+	 * @param entities collection that pooled entities are added to, so that they are rendered
+	 */
+	public TrafficEntities(TexturedModel model, float scale, EntityCollections entities) {
+		this.model = model;
+		this.scale = scale;
+		this.entities = entities;
+	}
+	
+	/**
+	 * Moves entities to the aircraft in snapshot, converting their positions and angles to the OTW's coordinates in the same
+	 * way as {@link Ownship#move(com.chrisali.javaflightsim.simulation.datatransfer.FlightDataSnapshot)}
+	 * 
+	 * @param snapshot
+	 */
+	public void update(TrafficSnapshot snapshot) {
+		if (snapshot == shown)
+			return;
+		
+		while (pool.size() < snapshot.size()) {
+			Entity entity = new Entity(model, new Vector3f(), 0, 0, 0, scale);
+			pool.add(entity);
+			entities.addToMovingEntities(entity);
+		}
+		
+		for (int i = 0; i < pool.size(); i++) {
+			Entity entity = pool.get(i);
+			entity.setRender(i < snapshot.size());
+			
+			if (i >= snapshot.size())
+				continue;
+			
+			entity.getPosition().set((float) (snapshot.getNorth(i)    / 15),
+									 (float) (snapshot.getAltitude(i) / 15),
+									 (float) (snapshot.getEast(i)     / 15));
+			
+			entity.setRotX((float)  snapshot.getRoll(i));
+			entity.setRotZ((float) -snapshot.getPitch(i));
+			entity.setRotY((float) -(snapshot.getHeading(i) + 180));
+		}
+		
+		shown = snapshot;
+	}
+}
@@ -31,7 +31,7 @@ import org.newdawn.slick.opengl.Texture;
 import com.chrisali.javaflightsim.lwjgl.interfaces.ui.InterfaceTexture;
 import com.chrisali.javaflightsim.lwjgl.loader.Loader;
 import com.chrisali.javaflightsim.lwjgl.utilities.OTWDirectories;
-import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataType;
+import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataSnapshot;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonSubTypes.Type;
@@ -86,7 +86,7 @@ public abstract class AbstractGauge {
 	 * Depending on the gauge type, set the rotation and position of each texture (pointer, horizon, etc) as needed; 
 	 * textures can be easily moved relative to the gauge's position using {@link Vector2f#translate(float, float)}
 	 */
-	public abstract void setGaugeValue(Map<FlightDataType, Double> flightData);
+	public abstract void setGaugeValue(FlightDataSnapshot flightData);
 	
 	/**
 	 * After the gauge has been deserialized, call this method to load all textures in to memory
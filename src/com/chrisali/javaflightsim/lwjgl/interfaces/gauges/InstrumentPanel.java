@@ -21,7 +21,6 @@ package com.chrisali.javaflightsim.lwjgl.interfaces.gauges;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -30,7 +29,7 @@ import org.lwjgl.util.vector.Vector2f;
 import com.chrisali.javaflightsim.lwjgl.interfaces.ui.InterfaceTexture;
 import com.chrisali.javaflightsim.lwjgl.loader.Loader;
 import com.chrisali.javaflightsim.simulation.datatransfer.FlightData;
-import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataType;
+import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataSnapshot;
 import com.chrisali.javaflightsim.simulation.utilities.SimDirectories;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
@@ -92,7 +91,7 @@ public class InstrumentPanel {
 	 * 
 	 * @param flightData
 	 */
-	public void update(Map<FlightDataType, Double> flightData) {
+	public void update(FlightDataSnapshot flightData) {
 		for (AbstractGauge gauge : gauges)
 			gauge.setGaugeValue(flightData);
 	}
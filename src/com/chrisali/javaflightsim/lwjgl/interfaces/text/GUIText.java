@@ -35,6 +35,14 @@ public class GUIText {
 
 	private int textMeshVao;
 	private int vertexCount;
+	
+	// Mesh of the text, kept until the text string changes, and the VBOs holding up to vertexCapacity of its vertices
+	private String meshTextString;
+	private TextMeshData meshData;
+	private int positionsVbo;
+	private int textureCoordsVbo;
+	private int vertexCapacity;
+	private int maxCharacters;
 	private Vector3f color = new Vector3f(0f, 0f, 0f);
 
 	private Vector2f position;
@@ -189,6 +197,78 @@ public class GUIText {
 		this.vertexCount = verticesCount;
 	}
 
+	/**
+	 * Set the VBOs of the text's VAO, which can be reused for any text of up
+	 * to vertexCapacity vertices.
+	 * 
+	 * @param positionsVbo
+	 * @param textureCoordsVbo
+	 * @param vertexCapacity
+	 */
+	protected void setMeshBuffers(int positionsVbo, int textureCoordsVbo, int vertexCapacity) {
+		this.positionsVbo = positionsVbo;
+		this.textureCoordsVbo = textureCoordsVbo;
+		this.vertexCapacity = vertexCapacity;
+	}
+	
+	protected int getPositionsVbo() {
+		return positionsVbo;
+	}
+	
+	protected int getTextureCoordsVbo() {
+		return textureCoordsVbo;
+	}
+	
+	protected int getVertexCapacity() {
+		return vertexCapacity;
+	}
+	
+	/**
+	 * @return The vertex data of the text's last mesh, whose arrays are reused
+	 *         when the mesh is created again.
+	 */
+	protected TextMeshData getMeshData() {
+		return meshData;
+	}
+	
+	protected void setMeshData(TextMeshData meshData) {
+		this.meshData = meshData;
+	}
+	
+	/**
+	 * Records that the text's mesh was created from its current text string.
+	 */
+	protected void setMeshUpToDate() {
+		meshTextString = textString;
+	}
+	
+	/**
+	 * @return {@code true} if the text has no mesh yet, or the text string has
+	 *         changed since its mesh was created.
+	 */
+	public boolean isMeshOutdated() {
+		return meshTextString == null || !meshTextString.equals(textString);
+	}
+	
+	/**
+	 * @return The number of characters that the text's mesh is first created
+	 *         with room for.
+	 */
+	public int getMaxCharacters() {
+		return maxCharacters;
+	}
+	
+	/**
+	 * Sets the number of characters that the text's mesh is first created
+	 * with room for, so that text that changes often, such as telemetry, 
+	 * can be updated without creating new buffers.
+	 * 
+	 * @param maxCharacters
+	 */
+	public void setMaxCharacters(int maxCharacters) {
+		this.maxCharacters = maxCharacters;
+	}
+
 	/**
 	 * @return The total number of vertices of all the text's quads.
 	 */
@@ -235,13 +315,26 @@ public class GUIText {
 	}
 	
 	/**
-	 * Sets the text displayed
+	 * Sets the text displayed; its mesh is created again when it is next
+	 * rendered if text differs from the current text.
 	 * 
 	 * @param text
 	 */
 	public void setTextString(String text) {
 		this.textString = text;
 	}
+	
+	/**
+	 * Sets the text displayed only if text differs from the current text,
+	 * so that text built in a reused buffer doesn't create a new string 
+	 * each time it is set.
+	 * 
+	 * @param text
+	 */
+	public void setTextString(CharSequence text) {
+		if (!textString.contentEquals(text))
+			this.textString = text.toString();
+	}
 
 	/**
 	 * @return Texture mesh VAO ID
@@ -19,7 +19,6 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.lwjgl.interfaces.text;
 
-import java.text.DecimalFormat;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -28,30 +27,42 @@ import org.lwjgl.util.vector.Vector3f;
 
 import com.chrisali.javaflightsim.lwjgl.entities.Camera;
 import com.chrisali.javaflightsim.lwjgl.entities.Entity;
+import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataSnapshot;
 import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataType;
 import com.chrisali.javaflightsim.simulation.setup.CameraMode;
 import com.chrisali.javaflightsim.simulation.setup.Options;
 import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
 
 /**
- * Contains text strings that are rendered by LWJGL to display various simulation info
+ * Contains text strings that are rendered by LWJGL to display various simulation info. Telemetry text is built each frame in
+ * reused buffers, with numbers formatted by {@link #appendDecimal(StringBuilder, double, int)}, and is only set if it has changed;
+ * its {@link GUIText} objects have room set aside for {@value #MAX_TELEMETRY_CHARACTERS} characters so that their meshes are 
+ * updated in place
  * 
  * @author Christopher
  *
  */
 public class SimulationTexts {
 
+	private static final int MAX_TELEMETRY_CHARACTERS = 256;
+	
+	private static final long[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000, 100000, 1000000};
+	
 	private Map<String, GUIText> texts = new HashMap<>();
 	
-	private DecimalFormat df4 = new DecimalFormat("0.0000");
-	private DecimalFormat df2 = new DecimalFormat("0.00");
-	private DecimalFormat df0 = new DecimalFormat("0");
+	private StringBuilder telemetryText = new StringBuilder(MAX_TELEMETRY_CHARACTERS);
+	private StringBuilder cameraPosText = new StringBuilder(MAX_TELEMETRY_CHARACTERS);
+	private StringBuilder ownshipPosText = new StringBuilder(MAX_TELEMETRY_CHARACTERS);
 	
 	public SimulationTexts(FontType font) {
 		texts.put("FlightData", new GUIText("", 0.5f, font, new Vector2f(0.01f, 0.01f), 1f, false));
 		texts.put("Camera", new GUIText("", 0.5f, font, new Vector2f(0.01f, 0.05f), 1f, false));
 		texts.put("Entity", new GUIText("", 0.5f, font, new Vector2f(0.01f, 0.09f), 1f, false));
 		texts.put("Paused", new GUIText("PAUSED", 1.15f, font, new Vector2f(0.5f, 0.5f), 1f, false, new Vector3f(1,0,0)));
+		
+		texts.get("FlightData").setMaxCharacters(MAX_TELEMETRY_CHARACTERS);
+		texts.get("Camera").setMaxCharacters(MAX_TELEMETRY_CHARACTERS);
+		texts.get("Entity").setMaxCharacters(MAX_TELEMETRY_CHARACTERS);
 	}
 	
 	/**
@@ -60,7 +71,7 @@ public class SimulationTexts {
 	 * @param flightData
 	 * @param options
 	 */
-	public void update(Map<FlightDataType, Double> flightData, SimulationConfiguration config, Camera camera, Entity entity) {
+	public void update(FlightDataSnapshot flightData, SimulationConfiguration config, Camera camera, Entity entity) {
 		if (!config.getCameraConfiguration().isShowPanel()) {
 			texts.get("FlightData").setTextString(setTelemetryText(flightData));
 			
@@ -82,21 +93,23 @@ public class SimulationTexts {
 	 * Prepares a string of flight data from the flightData Map output using the {@link GUIText} object
 	 * 
 	 * @param flightData
-	 * @return string displaying flight data output 
+	 * @return text displaying flight data output 
 	 */
-	private String setTelemetryText(Map<FlightDataType, Double> flightData) {	
-		StringBuffer sb = new StringBuffer();
+	private CharSequence setTelemetryText(FlightDataSnapshot flightData) {	
+		StringBuilder sb = telemetryText;
+		sb.setLength(0);
 
 		try {
-			sb.append("AIRSPEED: ").append(df0.format(flightData.get(FlightDataType.IAS))).append(" KIAS | ")
-			  .append("ROLL: ").append(df4.format(flightData.get(FlightDataType.ROLL))).append(" DEG | ")
-			  .append("PITCH: ").append(df4.format(flightData.get(FlightDataType.PITCH))).append(" DEG | ")
-			  .append("HEADING: ").append(df0.format(flightData.get(FlightDataType.HEADING))).append(" DEG | ")
-			  .append("ALTITUDE: ").append(df0.format(flightData.get(FlightDataType.ALTITUDE))).append(" FT | ")
-			  .append("LATITUDE: ").append(df4.format(flightData.get(FlightDataType.LATITUDE))).append(" DEG | ")
-			  .append("LONGITUDE: ").append(df4.format(flightData.get(FlightDataType.LONGITUDE))).append(" DEG | ")
-			  .append("G-FORCE: ").append(df2.format(flightData.get(FlightDataType.GFORCE))).append(" G | ");
+			appendDecimal(sb.append("AIRSPEED: "), flightData.get(FlightDataType.IAS), 0).append(" KIAS | ");
+			appendDecimal(sb.append("ROLL: "), flightData.get(FlightDataType.ROLL), 4).append(" DEG | ");
+			appendDecimal(sb.append("PITCH: "), flightData.get(FlightDataType.PITCH), 4).append(" DEG | ");
+			appendDecimal(sb.append("HEADING: "), flightData.get(FlightDataType.HEADING), 0).append(" DEG | ");
+			appendDecimal(sb.append("ALTITUDE: "), flightData.get(FlightDataType.ALTITUDE), 0).append(" FT | ");
+			appendDecimal(sb.append("LATITUDE: "), flightData.get(FlightDataType.LATITUDE), 4).append(" DEG | ");
+			appendDecimal(sb.append("LONGITUDE: "), flightData.get(FlightDataType.LONGITUDE), 4).append(" DEG | ");
+			appendDecimal(sb.append("G-FORCE: "), flightData.get(FlightDataType.GFORCE), 2).append(" G | ");
 		} catch (Exception e) {
+			sb.setLength(0);
 			sb.append("AIRSPEED: ").append("---").append(" KIAS | ")
 			  .append("ROLL: ").append("--.----").append(" DEG | ")  
 			  .append("PITCH: ").append("--.----").append(" DEG | ")
@@ -107,47 +120,84 @@ public class SimulationTexts {
 			  .append("G-FORCE: ").append("-.--").append(" G | ");
 		}
 		
-		return sb.toString();
+		return sb;
 	}
 	
 	/**
 	 * Prepares a string of {@link Camera} position data using the {@link GUIText} object
 	 * 
 	 * @param flightData
-	 * @return string displaying camera data output 
+	 * @return text displaying camera data output 
 	 */
-	private String setCameraPosText(Camera camera) {	
-		StringBuffer sb = new StringBuffer();
+	private CharSequence setCameraPosText(Camera camera) {	
+		StringBuilder sb = cameraPosText;
+		sb.setLength(0);
 
-		sb.append("CAMERA:\n")
-		  .append("ROLL: ").append(df0.format(camera.getRoll())).append(" DEG | ")
-		  .append("PITCH: ").append(df0.format(camera.getPitch())).append(" DEG | ")
-		  .append("YAW: ").append(df0.format(camera.getYaw())).append(" DEG | ").append("\n")
-		  .append("X POS: ").append(df4.format(camera.getPosition().x*15)).append(" FT | ")
-		  .append("Y POS: ").append(df4.format(camera.getPosition().y*15)).append(" FT | ")
-		  .append("Z POS: ").append(df2.format(camera.getPosition().z*15)).append(" FT ");
+		sb.append("CAMERA:\n");
+		appendDecimal(sb.append("ROLL: "), camera.getRoll(), 0).append(" DEG | ");
+		appendDecimal(sb.append("PITCH: "), camera.getPitch(), 0).append(" DEG | ");
+		appendDecimal(sb.append("YAW: "), camera.getYaw(), 0).append(" DEG | ").append("\n");
+		appendDecimal(sb.append("X POS: "), camera.getPosition().x*15, 4).append(" FT | ");
+		appendDecimal(sb.append("Y POS: "), camera.getPosition().y*15, 4).append(" FT | ");
+		appendDecimal(sb.append("Z POS: "), camera.getPosition().z*15, 2).append(" FT ");
 				
-		return sb.toString();
+		return sb;
 	}
 	
 	/**
 	 * Prepares a string of {@link Entity} position data using the {@link GUIText} object
 	 * 
 	 * @param flightData
-	 * @return string displaying entity data output 
+	 * @return text displaying entity data output 
 	 */
-	private String setOwnshipPosText(Entity entity) {	
-		StringBuffer sb = new StringBuffer();
+	private CharSequence setOwnshipPosText(Entity entity) {	
+		StringBuilder sb = ownshipPosText;
+		sb.setLength(0);
 
-		sb.append(entity.getClass().getSimpleName().toUpperCase()).append(":\n")
-		  .append("ROLL: ").append(df0.format(entity.getRotX())).append(" DEG | ")
-		  .append("PITCH: ").append(df0.format(entity.getRotZ())).append(" DEG | ")
-		  .append("YAW: ").append(df0.format(entity.getRotY())).append(" DEG | ").append("\n")
-		  .append("X POS: ").append(df4.format(entity.getPosition().x*15)).append(" FT | ")
-		  .append("Y POS: ").append(df4.format(entity.getPosition().y*15)).append(" FT | ")
-		  .append("Z POS: ").append(df2.format(entity.getPosition().z*15)).append(" FT ");
+		sb.append(entity.getClass().getSimpleName().toUpperCase()).append(":\n");
+		appendDecimal(sb.append("ROLL: "), entity.getRotX(), 0).append(" DEG | ");
+		appendDecimal(sb.append("PITCH: "), entity.getRotZ(), 0).append(" DEG | ");
+		appendDecimal(sb.append("YAW: "), entity.getRotY(), 0).append(" DEG | ").append("\n");
+		appendDecimal(sb.append("X POS: "), entity.getPosition().x*15, 4).append(" FT | ");
+		appendDecimal(sb.append("Y POS: "), entity.getPosition().y*15, 4).append(" FT | ");
+		appendDecimal(sb.append("Z POS: "), entity.getPosition().z*15, 2).append(" FT ");
 				
-		return sb.toString();
+		return sb;
+	}
+	
+	/**
+	 * Appends value to sb rounded to a fixed number of decimal places, like a DecimalFormat with a pattern of "0.00" for two
+	 * places, but without creating any objects
+	 * 
+	 * @param sb
+	 * @param value
+	 * @param decimals number of decimal places, from 0 to 6
+	 * @return sb
+	 */
+	static StringBuilder appendDecimal(StringBuilder sb, double value, int decimals) {
+		long scale = POWERS_OF_TEN[decimals];
+		double scaled = Math.abs(value) * scale;
+		
+		// Leave numbers that don't fit in a long as they are
+		if (Double.isNaN(scaled) || scaled >= Long.MAX_VALUE)
+			return sb.append(value);
+		
+		long rounded = Math.round(scaled);
+		if (value < 0 && rounded != 0)
+			sb.append('-');
+		
+		sb.append(rounded / scale);
+		
+		if (decimals > 0) {
+			long fraction = rounded % scale;
+			
+			sb.append('.');
+			for (long digit = scale / 10; digit > 1 && fraction < digit; digit /= 10)
+				sb.append('0');
+			sb.append(fraction);
+		}
+		
+		return sb;
 	}
 
 	public Map<String, GUIText> getTexts() { return texts; }
@@ -19,19 +19,32 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.lwjgl.interfaces.text;
 
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.lwjgl.BufferUtils;
+
 import com.chrisali.javaflightsim.lwjgl.loader.Loader;
 import com.chrisali.javaflightsim.lwjgl.renderengine.FontRenderer;
 
+/**
+ * Renders {@link GUIText} objects in batches for each {@link FontType}. The mesh of each text is kept in its own VAO and only created
+ * again when the text's string changes, reusing the VAO's buffers if the new mesh fits in them
+ * 
+ * @author Christopher Ali
+ *
+ */
 public class TextMaster {
 	private static Loader loader;
 	private static Map<FontType, List<GUIText>> texts = new HashMap<>();
 	private static FontRenderer renderer;
 	
+	// Used to copy text meshes into their VBOs, grown to fit the largest mesh
+	private static FloatBuffer buffer = BufferUtils.createFloatBuffer(0);
+	
 	public static void init(Loader loaderObj) {
 		renderer = new FontRenderer();
 		loader = loaderObj;
@@ -41,14 +54,25 @@ public class TextMaster {
 			texts.clear();
 	}
 	
+	/**
+	 * Renders each {@link GUIText} in textMap, loading the meshes of those whose strings have changed since they were last rendered
+	 * 
+	 * @param textMap
+	 */
 	public static void render(Map<String, GUIText> textMap) {
-		for (Map.Entry<String, GUIText> entry : textMap.entrySet()) {
-			TextMaster.loadText(entry.getValue());
-			
-			renderer.render(texts);
+		// Batches are kept between frames, and refilled with only this frame's texts
+		for (List<GUIText> textBatch : texts.values())
+			textBatch.clear();
+		
+		for (GUIText text : textMap.values()) {
+			if (text.isMeshOutdated())
+				updateMesh(text);
 			
-			TextMaster.removeText(entry.getValue());
+			if (text.getVertexCount() > 0)
+				addText(text);
 		}
+		
+		renderer.render(texts);
 	}
 	
 	/**
@@ -57,11 +81,50 @@ public class TextMaster {
 	 * @param text
 	 */
 	public static void loadText(GUIText text) {
-		FontType font = text.getFont();
-		TextMeshData data = font.loadText(text);
-		int vao = loader.loadToVAO(data.getVertexPositions(), data.getTextureCoords());
+		updateMesh(text);
+		addText(text);
+	}
+	
+	/**
+	 * Creates the mesh of text's current string and copies it into the VBOs of text's VAO; a new VAO is only created if text has
+	 * none yet or its mesh no longer fits, in which case the capacity is at least doubled so that growing text is rarely reloaded
+	 * 
+	 * @param text
+	 */
+	private static void updateMesh(GUIText text) {
+		TextMeshData data = text.getFont().loadText(text);
+		int vertexCount = data.getVertexCount();
+		
+		// Nothing to load for empty text without room set aside for more
+		if (text.getMesh() == 0 && data.getVertexCapacity() == 0) {
+			text.setMeshUpToDate();
+			return;
+		}
+		
+		if (text.getMesh() == 0 || text.getVertexCapacity() < vertexCount) {
+			if (text.getMesh() != 0)
+				loader.unloadVAO(text.getMesh());
+			
+			int vertexCapacity = Math.max(data.getVertexCapacity(), 2 * text.getVertexCapacity());
+			int positionsVbo = loader.createEmptyVBO(vertexCapacity * 2);
+			int textureCoordsVbo = loader.createEmptyVBO(vertexCapacity * 2);
+			
+			text.setMeshInfo(loader.loadToVAO(positionsVbo, textureCoordsVbo), vertexCount);
+			text.setMeshBuffers(positionsVbo, textureCoordsVbo, vertexCapacity);
+		}
+		
+		if (buffer.capacity() < vertexCount * 2)
+			buffer = BufferUtils.createFloatBuffer(text.getVertexCapacity() * 2);
 		
-		text.setMeshInfo(vao, data.getVertexCount());
+		loader.replaceVBOData(text.getPositionsVbo(), data.getVertexPositions(), vertexCount * 2, buffer);
+		loader.replaceVBOData(text.getTextureCoordsVbo(), data.getTextureCoords(), vertexCount * 2, buffer);
+		
+		text.setMeshInfo(text.getMesh(), vertexCount);
+		text.setMeshUpToDate();
+	}
+	
+	private static void addText(GUIText text) {
+		FontType font = text.getFont();
 		List<GUIText> textBatch = texts.get(font);
 		
 		if(textBatch == null) {
@@ -79,10 +142,8 @@ public class TextMaster {
 	 */
 	public static void removeText(GUIText text) {
 		List<GUIText> textBatch = texts.get(text.getFont());
-		textBatch.remove(text);
-
-		if(textBatch.isEmpty())
-			texts.remove(text.getFont());
+		if (textBatch != null)
+			textBatch.remove(text);
 	}
 	
 	public static void cleanUp() {
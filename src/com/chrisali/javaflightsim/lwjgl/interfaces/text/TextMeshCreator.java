@@ -27,6 +27,7 @@ public class TextMeshCreator {
 
 	protected static final double LINE_HEIGHT = 0.03f;
 	protected static final int SPACE_ASCII = 32;
+	protected static final int VERTICES_PER_CHARACTER = 6;
 
 	private MetaFile metaData;
 
@@ -74,21 +75,42 @@ public class TextMeshCreator {
 		lines.add(currentLine);
 	}
 
+	/**
+	 * Writes the quads of each character into the text's mesh data, which is
+	 * reused if it is large enough, and otherwise replaced with mesh data
+	 * large enough for the text or its maximum number of characters.
+	 */
 	private TextMeshData createQuadVertices(GUIText text, List<Line> lines) {
 		text.setNumberOfLines(lines.size());
+		
+		int characters = 0;
+		for (Line line : lines) {
+			for (Word word : line.getWords())
+				characters += word.getCharacters().size();
+		}
+		
+		TextMeshData data = text.getMeshData();
+		if (data == null || data.getVertexCapacity() < characters * VERTICES_PER_CHARACTER) {
+			data = new TextMeshData(Math.max(characters, text.getMaxCharacters()) * VERTICES_PER_CHARACTER);
+			text.setMeshData(data);
+		}
+		
+		float[] vertices = data.getVertexPositions();
+		float[] textureCoords = data.getTextureCoords();
+		int pointer = 0;
+		
 		double curserX = 0f;
 		double curserY = 0f;
-		List<Float> vertices = new ArrayList<Float>();
-		List<Float> textureCoords = new ArrayList<Float>();
 		for (Line line : lines) {
 			if (text.isCentered()) {
 				curserX = (line.getMaxLength() - line.getLineLength()) / 2;
 			}
 			for (Word word : line.getWords()) {
 				for (Character letter : word.getCharacters()) {
-					addVerticesForCharacter(curserX, curserY, letter, text.getFontSize(), vertices);
-					addTexCoords(textureCoords, letter.getxTextureCoord(), letter.getyTextureCoord(),
+					addVerticesForCharacter(curserX, curserY, letter, text.getFontSize(), vertices, pointer);
+					addTexCoords(textureCoords, pointer, letter.getxTextureCoord(), letter.getyTextureCoord(),
 							letter.getXMaxTextureCoord(), letter.getYMaxTextureCoord());
+					pointer += VERTICES_PER_CHARACTER * 2;
 					curserX += letter.getxAdvance() * text.getFontSize();
 				}
 				curserX += metaData.getSpaceWidth() * text.getFontSize();
@@ -96,11 +118,12 @@ public class TextMeshCreator {
 			curserX = 0;
 			curserY += LINE_HEIGHT * text.getFontSize();
 		}		
-		return new TextMeshData(listToArray(vertices), listToArray(textureCoords));
+		data.setVertexCount(pointer / 2);
+		return data;
 	}
 
 	private void addVerticesForCharacter(double curserX, double curserY, Character character, double fontSize,
-			List<Float> vertices) {
+			float[] vertices, int pointer) {
 		double x = curserX + (character.getxOffset() * fontSize);
 		double y = curserY + (character.getyOffset() * fontSize);
 		double maxX = x + (character.getSizeX() * fontSize);
@@ -109,46 +132,26 @@ public class TextMeshCreator {
 		double properY = (-2 * y) + 1;
 		double properMaxX = (2 * maxX) - 1;
 		double properMaxY = (-2 * maxY) + 1;
-		addVertices(vertices, properX, properY, properMaxX, properMaxY);
+		addQuad(vertices, pointer, properX, properY, properMaxX, properMaxY);
 	}
 
-	private static void addVertices(List<Float> vertices, double x, double y, double maxX, double maxY) {
-		vertices.add((float) x);
-		vertices.add((float) y);
-		vertices.add((float) x);
-		vertices.add((float) maxY);
-		vertices.add((float) maxX);
-		vertices.add((float) maxY);
-		vertices.add((float) maxX);
-		vertices.add((float) maxY);
-		vertices.add((float) maxX);
-		vertices.add((float) y);
-		vertices.add((float) x);
-		vertices.add((float) y);
+	private static void addTexCoords(float[] texCoords, int pointer, double x, double y, double maxX, double maxY) {
+		addQuad(texCoords, pointer, x, y, maxX, maxY);
 	}
 
-	private static void addTexCoords(List<Float> texCoords, double x, double y, double maxX, double maxY) {
-		texCoords.add((float) x);
-		texCoords.add((float) y);
-		texCoords.add((float) x);
-		texCoords.add((float) maxY);
-		texCoords.add((float) maxX);
-		texCoords.add((float) maxY);
-		texCoords.add((float) maxX);
-		texCoords.add((float) maxY);
-		texCoords.add((float) maxX);
-		texCoords.add((float) y);
-		texCoords.add((float) x);
-		texCoords.add((float) y);
-	}
-
-	
-	private static float[] listToArray(List<Float> listOfFloats) {
-		float[] array = new float[listOfFloats.size()];
-		for (int i = 0; i < array.length; i++) {
-			array[i] = listOfFloats.get(i);
-		}
-		return array;
+	private static void addQuad(float[] data, int pointer, double x, double y, double maxX, double maxY) {
+		data[pointer++] = (float) x;
+		data[pointer++] = (float) y;
+		data[pointer++] = (float) x;
+		data[pointer++] = (float) maxY;
+		data[pointer++] = (float) maxX;
+		data[pointer++] = (float) maxY;
+		data[pointer++] = (float) maxX;
+		data[pointer++] = (float) maxY;
+		data[pointer++] = (float) maxX;
+		data[pointer++] = (float) y;
+		data[pointer++] = (float) x;
+		data[pointer++] = (float) y;
 	}
 
 }
@@ -21,6 +21,8 @@ package com.chrisali.javaflightsim.lwjgl.interfaces.text;
 
 /**
  * Stores the vertex data for all the quads on which a text will be rendered.
+ * The arrays may be larger than the vertex data, so that they can be reused
+ * when the text changes.
  * @author Karl
  *
  */
@@ -28,10 +30,22 @@ public class TextMeshData {
 	
 	private float[] vertexPositions;
 	private float[] textureCoords;
+	private int vertexCount;
 	
 	protected TextMeshData(float[] vertexPositions, float[] textureCoords){
 		this.vertexPositions = vertexPositions;
 		this.textureCoords = textureCoords;
+		this.vertexCount = vertexPositions.length/2;
+	}
+	
+	/**
+	 * Creates empty vertex data with room for vertexCapacity vertices.
+	 * 
+	 * @param vertexCapacity
+	 */
+	protected TextMeshData(int vertexCapacity){
+		this.vertexPositions = new float[vertexCapacity*2];
+		this.textureCoords = new float[vertexCapacity*2];
 	}
 
 	public float[] getVertexPositions() {
@@ -43,6 +57,17 @@ public class TextMeshData {
 	}
 
 	public int getVertexCount() {
+		return vertexCount;
+	}
+	
+	protected void setVertexCount(int vertexCount) {
+		this.vertexCount = vertexCount;
+	}
+	
+	/**
+	 * @return The most vertices that the arrays can hold.
+	 */
+	public int getVertexCapacity() {
 		return vertexPositions.length/2;
 	}
 
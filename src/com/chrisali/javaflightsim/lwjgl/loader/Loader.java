@@ -24,8 +24,11 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -60,6 +63,10 @@ public class Loader {
 	private List<Integer> vaoList = new LinkedList<>();
 	private List<Integer> vboList = new LinkedList<>();
 	private List<Integer> textureList = new LinkedList<>();
+	
+	// VBOs created for each VAO, so that a VAO can be unloaded on its own before cleanUp()
+	private Map<Integer, List<Integer>> vaoBuffers = new HashMap<>();
+	private int boundVAO;
 
 	//=============================== VAO Loaders for Various Entity Types =====================================
 	
@@ -71,7 +78,43 @@ public class Loader {
 		storeDataInAttributeList(2, 3, normals);
 		unbindVAO();
 
-		return new RawModel(vaoID, indices.length);
+		return new RawModel(vaoID, indices.length, RawModel.calculateBoundingRadius(positions));
+	}
+	
+	/**
+	 * Loads a model whose indices are in an index buffer shared with other models, from {@link #loadIndices(int[])}; the index 
+	 * buffer isn't deleted when the model is unloaded by {@link #unloadVAO(RawModel)} 
+	 * 
+	 * @param positions
+	 * @param textureCoords
+	 * @param normals
+	 * @param indexBuffer
+	 * @param indexCount
+	 * @return model
+	 */
+	public RawModel loadToVAO(float[] positions, float[] textureCoords, float[] normals, int indexBuffer, int indexCount) {
+		int vaoID = createVAO();
+		GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
+		storeDataInAttributeList(0, 3, positions);
+		storeDataInAttributeList(1, 2, textureCoords);
+		storeDataInAttributeList(2, 3, normals);
+		unbindVAO();
+
+		return new RawModel(vaoID, indexCount);
+	}
+	
+	/**
+	 * Loads indices into an index buffer that can be shared by several models 
+	 * 
+	 * @param indices
+	 * @return ID of the index buffer
+	 */
+	public int loadIndices(int[] indices) {
+		unbindVAO();
+		int vboID = bindIndicesBuffer(indices);
+		GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, 0);
+		
+		return vboID;
 	}
 	
 	public RawModel loadToVAO(float[] positions, int dimensions) {
@@ -99,15 +142,77 @@ public class Loader {
 		return vaoID;
 	}
 	
+	/**
+	 * Creates a VAO of 2D positions and texture coordinates held in VBOs created by {@link #createEmptyVBO(int)}, for meshes whose
+	 * vertices are replaced while the display runs, such as text; the VBOs are deleted along with the VAO by {@link #unloadVAO(int)}
+	 * 
+	 * @param positionsVbo
+	 * @param textureCoordsVbo
+	 * @return VAO ID
+	 */
+	public int loadToVAO(int positionsVbo, int textureCoordsVbo) {
+		int vaoID = createVAO();
+		bindAttribute(0, 2, positionsVbo);
+		bindAttribute(1, 2, textureCoordsVbo);
+		unbindVAO();
+		
+		return vaoID;
+	}
+	
+	private void bindAttribute(int attributeNumber, int coordinateSize, int vboID) {
+		vaoBuffers.get(boundVAO).add(vboID);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboID);
+		GL20.glVertexAttribPointer(attributeNumber, coordinateSize, GL11.GL_FLOAT, false, 0, 0);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+	}
+	
 	private int createVAO() {
 		int vaoID = GL30.glGenVertexArrays();
 		vaoList.add(vaoID);
+		vaoBuffers.put(vaoID, new ArrayList<>());
 		GL30.glBindVertexArray(vaoID);
+		boundVAO = vaoID;
 		return vaoID;
 	}
 	
 	private void unbindVAO() {
 		GL30.glBindVertexArray(0);
+		boundVAO = 0;
+	}
+	
+	/**
+	 * Deletes a VAO and the VBOs that were created with it, for models that are loaded and unloaded while the display runs, such
+	 * as terrain tiles paged in and out around the ownship
+	 * 
+	 * @param model
+	 */
+	public void unloadVAO(RawModel model) {
+		unloadVAO(model.getVaoID());
+	}
+	
+	/**
+	 * Deletes a VAO and the VBOs that were created with it
+	 * 
+	 * @param vaoID
+	 */
+	public void unloadVAO(int vaoID) {
+		List<Integer> buffers = vaoBuffers.remove(vaoID);
+		
+		if (buffers != null) {
+			for (Integer vbo : buffers) {
+				GL15.glDeleteBuffers(vbo);
+				vboList.remove(vbo);
+			}
+		}
+		
+		GL30.glDeleteVertexArrays(vaoID);
+		vaoList.remove(Integer.valueOf(vaoID));
+	}
+	
+	private void addBuffer(int vboID) {
+		vboList.add(vboID);
+		if (boundVAO != 0)
+			vaoBuffers.get(boundVAO).add(vboID);
 	}
 
 	//================================== VBO Methods =============================================
@@ -122,9 +227,49 @@ public class Loader {
 		return vbo;
 	}
 	
+	/**
+	 * Creates a VBO holding data that doesn't change once loaded, such as the instance data of the entities on a terrain tile; the
+	 * VBO isn't part of a VAO, so if it's no longer needed while the display runs it must be deleted with {@link #unloadVBO(int)}
+	 * 
+	 * @param data
+	 * @return VBO ID
+	 */
+	public int createStaticVBO(float[] data) {
+		int vbo = GL15.glGenBuffers();
+		vboList.add(vbo);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, storeDataInFloatBuffer(data), GL15.GL_STATIC_DRAW);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+		
+		return vbo;
+	}
+	
+	/**
+	 * Deletes a VBO created by {@link #createStaticVBO(float[])} or {@link #createEmptyVBO(int)}
+	 * 
+	 * @param vbo
+	 */
+	public void unloadVBO(int vbo) {
+		GL15.glDeleteBuffers(vbo);
+		vboList.remove(Integer.valueOf(vbo));
+	}
+	
 	public void updateVBO(int vbo, float[] data, FloatBuffer buffer) {
+		updateVBO(vbo, data, data.length, buffer);
+	}
+	
+	/**
+	 * Streams the first length floats of data into a VBO created by {@link #createEmptyVBO(int)}, so that data can be preallocated 
+	 * large enough for any frame rather than sized to each one
+	 * 
+	 * @param vbo
+	 * @param data
+	 * @param length
+	 * @param buffer
+	 */
+	public void updateVBO(int vbo, float[] data, int length, FloatBuffer buffer) {
 		buffer.clear();
-		buffer.put(data);
+		buffer.put(data, 0, length);
 		buffer.flip();
 		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
 		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer.capacity() * 4, GL15.GL_STREAM_DRAW);
@@ -142,6 +287,24 @@ public class Loader {
 		GL30.glBindVertexArray(0);
 	}
 	
+	/**
+	 * Replaces the first length floats of a VBO created by {@link #createEmptyVBO(int)} with those of data, without reallocating
+	 * the VBO, which must hold at least length floats
+	 * 
+	 * @param vbo
+	 * @param data
+	 * @param length
+	 * @param buffer holds at least length floats
+	 */
+	public void replaceVBOData(int vbo, float[] data, int length, FloatBuffer buffer) {
+		buffer.clear();
+		buffer.put(data, 0, length);
+		buffer.flip();
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+		GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, buffer);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+	}
+	
 	//========================================== Textures ===========================================
 
 	/**
@@ -233,7 +396,7 @@ public class Loader {
 	
 	private void storeDataInAttributeList(int attributeNumber, int coordinateSize, float[] data) {
 		int vboID = GL15.glGenBuffers();
-		vboList.add(vboID);
+		addBuffer(vboID);
 		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboID);
 		FloatBuffer buffer = storeDataInFloatBuffer(data);
 		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
@@ -241,12 +404,14 @@ public class Loader {
 		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
 	}
 
-	private void bindIndicesBuffer(int[] indices) {
+	private int bindIndicesBuffer(int[] indices) {
 		int vboId = GL15.glGenBuffers();
-		vboList.add(vboId);
+		addBuffer(vboId);
 		GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, vboId);
 		IntBuffer buffer = storeDataInIntBuffer(indices);
 		GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+		
+		return vboId;
 	}
 
 	private IntBuffer storeDataInIntBuffer(int[] data) {
@@ -273,6 +438,7 @@ public class Loader {
 		
 		vaoList.clear();
 		vboList.clear();
+		vaoBuffers.clear();
 		textureList.clear();
 	}
 }
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.lwjgl.models;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.lwjgl.util.vector.Matrix4f;
+import org.lwjgl.util.vector.Vector3f;
+
+import com.chrisali.javaflightsim.lwjgl.entities.Entity;
+import com.chrisali.javaflightsim.lwjgl.loader.Loader;
+import com.chrisali.javaflightsim.lwjgl.utilities.RenderingUtilities;
+
+/**
+ * A {@link TexturedModel} drawn with one instanced draw call for a fixed set of stationary {@link Entity} objects, such as the trees
+ * placed on a terrain tile by its autogen image. The transformation matrix and texture atlas offset of each entity are packed into 
+ * instance data when the set is created, which makes no OpenGL calls, and are loaded into a static VBO once by {@link #upload(Loader)},
+ * rather than being calculated and loaded again every frame
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class InstancedModel {
+	
+	/**
+	 * Floats of instance data for each entity: a 4x4 transformation matrix, by column, followed by its texture atlas offset
+	 */
+	public static final int INSTANCE_DATA_LENGTH = 18;
+	
+	private TexturedModel model;
+	private int instanceCount;
+	
+	// Box around the bounding spheres of the entities: minimum x, y and z, then maximum x, y and z
+	private float[] bounds = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+	
+	// Instance data, held until it is uploaded
+	private float[] instanceData;
+	private int vbo;
+	
+	/**
+	 * Packs the instance data of entities, which must all use model; makes no OpenGL calls
+	 * 
+	 * @param model
+	 * @param entities
+	 */
+	public InstancedModel(TexturedModel model, List<Entity> entities) {
+		this.model = model;
+		this.instanceCount = entities.size();
+		
+		instanceData = new float[instanceCount * INSTANCE_DATA_LENGTH];
+		Matrix4f matrix = new Matrix4f();
+		
+		int pointer = 0;
+		for (Entity entity : entities) {
+			pointer = storeInstanceData(entity, matrix, instanceData, pointer);
+			
+			Vector3f position = entity.getPosition();
+			float radius = entity.getBoundingRadius();
+			bounds[0] = Math.min(bounds[0], position.x - radius);
+			bounds[1] = Math.min(bounds[1], position.y - radius);
+			bounds[2] = Math.min(bounds[2], position.z - radius);
+			bounds[3] = Math.max(bounds[3], position.x + radius);
+			bounds[4] = Math.max(bounds[4], position.y + radius);
+			bounds[5] = Math.max(bounds[5], position.z + radius);
+		}
+	}
+	
+	/**
+	 * Groups entities by their {@link TexturedModel}, so that each model is drawn with one instanced draw call; entities without a 
+	 * model are left out
+	 * 
+	 * @param entities
+	 * @return an InstancedModel for each model used by entities
+	 */
+	public static List<InstancedModel> groupByModel(List<Entity> entities) {
+		Map<TexturedModel, List<Entity>> groups = new LinkedHashMap<>();
+		
+		for (Entity entity : entities) {
+			if (entity.getModel() == null)
+				continue;
+			
+			List<Entity> group = groups.get(entity.getModel());
+			if (group == null) {
+				group = new ArrayList<>();
+				groups.put(entity.getModel(), group);
+			}
+			
+			group.add(entity);
+		}
+		
+		List<InstancedModel> instancedModels = new ArrayList<>(groups.size());
+		for (Map.Entry<TexturedModel, List<Entity>> group : groups.entrySet())
+			instancedModels.add(new InstancedModel(group.getKey(), group.getValue()));
+		
+		return instancedModels;
+	}
+	
+	/**
+	 * Writes the instance data of entity into data, starting at pointer 
+	 * 
+	 * @param entity
+	 * @param matrix reused to calculate the entity's transformation matrix
+	 * @param data
+	 * @param pointer
+	 * @return index in data after the entity's instance data
+	 */
+	public static int storeInstanceData(Entity entity, Matrix4f matrix, float[] data, int pointer) {
+		RenderingUtilities.createTransformationMatrix(entity.getPosition(), entity.getRotX(), entity.getRotY(), 
+													  entity.getRotZ(), entity.getScale(), matrix);
+		
+		data[pointer++] = matrix.m00;
+		data[pointer++] = matrix.m01;
+		data[pointer++] = matrix.m02;
+		data[pointer++] = matrix.m03;
+		data[pointer++] = matrix.m10;
+		data[pointer++] = matrix.m11;
+		data[pointer++] = matrix.m12;
+		data[pointer++] = matrix.m13;
+		data[pointer++] = matrix.m20;
+		data[pointer++] = matrix.m21;
+		data[pointer++] = matrix.m22;
+		data[pointer++] = matrix.m23;
+		data[pointer++] = matrix.m30;
+		data[pointer++] = matrix.m31;
+		data[pointer++] = matrix.m32;
+		data[pointer++] = matrix.m33;
+		data[pointer++] = entity.getTextureXOffset();
+		data[pointer++] = entity.getTextureYOffset();
+		
+		return pointer;
+	}
+	
+	/**
+	 * Loads the instance data into a static VBO so that the model's instances can be rendered; must be called on the thread 
+	 * rendering the display
+	 * 
+	 * @param loader
+	 */
+	public void upload(Loader loader) {
+		vbo = loader.createStaticVBO(instanceData);
+		instanceData = null;
+	}
+	
+	/**
+	 * Deletes the VBO of instance data once it is no longer needed; must be called on the thread rendering the display
+	 * 
+	 * @param loader
+	 */
+	public void unload(Loader loader) {
+		if (vbo != 0)
+			loader.unloadVBO(vbo);
+		
+		vbo = 0;
+	}
+	
+	/**
+	 * @return if the instance data has been uploaded and the instances can be rendered
+	 */
+	public boolean isUploaded() {
+		return vbo != 0;
+	}
+	
+	/**
+	 * @return instance data that hasn't yet been uploaded, or null once it has
+	 */
+	public float[] getInstanceData() {
+		return instanceData;
+	}
+
+	public TexturedModel getModel() {
+		return model;
+	}
+
+	public int getInstanceCount() {
+		return instanceCount;
+	}
+	
+	/**
+	 * @return box around the bounding spheres of the entities: minimum x, y and z, then maximum x, y and z
+	 */
+	public float[] getBounds() {
+		return bounds;
+	}
+
+	public int getVbo() {
+		return vbo;
+	}
+}
@@ -22,11 +22,31 @@ package com.chrisali.javaflightsim.lwjgl.models;
 public class RawModel {
 	private int vaoID;
 	private int vertexCount;
+	
+	// Radius of a sphere around the model's origin that contains all of its vertices, used for frustum culling
+	private float boundingRadius;
 
 	public RawModel(int vaoID, int vertexCount) {
 		this.vaoID = vaoID;
 		this.vertexCount = vertexCount;
 	}
+	
+	public RawModel(int vaoID, int vertexCount, float boundingRadius) {
+		this(vaoID, vertexCount);
+		this.boundingRadius = boundingRadius;
+	}
+	
+	/**
+	 * @param positions x, y, z coordinates of a model's vertices
+	 * @return radius of a sphere around the model's origin that contains all of positions
+	 */
+	public static float calculateBoundingRadius(float[] positions) {
+		float radiusSquared = 0;
+		for (int i = 0; i + 2 < positions.length; i += 3)
+			radiusSquared = Math.max(radiusSquared, positions[i]*positions[i] + positions[i+1]*positions[i+1] + positions[i+2]*positions[i+2]);
+		
+		return (float) Math.sqrt(radiusSquared);
+	}
 
 	public int getVaoID() {
 		return vaoID;
@@ -35,4 +55,8 @@ public class RawModel {
 	public int getVertexCount() {
 		return vertexCount;
 	}
+	
+	public float getBoundingRadius() {
+		return boundingRadius;
+	}
 }
@@ -19,55 +19,142 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.lwjgl.renderengine;
 
+import java.nio.FloatBuffer;
 import java.util.List;
 import java.util.Map;
 
+import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL33;
 import org.lwjgl.util.vector.Matrix4f;
 
 import com.chrisali.javaflightsim.lwjgl.entities.Entity;
+import com.chrisali.javaflightsim.lwjgl.loader.Loader;
+import com.chrisali.javaflightsim.lwjgl.models.InstancedModel;
 import com.chrisali.javaflightsim.lwjgl.models.RawModel;
 import com.chrisali.javaflightsim.lwjgl.models.TexturedModel;
 import com.chrisali.javaflightsim.lwjgl.shaders.StaticShader;
 import com.chrisali.javaflightsim.lwjgl.textures.ModelTexture;
-import com.chrisali.javaflightsim.lwjgl.utilities.RenderingUtilities;
 
+/**
+ * Renders entities with instanced draw calls, one for each group of entities sharing a {@link TexturedModel}. The instance data of
+ * stationary entities, whether tied to terrain or not, is uploaded once in {@link InstancedModel} objects, while that of entities
+ * that move is written to a preallocated array and streamed into a single VBO each frame, in the same way as {@link ParticleRenderer}
+ * 
+ * @author Christopher Ali
+ *
+ */
 public class EntityRenderer {
 	
+	// Most entities of one model drawn with each instanced draw call from the streamed VBO
+	private static final int MAX_INSTANCES = 1000;
+	private static final int INSTANCE_DATA_LENGTH = InstancedModel.INSTANCE_DATA_LENGTH;
+	
+	private static final FloatBuffer buffer = BufferUtils.createFloatBuffer(MAX_INSTANCES * INSTANCE_DATA_LENGTH);
+	
 	private StaticShader shader;
 	
-	public EntityRenderer(StaticShader shader, Matrix4f projectionMatrix) {
+	private Loader loader;
+	private int vbo;
+	
+	// Instance data of entities that may move, and the matrix used to calculate each one's transformation  
+	private float[] instanceData = new float[MAX_INSTANCES * INSTANCE_DATA_LENGTH];
+	private Matrix4f transformationMatrix = new Matrix4f();
+	
+	public EntityRenderer(StaticShader shader, Loader loader, Matrix4f projectionMatrix) {
 		this.shader = shader;
+		this.loader = loader;
+		this.vbo = loader.createEmptyVBO(MAX_INSTANCES * INSTANCE_DATA_LENGTH);
 		
 		shader.start();
 		shader.loadProjectionMatrix(projectionMatrix);
 		shader.stop();
 	}
 	
-	public void render(Map<TexturedModel, List<Entity>> entities) {
-		for (TexturedModel model : entities.keySet()) {
+	/**
+	 * Renders the visible instanced models and entities of each model together, so that each model is only prepared once 
+	 * 
+	 * @param entities entities that may move, in buckets for each model
+	 * @param instancedModels stationary entities, in buckets for each model
+	 */
+	public void render(Map<TexturedModel, List<Entity>> entities, Map<TexturedModel, List<InstancedModel>> instancedModels) {
+		for (Map.Entry<TexturedModel, List<InstancedModel>> entry : instancedModels.entrySet()) {
+			List<InstancedModel> batch = entry.getValue();
+			TexturedModel model = entry.getKey();
+			
+			// Buckets are kept between frames, and are empty if none of their model's entities are visible
+			if (batch.isEmpty())
+				continue;
+			
 			prepareTexturedModel(model);
-			List<Entity> batch = entities.get(model);
 			
-			for (Entity entity : batch) {
-				prepareInstance(entity);
-				GL11.glDrawElements(GL11.GL_TRIANGLES, model.getRawModel().getVertexCount(), GL11.GL_UNSIGNED_INT, 0);
+			for (InstancedModel instancedModel : batch) {
+				if (!instancedModel.isUploaded())
+					continue;
+				
+				bindInstanceData(instancedModel.getVbo());
+				drawInstances(model, instancedModel.getInstanceCount());
 			}
 			
+			List<Entity> entityBatch = entities.get(model);
+			if (entityBatch != null && !entityBatch.isEmpty())
+				renderEntities(model, entityBatch);
+			
+			unbindTexturedModel();
+		}
+		
+		for (Map.Entry<TexturedModel, List<Entity>> entry : entities.entrySet()) {
+			List<Entity> batch = entry.getValue();
+			TexturedModel model = entry.getKey();
+			
+			// Skip models already rendered with their instanced models
+			List<InstancedModel> instancedBatch = instancedModels.get(model);
+			if (batch.isEmpty() || (instancedBatch != null && !instancedBatch.isEmpty()))
+				continue;
+			
+			prepareTexturedModel(model);
+			renderEntities(model, batch);
 			unbindTexturedModel();
 		}
 	}
 	
+	/**
+	 * Streams the instance data of batch into the VBO shared by all entities that may move, and renders them up to 
+	 * MAX_INSTANCES at a time
+	 * 
+	 * @param model
+	 * @param batch
+	 */
+	private void renderEntities(TexturedModel model, List<Entity> batch) {
+		bindInstanceData(vbo);
+		
+		for (int first = 0; first < batch.size(); first += MAX_INSTANCES) {
+			int count = Math.min(MAX_INSTANCES, batch.size() - first);
+			
+			int pointer = 0;
+			for (int i = first; i < first + count; i++)
+				pointer = InstancedModel.storeInstanceData(batch.get(i), transformationMatrix, instanceData, pointer);
+			
+			loader.updateVBO(vbo, instanceData, pointer, buffer);
+			drawInstances(model, count);
+		}
+	}
+	
+	private void drawInstances(TexturedModel model, int instanceCount) {
+		GL31.glDrawElementsInstanced(GL11.GL_TRIANGLES, model.getRawModel().getVertexCount(), GL11.GL_UNSIGNED_INT, 0, instanceCount);
+	}
+	
 	private void prepareTexturedModel(TexturedModel model) {
 		RawModel rawModel = model.getRawModel();
 		
 		GL30.glBindVertexArray(rawModel.getVaoID());
-		GL20.glEnableVertexAttribArray(0);
-		GL20.glEnableVertexAttribArray(1);
-		GL20.glEnableVertexAttribArray(2);
+		for (int attribute = 0; attribute <= 7; attribute++)
+			GL20.glEnableVertexAttribArray(attribute);
 		
 		ModelTexture texture = model.getTexture();
 		shader.loadFakeLightingVariable(texture.isUseFakeLighting());
@@ -81,19 +168,30 @@ public class EntityRenderer {
 		GL11.glBindTexture(GL11.GL_TEXTURE_2D, model.getTexture().getTextureID());
 	}
 	
+	/**
+	 * Points the instanced attributes of the bound model's VAO at a VBO of instance data: the columns of the transformation 
+	 * matrix at attributes 3 to 6 and the texture atlas offset at attribute 7
+	 * 
+	 * @param instanceVbo
+	 */
+	private void bindInstanceData(int instanceVbo) {
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instanceVbo);
+		
+		for (int column = 0; column < 4; column++) {
+			GL20.glVertexAttribPointer(3 + column, 4, GL11.GL_FLOAT, false, INSTANCE_DATA_LENGTH * 4, column * 16);
+			GL33.glVertexAttribDivisor(3 + column, 1);
+		}
+		GL20.glVertexAttribPointer(7, 2, GL11.GL_FLOAT, false, INSTANCE_DATA_LENGTH * 4, 64);
+		GL33.glVertexAttribDivisor(7, 1);
+		
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+	}
+	
 	private void unbindTexturedModel() {
 		MasterRenderer.enableCulling();
-		GL20.glDisableVertexAttribArray(0);
-		GL20.glDisableVertexAttribArray(1);
-		GL20.glDisableVertexAttribArray(2);
+		for (int attribute = 0; attribute <= 7; attribute++)
+			GL20.glDisableVertexAttribArray(attribute);
 		
 		GL30.glBindVertexArray(0);
 	}
-	
-	private void prepareInstance(Entity entity) {
-		Matrix4f transformationMatrix = RenderingUtilities.createTransformationMatrix(entity.getPosition(), entity.getRotX(), 
-				entity.getRotY(), entity.getRotZ(), entity.getScale());
-		shader.loadTransformationMatrix(transformationMatrix);
-		shader.loadOffset(entity.getTextureXOffset(), entity.getTextureYOffset());
-	}
 }
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.lwjgl.renderengine;
+
+import org.lwjgl.util.vector.Matrix4f;
+
+/**
+ * View frustum of the camera, as six planes extracted from the product of the projection and view matrices, used to cull objects
+ * whose bounding volumes lie outside of what the camera can see. Makes no OpenGL calls
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class Frustum {
+	
+	public static final int OUTSIDE = 0;
+	public static final int INTERSECTING = 1;
+	public static final int INSIDE = 2;
+	
+	private static final int PLANES = 6;
+	
+	// a, b, c, d of each plane, whose normal a, b, c points into the frustum and is of unit length 
+	private final float[] planes = new float[PLANES * 4];
+	
+	private final Matrix4f projectionView = new Matrix4f();
+	
+	/**
+	 * Extracts the planes of the frustum from the projection and view matrices of the camera
+	 * 
+	 * @param projectionMatrix
+	 * @param viewMatrix
+	 */
+	public void update(Matrix4f projectionMatrix, Matrix4f viewMatrix) {
+		Matrix4f m = Matrix4f.mul(projectionMatrix, viewMatrix, projectionView);
+		
+		// Rows of the matrix are (m0r, m1r, m2r, m3r); each plane is the fourth row plus or minus one of the others
+		setPlane(0, m.m03 + m.m00, m.m13 + m.m10, m.m23 + m.m20, m.m33 + m.m30); // Left
+		setPlane(1, m.m03 - m.m00, m.m13 - m.m10, m.m23 - m.m20, m.m33 - m.m30); // Right
+		setPlane(2, m.m03 + m.m01, m.m13 + m.m11, m.m23 + m.m21, m.m33 + m.m31); // Bottom
+		setPlane(3, m.m03 - m.m01, m.m13 - m.m11, m.m23 - m.m21, m.m33 - m.m31); // Top
+		setPlane(4, m.m03 + m.m02, m.m13 + m.m12, m.m23 + m.m22, m.m33 + m.m32); // Near
+		setPlane(5, m.m03 - m.m02, m.m13 - m.m12, m.m23 - m.m22, m.m33 - m.m32); // Far
+	}
+	
+	private void setPlane(int plane, float a, float b, float c, float d) {
+		float length = (float) Math.sqrt(a*a + b*b + c*c);
+		
+		planes[plane * 4]     = a / length;
+		planes[plane * 4 + 1] = b / length;
+		planes[plane * 4 + 2] = c / length;
+		planes[plane * 4 + 3] = d / length;
+	}
+	
+	/**
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @param radius
+	 * @return if any part of the sphere centred at x, y, z may be in the frustum
+	 */
+	public boolean intersectsSphere(float x, float y, float z, float radius) {
+		for (int i = 0; i < planes.length; i += 4) {
+			if (planes[i] * x + planes[i+1] * y + planes[i+2] * z + planes[i+3] < -radius)
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Classifies an axis aligned box against the frustum; boxes near the frustum's corners may be classified as intersecting 
+	 * even though they are outside of it, which only means that they aren't culled 
+	 * 
+	 * @param minX
+	 * @param minY
+	 * @param minZ
+	 * @param maxX
+	 * @param maxY
+	 * @param maxZ
+	 * @return {@link #OUTSIDE}, {@link #INTERSECTING} or {@link #INSIDE}
+	 */
+	public int classifyBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+		int result = INSIDE;
+		
+		for (int i = 0; i < planes.length; i += 4) {
+			float a = planes[i], b = planes[i+1], c = planes[i+2], d = planes[i+3];
+			
+			// Corners of the box furthest along, and furthest against, the plane's normal
+			float positive = a * (a >= 0 ? maxX : minX) + b * (b >= 0 ? maxY : minY) + c * (c >= 0 ? maxZ : minZ) + d;
+			float negative = a * (a >= 0 ? minX : maxX) + b * (b >= 0 ? minY : maxY) + c * (c >= 0 ? minZ : maxZ) + d;
+			
+			if (positive < 0)
+				return OUTSIDE;
+			if (negative < 0)
+				result = INTERSECTING;
+		}
+		
+		return result;
+	}
+}
@@ -19,12 +19,8 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.lwjgl.renderengine;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
-import java.util.TreeSet;
 
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.util.vector.Matrix4f;
@@ -32,13 +28,13 @@ import org.lwjgl.util.vector.Vector3f;
 import org.lwjgl.util.vector.Vector4f;
 
 import com.chrisali.javaflightsim.lwjgl.entities.Camera;
-import com.chrisali.javaflightsim.lwjgl.entities.Entity;
 import com.chrisali.javaflightsim.lwjgl.entities.EntityCollections;
 import com.chrisali.javaflightsim.lwjgl.entities.Light;
-import com.chrisali.javaflightsim.lwjgl.models.TexturedModel;
+import com.chrisali.javaflightsim.lwjgl.loader.Loader;
 import com.chrisali.javaflightsim.lwjgl.shaders.StaticShader;
 import com.chrisali.javaflightsim.lwjgl.shaders.TerrainShader;
 import com.chrisali.javaflightsim.lwjgl.terrain.Terrain;
+import com.chrisali.javaflightsim.lwjgl.utilities.RenderingUtilities;
 
 public class MasterRenderer {
 	private static float fov = 85;
@@ -58,18 +54,18 @@ public class MasterRenderer {
 	private TerrainShader terrainShader = new TerrainShader();
 	
 	private EntityRenderer entityRenderer;
-	private Map<TexturedModel, List<Entity>> entityMap = new HashMap<>();
-	
 	private TerrainRenderer terrainRenderer;
-	private TreeSet<Terrain> terrainTree = new TreeSet<>();
+	
+	// Render buckets of visible entities and terrains, refilled each frame
+	private SceneCuller sceneCuller = new SceneCuller();
 	
 	private Matrix4f projectionMatrix;
 	
-	public MasterRenderer() {
+	public MasterRenderer(Loader loader) {
 		enableCulling();
 		createProjectionMatrix();
 		
-		entityRenderer = new EntityRenderer(staticShader, projectionMatrix);
+		entityRenderer = new EntityRenderer(staticShader, loader, projectionMatrix);
 		terrainRenderer = new TerrainRenderer(terrainShader, projectionMatrix);
 	}
 	
@@ -83,43 +79,24 @@ public class MasterRenderer {
 	}
 	
 	/**
-	 * Takes all entities and terrains, and adds them (if necessary) to entity/terrain maps, and then renders the scene with
-	 * the given lights, camera and clipping plane  
+	 * Takes all entities and terrains, adds those within the draw distance and the camera's view frustum to the render buckets of 
+	 * {@link SceneCuller}, and then renders the scene with the given lights, camera and clipping plane  
 	 * 
 	 * @param entityCollection
-	 * @param terrainTreeMap
+	 * @param terrains
 	 * @param lights
 	 * @param camera
 	 * @param clippingPlane
 	 */
-	public void renderWholeScene(EntityCollections entityCollection, TreeMap<String, Terrain> terrainTreeMap, List<Light> lights, Camera camera, Vector4f clippingPlane) {
-		// Process miscellaneous entities from entityCollention only if they are set to be rendered
-		for(Entity entity : entityCollection.getStaticEntities()) {
-			if (!entity.isRender())
-				continue;
-			
-			processEntity(entity);
-		}
-		
-		for(Entity entity : entityCollection.getLitEntities()) { 
-			if (!entity.isRender())
-				continue;
-			
-			processEntity(entity);
-		}
+	public void renderWholeScene(EntityCollections entityCollection, Collection<Terrain> terrains, List<Light> lights, Camera camera, Vector4f clippingPlane) {
+		sceneCuller.begin(projectionMatrix, RenderingUtilities.createViewMatrix(camera), camera.getPosition(), drawDistance);
 		
-		this.terrainTree = new TreeSet<>(terrainTreeMap.values());
+		// Process miscellaneous entities from entityCollention only if they are set to be rendered and within the draw distance
+		entityCollection.forEachEntityWithin(camera.getPosition(), drawDistance, sceneCuller.getEntityCuller());
+		sceneCuller.addInstancedModels(entityCollection.getStaticInstancedModels());
 		
-		// Process entities tied to each terrain only if they are part of a terrain within the draw distance
-		for (Terrain terrain : terrainTree) {
-			if (terrain.getDistanceFromOwnship() < drawDistance) {
-				for (Entity entity : terrain.getStaticEntities())
-					processEntity(entity);
-				
-				for (Entity entity : terrain.getLitEntities())
-					processEntity(entity);
-			}
-		}
+		// Process terrains, and the entities tied to them
+		sceneCuller.addTerrains(terrains);
 		
 		render(lights, camera, clippingPlane);
 	}
@@ -135,7 +112,7 @@ public class MasterRenderer {
 		staticShader.loadFog(fogDensity, fogGradient);
 		staticShader.loadLights(lights);
 		staticShader.loadViewMatrix(camera);
-		entityRenderer.render(entityMap);
+		entityRenderer.render(sceneCuller.getEntityBuckets(), sceneCuller.getInstanceBuckets());
 		staticShader.stop();
 		
 		terrainShader.start();
@@ -144,11 +121,8 @@ public class MasterRenderer {
 		terrainShader.loadFog(fogDensity, fogGradient);
 		terrainShader.loadLights(lights);
 		terrainShader.loadViewMatrix(camera);
-		terrainRenderer.render(terrainTree);
+		terrainRenderer.render(sceneCuller.getTerrains());
 		terrainShader.stop();
-		
-		entityMap.clear();
-		terrainTree.clear();
 	}
 	
 	private void createProjectionMatrix() {
@@ -166,19 +140,6 @@ public class MasterRenderer {
         projectionMatrix.m33 = 0;
 	}
 
-	private void processEntity(Entity entity) {
-		TexturedModel entityModel = entity.getModel();
-		List<Entity> batch = entityMap.get(entityModel);
-		
-		if(batch!=null) {
-			batch.add(entity);
-		} else {
-			List<Entity> newBatch = new ArrayList<>();
-			newBatch.add(entity);
-			entityMap.put(entityModel, newBatch);
-		}
-	}
-
 	public void cleanUp() {
 		staticShader.cleanUp();
 		terrainShader.cleanUp();
@@ -187,6 +148,13 @@ public class MasterRenderer {
 	public Matrix4f getProjectionMatrix() {
 		return projectionMatrix;
 	}
+	
+	/**
+	 * @return culling of the last frame rendered, with counts of the objects drawn and culled 
+	 */
+	public SceneCuller getSceneCuller() {
+		return sceneCuller;
+	}
 
 	public static Vector3f getSkyColor() {
 		return new Vector3f(skyRed, skyGreen, skyBlue);
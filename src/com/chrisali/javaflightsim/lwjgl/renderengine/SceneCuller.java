@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.lwjgl.renderengine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.lwjgl.util.vector.Matrix4f;
+import org.lwjgl.util.vector.Vector3f;
+
+import com.chrisali.javaflightsim.lwjgl.entities.Entity;
+import com.chrisali.javaflightsim.lwjgl.models.InstancedModel;
+import com.chrisali.javaflightsim.lwjgl.models.TexturedModel;
+import com.chrisali.javaflightsim.lwjgl.terrain.Terrain;
+
+/**
+ * Decides each frame which {@link Terrain} and {@link Entity} objects {@link MasterRenderer} draws: those within the draw distance
+ * whose bounding volumes are in the camera's {@link Frustum}. Tiles are tested by the box around their meshes, and their entities
+ * by that box grown to fit them; a tile's entities are drawn with an instanced draw call for each of its {@link InstancedModel}
+ * objects, so they are either all drawn or all culled.<br>
+ * Visible entities and instanced models are kept in render buckets for each {@link TexturedModel}, and visible tiles in a list 
+ * sorted nearest first; the buckets and list are emptied and refilled each frame rather than created again. The number of 
+ * objects drawn and culled in the last frame are counted. Makes no OpenGL calls
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class SceneCuller {
+	
+	private final Frustum frustum = new Frustum();
+	
+	private final Map<TexturedModel, List<Entity>> entityBuckets = new HashMap<>();
+	private final Map<TexturedModel, List<InstancedModel>> instanceBuckets = new HashMap<>();
+	
+	// Visible tiles, and their distances from the camera, nearest first
+	private final List<Terrain> terrains = new ArrayList<>();
+	private float[] terrainDistances = new float[64];
+	
+	private final Consumer<Entity> entityCuller = this::addEntity;
+	
+	private Vector3f cameraPosition;
+	private float drawDistance;
+	
+	private int terrainsDrawn, terrainsCulled;
+	private int entitiesDrawn, entitiesCulled;
+	
+	/**
+	 * Empties the render buckets and visible tiles to begin a frame
+	 * 
+	 * @param projectionMatrix
+	 * @param viewMatrix
+	 * @param cameraPosition
+	 * @param drawDistance objects further than this from the camera are culled
+	 */
+	public void begin(Matrix4f projectionMatrix, Matrix4f viewMatrix, Vector3f cameraPosition, float drawDistance) {
+		frustum.update(projectionMatrix, viewMatrix);
+		this.cameraPosition = cameraPosition;
+		this.drawDistance = drawDistance;
+		
+		for (List<Entity> bucket : entityBuckets.values())
+			bucket.clear();
+		for (List<InstancedModel> bucket : instanceBuckets.values())
+			bucket.clear();
+		terrains.clear();
+		
+		terrainsDrawn = terrainsCulled = entitiesDrawn = entitiesCulled = 0;
+	}
+	
+	/**
+	 * Adds the tiles and the entities tied to them that are visible to this frame  
+	 * 
+	 * @param tiles
+	 */
+	public void addTerrains(Collection<Terrain> tiles) {
+		for (Terrain terrain : tiles) {
+			float distance = terrain.getDistanceTo(cameraPosition);
+			
+			if (distance >= drawDistance) {
+				terrainsCulled++;
+				entitiesCulled += terrain.getStaticEntities().size() + terrain.getLitEntities().size();
+				continue;
+			}
+			
+			float minX = terrain.getX(), maxX = minX + Terrain.getSize();
+			float minZ = terrain.getZ(), maxZ = minZ + Terrain.getSize();
+			
+			if (frustum.classifyBox(minX, terrain.getLowestHeight(), minZ, maxX, terrain.getHighestHeight(), maxZ) != Frustum.OUTSIDE) {
+				addTerrain(terrain, distance);
+				terrainsDrawn++;
+			} else {
+				terrainsCulled++;
+			}
+			
+			// Entities stand on the tile but may stick out of its box, so the box is grown to fit them 
+			float radius = terrain.getEntityBoundingRadius();
+			int entities = terrain.getStaticEntities().size() + terrain.getLitEntities().size();
+			
+			if (frustum.classifyBox(minX - radius, terrain.getLowestHeight() - radius, minZ - radius, 
+									maxX + radius, terrain.getHighestHeight() + radius, maxZ + radius) != Frustum.OUTSIDE) {
+				for (InstancedModel instancedModel : terrain.getInstancedModels())
+					addToBucket(instancedModel);
+				entitiesDrawn += entities;
+			} else {
+				entitiesCulled += entities;
+			}
+		}
+	}
+	
+	/**
+	 * Adds the instanced models of stationary entities not tied to a tile that are visible to this frame; each is tested by the box 
+	 * around its entities, so they are either all drawn or all culled
+	 * 
+	 * @param instancedModels
+	 */
+	public void addInstancedModels(List<InstancedModel> instancedModels) {
+		for (InstancedModel instancedModel : instancedModels) {
+			float[] bounds = instancedModel.getBounds();
+			
+			float dx = Math.max(0, Math.max(bounds[0] - cameraPosition.x, cameraPosition.x - bounds[3]));
+			float dy = Math.max(0, Math.max(bounds[1] - cameraPosition.y, cameraPosition.y - bounds[4]));
+			float dz = Math.max(0, Math.max(bounds[2] - cameraPosition.z, cameraPosition.z - bounds[5]));
+			
+			if (dx*dx + dy*dy + dz*dz < drawDistance * drawDistance
+					&& frustum.classifyBox(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5]) != Frustum.OUTSIDE) {
+				addToBucket(instancedModel);
+				entitiesDrawn += instancedModel.getInstanceCount();
+			} else {
+				entitiesCulled += instancedModel.getInstanceCount();
+			}
+		}
+	}
+	
+	/**
+	 * Inserts terrain into the visible tiles, keeping them sorted nearest first; the order barely changes from one frame to the 
+	 * next, so few tiles are moved
+	 */
+	private void addTerrain(Terrain terrain, float distance) {
+		int size = terrains.size();
+		if (size == terrainDistances.length)
+			terrainDistances = Arrays.copyOf(terrainDistances, 2 * size);
+		
+		int index = size;
+		while (index > 0 && terrainDistances[index - 1] > distance) {
+			terrainDistances[index] = terrainDistances[index - 1];
+			index--;
+		}
+		
+		terrainDistances[index] = distance;
+		terrains.add(index, terrain);
+	}
+	
+	/**
+	 * Adds entity to its model's render bucket if its bounding sphere is in the frustum
+	 * 
+	 * @param entity
+	 */
+	public void addEntity(Entity entity) {
+		Vector3f position = entity.getPosition();
+		
+		if (entity.isRender() && frustum.intersectsSphere(position.x, position.y, position.z, entity.getBoundingRadius())) {
+			addToBucket(entity);
+			entitiesDrawn++;
+		} else {
+			entitiesCulled++;
+		}
+	}
+	
+	private void addToBucket(Entity entity) {
+		List<Entity> bucket = entityBuckets.get(entity.getModel());
+		
+		if (bucket == null) {
+			bucket = new ArrayList<>();
+			entityBuckets.put(entity.getModel(), bucket);
+		}
+		
+		bucket.add(entity);
+	}
+	
+	private void addToBucket(InstancedModel instancedModel) {
+		List<InstancedModel> bucket = instanceBuckets.get(instancedModel.getModel());
+		
+		if (bucket == null) {
+			bucket = new ArrayList<>();
+			instanceBuckets.put(instancedModel.getModel(), bucket);
+		}
+		
+		bucket.add(instancedModel);
+	}
+	
+	/**
+	 * @return {@link #addEntity(Entity)} as a consumer, for visiting entities without creating one each frame 
+	 */
+	public Consumer<Entity> getEntityCuller() {
+		return entityCuller;
+	}
+	
+	/**
+	 * @return visible entities in buckets for each model; buckets of models with no visible entities are empty
+	 */
+	public Map<TexturedModel, List<Entity>> getEntityBuckets() {
+		return entityBuckets;
+	}
+	
+	/**
+	 * @return instanced models of visible tiles' entities in buckets for each model; buckets of models with none visible are empty
+	 */
+	public Map<TexturedModel, List<InstancedModel>> getInstanceBuckets() {
+		return instanceBuckets;
+	}
+	
+	/**
+	 * @return visible tiles, nearest to the camera first
+	 */
+	public List<Terrain> getTerrains() {
+		return terrains;
+	}
+	
+	public Frustum getFrustum() {
+		return frustum;
+	}
+	
+	public int getTerrainsDrawn() {
+		return terrainsDrawn;
+	}
+	
+	public int getTerrainsCulled() {
+		return terrainsCulled;
+	}
+	
+	public int getEntitiesDrawn() {
+		return entitiesDrawn;
+	}
+	
+	public int getEntitiesCulled() {
+		return entitiesCulled;
+	}
+}
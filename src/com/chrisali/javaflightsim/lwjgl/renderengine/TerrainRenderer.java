@@ -19,7 +19,7 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.lwjgl.renderengine;
 
-import java.util.TreeSet;
+import java.util.List;
 
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL13;
@@ -45,19 +45,20 @@ public class TerrainRenderer {
 		terrainShader.stop();
 	}
 	
-	public void render(TreeSet<Terrain> terrainTree) {
-		for(Terrain terrain : terrainTree) {
-			// Render only terrain objects that are within a certain distance of ownship
-			if (terrain.getDistanceFromOwnship() < MasterRenderer.getDrawDistance()) {
-				prepareTerrain(terrain);
-				loadModelMatrix(terrain);
-				GL11.glDrawElements(GL11.GL_TRIANGLES, terrain.getModel().getVertexCount(), GL11.GL_UNSIGNED_INT, 0);
-				unbindTexturedModel();
-				//System.out.printf("%5.0f - %5.0f is %5.0f from ownship\n", terrain.getX(), terrain.getZ(), terrain.getDistanceFromOwnship());
-			}
+	/**
+	 * Renders terrains already culled to those that are visible, nearest first
+	 * 
+	 * @param terrains
+	 */
+	public void render(List<Terrain> terrains) {
+		for(Terrain terrain : terrains) {
+			prepareTerrain(terrain);
+			loadModelMatrix(terrain);
+			// Draw only the indices of the terrain's level of detail; its interior, then its border stitched to its neighbours
+			GL11.glDrawElements(GL11.GL_TRIANGLES, terrain.getInteriorCount(), GL11.GL_UNSIGNED_INT, terrain.getInteriorOffset() * 4L);
+			GL11.glDrawElements(GL11.GL_TRIANGLES, terrain.getBorderCount(), GL11.GL_UNSIGNED_INT, terrain.getBorderOffset() * 4L);
+			unbindTexturedModel();
 		}
-		//System.out.println("---------------------------------------");
-		//System.out.printf("Terrain tree has %d items\n", terrainTree.size());
 	}
 	
 	private void prepareTerrain(Terrain terrain) {
@@ -22,7 +22,6 @@ package com.chrisali.javaflightsim.lwjgl.shaders;
 import java.util.List;
 
 import org.lwjgl.util.vector.Matrix4f;
-import org.lwjgl.util.vector.Vector2f;
 import org.lwjgl.util.vector.Vector3f;
 import org.lwjgl.util.vector.Vector4f;
 
@@ -35,7 +34,6 @@ public class StaticShader extends ShaderProgram {
 	private static final String VERTEX_FILE = SHADER_ROOT_PATH + "staticVertexShader" + SHADER_EXTENSION;
 	private static final String FRAGMENT_FILE = SHADER_ROOT_PATH + "staticFragmentShader" + SHADER_EXTENSION;
 	
-	private int location_transformationMatrix;
 	private int location_projectionMatrix;
 	private int location_viewMatrix;
 	private int location_lightPosition[];
@@ -46,7 +44,6 @@ public class StaticShader extends ShaderProgram {
 	private int location_useFakeLighting;
 	private int location_skyColor;
 	private int location_numberOfRows;
-	private int location_offset;
 	private int location_density;
 	private int location_gradient;
 	private int location_clippingPlane;
@@ -60,11 +57,12 @@ public class StaticShader extends ShaderProgram {
 		super.bindAttribute(0, "position");
 		super.bindAttribute(1, "textureCoords");
 		super.bindAttribute(2, "normal");
+		super.bindAttribute(3, "transformationMatrix");
+		super.bindAttribute(7, "offset");
 	}
 
 	@Override
 	protected void getAllUniformLocations() {
-		location_transformationMatrix = super.getUniformLocation("transformationMatrix");
 		location_projectionMatrix = super.getUniformLocation("projectionMatrix");
 		location_viewMatrix = super.getUniformLocation("viewMatrix");
 		location_shineDamper = super.getUniformLocation("shineDamper");
@@ -72,7 +70,6 @@ public class StaticShader extends ShaderProgram {
 		location_useFakeLighting = super.getUniformLocation("useFakeLighting");
 		location_skyColor = super.getUniformLocation("skyColor");
 		location_numberOfRows = super.getUniformLocation("numberOfRows");
-		location_offset = super.getUniformLocation("offset");
 		location_density = super.getUniformLocation("density");
 		location_gradient = super.getUniformLocation("gradient");
 		location_clippingPlane = super.getUniformLocation("clippingPlane");
@@ -101,10 +98,6 @@ public class StaticShader extends ShaderProgram {
 		super.loadFloat(location_numberOfRows, numberOfRows);
 	}
 	
-	public void loadOffset(float x, float y) {
-		super.loadVector(location_offset, new Vector2f(x, y));
-	}
-	
 	public void loadSkyColor(float r, float g, float b) {
 		super.loadVector(location_skyColor, new Vector3f(r, g, b));
 	}
@@ -118,10 +111,6 @@ public class StaticShader extends ShaderProgram {
 		super.loadFloat(location_reflectivity, reflectivity);
 	}
 	
-	public void loadTransformationMatrix(Matrix4f matrix) {
-		super.loadMatrix(location_transformationMatrix, matrix);
-	}
-	
 	public void loadLights(List<Light> lights) {
 		for(int i = 0; i < maxLights; i++) {
 			if (i < lights.size()) {
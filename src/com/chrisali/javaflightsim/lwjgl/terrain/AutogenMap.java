@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.lwjgl.terrain;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.lwjgl.utilities.OTWDirectories;
+import com.chrisali.javaflightsim.lwjgl.utilities.OTWFiles;
+
+/**
+ * Positions of autogen objects decoded from an autogen image, which is filled in black with the exception of red, green or blue 
+ * pixels, which each determine buildings, trees and airports, respectively. Every terrain tile uses the same autogen image, so 
+ * each image is only decoded once by {@link #getAutogenMap(String, String)} and then shared by all {@link Terrain} objects
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class AutogenMap {
+	
+	//Logging
+	private static final Logger logger = LogManager.getLogger(AutogenMap.class);
+	
+	// Only every SAMPLE_SPACING pixels in each direction of the image is read
+	private static final int SAMPLE_SPACING = 6;
+	
+	// Value that a color channel of a pixel must exceed for the pixel to have that color
+	private static final int COLOR_THRESHOLD = 250;
+	
+	private static final Map<String, AutogenMap> autogenMaps = new HashMap<>();
+	
+	// Positions of trees relative to the origin of a terrain tile, stored as x, z pairs
+	private final float[] treePositions;
+	
+	private AutogenMap(float[] treePositions) {
+		this.treePositions = treePositions;
+	}
+	
+	/**
+	 * Gets the autogen map decoded from fileName in directory, reading and decoding the image the first time that it is requested; 
+	 * if the image can't be read, the map is empty
+	 * 
+	 * @param fileName
+	 * @param directory
+	 * @return shared autogen map of the image
+	 */
+	public static synchronized AutogenMap getAutogenMap(String fileName, String directory) {
+		String path = OTWDirectories.RESOURCES.toString() + File.separator + directory + File.separator + fileName + OTWFiles.TEXTURE_EXT.toString();
+		AutogenMap autogenMap = autogenMaps.get(path);
+		
+		if (autogenMap == null) {
+			try {
+				BufferedImage image = ImageIO.read(new File(path));
+				if (image == null)
+					throw new IOException("Unsupported image format");
+				
+				autogenMap = decode(image, Terrain.getSize());
+			} catch (IOException e) {
+				logger.error("Could not load autogen file: " + fileName + OTWFiles.TEXTURE_EXT.toString() + "!", e);
+				
+				autogenMap = new AutogenMap(new float[0]);
+			}
+			
+			autogenMaps.put(path, autogenMap);
+		}
+		
+		return autogenMap;
+	}
+	
+	/**
+	 * Decodes the positions of autogen objects in image, which is stretched across a terrain tile whose sides are size long 
+	 * 
+	 * @param image
+	 * @param size
+	 * @return autogen map of the image
+	 */
+	public static AutogenMap decode(BufferedImage image, float size) {
+		int width = image.getWidth();
+		int height = image.getHeight();
+		int[] argb = image.getRGB(0, 0, width, height, null, 0, width);
+		
+		float imageScale = size / height;
+		float[] treePositions = new float[2 * (width / SAMPLE_SPACING + 1) * (height / SAMPLE_SPACING + 1)];
+		int trees = 0;
+		
+		for (int x = 0; x < width; x += SAMPLE_SPACING) {
+			for (int z = 0; z < height; z += SAMPLE_SPACING) {
+				int pixel = argb[z * width + x];
+				
+				if (((pixel >> 16) & 0xFF) > COLOR_THRESHOLD) {
+					// Create buildings here
+				} else if (((pixel >> 8) & 0xFF) > COLOR_THRESHOLD) {
+					treePositions[trees++] = x * imageScale;
+					treePositions[trees++] = z * imageScale;
+				} else if ((pixel & 0xFF) > COLOR_THRESHOLD) {
+					// Create airport here
+				}
+			}
+		}
+		
+		return new AutogenMap(Arrays.copyOf(treePositions, trees));
+	}
+	
+	/**
+	 * @return number of tree groups in the autogen map
+	 */
+	public int getTreeCount() {
+		return treePositions.length / 2;
+	}
+	
+	/**
+	 * @param tree
+	 * @return x position of a tree group relative to the origin of its terrain tile
+	 */
+	public float getTreeX(int tree) {
+		return treePositions[2 * tree];
+	}
+	
+	/**
+	 * @param tree
+	 * @return z position of a tree group relative to the origin of its terrain tile
+	 */
+	public float getTreeZ(int tree) {
+		return treePositions[2 * tree + 1];
+	}
+}
@@ -19,34 +19,27 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.lwjgl.terrain;
 
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.TreeMap;
+import java.util.stream.IntStream;
 
-import javax.imageio.ImageIO;
-
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-import org.lwjgl.util.vector.Vector2f;
 import org.lwjgl.util.vector.Vector3f;
 
 import com.chrisali.javaflightsim.lwjgl.entities.Entity;
 import com.chrisali.javaflightsim.lwjgl.entities.EntityCollections;
 import com.chrisali.javaflightsim.lwjgl.entities.Ownship;
 import com.chrisali.javaflightsim.lwjgl.loader.Loader;
+import com.chrisali.javaflightsim.lwjgl.models.InstancedModel;
 import com.chrisali.javaflightsim.lwjgl.models.RawModel;
 import com.chrisali.javaflightsim.lwjgl.textures.TerrainTexture;
 import com.chrisali.javaflightsim.lwjgl.textures.TerrainTexturePack;
-import com.chrisali.javaflightsim.lwjgl.utilities.OTWDirectories;
-import com.chrisali.javaflightsim.lwjgl.utilities.OTWFiles;
-import com.chrisali.javaflightsim.lwjgl.utilities.RenderingUtilities;
+import com.chrisali.javaflightsim.simulation.terrain.HeightField;
+import com.chrisali.javaflightsim.simulation.terrain.HeightSource;
+import com.chrisali.javaflightsim.simulation.terrain.WorldTerrain;
 
 /**
  * Terrain object that contains one ground tile that makes up the world of JavaFlightSimulator.
- * A blend map PNG file paints the ground textures, a height map PNG determines the terrain height, and 
+ * A blend map PNG file paints the ground textures, a {@link HeightSource} determines the terrain height, and 
  * ArrayLists of stationary {@link Entity} objects contain all objects associated with this tile  
  * 
  * @author Christopher Ali
@@ -54,11 +47,8 @@ import com.chrisali.javaflightsim.lwjgl.utilities.RenderingUtilities;
  */
 public class Terrain implements Comparable<Terrain> {
 
-	private static final Logger logger = LogManager.getLogger(Terrain.class);
-	
-	private static final float SIZE = 1600;
-	private static final float MAX_HEIGHT = 20;
-	private static final float MAX_PIXEL_COLOR = 256 * 256 * 256;
+	private static final float SIZE = (float) (WorldTerrain.TILE_SIZE / WorldTerrain.OTW_SCALE);
+	private static final float MAX_HEIGHT = (float) (WorldTerrain.MAX_HEIGHT / WorldTerrain.OTW_SCALE);
 	
 	private float x, z;
 	private RawModel model;
@@ -71,7 +61,34 @@ public class Terrain implements Comparable<Terrain> {
 	private List<Entity> staticEntities = new ArrayList<>();
 	private List<Entity> litEntities = new ArrayList<>();
 	
-	private float[][] heightArray;
+	// Static and lit entities grouped by model, each drawn with one instanced draw call
+	private List<InstancedModel> instancedModels;
+	
+	// Heights of this tile's vertices (ft), shared with the simulation's terrain
+	private float[] heights;
+	private int vertexCount;
+	
+	private int gridX, gridZ;
+	
+	// Lowest and highest vertices of the mesh
+	private float lowestHeight, highestHeight;
+	
+	// Mesh generated by the constructor, held until it is uploaded; its indices are shared by all tiles in a TerrainLod 
+	private float[] vertices;
+	private float[] normals;
+	private float[] textureCoords;
+	
+	// Geometric error of each level of detail, and the ranges of the shared indices of the selected level's interior and border 
+	private float[] geometricErrors = new float[1];
+	private int levelOfDetail;
+	private int interiorOffset, interiorCount;
+	private int borderOffset, borderCount;
+	
+	// Largest bounding radius of the entities on this tile, calculated when first needed
+	private float entityBoundingRadius = -1;
+	
+	// Uploaded neighbours, at the index of their edge's bit in a TerrainLod stitching mask
+	private final Terrain[] neighbours = new Terrain[4];
 	
 	/**
 	 * <p>Constructor for Terrain object; uses {@link TerrainTexturePack} and {@link TerrainTexture} to
@@ -79,102 +96,201 @@ public class Terrain implements Comparable<Terrain> {
 	 * 
 	 * <p>gridX and gridZ correspond to indices in the terrain array that this object resides</p>
 	 * 
-	 * <p>fileName and Directory point to a height map .png file to give the terrain vertical modeling</p>
+	 * <p>heightSource gives the terrain vertical modeling, using the same heights that the simulation's terrain uses; directory
+	 * contains the autogen image</p>
 	 * 
 	 * <p>Uses {@link EntityCollections#createAutogenImageEntities()} to generate populate this object's lists of entities
 	 * using an autogen image file in Resources/Terrain/</p>
 	 * 
+	 * <p>These entities never move, so the instance data used to draw them is packed once, into an {@link InstancedModel} for
+	 * each of their models</p>
+	 * 
 	 * <p>Uses a reference to {@link Ownship} to calculate the distance the midpoint of this terrain instance is from 
 	 * the ownship; this is used to compare to other Terrain objects in compareTo()</p>
 	 * 
+	 * <p>Makes no OpenGL calls, so that terrain can be generated away from the thread rendering the display; the terrain can't 
+	 * be rendered until it has been uploaded with {@link #upload(Loader)}</p>
+	 * 
 	 * @param gridX
 	 * @param gridZ
-	 * @param fileName
+	 * @param heightSource
 	 * @param directory
-	 * @param loader
 	 * @param texturePack
 	 * @param blendMap
 	 * @param ownship
 	 */
-	public Terrain(int gridX, int gridZ, String fileName, String directory, 
-					Loader loader, TerrainTexturePack texturePack, TerrainTexture blendMap,
-					Ownship ownship) {
+	public Terrain(int gridX, int gridZ, HeightSource heightSource, String directory, 
+					TerrainTexturePack texturePack, TerrainTexture blendMap, Ownship ownship) {
 		this.texturePack = texturePack;
 		this.blendMap = blendMap;
+		this.gridX = gridX;
+		this.gridZ = gridZ;
 		this.x = gridX * SIZE;
 		this.z = gridZ * SIZE;
-		this.model = generateTerrain(fileName, directory, loader);
 		this.ownship = ownship;
 		
+		generateTerrain(heightSource);
+		
 		// Generate all autogen objects and add them to staticEntities and litEntities
 		EntityCollections.createAutogenImageEntities(this, "autogen", directory);
+		
+		List<Entity> entities = new ArrayList<>(staticEntities);
+		entities.addAll(litEntities);
+		instancedModels = InstancedModel.groupByModel(entities);
 	}
 
 	/**
-	 * Gererates a terrain model using a BufferedImage height map
+	 * Gererates a terrain mesh from the heights of this tile in heightSource, converted to the scale of the out the window display;
+	 * each row of the mesh writes to its own part of the mesh arrays, so rows are generated in parallel
 	 * 
-	 * @param fileName
-	 * @param directory (usually "Terrain" or can specify sub-directories such as "Terrain\1-1")
-	 * @param loader
-	 * @return terrain model
+	 * @param heightSource
 	 */
-	private RawModel generateTerrain(String fileName, String directory, Loader loader){
+	private void generateTerrain(HeightSource heightSource){
+		int VERTEX_COUNT = heightSource.getVertexCount();
+		int count = VERTEX_COUNT * VERTEX_COUNT;
 		
-		BufferedImage image = null;
+		vertexCount = VERTEX_COUNT;
+		heights = heightSource.getTile(gridX, gridZ);
+		if (heights == null)
+			heights = new float[count];
 		
-		try {image = ImageIO.read(new File(OTWDirectories.RESOURCES.toString() + File.separator + directory + File.separator + fileName + OTWFiles.TEXTURE_EXT.toString()));} 
-		catch (IOException e) {logger.error("Could not load height map: " + fileName + OTWFiles.TEXTURE_EXT.toString() + "!", e);}
+		vertices = new float[count * 3];
+		normals = new float[count * 3];
+		textureCoords = new float[count*2];
 		
-		int VERTEX_COUNT = image.getHeight();
-		int count = VERTEX_COUNT * VERTEX_COUNT;
+		IntStream.range(0, VERTEX_COUNT).parallel().forEach(this::generateRow);
 		
-		heightArray = new float[VERTEX_COUNT][VERTEX_COUNT];
-		float[] vertices = new float[count * 3];
-		float[] normals = new float[count * 3];
-		float[] textureCoords = new float[count*2];
-		int[] indices = new int[6*(VERTEX_COUNT-1)*(VERTEX_COUNT-1)];
+		lowestHeight = Float.MAX_VALUE;
+		highestHeight = -Float.MAX_VALUE;
+		for (float height : heights) {
+			lowestHeight = Math.min(lowestHeight, height);
+			highestHeight = Math.max(highestHeight, height);
+		}
+		lowestHeight /= WorldTerrain.OTW_SCALE;
+		highestHeight /= WorldTerrain.OTW_SCALE;
+	}
+	
+	/**
+	 * Generates the vertices, normals and texture coordinates of row i of the mesh
+	 * 
+	 * @param i
+	 */
+	private void generateRow(int i) {
+		int VERTEX_COUNT = vertexCount;
 		
-		int vertexPointer = 0;
-		for(int i=0;i<VERTEX_COUNT;i++){
-			for(int j=0;j<VERTEX_COUNT;j++){
-				vertices[vertexPointer*3] = (float)j/((float)VERTEX_COUNT - 1) * SIZE;
-				
-				float height = getHeightFromImage(j, i, image);
-				heightArray[j][i] = height;
-				
-				vertices[vertexPointer*3+1] = getHeightFromImage(j, i, image);
-				vertices[vertexPointer*3+2] = (float)i/((float)VERTEX_COUNT - 1) * SIZE;
-				
-				Vector3f normal = calculateNormal(j, i, image);
-				normals[vertexPointer*3]   = normal.x;
-				normals[vertexPointer*3+1] = normal.y;
-				normals[vertexPointer*3+2] = normal.z;
-				
-				textureCoords[vertexPointer*2] = (float)j/((float)VERTEX_COUNT - 1);
-				textureCoords[vertexPointer*2+1] = (float)i/((float)VERTEX_COUNT - 1);
-				
-				vertexPointer++;
-			}
+		int vertexPointer = i * VERTEX_COUNT;
+		for(int j=0;j<VERTEX_COUNT;j++){
+			vertices[vertexPointer*3] = (float)j/((float)VERTEX_COUNT - 1) * SIZE;
+			vertices[vertexPointer*3+1] = getHeight(j, i);
+			vertices[vertexPointer*3+2] = (float)i/((float)VERTEX_COUNT - 1) * SIZE;
+			
+			calculateNormal(j, i, normals, vertexPointer*3);
+			
+			textureCoords[vertexPointer*2] = (float)j/((float)VERTEX_COUNT - 1);
+			textureCoords[vertexPointer*2+1] = (float)i/((float)VERTEX_COUNT - 1);
+			
+			vertexPointer++;
 		}
+	}
+	
+	/**
+	 * Calculates the geometric error of each of lod's levels of detail for this tile's mesh, so that a level can be selected
+	 * with {@link #setLevelOfDetail(TerrainLod, int, int)}; makes no OpenGL calls
+	 * 
+	 * @param lod
+	 */
+	public void calculateGeometricErrors(TerrainLod lod) {
+		geometricErrors = lod.calculateGeometricErrors(heights, (float) WorldTerrain.OTW_SCALE);
+	}
+	
+	/**
+	 * Loads the mesh of this terrain, and the instance data of its entities, into OpenGL so that they can be rendered, using 
+	 * indices shared by all tiles in an index buffer already loaded from lod; must be called on the thread rendering the display
+	 * 
+	 * @param loader
+	 * @param lod
+	 * @param indexBuffer
+	 */
+	public void upload(Loader loader, TerrainLod lod, int indexBuffer) {
+		model = loader.loadToVAO(vertices, textureCoords, normals, indexBuffer, lod.getIndexCount(0, 0));
+		setLevelOfDetail(lod, 0, 0);
+		
+		for (InstancedModel instancedModel : instancedModels)
+			instancedModel.upload(loader);
+		
+		vertices = null;
+		normals = null;
+		textureCoords = null;
+	}
+	
+	/**
+	 * Deletes the mesh of this terrain and the instance data of its entities from OpenGL once it is no longer needed; must be called on the thread rendering the display
+	 * 
+	 * @param loader
+	 */
+	public void unload(Loader loader) {
+		if (model != null)
+			loader.unloadVAO(model);
+		
+		model = null;
 		
-		int pointer = 0;
-		for(int gz=0;gz<VERTEX_COUNT-1;gz++){
-			for(int gx=0;gx<VERTEX_COUNT-1;gx++){
-				int topLeft = (gz*VERTEX_COUNT)+gx;
-				int topRight = topLeft + 1;
-				int bottomLeft = ((gz+1)*VERTEX_COUNT)+gx;
-				int bottomRight = bottomLeft + 1;
-				
-				indices[pointer++] = topLeft;
-				indices[pointer++] = bottomLeft;
-				indices[pointer++] = topRight;
-				indices[pointer++] = topRight;
-				indices[pointer++] = bottomLeft;
-				indices[pointer++] = bottomRight;
-			}
+		for (InstancedModel instancedModel : instancedModels)
+			instancedModel.unload(loader);
+		
+		for (int edge = 0; edge < neighbours.length; edge++) {
+			if (neighbours[edge] != null)
+				neighbours[edge].neighbours[edge ^ 1] = null;
+			neighbours[edge] = null;
 		}
+	}
+	
+	/**
+	 * Links this tile with an uploaded tile next to it, so that their levels of detail can be stitched together
+	 * 
+	 * @param edge index of the bit in a {@link TerrainLod} stitching mask of the edge that neighbour is on
+	 * @param neighbour
+	 */
+	void setNeighbour(int edge, Terrain neighbour) {
+		neighbours[edge] = neighbour;
+		neighbour.neighbours[edge ^ 1] = this;
+	}
+	
+	Terrain getNeighbour(int edge) {
+		return neighbours[edge];
+	}
+	
+	/**
+	 * Selects the ranges of lod's shared indices drawn to render this tile 
+	 * 
+	 * @param lod
+	 * @param level
+	 * @param mask edges to stitch to neighbours one level coarser
+	 */
+	void setLevelOfDetail(TerrainLod lod, int level, int mask) {
+		levelOfDetail = level;
+		interiorOffset = lod.getInteriorOffset(level);
+		interiorCount = lod.getInteriorCount(level);
+		borderOffset = lod.getBorderOffset(level, mask);
+		borderCount = lod.getBorderCount(level, mask);
+	}
+	
+	/**
+	 * @param position
+	 * @return distance from position to the closest point of the box bounding this tile's mesh
+	 */
+	public float getDistanceTo(Vector3f position) {
+		float dx = Math.max(0, Math.max(x - position.x, position.x - (x + SIZE)));
+		float dy = Math.max(0, Math.max(lowestHeight - position.y, position.y - highestHeight));
+		float dz = Math.max(0, Math.max(z - position.z, position.z - (z + SIZE)));
 		
-		return loader.loadToVAO(vertices, textureCoords, normals, indices);
+		return (float) Math.sqrt(dx*dx + dy*dy + dz*dz);
+	}
+	
+	/**
+	 * @return if the mesh of this terrain has been uploaded and can be rendered
+	 */
+	public boolean isUploaded() {
+		return model != null;
 	}
 	
 	/**
@@ -182,42 +298,37 @@ public class Terrain implements Comparable<Terrain> {
 	 * 
 	 * @param x
 	 * @param z
-	 * @param image
-	 * @return normal vector
+	 * @param normals array that the normal is written to
+	 * @param offset index in normals of the normal's x component
 	 */
-	private Vector3f calculateNormal(int x, int z, BufferedImage image) {
-		float heightL = getHeightFromImage(x-1, z  , image);
-		float heightR = getHeightFromImage(x+1, z  , image);
-		float heightD = getHeightFromImage(x  , z-1, image);
-		float heightU = getHeightFromImage(x  , z+1, image);
+	private void calculateNormal(int x, int z, float[] normals, int offset) {
+		float heightL = getHeight(x-1, z  );
+		float heightR = getHeight(x+1, z  );
+		float heightD = getHeight(x  , z-1);
+		float heightU = getHeight(x  , z+1);
 		
-		Vector3f normal = new Vector3f(heightL - heightR, 2f, heightD - heightU);
-		normal.normalise();
+		float normalX = heightL - heightR;
+		float normalZ = heightD - heightU;
+		float length = (float) Math.sqrt(normalX*normalX + 4f + normalZ*normalZ);
 		
-		return normal;
+		normals[offset]   = normalX / length;
+		normals[offset+1] = 2f / length;
+		normals[offset+2] = normalZ / length;
 	}
 	
 	/**
-	 * Calculates the height of a terrain vertex by reading the RGB value pixel of a 
-	 * buffered image and converting it to a height value  
+	 * Gets the height of a terrain vertex in the scale of the out the window display; vertices outside of the terrain take the 
+	 * height of the closest vertex on its edge  
 	 * 
 	 * @param x
 	 * @param z
-	 * @param image
 	 * @return height of terrain vertex
 	 */
-	private float getHeightFromImage(int x, int z, BufferedImage image) {
-		// If out of terrain bounds, return 0
-		if (x < 0 || x >= image.getHeight() || z < 0 || z >= image.getWidth())
-			return 0;
-		
-		// Get RGB value and convert from white/black to +/-MAX_HEIGHT
-		float height = image.getRGB(x, z);
-		height += MAX_PIXEL_COLOR/2f;
-		height /= MAX_PIXEL_COLOR/2f;
-		height *= MAX_HEIGHT;
+	private float getHeight(int x, int z) {
+		x = Math.max(0, Math.min(x, vertexCount - 1));
+		z = Math.max(0, Math.min(z, vertexCount - 1));
 		
-		return height;
+		return (float) (heights[x * vertexCount + z] / WorldTerrain.OTW_SCALE);
 	}
 	
 	/**
@@ -232,53 +343,28 @@ public class Terrain implements Comparable<Terrain> {
 		float terrainX = worldX - this.x;
 		float terrainZ = worldZ - this.z;
 		
-		// Size of each grid square
-		float gridSquareSize = SIZE / ((float)heightArray.length - 1);
-		
-		// Grid square that the player is located in
-		int gridX = (int) Math.floor(terrainX/gridSquareSize);
-		int gridZ = (int) Math.floor(terrainZ/gridSquareSize);
-		
 		// If outside terrain bounds return zero
-		if (gridX >= (heightArray.length - 1) || gridZ >= (heightArray.length - 1) || gridX < 0 || gridZ < 0)
+		if (terrainX < 0 || terrainX >= SIZE || terrainZ < 0 || terrainZ >= SIZE)
 			return 0;
 		
-		// Location of player on a grid square
-		float xCoord = (terrainX % gridSquareSize) / gridSquareSize;
-		float zCoord = (terrainZ % gridSquareSize) / gridSquareSize;
-		
-		// Get terrain height by using barycentric coordinates
-		float terrainHeight;
-		if (xCoord <= (1-zCoord)) {
-			terrainHeight = RenderingUtilities.barycentric(new Vector3f(0, heightArray[gridX][gridZ], 0), 
-														   new Vector3f(1, heightArray[gridX + 1][gridZ], 0), 
-														   new Vector3f(0, heightArray[gridX][gridZ + 1], 1), 
-														   new Vector2f(xCoord, zCoord));
-		} else {
-			terrainHeight = RenderingUtilities.barycentric(new Vector3f(1, heightArray[gridX + 1][gridZ], 0), 
-														   new Vector3f(1, heightArray[gridX + 1][gridZ + 1], 1), 
-														   new Vector3f(0, heightArray[gridX][gridZ + 1], 1), 
-														   new Vector2f(xCoord, zCoord));
-		}
-		
-		return terrainHeight;			
+		return (float) (HeightField.interpolateHeight(heights, vertexCount, WorldTerrain.TILE_SIZE / (vertexCount - 1), 
+													  terrainX * WorldTerrain.OTW_SCALE, terrainZ * WorldTerrain.OTW_SCALE) / WorldTerrain.OTW_SCALE);
 	}
 	
 	/**
-	 * Returns the Terrain object from a Terrain map that the player is currently standing on 
-	 * 
-	 * @param terrainTree
-	 * @param worldX
-	 * @param worldZ
-	 * @return terrain object that the player is standing on
+	 * @param world absolute (world) x or z coordinate
+	 * @return index along the same axis of the terrain grid square that world lies in
 	 */
-	public static Terrain getCurrentTerrain(TreeMap<String, Terrain> terrainTree, float worldX, float worldZ) {
-		// Floor divide player's absolute (world) x and z coordinates to get the grid indices that this terrain object lies in  
-		int xGrid = Math.floorDiv((int)worldX, (int)Terrain.SIZE);
-		int zGrid = Math.floorDiv((int)worldZ, (int)Terrain.SIZE);
-		
-		// "xGrid-zGrid" comprises each key to the map of terrains
-		return terrainTree.get(xGrid + "-" + zGrid);
+	public static int getGridCoordinate(float world) {
+		return (int) Math.floor(world / SIZE);
+	}
+	
+	public int getGridX() {
+		return gridX;
+	}
+	
+	public int getGridZ() {
+		return gridZ;
 	}
 	
 	public float getX() {
@@ -296,10 +382,78 @@ public class Terrain implements Comparable<Terrain> {
 	public List<Entity> getLitEntities() {
 		return litEntities;
 	}
+	
+	/**
+	 * @return static and lit entities of this terrain grouped by model, to be drawn with instanced draw calls 
+	 */
+	public List<InstancedModel> getInstancedModels() {
+		return instancedModels;
+	}
+	
+	/**
+	 * @return largest bounding radius of the static and lit entities tied to this terrain
+	 */
+	public float getEntityBoundingRadius() {
+		if (entityBoundingRadius < 0) {
+			float radius = 0;
+			for (Entity entity : staticEntities)
+				radius = Math.max(radius, entity.getBoundingRadius());
+			for (Entity entity : litEntities)
+				radius = Math.max(radius, entity.getBoundingRadius());
+			
+			entityBoundingRadius = radius;
+		}
+		
+		return entityBoundingRadius;
+	}
 
 	public RawModel getModel() {
 		return model;
 	}
+	
+	public float[] getGeometricErrors() {
+		return geometricErrors;
+	}
+	
+	public int getLevelOfDetail() {
+		return levelOfDetail;
+	}
+	
+	/**
+	 * @return offset in the tile's shared index buffer of the first index of the selected level of detail's interior
+	 */
+	public int getInteriorOffset() {
+		return interiorOffset;
+	}
+	
+	/**
+	 * @return number of indices of the selected level of detail's interior
+	 */
+	public int getInteriorCount() {
+		return interiorCount;
+	}
+	
+	/**
+	 * @return offset in the tile's shared index buffer of the first index of the selected level of detail's stitched border
+	 */
+	public int getBorderOffset() {
+		return borderOffset;
+	}
+	
+	/**
+	 * @return number of indices of the selected level of detail's stitched border
+	 */
+	public int getBorderCount() {
+		return borderCount;
+	}
+	
+	public float getLowestHeight() {
+		return lowestHeight;
+	}
+	
+	public float getHighestHeight() {
+		return highestHeight;
+	}
 
 	public TerrainTexturePack getTexturePack() {
 		return texturePack;
@@ -322,8 +476,8 @@ public class Terrain implements Comparable<Terrain> {
 	 * to the {@link Ownship} objects absolute postion
 	 */
 	public float getDistanceFromOwnship() {
-		float terrainMidpointX = x + (MAX_HEIGHT/2);
-		float terrainMidpointZ = z + (MAX_HEIGHT/2);
+		float terrainMidpointX = x + (SIZE/2);
+		float terrainMidpointZ = z + (SIZE/2);
 		
 		return (float) Math.sqrt(Math.pow((ownship.getPosition().x - terrainMidpointX), 2) +
 						 		 Math.pow((ownship.getPosition().z - terrainMidpointZ), 2));
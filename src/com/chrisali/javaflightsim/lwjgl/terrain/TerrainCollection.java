@@ -19,45 +19,142 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.lwjgl.terrain;
 
-import java.util.TreeMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.util.vector.Vector3f;
 
 import com.chrisali.javaflightsim.lwjgl.entities.Ownship;
 import com.chrisali.javaflightsim.lwjgl.loader.Loader;
+import com.chrisali.javaflightsim.lwjgl.renderengine.DisplayManager;
+import com.chrisali.javaflightsim.lwjgl.renderengine.MasterRenderer;
 import com.chrisali.javaflightsim.lwjgl.textures.TerrainTexture;
 import com.chrisali.javaflightsim.lwjgl.textures.TerrainTexturePack;
 import com.chrisali.javaflightsim.lwjgl.utilities.OTWDirectories;
+import com.chrisali.javaflightsim.simulation.setup.TerrainConfiguration;
+import com.chrisali.javaflightsim.simulation.terrain.HeightSource;
+import com.chrisali.javaflightsim.simulation.utilities.ThreadUtilities;
 
 /**
- * An array of {@link Terrain} objects used to model out the world 
+ * Collection of {@link Terrain} objects used to model out the world, paged in and out around the {@link Ownship} as it flies so 
+ * that the world can be of any size.<br>
+ * Tiles within a radius of the ownship are generated on background threads, which sample their heights, build their meshes and 
+ * place their autogen entities. Generated tiles are then uploaded to OpenGL by {@link #update()} on the thread rendering the 
+ * display, a few tiles per frame at most so that paging never stalls a frame. Once more tiles are resident than allowed, tiles 
+ * that are out of range are unloaded, least recently in range first<br>
+ * Each frame {@link #selectLevelsOfDetail(Vector3f)} picks the {@link TerrainLod} level of detail that each tile is drawn at from 
+ * its distance to the camera and the error that the level would show on screen, so that distant tiles draw far fewer triangles  
  * 
  * @author Christopher Ali
  *
  */
-public class TerrainCollection {
+public class TerrainCollection implements AutoCloseable {
+	
+	private static final Logger logger = LogManager.getLogger(TerrainCollection.class);
+	
+	private final Loader loader;
+	private final Ownship ownship;
+	private final HeightSource heightSource;
+	private final TerrainTexturePack texturePack;
+	private final TerrainTexture blendMap;
+	
+	private final int pagingRadius;
+	private final int maxResidentTiles;
+	private final int uploadsPerFrame;
+	
+	// Levels of detail, whose indices are shared by all tiles in one index buffer
+	private final TerrainLod lod;
+	private final int lodIndexBuffer;
+	private final float lodPixelError;
+	
+	// Grid offsets of tiles within pagingRadius, nearest first
+	private final int[][] offsetsInRange;
+	
+	// Uploaded tiles, least recently in range first
+	private final LinkedHashMap<Long, Terrain> residentTiles = new LinkedHashMap<>(64, 0.75f, true);
+	private final Collection<Terrain> terrains = Collections.unmodifiableCollection(residentTiles.values());
 	
-	private TreeMap<String, Terrain> terrainTree;
+	// Uploaded tiles, looked up without marking them as used when linking tiles to their neighbours
+	private final Map<Long, Terrain> tilesByKey = new HashMap<>();
+	
+	// Tiles being generated or waiting to be uploaded
+	private final Map<Long, Future<?>> pendingTiles = new HashMap<>();
+	private final Queue<Terrain> generatedTiles = new ConcurrentLinkedQueue<>();
+	
+	// Keys of tiles whose generation failed, so that they are no longer pending and can be requested again
+	private final Queue<Long> failedTiles = new ConcurrentLinkedQueue<>();
+	
+	private final ExecutorService generator;
+	
+	private int centreX, centreZ;
 	
 	/**
-	 * Creates a TreeMao of {@link Terrain} objects, with texture blending and height maps. Each key to the tree map consists of
-	 * the string "xGrid-zGrid", which represents the terrain object's position relative to other terrains in an array fashion
+	 * Creates the {@link Terrain} object that the ownship is over, and starts generating those around it
 	 * 
-	 * @param numTerrains
 	 * @param loader
 	 * @param ownship
+	 * @param heightSource terrain shared with the simulation
+	 * @param configuration
 	 */
-	public TerrainCollection(int numTerrains, Loader loader, Ownship ownship) {
-		terrainTree = new TreeMap<>();
+	public TerrainCollection(Loader loader, Ownship ownship, HeightSource heightSource, TerrainConfiguration configuration) {
+		this.loader = loader;
+		this.ownship = ownship;
+		this.heightSource = heightSource;
+		
+		pagingRadius = Math.max(1, configuration.getPagingRadius());
+		maxResidentTiles = configuration.getMaxResidentTiles();
+		uploadsPerFrame = Math.max(1, configuration.getUploadsPerFrame());
+		offsetsInRange = createOffsetsInRange(pagingRadius);
+		
+		lod = new TerrainLod(heightSource.getVertexCount(), configuration.getLodLevels());
+		lodIndexBuffer = loader.loadIndices(lod.getIndices());
+		lod.releaseIndices();
+		lodPixelError = (float) configuration.getLodPixelError();
 
-		TerrainTexturePack texturePack = createTexturePack("fields", "town", "forest", "water", loader);
-		TerrainTexture blendMap = new TerrainTexture(loader.loadTexture("blendMap", OTWDirectories.TERRAIN.toString()));
-	
-		int median = Math.abs(numTerrains/2);
+		texturePack = createTexturePack("fields", "town", "forest", "water", loader);
+		blendMap = new TerrainTexture(loader.loadTexture("blendMap", OTWDirectories.TERRAIN.toString()));
+		
+		generator = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), 
+												 ThreadUtilities.namedDaemonThreads("Terrain Generation"));
+		
+		// The tile under the ownship is needed right away, so that the world doesn't start with a hole in it
+		Vector3f position = ownship.getPosition();
+		centreX = Terrain.getGridCoordinate(position.x);
+		centreZ = Terrain.getGridCoordinate(position.z);
+		
+		addTile(generateTile(centreX, centreZ));
 		
-		for (int i = -median; i < median; i++) {
-			for (int j = -median; j < median; j++) {
-				terrainTree.put(i + "-" + j, new Terrain(i, j, "heightMap", OTWDirectories.TERRAIN.toString(), loader, texturePack, blendMap, ownship));
+		requestTilesInRange();
+	}
+	
+	/**
+	 * @param radius
+	 * @return grid offsets of tiles within radius tiles of the centre tile, nearest first
+	 */
+	private static int[][] createOffsetsInRange(int radius) {
+		List<int[]> offsets = new ArrayList<>();
+		for (int x = -radius; x <= radius; x++) {
+			for (int z = -radius; z <= radius; z++) {
+				if (x * x + z * z <= radius * radius)
+					offsets.add(new int[] {x, z});
 			}
 		}
+		offsets.sort((a, b) -> Integer.compare(a[0] * a[0] + a[1] * a[1], b[0] * b[0] + b[1] * b[1]));
+		
+		return offsets.toArray(new int[offsets.size()][]);
 	}
 	
 	/**
@@ -80,8 +177,243 @@ public class TerrainCollection {
 		
 		return new TerrainTexturePack(backgroundTexture, rTexture, gTexture, bTexture); 
 	}
-
-	public TreeMap<String, Terrain> getTerrainTree() {
-		return terrainTree;
+	
+	//================================ Paging =================================
+	
+	/**
+	 * Pages terrain around the ownship; must be called on the thread rendering the display, once per frame. When the ownship has
+	 * moved to another tile, generation of tiles that have come into range is started and that of tiles that have left it is 
+	 * cancelled, and tiles that failed to generate are requested again. Up to uploadsPerFrame generated tiles are then uploaded, 
+	 * and tiles out of range are unloaded if there are too many resident
+	 */
+	public void update() {
+		Vector3f position = ownship.getPosition();
+		int gridX = Terrain.getGridCoordinate(position.x);
+		int gridZ = Terrain.getGridCoordinate(position.z);
+		
+		boolean failed = false;
+		Long failedKey;
+		while ((failedKey = failedTiles.poll()) != null)
+			failed |= pendingTiles.remove(failedKey) != null;
+		
+		if (gridX != centreX || gridZ != centreZ) {
+			centreX = gridX;
+			centreZ = gridZ;
+			
+			cancelTilesOutOfRange();
+			requestTilesInRange();
+		} else if (failed) {
+			requestTilesInRange();
+		}
+		
+		int uploads = 0;
+		Terrain terrain;
+		while (uploads < uploadsPerFrame && (terrain = generatedTiles.poll()) != null) {
+			long key = key(terrain.getGridX(), terrain.getGridZ());
+			
+			// Tiles cancelled after they were generated are dropped 
+			if (pendingTiles.remove(key) == null || !isInRange(terrain.getGridX(), terrain.getGridZ()))
+				continue;
+			
+			addTile(terrain);
+			uploads++;
+		}
+		
+		if (uploads > 0)
+			evictTilesOutOfRange();
+	}
+	
+	/**
+	 * Starts generating tiles in range that are neither resident nor pending, nearest to the ownship first; resident tiles in 
+	 * range are marked as used 
+	 */
+	private void requestTilesInRange() {
+		for (int[] offset : offsetsInRange) {
+			final int gridX = centreX + offset[0];
+			final int gridZ = centreZ + offset[1];
+			long key = key(gridX, gridZ);
+			
+			if (residentTiles.get(key) != null || pendingTiles.containsKey(key))
+				continue;
+			
+			pendingTiles.put(key, generator.submit(() -> {
+				try {
+					generatedTiles.add(generateTile(gridX, gridZ));
+				} catch (Exception e) {
+					logger.error("Error generating terrain tile " + gridX + ", " + gridZ + "!", e);
+					failedTiles.add(key);
+				}
+			}));
+		}
+	}
+	
+	private void cancelTilesOutOfRange() {
+		for (Iterator<Map.Entry<Long, Future<?>>> it = pendingTiles.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<Long, Future<?>> entry = it.next();
+			long key = entry.getKey();
+			
+			if (!isInRange((int) (key >> 32), (int) key)) {
+				entry.getValue().cancel(false);
+				it.remove();
+			}
+		}
+	}
+	
+	/**
+	 * Unloads resident tiles out of range, least recently in range first, until no more than maxResidentTiles are resident  
+	 */
+	private void evictTilesOutOfRange() {
+		for (Iterator<Terrain> it = residentTiles.values().iterator(); it.hasNext() && residentTiles.size() > maxResidentTiles;) {
+			Terrain terrain = it.next();
+			
+			if (!isInRange(terrain.getGridX(), terrain.getGridZ())) {
+				terrain.unload(loader);
+				tilesByKey.remove(key(terrain.getGridX(), terrain.getGridZ()));
+				it.remove();
+			}
+		}
+	}
+	
+	/**
+	 * Uploads a generated tile and links it to the uploaded tiles next to it
+	 * 
+	 * @param terrain
+	 */
+	private void addTile(Terrain terrain) {
+		int gridX = terrain.getGridX();
+		int gridZ = terrain.getGridZ();
+		long key = key(gridX, gridZ);
+		
+		terrain.upload(loader, lod, lodIndexBuffer);
+		residentTiles.put(key, terrain);
+		tilesByKey.put(key, terrain);
+		
+		linkNeighbour(terrain, 0, tilesByKey.get(key(gridX - 1, gridZ)));
+		linkNeighbour(terrain, 1, tilesByKey.get(key(gridX + 1, gridZ)));
+		linkNeighbour(terrain, 2, tilesByKey.get(key(gridX, gridZ - 1)));
+		linkNeighbour(terrain, 3, tilesByKey.get(key(gridX, gridZ + 1)));
+	}
+	
+	private static void linkNeighbour(Terrain terrain, int edge, Terrain neighbour) {
+		if (neighbour != null)
+			terrain.setNeighbour(edge, neighbour);
+	}
+	
+	//============================ Level of Detail ============================
+	
+	/**
+	 * Selects the level of detail of each uploaded tile: the coarsest level whose geometric error, projected onto the screen from 
+	 * the tile's closest point to the camera, is within lodPixelError pixels. Tiles are then made more detailed where needed so that
+	 * neighbours are no more than one level apart, and stitched to coarser neighbours so that there are no cracks between them; must
+	 * be called on the thread rendering the display, once per frame
+	 * 
+	 * @param cameraPosition
+	 */
+	public void selectLevelsOfDetail(Vector3f cameraPosition) {
+		float pixelsPerUnit = (float) (DisplayManager.getWidth() / (2 * Math.tan(Math.toRadians(MasterRenderer.getFov() / 2))));
+		
+		for (Terrain terrain : residentTiles.values()) {
+			int level = TerrainLod.selectLevel(terrain.getGeometricErrors(), terrain.getDistanceTo(cameraPosition), 
+											   pixelsPerUnit, lodPixelError);
+			terrain.setLevelOfDetail(lod, level, 0);
+		}
+		
+		// Levels only ever decrease, so this settles within as many passes as there are levels
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			
+			for (Terrain terrain : residentTiles.values()) {
+				for (int edge = 0; edge < 4; edge++) {
+					Terrain neighbour = terrain.getNeighbour(edge);
+					
+					if (neighbour != null && terrain.getLevelOfDetail() > neighbour.getLevelOfDetail() + 1) {
+						terrain.setLevelOfDetail(lod, neighbour.getLevelOfDetail() + 1, 0);
+						changed = true;
+					}
+				}
+			}
+		}
+		
+		for (Terrain terrain : residentTiles.values()) {
+			int mask = 0;
+			for (int edge = 0; edge < 4; edge++) {
+				Terrain neighbour = terrain.getNeighbour(edge);
+				
+				if (neighbour != null && neighbour.getLevelOfDetail() > terrain.getLevelOfDetail())
+					mask |= 1 << edge;
+			}
+			
+			terrain.setLevelOfDetail(lod, terrain.getLevelOfDetail(), mask);
+		}
+	}
+	
+	/**
+	 * Generates a tile's mesh and entities; makes no OpenGL calls
+	 * 
+	 * @param gridX
+	 * @param gridZ
+	 * @return terrain tile ready to upload
+	 */
+	private Terrain generateTile(int gridX, int gridZ) {
+		Terrain terrain = new Terrain(gridX, gridZ, heightSource, OTWDirectories.TERRAIN.toString(), texturePack, blendMap, ownship);
+		terrain.calculateGeometricErrors(lod);
+		
+		return terrain;
+	}
+	
+	private boolean isInRange(int gridX, int gridZ) {
+		int dx = gridX - centreX;
+		int dz = gridZ - centreZ;
+		
+		return dx * dx + dz * dz <= pagingRadius * pagingRadius;
+	}
+	
+	private static long key(int gridX, int gridZ) { return ((long) gridX << 32) | (gridZ & 0xFFFFFFFFL); }
+	
+	/**
+	 * Stops generating terrain; uploaded tiles are deleted along with everything else by {@link Loader#cleanUp()} 
+	 */
+	@Override
+	public void close() {
+		generator.shutdownNow();
+	}
+	
+	//================================ Queries ================================
+	
+	/**
+	 * @return tiles that are uploaded and can be rendered; only valid on the thread rendering the display until the next 
+	 * {@link #update()}
+	 */
+	public Collection<Terrain> getTerrains() {
+		return terrains;
+	}
+	
+	/**
+	 * @param worldX
+	 * @param worldZ
+	 * @return the uploaded {@link Terrain} that worldX, worldZ lies in, or null if there is none
+	 */
+	public Terrain getTerrainAt(float worldX, float worldZ) {
+		// Looked up in tilesByKey, as a get on residentTiles would mark the tile as used and reorder the tiles to evict
+		return tilesByKey.get(key(Terrain.getGridCoordinate(worldX), Terrain.getGridCoordinate(worldZ)));
+	}
+	
+	/**
+	 * @param worldX
+	 * @param worldZ
+	 * @return height of the terrain at worldX, worldZ, or zero if no tile is uploaded there
+	 */
+	public float getTerrainHeight(float worldX, float worldZ) {
+		Terrain terrain = getTerrainAt(worldX, worldZ);
+		
+		return terrain == null ? 0.0f : terrain.getTerrainHeight(worldX, worldZ);
+	}
+	
+	/**
+	 * @return number of tiles being generated or waiting to be uploaded
+	 */
+	public int getPendingTileCount() {
+		return pendingTiles.size();
 	}
 }
@@ -0,0 +1,369 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.lwjgl.terrain;
+
+import java.util.Arrays;
+
+/**
+ * Geomipmapping levels of detail for terrain tiles whose meshes are grids of vertexCount by vertexCount vertices. Level 0 draws 
+ * every vertex of the grid, and each level after it draws every other vertex of the level before it, along with the last vertex 
+ * of each row and column so that grids of any size can be used.<br>
+ * Every tile has the same grid, so the indices of every level are generated once, in one array shared by all tiles. A tile next
+ * to a tile one level coarser than it would leave cracks along their shared edge, so the grid squares along the edges of each 
+ * level have a variant for each combination of coarser neighbours, in which the vertices along those edges that the coarser 
+ * neighbour doesn't have are snapped onto a vertex next to them that it does have. Stitching never changes the grid squares inside
+ * of the edges, so each level's interior is stored once and a tile is drawn as its level's interior and one of its borders. 
+ * Neighbouring tiles must then be no more than one level apart, which {@link #selectLevel(float[], float, float, float)}'s callers 
+ * enforce after selecting a level for each tile<br>
+ * Makes no OpenGL calls 
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TerrainLod {
+	
+	// Bits of a stitching mask, set for each edge whose neighbour is one level coarser
+	public static final int NEGATIVE_X = 1;
+	public static final int POSITIVE_X = 2;
+	public static final int NEGATIVE_Z = 4;
+	public static final int POSITIVE_Z = 8;
+	
+	public static final int MASKS = 16;
+	
+	private final int vertexCount;
+	private final int levels;
+	
+	// Held until it is released once loaded into an index buffer
+	private int[] indices;
+	
+	// Offset and number of indices in indices of each level's interior
+	private final int[] interiorOffsets;
+	private final int[] interiorCounts;
+	
+	// Offset and number of indices in indices of each level's border and stitching mask, at [level * MASKS + mask]
+	private final int[] borderOffsets;
+	private final int[] borderCounts;
+	
+	/**
+	 * Generates the indices of each level of detail and each of its stitching masks
+	 * 
+	 * @param vertexCount vertices along each side of a terrain tile
+	 * @param levels maximum number of levels of detail, limited by the number that vertexCount allows  
+	 */
+	public TerrainLod(int vertexCount, int levels) {
+		this.vertexCount = vertexCount;
+		this.levels = Math.max(1, Math.min(levels, getMaxLevels(vertexCount)));
+		
+		interiorOffsets = new int[this.levels];
+		interiorCounts = new int[this.levels];
+		borderOffsets = new int[this.levels * MASKS];
+		borderCounts = new int[this.levels * MASKS];
+		
+		// Stitching only changes the grid squares along the edges, so the interior of each level is only generated once
+		int[][] interiors = new int[this.levels][];
+		int[][] borders = new int[this.levels * MASKS][];
+		int size = 0;
+		
+		for (int level = 0; level < this.levels; level++) {
+			interiors[level] = generateIndices(level, 0, false);
+			size += interiors[level].length;
+			
+			for (int mask = 0; mask < MASKS; mask++) {
+				borders[level * MASKS + mask] = generateIndices(level, mask, true);
+				size += borders[level * MASKS + mask].length;
+			}
+		}
+		
+		indices = new int[size];
+		int pointer = 0;
+		
+		for (int level = 0; level < this.levels; level++) {
+			interiorOffsets[level] = pointer;
+			interiorCounts[level] = interiors[level].length;
+			pointer = append(interiors[level], pointer);
+			
+			for (int mask = 0; mask < MASKS; mask++) {
+				borderOffsets[level * MASKS + mask] = pointer;
+				borderCounts[level * MASKS + mask] = borders[level * MASKS + mask].length;
+				pointer = append(borders[level * MASKS + mask], pointer);
+			}
+		}
+	}
+	
+	private int append(int[] run, int pointer) {
+		System.arraycopy(run, 0, indices, pointer, run.length);
+		
+		return pointer + run.length;
+	}
+	
+	/**
+	 * @param vertexCount
+	 * @return number of levels of detail possible for a grid with vertexCount vertices along each side; the coarsest level has at
+	 * least two grid squares along each side
+	 */
+	public static int getMaxLevels(int vertexCount) {
+		int levels = 1;
+		while ((2 << levels) <= vertexCount - 1)
+			levels++;
+		
+		return levels;
+	}
+	
+	/**
+	 * @param level
+	 * @return spacing, in vertices of the full grid, between the vertices drawn at level 
+	 */
+	public static int getStep(int level) {
+		return 1 << level;
+	}
+	
+	/**
+	 * Generates the triangles of either the grid squares along the edges of a level of detail, or those inside of them, with the
+	 * same winding as the full terrain mesh; vertices along the edges set in mask are snapped onto the vertices of the next coarser
+	 * level, and triangles that collapse are left out  
+	 * 
+	 * @param level
+	 * @param mask
+	 * @param border true to generate the grid squares along the edges, false to generate those inside of them
+	 * @return indices of the triangles
+	 */
+	private int[] generateIndices(int level, int mask, boolean border) {
+		int step = getStep(level);
+		int last = vertexCount - 1;
+		int lastCell = (last - 1) / step * step;
+		int cells = lastCell / step + 1;
+		
+		int[] levelIndices = new int[6 * (border ? 4 * cells : cells * cells)];
+		int pointer = 0;
+		
+		for (int gz = 0; gz < last; gz += step) {
+			boolean edgeRow = gz == 0 || gz == lastCell;
+			
+			if (border && !edgeRow) {
+				pointer = addCell(levelIndices, pointer, gz, 0, step, mask);
+				pointer = addCell(levelIndices, pointer, gz, lastCell, step, mask);
+			} else if (border || !edgeRow) {
+				int first = border ? 0 : step;
+				int end = border ? last : lastCell;
+				
+				for (int gx = first; gx < end; gx += step)
+					pointer = addCell(levelIndices, pointer, gz, gx, step, mask);
+			}
+		}
+		
+		return Arrays.copyOf(levelIndices, pointer);
+	}
+	
+	/**
+	 * Adds the two triangles of the grid square whose top left vertex is at row gz, column gx 
+	 */
+	private int addCell(int[] indices, int pointer, int gz, int gx, int step, int mask) {
+		int nextZ = Math.min(gz + step, vertexCount - 1);
+		int nextX = Math.min(gx + step, vertexCount - 1);
+		
+		int topLeft 	= stitch(gz,    gx,    step, mask);
+		int topRight 	= stitch(gz,    nextX, step, mask);
+		int bottomLeft 	= stitch(nextZ, gx,    step, mask);
+		int bottomRight = stitch(nextZ, nextX, step, mask);
+		
+		pointer = addTriangle(indices, pointer, topLeft, bottomLeft, topRight);
+		
+		return addTriangle(indices, pointer, topRight, bottomLeft, bottomRight);
+	}
+	
+	private static int addTriangle(int[] indices, int pointer, int a, int b, int c) {
+		if (a == b || b == c || a == c)
+			return pointer;
+		
+		indices[pointer++] = a;
+		indices[pointer++] = b;
+		indices[pointer++] = c;
+		
+		return pointer;
+	}
+	
+	/**
+	 * @param row
+	 * @param column
+	 * @param step
+	 * @param mask
+	 * @return index of the vertex at row, column, snapped along any edges in mask to the vertices of the next coarser level 
+	 */
+	private int stitch(int row, int column, int step, int mask) {
+		int last = vertexCount - 1;
+		
+		if ((mask & NEGATIVE_X) != 0 && column == 0)
+			row = snap(row, step, -step);
+		if ((mask & POSITIVE_X) != 0 && column == last)
+			row = snap(row, step, step);
+		if ((mask & NEGATIVE_Z) != 0 && row == 0)
+			column = snap(column, step, -step);
+		if ((mask & POSITIVE_Z) != 0 && row == last)
+			column = snap(column, step, step);
+		
+		return row * vertexCount + column;
+	}
+	
+	/**
+	 * Snaps vertices along an edge onto those of the next coarser level, whose spacing is 2 * step. Vertices on the negative x and z
+	 * edges are snapped onto the vertex before them, and those on the positive edges onto the vertex after them, so that no triangle
+	 * in the grid square where the positive edges meet is turned over when both are snapped
+	 * 
+	 * @param coordinate
+	 * @param step
+	 * @param direction -step to snap onto the vertex before, or step to snap onto the vertex after
+	 * @return coordinate if the next coarser level has a vertex there; otherwise the coordinate of the vertex in direction 
+	 */
+	private int snap(int coordinate, int step, int direction) {
+		if (coordinate % (2 * step) == 0 || coordinate == vertexCount - 1)
+			return coordinate;
+		
+		return Math.min(coordinate + direction, vertexCount - 1);
+	}
+	
+	/**
+	 * Calculates the largest vertical distance between the full terrain mesh and the mesh at each level of detail, for use by 
+	 * {@link #selectLevel(float[], float, float, float)}. Errors never decrease from one level to the next
+	 * 
+	 * @param heights heights of the tile's vertices, at [x * vertexCount + z]
+	 * @param scale divides heights to give errors in the units of the mesh 
+	 * @return geometric error of each level 
+	 */
+	public float[] calculateGeometricErrors(float[] heights, float scale) {
+		float[] errors = new float[levels];
+		int last = vertexCount - 1;
+		
+		for (int level = 1; level < levels; level++) {
+			int step = getStep(level);
+			int lastCell = (last - 1) / step * step;
+			float error = errors[level - 1];
+			
+			for (int row = 0; row < vertexCount; row++) {
+				int row0 = Math.min(row / step * step, lastCell);
+				int row1 = Math.min(row0 + step, last);
+				float v = (float) (row - row0) / (row1 - row0);
+				
+				for (int column = 0; column < vertexCount; column++) {
+					int column0 = Math.min(column / step * step, lastCell);
+					int column1 = Math.min(column0 + step, last);
+					float u = (float) (column - column0) / (column1 - column0);
+					
+					float h00 = heights[column0 * vertexCount + row0];
+					float h10 = heights[column1 * vertexCount + row0];
+					float h01 = heights[column0 * vertexCount + row1];
+					float h11 = heights[column1 * vertexCount + row1];
+					
+					// Same triangles as the mesh; topLeft, bottomLeft, topRight and topRight, bottomLeft, bottomRight  
+					float interpolated = (u + v <= 1) ? h00 + u * (h10 - h00) + v * (h01 - h00)
+													  : h11 + (1 - u) * (h01 - h11) + (1 - v) * (h10 - h11);
+					
+					error = Math.max(error, Math.abs(heights[column * vertexCount + row] - interpolated) / scale);
+				}
+			}
+			
+			errors[level] = error;
+		}
+		
+		return errors;
+	}
+	
+	/**
+	 * Selects the coarsest level of detail whose geometric error, projected onto the screen, is no more than maxPixelError pixels 
+	 * 
+	 * @param errors geometric error of each level, from {@link #calculateGeometricErrors(float[], float)}
+	 * @param distance distance from the camera to the closest point of the tile
+	 * @param pixelsPerUnit size in pixels of a unit length one unit away from the camera
+	 * @param maxPixelError
+	 * @return level of detail
+	 */
+	public static int selectLevel(float[] errors, float distance, float pixelsPerUnit, float maxPixelError) {
+		int level = 0;
+		while (level + 1 < errors.length && errors[level + 1] * pixelsPerUnit <= maxPixelError * distance)
+			level++;
+		
+		return level;
+	}
+	
+	/**
+	 * @return interiors and borders of every level of detail and stitching mask, or null once {@link #releaseIndices()} is called
+	 */
+	public int[] getIndices() {
+		return indices;
+	}
+	
+	/**
+	 * Lets the indices be garbage collected once they are loaded into an index buffer; offsets and counts are still available
+	 */
+	public void releaseIndices() {
+		indices = null;
+	}
+	
+	/**
+	 * @param level
+	 * @return offset in {@link #getIndices()} of the indices of the grid squares inside of the level's edges
+	 */
+	public int getInteriorOffset(int level) {
+		return interiorOffsets[level];
+	}
+	
+	/**
+	 * @param level
+	 * @return number of indices of the grid squares inside of the level's edges
+	 */
+	public int getInteriorCount(int level) {
+		return interiorCounts[level];
+	}
+	
+	/**
+	 * @param level
+	 * @param mask
+	 * @return offset in {@link #getIndices()} of the indices of the grid squares along the level's edges, stitched along the edges
+	 * set in mask
+	 */
+	public int getBorderOffset(int level, int mask) {
+		return borderOffsets[level * MASKS + mask];
+	}
+	
+	/**
+	 * @param level
+	 * @param mask
+	 * @return number of indices of the grid squares along the level's edges, stitched along the edges set in mask
+	 */
+	public int getBorderCount(int level, int mask) {
+		return borderCounts[level * MASKS + mask];
+	}
+	
+	/**
+	 * @param level
+	 * @param mask
+	 * @return number of indices drawn for the level, stitched along the edges set in mask
+	 */
+	public int getIndexCount(int level, int mask) {
+		return getInteriorCount(level) + getBorderCount(level, mask);
+	}
+	
+	public int getLevels() {
+		return levels;
+	}
+	
+	public int getVertexCount() {
+		return vertexCount;
+	}
+}
@@ -82,7 +82,21 @@ public class RenderingUtilities {
 	 * @return 4D transformation matrix
 	 */
 	public static Matrix4f createTransformationMatrix(Vector3f translation, float rx, float ry, float rz, float scale) {
-		Matrix4f matrix = new Matrix4f();
+		return createTransformationMatrix(translation, rx, ry, rz, scale, new Matrix4f());
+	}
+	
+	/**
+	 * Creates a transformation matrix for 3D entities in an existing matrix, so that a matrix can be reused for many entities 
+	 * 
+	 * @param translation
+	 * @param rx
+	 * @param ry
+	 * @param rz
+	 * @param scale
+	 * @param matrix matrix that the transformation is written to
+	 * @return matrix
+	 */
+	public static Matrix4f createTransformationMatrix(Vector3f translation, float rx, float ry, float rz, float scale, Matrix4f matrix) {
 		matrix.setIdentity();
 		
 		Matrix4f.translate(translation, matrix, matrix);
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.server;
+
+/**
+ * Provides Enums for the state of a {@link SimulationJob} submitted to {@link SimulationServer}:
+ * 
+ * <p>QUEUED - Accepted and waiting for a worker thread</p>
+ * <p>RUNNING - Being simulated; results written so far can be streamed</p>
+ * <p>COMPLETED - Simulated to the end of its duration; all results have been written</p>
+ * <p>FAILED - Stopped by an error, which is reported with the job's status</p>
+ * <p>CANCELLED - Removed from the queue or stopped before the end of its duration</p>
+ */
+public enum JobState {
+	QUEUED    ("Queued"),
+	RUNNING   ("Running"),
+	COMPLETED ("Completed"),
+	FAILED    ("Failed"),
+	CANCELLED ("Cancelled");
+	
+	private String state;
+	
+	private JobState(String state) {this.state = state;}
+	
+	/**
+	 * @return if the job will not produce any more results
+	 */
+	public boolean isFinished() { return this == COMPLETED || this == FAILED || this == CANCELLED; }
+	
+	public String toString() {return state;}
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.server;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControls;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.Trimming;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Definition of an analysis job submitted to {@link SimulationServer} as JSON. Any field left out of the job is taken from the 
+ * server's default {@link SimulationConfiguration}, so that a job only needs to contain what differs from it; initial conditions
+ * and controls are merged into the defaults one key at a time. Control inputs are defined with {@link AnalysisControls}, the same 
+ * way they are in SimConfig/AnalysisControls.json
+ */
+public class SimulationJob {
+	
+	// Used only to copy the server's default configuration
+	private static final ObjectMapper mapper = new ObjectMapper();
+	
+	private String selectedAircraft;
+	
+	private EnumMap<InitialConditions, Double> initialConditions;
+	
+	private EnumMap<FlightControl, Double> initialControls;
+	
+	// Trim the aircraft with Trimming before running the job; replaces the initial pitch, elevator and throttle 
+	private boolean trim;
+	
+	// Simulated time to run for (sec)
+	private double duration;
+	
+	// Overrides the default simulation rate if greater than zero
+	private int simulationRateHz;
+	
+	private AnalysisControls analysisControls;
+	
+	// Columns written to the results file; all are written if null
+	private EnumSet<SimOuts> outputs;
+	
+	// Write one row of results every outputDecimation simulation steps
+	private int outputDecimation;
+	
+	/**
+	 * Default constructor, running for 10 seconds with no control inputs and writing every step of the simulation 
+	 */
+	public SimulationJob() {
+		duration		 = 10.0;
+		outputDecimation = 1;
+	}
+	
+	/**
+	 * Checks that the job can be run
+	 * 
+	 * @throws IllegalArgumentException if the duration or output decimation isn't positive
+	 */
+	public void validate() {
+		if (!(duration > 0))
+			throw new IllegalArgumentException("Duration must be greater than zero");
+		if (outputDecimation < 1)
+			throw new IllegalArgumentException("Output decimation must be at least 1");
+		if (simulationRateHz < 0)
+			throw new IllegalArgumentException("Simulation rate must not be negative");
+		if (analysisControls != null && analysisControls.getAnalysisInputs() == null)
+			throw new IllegalArgumentException("Analysis controls must contain a list of analysis inputs");
+	}
+	
+	/**
+	 * Creates the configuration this job is run with by copying defaults and overlaying the fields set in this job. The copy 
+	 * always runs in {@link Options#ANALYSIS_MODE}, and is trimmed if requested
+	 * 
+	 * @param defaults server's default configuration, which is left unmodified
+	 * @return new configuration for this job
+	 * @throws IOException if defaults could not be copied
+	 */
+	public SimulationConfiguration createConfiguration(SimulationConfiguration defaults) throws IOException {
+		SimulationConfiguration configuration = mapper.readValue(mapper.writeValueAsBytes(defaults), SimulationConfiguration.class);
+		
+		configuration.updateOptions(EnumSet.of(Options.ANALYSIS_MODE));
+		
+		if (selectedAircraft != null)
+			configuration.setSelectedAircraft(selectedAircraft);
+		
+		if (initialConditions != null)
+			configuration.getInitialConditions().putAll(initialConditions);
+		
+		if (initialControls != null)
+			configuration.getInitialControls().putAll(initialControls);
+		
+		if (simulationRateHz > 0)
+			configuration.setSimulationRateHz(simulationRateHz);
+		
+		EnumMap<IntegratorConfig, Double> integratorConfig = configuration.getIntegratorConfig();
+		integratorConfig.put(IntegratorConfig.ENDTIME, integratorConfig.get(IntegratorConfig.STARTTIME) + duration);
+		
+		if (trim)
+			Trimming.trimSim(configuration, true);
+		
+		return configuration;
+	}
+
+	public String getSelectedAircraft() { return selectedAircraft; }
+
+	public void setSelectedAircraft(String selectedAircraft) { this.selectedAircraft = selectedAircraft; }
+
+	public EnumMap<InitialConditions, Double> getInitialConditions() { return initialConditions; }
+
+	public void setInitialConditions(EnumMap<InitialConditions, Double> initialConditions) { this.initialConditions = initialConditions; }
+
+	public EnumMap<FlightControl, Double> getInitialControls() { return initialControls; }
+
+	public void setInitialControls(EnumMap<FlightControl, Double> initialControls) { this.initialControls = initialControls; }
+
+	public boolean isTrim() { return trim; }
+
+	public void setTrim(boolean trim) { this.trim = trim; }
+
+	public double getDuration() { return duration; }
+
+	public void setDuration(double duration) { this.duration = duration; }
+
+	public int getSimulationRateHz() { return simulationRateHz; }
+
+	public void setSimulationRateHz(int simulationRateHz) { this.simulationRateHz = simulationRateHz; }
+
+	public AnalysisControls getAnalysisControls() { return analysisControls; }
+
+	public void setAnalysisControls(AnalysisControls analysisControls) { this.analysisControls = analysisControls; }
+
+	public EnumSet<SimOuts> getOutputs() { return outputs; }
+
+	public void setOutputs(EnumSet<SimOuts> outputs) { this.outputs = outputs; }
+
+	public int getOutputDecimation() { return outputDecimation; }
+
+	public void setOutputDecimation(int outputDecimation) { this.outputDecimation = outputDecimation; }
+}
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.server;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.AnalysisSimulation;
+import com.chrisali.javaflightsim.simulation.SimulationRunner;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Runs a {@link SimulationJob} on a worker thread of {@link SimulationServer}. Unlike {@link SimulationRunner}, the job is stepped 
+ * as fast as possible with no pauses by an {@link AnalysisSimulation}, and each output row is written to a CSV results file as it is produced rather than being kept in 
+ * memory; {@link #streamResults(OutputStream)} follows that file so that results can be sent to a client while the job is still running.
+ * Getters not marked with {@link JsonIgnore} make up the job's status
+ */
+@JsonPropertyOrder({"id", "state", "time", "duration", "rows", "error"})
+public class SimulationJobRunner implements Runnable {
+	
+	private static final Logger logger = LogManager.getLogger(SimulationJobRunner.class);
+	
+	// Results are flushed to the file, and made visible to streams, every FLUSH_ROWS rows 
+	private static final int FLUSH_ROWS = 256;
+	
+	// Longest time a stream waits for new results before checking the job's state again
+	private static final long STREAM_WAIT_MS = 100;
+	
+	private final String id;
+	private final SimulationJob job;
+	private final SimulationConfiguration defaults;
+	private final File resultsFile;
+	
+	private volatile JobState state = JobState.QUEUED;
+	private volatile boolean cancelled;
+	private volatile String error;
+	
+	// Simulated time reached (sec)
+	private volatile double time;
+	private volatile long rows;
+	
+	// Length of results file that has been flushed and can be streamed
+	private long flushedLength;
+	
+	/**
+	 * @param id unique identifier of this job
+	 * @param job
+	 * @param defaults server configuration that job is overlaid onto
+	 * @param resultsFile CSV file that results are written to
+	 */
+	public SimulationJobRunner(String id, SimulationJob job, SimulationConfiguration defaults, File resultsFile) {
+		this.id = id;
+		this.job = job;
+		this.defaults = defaults;
+		this.resultsFile = resultsFile;
+	}
+	
+	@Override
+	public void run() {
+		if (cancelled) {
+			finish(JobState.CANCELLED);
+			return;
+		}
+		
+		EnumSet<SimOuts> outputs = job.getOutputs() != null ? job.getOutputs() : EnumSet.allOf(SimOuts.class);
+		
+		try (BufferedWriter bw = new BufferedWriter(new FileWriter(resultsFile))) {
+			// Only published once the results file exists, so that a stream never finds a running job without one
+			start();
+			logger.debug("Running simulation job " + id + "...");
+			
+			SimulationConfiguration configuration = job.createConfiguration(defaults);
+			
+			AnalysisSimulation analysis = new AnalysisSimulation(configuration, job.getAnalysisControls());
+			Integrate6DOFEquations simulation = analysis.getSimulation();
+			long steps = Math.round(job.getDuration()/analysis.getDt());
+			
+			writeHeader(bw, outputs);
+			
+			StringBuilder sb = new StringBuilder();
+			for (long step = 1; step <= steps && !cancelled; step++) {
+				analysis.step();
+				
+				if (step % job.getOutputDecimation() == 0) {
+					writeRow(bw, sb, simulation.getSimOut(), outputs);
+					
+					if (++rows % FLUSH_ROWS == 0)
+						flush(bw);
+				}
+				
+				// Only the latest step is needed; results are kept in the file 
+				simulation.clearLogsOut();
+				
+				time = simulation.getTime();
+			}
+			
+			flush(bw);
+			finish(cancelled ? JobState.CANCELLED : JobState.COMPLETED);
+		} catch (Exception e) {
+			logger.error("Simulation job " + id + " failed!", e);
+			
+			error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+			
+			// Rows written since the last flush only reach the results file once the writer is closed
+			markFlushed();
+			finish(JobState.FAILED);
+		}
+		
+		logger.debug("Simulation job " + id + " " + state.toString().toLowerCase() + " after " + rows + " rows");
+	}
+	
+	private static void writeHeader(BufferedWriter bw, EnumSet<SimOuts> outputs) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (SimOuts simOut : outputs)
+			sb.append(simOut.toString()).append(",");
+		
+		bw.write(sb.append("\n").toString());
+	}
+	
+	private static void writeRow(BufferedWriter bw, StringBuilder sb, Map<SimOuts, Double> simOut, EnumSet<SimOuts> outputs) throws IOException {
+		sb.setLength(0);
+		for (SimOuts output : outputs)
+			sb.append(simOut.get(output)).append(",");
+		
+		bw.write(sb.append("\n").toString());
+	}
+	
+	private synchronized void flush(BufferedWriter bw) throws IOException {
+		bw.flush();
+		flushedLength = resultsFile.length();
+		notifyAll();
+	}
+	
+	private synchronized void markFlushed() {
+		flushedLength = resultsFile.length();
+	}
+	
+	private synchronized void start() {
+		state = JobState.RUNNING;
+		notifyAll();
+	}
+	
+	private synchronized void finish(JobState finalState) {
+		state = finalState;
+		notifyAll();
+	}
+	
+	/**
+	 * Requests that the job stop; a queued job is cancelled when a worker takes it, and a running job stops at its next step, 
+	 * keeping the results written so far
+	 */
+	public void cancel() { cancelled = true; }
+	
+	/**
+	 * Copies results to os as they are written, blocking until the job is finished and all of its results have been copied. 
+	 * Results are copied in blocks of rows as they are flushed, so a client sees the job progress while it runs
+	 * 
+	 * @param os
+	 * @throws IOException if the results could not be read or os could not be written to
+	 * @throws InterruptedException
+	 */
+	public void streamResults(OutputStream os) throws IOException, InterruptedException {
+		synchronized (this) {
+			while (state == JobState.QUEUED || (!state.isFinished() && !resultsFile.exists()))
+				wait(STREAM_WAIT_MS);
+		}
+		
+		if (!resultsFile.exists())
+			return;
+		
+		byte[] buffer = new byte[8192];
+		long position = 0;
+		
+		try (InputStream is = new FileInputStream(resultsFile)) {
+			while (true) {
+				long available;
+				boolean finished;
+				
+				synchronized (this) {
+					while (position == flushedLength && !state.isFinished())
+						wait(STREAM_WAIT_MS);
+					
+					available = flushedLength - position;
+					finished  = state.isFinished();
+				}
+				
+				while (available > 0) {
+					int read = is.read(buffer, 0, (int) Math.min(buffer.length, available));
+					if (read < 0)
+						break;
+					
+					os.write(buffer, 0, read);
+					position  += read;
+					available -= read;
+				}
+				
+				os.flush();
+				
+				if (finished && position == flushedLength)
+					break;
+			}
+		}
+	}
+	
+	public String getId() { return id; }
+	
+	public JobState getState() { return state; }
+	
+	/**
+	 * @return simulated time reached (sec)
+	 */
+	public double getTime() { return time; }
+	
+	/**
+	 * @return simulated time the job runs for (sec)
+	 */
+	public double getDuration() { return job.getDuration(); }
+	
+	/**
+	 * @return number of result rows written
+	 */
+	public long getRows() { return rows; }
+	
+	/**
+	 * @return message of the error that stopped the job, or null if it didn't fail
+	 */
+	public String getError() { return error; }
+	
+	@JsonIgnore
+	public SimulationJob getJob() { return job; }
+	
+	@JsonIgnore
+	public File getResultsFile() { return resultsFile; }
+}
@@ -0,0 +1,309 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.utilities.ThreadUtilities;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Long-lived headless server that runs {@link SimulationJob}s submitted over a local HTTP/JSON API, and returns their results as CSV 
+ * files. Jobs are run concurrently by a fixed number of worker threads; jobs waiting for a worker are held in a bounded queue, and a job 
+ * submitted while the queue is full is refused so that clients back off instead of the server running out of memory. The API is:
+ * 
+ * <p>POST /jobs - Submits a {@link SimulationJob}; responds 202 with the job's status, 400 if the job is invalid or 503 if the queue is full</p>
+ * <p>GET /jobs - Lists the status of all jobs</p>
+ * <p>GET /jobs/{id} - Responds with the status of a job</p>
+ * <p>GET /jobs/{id}/results - Streams the job's CSV results as they are produced, ending when the job finishes</p>
+ * <p>DELETE /jobs/{id} - Cancels a queued or running job, or removes a finished job and its results</p>
+ */
+public class SimulationServer implements AutoCloseable {
+	
+	private static final Logger logger = LogManager.getLogger(SimulationServer.class);
+	
+	public static final String JOBS_PATH = "/jobs";
+	public static final String RESULTS_PATH = "results";
+	
+	// Clients refused because the queue is full are asked to retry after this many seconds
+	private static final int RETRY_AFTER_SEC = 1;
+	
+	private final ObjectMapper mapper = new ObjectMapper();
+	
+	private final SimulationConfiguration defaults;
+	private final File resultsDirectory;
+	
+	private final HttpServer httpServer;
+	private final ExecutorService requestExecutor;
+	private final ThreadPoolExecutor jobExecutor;
+	
+	private final Map<String, SimulationJobRunner> jobs = new ConcurrentHashMap<>();
+	private final AtomicLong nextJobId = new AtomicLong(1);
+	
+	/**
+	 * Creates the server; jobs are not accepted until {@link #start()} is called
+	 * 
+	 * @param defaults configuration that each job is overlaid onto
+	 * @param address local address and port to listen on; port 0 picks a free port
+	 * @param workers number of jobs run at the same time
+	 * @param queueCapacity number of jobs that can wait for a worker before new jobs are refused
+	 * @param resultsDirectory directory that job results are written to
+	 * @throws IOException if the server could not listen on address
+	 */
+	public SimulationServer(SimulationConfiguration defaults, InetSocketAddress address, int workers, int queueCapacity, 
+							File resultsDirectory) throws IOException {
+		this.defaults = defaults;
+		this.resultsDirectory = resultsDirectory;
+		
+		resultsDirectory.mkdirs();
+		
+		jobExecutor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, 
+											 new ArrayBlockingQueue<Runnable>(queueCapacity), 
+											 ThreadUtilities.namedDaemonThreads("Simulation Job Worker"), 
+											 new ThreadPoolExecutor.AbortPolicy());
+		
+		// Results streams hold their request thread until their job finishes, so requests aren't limited to a fixed number of threads
+		requestExecutor = Executors.newCachedThreadPool(ThreadUtilities.namedDaemonThreads("Simulation Server Request"));
+		
+		httpServer = HttpServer.create(address, 0);
+		httpServer.createContext(JOBS_PATH, this::handle);
+		httpServer.setExecutor(requestExecutor);
+	}
+	
+	public void start() {
+		httpServer.start();
+		logger.debug("Simulation server listening on " + getAddress() + " with " + jobExecutor.getMaximumPoolSize() + " workers");
+	}
+	
+	/**
+	 * Stops listening for requests and cancels all queued and running jobs
+	 */
+	@Override
+	public void close() {
+		logger.debug("Stopping simulation server...");
+		
+		httpServer.stop(0);
+		
+		for (SimulationJobRunner runner : jobs.values())
+			runner.cancel();
+		
+		jobExecutor.shutdown();
+		requestExecutor.shutdownNow();
+		
+		try {
+			if (!jobExecutor.awaitTermination(5, TimeUnit.SECONDS))
+				logger.warn("Simulation jobs did not stop in time!");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Queues a job to be run
+	 * 
+	 * @param job
+	 * @return runner of the queued job
+	 * @throws IllegalArgumentException if the job is invalid
+	 * @throws RejectedExecutionException if the queue is full or the server has been closed
+	 */
+	public SimulationJobRunner submit(SimulationJob job) {
+		job.validate();
+		
+		String id = Long.toString(nextJobId.getAndIncrement());
+		SimulationJobRunner runner = new SimulationJobRunner(id, job, defaults, new File(resultsDirectory, "Job" + id + ".csv"));
+		
+		jobs.put(id, runner);
+		
+		try {
+			jobExecutor.execute(runner);
+		} catch (RejectedExecutionException e) {
+			jobs.remove(id);
+			throw e;
+		}
+		
+		logger.debug("Queued simulation job " + id);
+		
+		return runner;
+	}
+	
+	/**
+	 * Cancels a queued or running job, or removes a finished job and deletes its results
+	 * 
+	 * @param id
+	 * @return runner of the job, or null if no job has this id
+	 */
+	public SimulationJobRunner cancel(String id) {
+		SimulationJobRunner runner = jobs.get(id);
+		
+		if (runner == null)
+			return null;
+		
+		if (runner.getState().isFinished()) {
+			jobs.remove(id);
+			runner.getResultsFile().delete();
+		} else {
+			runner.cancel();
+			
+			// Queued jobs are removed from the queue right away, freeing space for another job; running a cancelled job 
+			// only marks it as cancelled
+			if (jobExecutor.remove(runner))
+				runner.run();
+		}
+		
+		return runner;
+	}
+	
+	public SimulationJobRunner getJob(String id) { return jobs.get(id); }
+	
+	/**
+	 * @return address the server is listening on
+	 */
+	public InetSocketAddress getAddress() { return httpServer.getAddress(); }
+	
+	//===================================================================================================
+	//										Request Handling
+	//===================================================================================================
+	
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			String method = exchange.getRequestMethod();
+			String[] path = exchange.getRequestURI().getPath().substring(JOBS_PATH.length()).split("/");
+			
+			// path[0] is empty, since the path following /jobs starts with a separator  
+			if (path.length <= 1) {
+				if ("POST".equals(method))
+					handleSubmit(exchange);
+				else if ("GET".equals(method))
+					sendJson(exchange, 200, new ArrayList<>(jobs.values()));
+				else
+					sendError(exchange, 405, "Method not allowed");
+				
+				return;
+			}
+			
+			SimulationJobRunner runner = jobs.get(path[1]);
+			
+			if (runner == null || path.length > 3 || (path.length == 3 && !RESULTS_PATH.equals(path[2]))) {
+				sendError(exchange, 404, "Not found");
+			} else if (path.length == 3 && "GET".equals(method)) {
+				handleResults(exchange, runner);
+			} else if ("GET".equals(method)) {
+				sendJson(exchange, 200, runner);
+			} else if ("DELETE".equals(method)) {
+				sendJson(exchange, 200, cancel(runner.getId()));
+			} else {
+				sendError(exchange, 405, "Method not allowed");
+			}
+		} catch (Exception e) {
+			logger.error("Error handling " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + "!", e);
+		} finally {
+			exchange.close();
+		}
+	}
+	
+	private void handleSubmit(HttpExchange exchange) throws IOException {
+		SimulationJob job;
+		
+		try (InputStream is = exchange.getRequestBody()) {
+			job = mapper.readValue(is, SimulationJob.class);
+		} catch (JsonProcessingException e) {
+			sendError(exchange, 400, "Invalid job: " + e.getOriginalMessage());
+			return;
+		}
+		
+		try {
+			SimulationJobRunner runner = submit(job);
+			
+			exchange.getResponseHeaders().set("Location", JOBS_PATH + "/" + runner.getId());
+			sendJson(exchange, 202, runner);
+		} catch (IllegalArgumentException e) {
+			sendError(exchange, 400, "Invalid job: " + e.getMessage());
+		} catch (RejectedExecutionException e) {
+			exchange.getResponseHeaders().set("Retry-After", Integer.toString(RETRY_AFTER_SEC));
+			sendError(exchange, 503, "Job queue is full");
+		}
+	}
+	
+	private void handleResults(HttpExchange exchange, SimulationJobRunner runner) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "text/csv");
+		
+		// A length of zero sends a chunked response, so that rows can be sent as they are produced
+		exchange.sendResponseHeaders(200, 0);
+		
+		try (OutputStream os = exchange.getResponseBody()) {
+			runner.streamResults(os);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+		byte[] bytes;
+		
+		try {
+			bytes = mapper.writeValueAsBytes(body);
+		} catch (JsonProcessingException e) {
+			logger.error("Could not serialize response!", e);
+			sendError(exchange, 500, "Internal server error");
+			return;
+		}
+		
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(bytes);
+		}
+	}
+	
+	private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+		byte[] bytes = mapper.writeValueAsBytes(Collections.singletonMap("error", message));
+		
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(bytes);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.chrisali.javaflightsim.simulation.datatransfer.EnvironmentData;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsStateManager;
+import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControls;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.terrain.WorldTerrain;
+
+/**
+ * Simulation run in analysis mode outside of {@link SimulationRunner}, without input devices, displays or pauses between steps. Each 
+ * object owns its own {@link FlightControlsStateManager} and {@link Integrate6DOFEquations}, so that separate objects can be stepped 
+ * on separate threads. Terrain is found from the shared {@link WorldTerrain}, as it is in {@link SimulationRunner}. It can be started from initial conditions in its configuration, or forked from a {@link SimulationCheckpoint}
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class AnalysisSimulation {
+	
+	private static final int TO_MILLISEC = 1000;
+	
+	private final AtomicInteger timeMS;
+	private final FlightControlsStateManager flightControlsManager;
+	private final Integrate6DOFEquations simulation;
+	private final EnvironmentData environmentData;
+	private final double dt;
+	
+	/**
+	 * @param configuration configuration to simulate; should contain {@link Options#ANALYSIS_MODE} for analysisControls to be used
+	 * @param analysisControls inputs applied to flight controls; can be null
+	 */
+	public AnalysisSimulation(SimulationConfiguration configuration, AnalysisControls analysisControls) {
+		dt = configuration.getIntegratorConfig().get(IntegratorConfig.DT);
+		timeMS = new AtomicInteger((int) (configuration.getIntegratorConfig().get(IntegratorConfig.STARTTIME) * TO_MILLISEC));
+		
+		flightControlsManager = new FlightControlsStateManager(configuration, analysisControls, timeMS);
+		simulation = new Integrate6DOFEquations(flightControlsManager.getControlsState(), configuration);
+		
+		environmentData = new EnvironmentData(WorldTerrain.getTerrain(configuration), simulation);
+		environmentData.addEnvironmentDataListener(simulation);
+	}
+	
+	/**
+	 * Steps flight controls, terrain and the simulation once, then advances time by one time step. Time is kept from the simulation's own 
+	 * time so that it does not drift from it when the time step isn't a whole millisecond
+	 */
+	public void step() {
+		flightControlsManager.step();
+		environmentData.step();
+		simulation.step();
+		
+		timeMS.set((int) Math.round(simulation.getTime() * TO_MILLISEC));
+	}
+	
+	/**
+	 * Steps the simulation until its time reaches endTime
+	 * 
+	 * @param endTime (sec)
+	 */
+	public void runUntil(double endTime) {
+		while (simulation.getTime() < endTime - dt/2)
+			step();
+	}
+	
+	/**
+	 * @return checkpoint of this simulation's current state
+	 */
+	public SimulationCheckpoint checkpoint() { return SimulationCheckpoint.capture(flightControlsManager, simulation); }
+	
+	/**
+	 * Returns this simulation to the state held in checkpoint
+	 * 
+	 * @param checkpoint
+	 */
+	public void restore(SimulationCheckpoint checkpoint) { checkpoint.restore(flightControlsManager, simulation); }
+	
+	/**
+	 * @return simulation time step (sec)
+	 */
+	public double getDt() { return dt; }
+	
+	public AtomicInteger getTimeMS() { return timeMS; }
+	
+	public FlightControlsStateManager getFlightControlsManager() { return flightControlsManager; }
+
+	public Integrate6DOFEquations getSimulation() { return simulation; }
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.chrisali.javaflightsim.interfaces.Checkpointable;
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsStateManager;
+import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControls;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+
+/**
+ * Complete state of a simulation at one point in time: the 6DOF state and integrator, ground reaction, engines, environment, 
+ * flight controls with their trim and transient values, actuator state and time. The state is held in a single primitive array 
+ * laid out by the {@link Checkpointable} components that it was captured from, so a checkpoint is a few kilobytes at most.<br>
+ * Checkpoints cannot be modified once captured, so one checkpoint can be restored into, or forked into, any number of simulations 
+ * of the same aircraft, on any thread. Forking creates independent {@link AnalysisSimulation}s that continue from the checkpoint 
+ * with their own analysis inputs, so alternative control inputs can be explored without flying the part before the checkpoint again
+ * 
+ * @author Christopher Ali
+ *
+ */
+public final class SimulationCheckpoint {
+	
+	private final int timeMS;
+	private final double[] weather;
+	private final double[] state;
+	
+	private SimulationCheckpoint(int timeMS, double[] weather, double[] state) {
+		this.timeMS = timeMS;
+		this.weather = weather;
+		this.state = state;
+	}
+	
+	/**
+	 * Captures the state of a simulation; must be called between steps, from the thread that steps the simulation
+	 * 
+	 * @param flightControlsManager
+	 * @param simulation
+	 * @return checkpoint of the simulation's current state
+	 */
+	public static SimulationCheckpoint capture(FlightControlsStateManager flightControlsManager, Integrate6DOFEquations simulation) {
+		double[] state = new double[flightControlsManager.getCheckpointSize() + simulation.getCheckpointSize()];
+		
+		simulation.writeCheckpoint(state, flightControlsManager.writeCheckpoint(state, 0));
+		
+		return new SimulationCheckpoint(flightControlsManager.getSimTimeMS().get(), Environment.getWeather(), state);
+	}
+	
+	/**
+	 * Sets a simulation to the state held in this checkpoint; must be called between steps, from the thread that steps the 
+	 * simulation. Weather is shared by all simulations, so it is restored for all of them
+	 * 
+	 * @param flightControlsManager
+	 * @param simulation
+	 * @throws IllegalArgumentException if the simulation's state does not have the same layout as this checkpoint, i.e. it
+	 * simulates an aircraft with a different number of engines
+	 */
+	public void restore(FlightControlsStateManager flightControlsManager, Integrate6DOFEquations simulation) {
+		if (flightControlsManager.getCheckpointSize() + simulation.getCheckpointSize() != state.length)
+			throw new IllegalArgumentException("Checkpoint does not match the layout of this simulation's state");
+		
+		simulation.readCheckpoint(state, flightControlsManager.readCheckpoint(state, 0));
+		flightControlsManager.getSimTimeMS().set(timeMS);
+		
+		Environment.restoreWeather(weather);
+	}
+	
+	/**
+	 * Creates a new simulation that continues from this checkpoint
+	 * 
+	 * @param configuration configuration of the simulation that this checkpoint was captured from
+	 * @param analysisControls inputs applied to flight controls from this checkpoint onward, in place of those used before it; inputs 
+	 * are timed from the start of the simulation, so only those that are active at or after the checkpoint's time have an effect
+	 * @return forked simulation
+	 */
+	public AnalysisSimulation fork(SimulationConfiguration configuration, AnalysisControls analysisControls) {
+		AnalysisSimulation fork = new AnalysisSimulation(configuration, analysisControls);
+		fork.restore(this);
+		
+		return fork;
+	}
+	
+	/**
+	 * Creates a new simulation continuing from this checkpoint for each set of alternative inputs. The simulations share no state
+	 * (other than weather), so they can be stepped in parallel
+	 * 
+	 * @param configuration configuration of the simulation that this checkpoint was captured from
+	 * @param alternatives analysis inputs for each forked simulation
+	 * @return forked simulations, in the same order as alternatives
+	 */
+	public List<AnalysisSimulation> fork(SimulationConfiguration configuration, List<AnalysisControls> alternatives) {
+		List<AnalysisSimulation> forks = new ArrayList<>(alternatives.size());
+		
+		for (AnalysisControls analysisControls : alternatives)
+			forks.add(fork(configuration, analysisControls));
+		
+		return forks;
+	}
+	
+	/**
+	 * @return simulation time at which this checkpoint was captured (ms)
+	 */
+	public int getTimeMS() { return timeMS; }
+	
+	/**
+	 * @return number of values held by this checkpoint
+	 */
+	public int getSize() { return state.length + weather.length; }
+	
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + timeMS;
+		result = prime * result + Arrays.hashCode(weather);
+		result = prime * result + Arrays.hashCode(state);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		SimulationCheckpoint other = (SimulationCheckpoint) obj;
+		if (timeMS != other.timeMS)
+			return false;
+		if (!Arrays.equals(weather, other.weather))
+			return false;
+		if (!Arrays.equals(state, other.state))
+			return false;
+		return true;
+	}
+}
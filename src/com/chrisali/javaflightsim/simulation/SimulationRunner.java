@@ -30,16 +30,27 @@ import com.chrisali.javaflightsim.interfaces.SimulationController;
 import com.chrisali.javaflightsim.interfaces.Steppable;
 import com.chrisali.javaflightsim.lwjgl.LWJGLWorld;
 import com.chrisali.javaflightsim.lwjgl.events.WindowClosedListener;
+import com.chrisali.javaflightsim.simulation.autopilot.Autopilot;
 import com.chrisali.javaflightsim.simulation.datatransfer.EnvironmentData;
 import com.chrisali.javaflightsim.simulation.datatransfer.EnvironmentDataListener;
 import com.chrisali.javaflightsim.simulation.datatransfer.FlightData;
-import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataListener;
+import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataSnapshot;
+import com.chrisali.javaflightsim.simulation.datatransfer.TelemetryPublisher;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsState;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsStateManager;
+import com.chrisali.javaflightsim.simulation.instrumentation.SimulationMetrics;
+import com.chrisali.javaflightsim.simulation.instrumentation.TimedStep;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
 import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
 import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.TrafficConfiguration;
+import com.chrisali.javaflightsim.simulation.terrain.WorldTerrain;
+import com.chrisali.javaflightsim.simulation.traffic.TrafficAlertService;
+import com.chrisali.javaflightsim.simulation.traffic.TrafficEngine;
+import com.chrisali.javaflightsim.simulation.traffic.TrafficGenerator;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
 
 /**
  * Main runner thread for JavaFlightSimulator that combines all {@link Steppable} components into a single thread so that they can run
@@ -52,6 +63,10 @@ public class SimulationRunner implements Runnable, WindowClosedListener {
 	
 	private static final Logger logger = LogManager.getLogger(SimulationRunner.class);
 	private static final int TO_MILLISEC = 1000;
+	private static final long TO_NANOSEC = 1_000_000L;
+	
+	// Frames further behind real time than this are dropped rather than caught up
+	private static final int MAX_FRAMES_BEHIND = 5;
 
 	private SimulationController simController;
 	
@@ -61,14 +76,24 @@ public class SimulationRunner implements Runnable, WindowClosedListener {
 	
 	private FlightData flightData;
 	private EnvironmentData environmentData;
+	private TelemetryPublisher telemetry;
+	
+	// Null unless AI_TRAFFIC is enabled outside of analysis mode
+	private TrafficEngine traffic;
+	private TrafficAlertService trafficAlerts;
 	
 	private Map<IntegratorConfig, Double> integratorConfig;
 	private Set<Options> options;	
+	private SimulationConfiguration configuration;
 		
 	private AtomicInteger timeMS = new AtomicInteger(0);
 	private int frameStepMS;
 	private int endTimeMS;
 	private int threadPauseMS;
+	private long nextFrameNanos;
+	
+	// Null unless INSTRUMENTATION is enabled
+	private SimulationMetrics metrics;
 	
 	private boolean running = false;
 	
@@ -81,7 +106,7 @@ public class SimulationRunner implements Runnable, WindowClosedListener {
 	public SimulationRunner(SimulationController simController) {
 		this.simController = simController;
 		
-		SimulationConfiguration configuration = simController.getConfiguration();
+		configuration = simController.getConfiguration();
 		integratorConfig = configuration.getIntegratorConfig();
 		options = configuration.getSimulationOptions();
 		
@@ -92,6 +117,16 @@ public class SimulationRunner implements Runnable, WindowClosedListener {
 		
 		logger.debug("Initializing simulation...");
 		simulation = new Integrate6DOFEquations(flightControlsManager.getControlsState(), configuration);
+		
+		if (options.contains(Options.AUTOPILOT)) {
+			logger.debug("Engaging autopilot...");
+			flightControlsManager.setAutopilot(new Autopilot(FileUtilities.readAutopilotConfiguration(configuration.getSelectedAircraft()), 
+															 simulation, flightControlsManager.getControlsState(), 
+															 integratorConfig.get(IntegratorConfig.DT)));
+		}
+		
+		logger.debug("Initializing flight data transfer...");
+		flightData = new FlightData(simulation);
 	}
 	
 	/**
@@ -104,21 +139,44 @@ public class SimulationRunner implements Runnable, WindowClosedListener {
 		
 		// Pause thread for frameStepMS milliseconds to emulate real time operation in normal mode
 		frameStepMS = (int) (integratorConfig.get(IntegratorConfig.DT) * TO_MILLISEC);
-		threadPauseMS = (!options.contains(Options.ANALYSIS_MODE)) ? frameStepMS : 1;
+		// Recorded sessions are replayed as fast as possible in analysis mode
+		if (!options.contains(Options.ANALYSIS_MODE))
+			threadPauseMS = frameStepMS;
+		else
+			threadPauseMS = options.contains(Options.REPLAY_CONTROLS) ? 0 : 1;
 		
 		// Run forever as a pilot in the loop simulation 
 		if (!options.contains(Options.ANALYSIS_MODE) && options.contains(Options.UNLIMITED_FLIGHT))
 			endTimeMS = Integer.MAX_VALUE;
 		else
 			endTimeMS = integratorConfig.get(IntegratorConfig.ENDTIME).intValue() * TO_MILLISEC;		
+		
+		if (options.contains(Options.INSTRUMENTATION))
+			metrics = new SimulationMetrics(options.contains(Options.ANALYSIS_MODE) ? 0 : frameStepMS * TO_NANOSEC);
 	}
 	
 	/**
-	 * Depending on the presence of ANALYSIS_MODE in options EnumMap, configures the runner to initialize the OTW display and all necessary listeners
+	 * Depending on the presence of ANALYSIS_MODE in options EnumMap, configures the runner to initialize the OTW display and all necessary listeners.
+	 * If the simulation controller is headless, telemetry is sent over the network instead of initializing the OTW display
 	 */
 	private void configureAnalysisNormalMode() {
+		if (simController.isHeadless()) {
+			logger.debug("Initializing network telemetry...");
+			try {
+				telemetry = new TelemetryPublisher(configuration.getNetworkConfiguration(), flightData, simulation);
+			} catch (Exception e) {
+				logger.error("Unable to initialize network telemetry!", e);
+			}
+		}
+		
+		logger.debug("Initializing environment data transfer...");
+		environmentData = new EnvironmentData(WorldTerrain.getTerrain(configuration), simulation);
+		environmentData.addEnvironmentDataListener(simulation);
+		
 		if (options.contains(Options.ANALYSIS_MODE)) {
 			logger.debug("Running simulation in Analysis Mode...");
+		} else if (simController.isHeadless()) {
+			logger.debug("Running simulation in Network Mode...");
 		} else {
 			logger.debug("Running simulation in Normal Mode...");
 						
@@ -127,14 +185,35 @@ public class SimulationRunner implements Runnable, WindowClosedListener {
 			outTheWindow.addWindowClosedListener(this);
 			outTheWindow.init();
 
-			logger.debug("Initializing flight data transfer...");
-			flightData = new FlightData(simulation);
-			flightData.addFlightDataListener(outTheWindow);
-
-			logger.debug("Initializing environment data transfer...");
-			environmentData = new EnvironmentData(outTheWindow);
-			environmentData.addEnvironmentDataListener(simulation);		
+			outTheWindow.setFlightData(flightData.createSnapshot());
 		}
+		
+		if (options.contains(Options.AI_TRAFFIC) && !options.contains(Options.ANALYSIS_MODE))
+			startTraffic();
+	}
+	
+	/**
+	 * Generates AI traffic around the initial position of the ownship and starts updating it on threads of its own, raising
+	 * alerts for traffic in conflict with the ownship
+	 */
+	private void startTraffic() {
+		logger.debug("Generating AI traffic...");
+		
+		TrafficConfiguration trafficConfig = configuration.getTrafficConfiguration();
+		Map<InitialConditions, Double> initialConditions = configuration.getInitialConditions();
+		int workers = trafficConfig.getWorkers() > 0 ? trafficConfig.getWorkers() : Runtime.getRuntime().availableProcessors();
+		
+		traffic = new TrafficEngine(trafficConfig.getAircraftCount(), workers, trafficConfig.getDrawDistance());
+		TrafficGenerator.addRandomTraffic(traffic, trafficConfig, initialConditions.get(InitialConditions.INITN), 
+										  initialConditions.get(InitialConditions.INITE), initialConditions.get(InitialConditions.INITD));
+		traffic.setObserver(initialConditions.get(InitialConditions.INITN), initialConditions.get(InitialConditions.INITE), 
+							initialConditions.get(InitialConditions.INITD));
+		
+		trafficAlerts = new TrafficAlertService(traffic, simulation);
+		traffic.start(trafficConfig.getUpdateRateHz());
+		
+		if (outTheWindow != null)
+			outTheWindow.setTraffic(traffic);
 	}
 	
 	/**
@@ -148,26 +227,42 @@ public class SimulationRunner implements Runnable, WindowClosedListener {
 		
 		if (options.contains(Options.CONSOLE_DISPLAY))
 			simController.initializeConsole();
+		
+		if (metrics != null)
+			metrics.start();
+		
+		nextFrameNanos = System.nanoTime();
 
-		while (running && timeMS.get() < endTimeMS) {
+		while (running && timeMS.get() < endTimeMS && !flightControlsManager.isReplayFinished()) {
 			try {
+				long frameStartNanos = System.nanoTime();
+				
 				// Step update each component if allowed to based on the current time 
 				if (flightControlsManager.canStepNow(timeMS.get()))
-					flightControlsManager.step();
+					step(flightControlsManager, TimedStep.FLIGHT_CONTROLS);
 					
 				if (simulation.canStepNow(timeMS.get()))
-					simulation.step();
+					step(simulation, TimedStep.SIMULATION);
+				
+				if (flightData.canStepNow(timeMS.get()))
+					step(flightData, TimedStep.FLIGHT_DATA);
 				
-				if (flightData != null && flightData.canStepNow(timeMS.get()))
-					flightData.step();
+				if (telemetry != null && telemetry.canStepNow(timeMS.get()))
+					step(telemetry, TimedStep.TELEMETRY);
 				
 				if (environmentData != null && environmentData.canStepNow(timeMS.get()))
-					environmentData.step();
+					step(environmentData, TimedStep.ENVIRONMENT_DATA);
+				
+				if (trafficAlerts != null && trafficAlerts.canStepNow(timeMS.get()))
+					step(trafficAlerts, TimedStep.TRAFFIC_ALERTS);
 				
 				if (outTheWindow != null && outTheWindow.canStepNow(timeMS.get()))
-					outTheWindow.step();
+					step(outTheWindow, TimedStep.OUT_THE_WINDOW);
+				
+				if (metrics != null)
+					metrics.endFrame(frameStartNanos);
 				
-				Thread.sleep((long)(threadPauseMS));
+				waitForNextFrame();
 
 				timeMS.addAndGet(frameStepMS);
 			} catch (Exception ez) {
@@ -177,12 +272,75 @@ public class SimulationRunner implements Runnable, WindowClosedListener {
 			} 
 		}
 		
+		flightControlsManager.shutdown();
+		
+		if (traffic != null)
+			traffic.close();
+		
+		if (metrics != null)
+			metrics.stop();
+		
+		if (telemetry != null) {
+			try {
+				telemetry.close();
+			} catch (Exception e) {
+				logger.error("Error closing network telemetry!", e);
+			}
+		}
+		
 		if (options.contains(Options.ANALYSIS_MODE))
 			simController.plotSimulation();
 		
 		running = false;
 	}
 			
+	/**
+	 * Steps a {@link Steppable} component, recording how long the step took if instrumentation is enabled
+	 * 
+	 * @param steppable
+	 * @param timedStep
+	 */
+	private void step(Steppable steppable, TimedStep timedStep) {
+		if (metrics == null) {
+			steppable.step();
+		} else {
+			long startNanos = System.nanoTime();
+			steppable.step();
+			metrics.getStepTimer(timedStep).stop(startNanos);
+		}
+	}
+	
+	/**
+	 * In analysis mode pauses for threadPauseMS after each frame. Otherwise frames are scheduled every frameStepMS of real time, 
+	 * so that the time spent stepping each frame is not added to the pause; a frame begun late is run immediately to catch up, 
+	 * unless the simulation has fallen more than {@link #MAX_FRAMES_BEHIND} frames behind, in which case those frames are dropped  
+	 * 
+	 * @throws InterruptedException
+	 */
+	private void waitForNextFrame() throws InterruptedException {
+		if (threadPauseMS <= 0)
+			return;
+		
+		if (options.contains(Options.ANALYSIS_MODE)) {
+			Thread.sleep(threadPauseMS);
+			return;
+		}
+		
+		long frameNanos = frameStepMS * TO_NANOSEC;
+		nextFrameNanos += frameNanos;
+		long remainingNanos = nextFrameNanos - System.nanoTime();
+		
+		if (remainingNanos > 0) {
+			Thread.sleep(remainingNanos / TO_NANOSEC, (int) (remainingNanos % TO_NANOSEC));
+		} else if (-remainingNanos > MAX_FRAMES_BEHIND * frameNanos) {
+			nextFrameNanos -= remainingNanos;
+			if (metrics != null)
+				metrics.droppedFrames(-remainingNanos / frameNanos);
+		} else if (metrics != null) {
+			metrics.catchUpStep();
+		}
+	}
+	
 	/**
 	 * When LWJGL OTW window is closed, this event is fired
 	 */
@@ -192,14 +350,10 @@ public class SimulationRunner implements Runnable, WindowClosedListener {
 	}
 
 	/**
-	 * Adds {@link FlightDataListener} objects external to {@link SimulationRunner} to flightData's listener list
-	 * 
-	 * @param listener
+	 * @return {@link FlightData} object that consumers external to {@link SimulationRunner} can create their own 
+	 * {@link FlightDataSnapshot} objects from
 	 */
-	public void addFlightDataListener(FlightDataListener listener) {
-		if (flightData != null) 
-			flightData.addFlightDataListener(listener);
-	}
+	public FlightData getFlightData() { return flightData; }
 	
 	/**
 	 * Adds {@link EnvironmentDataListener} objects external to {@link SimulationRunner} to environmentDataListener's listener list
@@ -213,6 +367,16 @@ public class SimulationRunner implements Runnable, WindowClosedListener {
 		
 	public Integrate6DOFEquations getSimulation() { return simulation; }
 	
+	/**
+	 * @return engine simulating AI traffic, or null if AI_TRAFFIC is not enabled
+	 */
+	public TrafficEngine getTraffic() { return traffic; }
+	
+	/**
+	 * @return service raising alerts for traffic in conflict with the ownship, or null if AI_TRAFFIC is not enabled
+	 */
+	public TrafficAlertService getTrafficAlerts() { return trafficAlerts; }
+	
 	public FlightControlsState getFlightControls() { return flightControlsManager.getControlsState(); }
 
 	public AtomicInteger getTimeMS() { return timeMS; }
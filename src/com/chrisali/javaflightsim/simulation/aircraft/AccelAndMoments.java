@@ -25,14 +25,14 @@ import java.util.Set;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 
 import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
-import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsSnapshot;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 import com.chrisali.javaflightsim.simulation.integration.IntegrateGroundReaction;
 import com.chrisali.javaflightsim.simulation.propulsion.Engine;
 import com.chrisali.javaflightsim.simulation.utilities.SaturationUtilities;
 
 /**
- * Calculates total accelerations and moments experienced by the aircraft in the simulation. The init method creates an
+ * Calculates total accelerations and moments experienced by the aircraft in the simulation. The constructor creates an
  * {@link Aerodynamics} object to calculate aerodynamic forces and moments, which are then added to other various forces 
  * (ground reaction, wind, engine, etc) to yield accelerations and moments used by {@link Integrate6DOFEquations} in its 
  * numerical integration
@@ -40,18 +40,19 @@ import com.chrisali.javaflightsim.simulation.utilities.SaturationUtilities;
  */
 public class AccelAndMoments {
 	
-	private static Aerodynamics aero;
+	private Aerodynamics aero;
 	
-	private static double[] linearAccelerations = new double[3];
-	private static double[] totalMoments 		= new double[3];
+	private double[] linearAccelerations = new double[3];
+	private double[] totalMoments 		 = new double[3];
 	
 	/**
 	 * Initializes {@link AccelAndMoments}. It uses the {@link Aircraft} argument to create an {@link Aerodynamics} object, 
-	 * which calculates aerodynamic forces and moments associated with the Aircraft object passed in
+	 * which calculates aerodynamic forces and moments associated with the Aircraft object passed in. Each simulation 
+	 * has its own instance, so that simulations can run on separate threads
 	 *  
 	 * @param aircraft
 	 */
-	public static void init(Aircraft aircraft) {aero = new Aerodynamics(aircraft);}
+	public AccelAndMoments(Aircraft aircraft) {aero = new Aerodynamics(aircraft);}
 	
 	
 	/**
@@ -68,10 +69,10 @@ public class AccelAndMoments {
 	 * @param heightAGL
 	 * @return linearAccelerations
 	 */
-	public static double[] calculateLinearAccelerations(double[] windParameters,
+	public double[] calculateLinearAccelerations(double[] windParameters,
 									         		    double[] angularRates,
 									         		    Map<EnvironmentParameters, Double> environmentParameters,
-									         		    Map<FlightControl, Double> controls,
+									         		    FlightControlsSnapshot controls,
 									         		    double alphaDot,
 									         		    Set<Engine> engineList,
 									         		    Aircraft aircraft,
@@ -113,10 +114,10 @@ public class AccelAndMoments {
 	 * @param heightAGL
 	 * @return totalMoments
 	 */
-	public static double[] calculateTotalMoments(double[] windParameters,
+	public double[] calculateTotalMoments(double[] windParameters,
 											     double[] angularRates,
 											     Map<EnvironmentParameters, Double> environmentParameters,
-											     Map<FlightControl, Double> controls,
+											     FlightControlsSnapshot controls,
 											     double alphaDot,
 											     Set<Engine> engineList,
 											     Aircraft aircraft,
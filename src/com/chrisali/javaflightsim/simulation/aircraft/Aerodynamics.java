@@ -28,6 +28,7 @@ import org.apache.logging.log4j.Logger;
 
 import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsSnapshot;
 import com.chrisali.javaflightsim.simulation.utilities.SixDOFUtilities;
 
 /**
@@ -35,7 +36,7 @@ import com.chrisali.javaflightsim.simulation.utilities.SixDOFUtilities;
  * body frame to calculate accelerations and moments in {@link AccelAndMoments}. The stability derivatives are {@link LookupTable} objects,
  * which are either constant or linerally interpolatable 
  * 
- * @param EnumMap controls                            
+ * @param FlightControlsSnapshot controls                         
  * @param windParameters 								
  * @param angularRates
  * @param double alphaDot
@@ -71,7 +72,7 @@ public class Aerodynamics {
 	 */
 	private double calculateCL(double[] angularRates,
 						  	   double[] windParameters,
-						  	   Map<FlightControl, Double> controls,
+						  	   FlightControlsSnapshot controls,
 						  	   double alphaDot,
 						  	   double heightAGL) {
 		double rotaryTerm = aircraft.getWingGeometry(WingGeometry.C_BAR)/(2*windParameters[0]);
@@ -92,7 +93,7 @@ public class Aerodynamics {
 	 * @return CY
 	 */
 	private double calculateCY(double[] windParameters,
-						 	   Map<FlightControl, Double> controls) {
+						 	   FlightControlsSnapshot controls) {
 		return aircraft.getStabilityDerivative(StabilityDerivatives.CY_BETA).getValue()*windParameters[1]+
 			   aircraft.getStabilityDerivative(StabilityDerivatives.CY_D_RUD).getValue()*controls.get(FlightControl.RUDDER);	
 	}
@@ -106,7 +107,7 @@ public class Aerodynamics {
 	 * @return CD
 	 */
 	private double calculateCD(double[] windParameters,
-					 	  	   Map<FlightControl, Double> controls,
+					 	  	   FlightControlsSnapshot controls,
 					 	  	   double heightAGL) {
 		return calculateInterpStabDer(windParameters, controls, StabilityDerivatives.CD_ALPHA)*Math.abs(windParameters[2])/groundEffect(heightAGL)+ // Need absolute value to prevent negative drag at negative alpha
 			   aircraft.getStabilityDerivative(StabilityDerivatives.CD_0).getValue()+
@@ -125,7 +126,7 @@ public class Aerodynamics {
 	 */
 	private double calculateCRoll(double[] angularRates,
 					  	    	  double[] windParameters,
-					  	    	  Map<FlightControl, Double> controls) {
+					  	    	  FlightControlsSnapshot controls) {
 		double helixAngle = aircraft.getWingGeometry(WingGeometry.B_WING)/(2*windParameters[0]);
 		
 		return aircraft.getStabilityDerivative(StabilityDerivatives.CROLL_BETA).getValue()*windParameters[1]+
@@ -146,7 +147,7 @@ public class Aerodynamics {
 	 */
 	private double calculateCM(double[] angularRates,
 						 	   double[] windParameters,
-						 	   Map<FlightControl, Double> controls,
+						 	   FlightControlsSnapshot controls,
 						 	   double alphaDot) {
 		double rotaryTerm = aircraft.getWingGeometry(WingGeometry.C_BAR)/(2*windParameters[0]);
 		
@@ -168,7 +169,7 @@ public class Aerodynamics {
 	 */
 	private double calculateCN(double[] angularRates,
 						 	   double[] windParameters,
-						 	   Map<FlightControl, Double> controls) {
+						 	   FlightControlsSnapshot controls) {
 		double helixAngle = aircraft.getWingGeometry(WingGeometry.B_WING)/(2*windParameters[0]);
 		
 		return aircraft.getStabilityDerivative(StabilityDerivatives.CN_BETA).getValue()*windParameters[1]+
@@ -188,7 +189,7 @@ public class Aerodynamics {
 	 * @return interpStabDer
 	 */
 	public Double calculateInterpStabDer(double[] windParameters,
-			 							 Map<FlightControl, Double> controls,
+			 							 FlightControlsSnapshot controls,
 			 							 StabilityDerivatives stabDer) {
 		Double interpStabDer;		
 		LookupTable lookup = aircraft.getStabilityDerivative(stabDer);
@@ -233,7 +234,7 @@ public class Aerodynamics {
 	public double[] calculateBodyForces(double[] windParameters,
 									  	double[] angularRates,
 										Map<EnvironmentParameters, Double> environmentParameters,
-									    Map<FlightControl, Double> controls,
+									    FlightControlsSnapshot controls,
 										double alphaDot,
 										double heightAGL) {
 		double qBar = environmentParameters.get(EnvironmentParameters.RHO)*Math.pow(windParameters[0], 2)/2;
@@ -263,7 +264,7 @@ public class Aerodynamics {
 	public double[] calculateAeroMoments(double[] windParameters,
 									     double[] angularRates,
 									     Map<EnvironmentParameters, Double> environmentParameters,
-									     Map<FlightControl, Double> controls,
+									     FlightControlsSnapshot controls,
 									     double alphaDot) {
 		double qBar = environmentParameters.get(EnvironmentParameters.RHO)*Math.pow(windParameters[0], 2)/2;
 		
@@ -19,20 +19,23 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.aircraft;
 
-import org.apache.commons.math3.analysis.interpolation.PiecewiseBicubicSplineInterpolatingFunction;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.chrisali.javaflightsim.simulation.utilities.InterpolationUtilities;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
 
 /**
- * Wrapper for the Apache Commons' PiecewiseBicubicSplineInterpolatingFunction that allows a double value to be
- * interpolated for two given breakpoints. It is also capable of returning a single value if no interpolation 
- * arrays are specified upon construction
+ * Piecewise bicubic spline lookup table that allows a double value to be interpolated for two given breakpoints, using 
+ * the same interpolant as Apache Commons' PiecewiseBicubicSplineInterpolatingFunction. Spline coefficients are calculated 
+ * once upon construction using {@link InterpolationUtilities} (or restored from a configuration snapshot), so interpolation 
+ * does not allocate. It is also capable of returning a single value if no 
+ * interpolation arrays are specified upon construction
  * 
  * @author Christopher
  *
@@ -53,8 +56,7 @@ public class LookupTable {
 
 	private Double value;
 	
-	@JsonIgnore
-	private PiecewiseBicubicSplineInterpolatingFunction pbsif;
+	private double[] splineCoefficients;
 	
 	public LookupTable() {}
 
@@ -78,12 +80,29 @@ public class LookupTable {
 	 * @param defaultValue
 	 * @param name
 	 */
+	public LookupTable(double[] breakPointAngle, double[] breakPointFlap, double[][] lookupValues, double defaultValue, String name) {
+		this(breakPointAngle, breakPointFlap, lookupValues, defaultValue, name, null);
+	}
+	
+	/**
+	 * Creates a LookupTable capable of interpolating in two dimensions; one for an angle of deflection, the other
+	 * for deflection of a control surface. If splineCoefficients were previously calculated for the same breakpoints
+	 * (i.e. read from a configuration snapshot), they are used directly instead of being calculated again
+	 * 
+	 * @param breakPointAngle
+	 * @param breakPointFlap
+	 * @param lookupValues
+	 * @param defaultValue
+	 * @param name
+	 * @param splineCoefficients
+	 */
 	@JsonCreator
 	public LookupTable(@JsonProperty(required=false, value="breakPointAngle") double[] breakPointAngle, 
 					   @JsonProperty(required=false, value="breakPointFlap") double[] breakPointFlap, 
 					   @JsonProperty(required=false, value="lookupValues") double[][] lookupValues, 
 					   @JsonProperty(required=false, value="value") double defaultValue,
-					   @JsonProperty(required=false, value="name") String name) {
+					   @JsonProperty(required=false, value="name") String name,
+					   @JsonProperty(required=false, value="splineCoefficients") double[] splineCoefficients) {
 		this.breakPointAngle = breakPointAngle;
 		this.breakPointFlap = breakPointFlap;
 		this.lookupValues = lookupValues;
@@ -91,28 +110,33 @@ public class LookupTable {
 		this.name = name;
 		
 		if (breakPointAngle != null && breakPointFlap != null && lookupValues != null) {
-			logger.debug("Creating an interpolating lookup table for " + name + "...");
-			pbsif = new PiecewiseBicubicSplineInterpolatingFunction(breakPointAngle, breakPointFlap, lookupValues);
+			int expectedLength = InterpolationUtilities.getBicubicCoefficientCount(breakPointAngle.length, breakPointFlap.length);
+			
+			if (splineCoefficients != null && splineCoefficients.length == expectedLength) {
+				this.splineCoefficients = splineCoefficients;
+			} else {
+				logger.debug("Creating an interpolating lookup table for " + name + "...");
+				this.splineCoefficients = InterpolationUtilities.calculateBicubicCoefficients(breakPointAngle, breakPointFlap, lookupValues);
+			}
 		}
 	}
 
 	/**
 	 * @param angle
 	 * @param flap
-	 * @return an interpolated Double value if an interpolating function has been initialized, otherwise returns a constant value
+	 * @return an interpolated value if interpolating coefficients have been initialized, otherwise returns a constant value
+	 * @throws org.apache.commons.math3.exception.OutOfRangeException if angle or flap lie outside of the table's breakpoints
 	 */
-	public Double interpolate(double angle, double flap) {	
-		Double interp = value;
+	public double interpolate(double angle, double flap) {	
+		if (splineCoefficients != null)
+			return InterpolationUtilities.bicubicValue(breakPointAngle, breakPointFlap, splineCoefficients, angle, flap);
 		
-		if (pbsif != null)
-			interp = pbsif.value(angle, flap);
-		
-		if (interp == null) {
+		if (value == null) {
 			logger.error("Null value encountered in interpolation of " + name + "! Returning 0...");			
-			interp = 0.0;
+			return 0.0;
 		}
 		
-		return interp;
+		return value;
 	}
 		
 	public String getName() { return name; }
@@ -137,4 +161,10 @@ public class LookupTable {
 	public double[][] getLookupValues() { return lookupValues; }
 
 	public void setLookupValues(double[][] lookUpValues) { this.lookupValues = lookUpValues; }	
+
+	/**
+	 * @return precomputed bicubic spline coefficients; only written to configuration snapshots, never to JSON files
+	 */
+	@JsonProperty(access=Access.WRITE_ONLY)
+	public double[] getSplineCoefficients() { return splineCoefficients; }
 }
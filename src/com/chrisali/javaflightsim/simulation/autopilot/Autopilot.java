@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.autopilot;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.ControlParameterActuator;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsState;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsStateManager;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.propulsion.EngineChannels;
+
+/**
+ * Holds the attitude, altitude, heading and airspeed of the aircraft at targets set for each {@link AutopilotMode} engaged, using
+ * a {@link PIDController} for each mode. Altitude hold commands the pitch attitude loop and heading hold commands the roll attitude
+ * loop, which move the elevator and ailerons; airspeed hold moves the throttles of every engine around their trim values.<br>
+ * The autopilot is updated by {@link FlightControlsStateManager} each step after pilot or analysis inputs, reading the state of 
+ * the aircraft from the previous step of {@link Integrate6DOFEquations}, and commands the controls through a 
+ * {@link ControlParameterActuator} in the same way as a joystick, so that the actuator's transient lag acts as the servos. 
+ * Controls not commanded by an engaged mode are left to the pilot or analysis inputs
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class Autopilot {
+	
+	private static final Logger logger = LogManager.getLogger(Autopilot.class);
+	
+	// Limits of the attitude commanded by the altitude and heading loops
+	public static final double MAX_PITCH_COMMAND = Math.toRadians(15);
+	public static final double MAX_ROLL_COMMAND  = Math.toRadians(30);
+	
+	// ALT_DOT is logged in ft/min
+	private static final double ALT_DOT_TO_FT_SEC = 1.0 / 60.0;
+	
+	private final Integrate6DOFEquations simulation;
+	private final FlightControlsState controlsState;
+	private final double dt;
+	
+	private final Map<AutopilotMode, PIDController> controllers = new EnumMap<>(AutopilotMode.class);
+	
+	// Engaged modes and their targets; NaN targets are set to the held value at the next update
+	private final Map<AutopilotMode, Double> targets = new EnumMap<>(AutopilotMode.class);
+	
+	// Pitch attitude that the altitude loop commands changes around, set when altitude hold is engaged
+	private double pitchReference = Double.NaN;
+	
+	/**
+	 * Creates an autopilot with the gains of configuration, and engages its engaged modes
+	 * 
+	 * @param configuration
+	 * @param simulation simulation whose state is held
+	 * @param controlsState flight controls, whose trim values are used as the throttle settings that airspeed hold moves around
+	 * @param dt time step of the simulation (sec)
+	 */
+	public Autopilot(AutopilotConfiguration configuration, Integrate6DOFEquations simulation, FlightControlsState controlsState, double dt) {
+		this.simulation = simulation;
+		this.controlsState = controlsState;
+		this.dt = dt;
+		
+		controllers.put(AutopilotMode.PITCH_HOLD, 	 new PIDController(FlightControl.ELEVATOR.getMinimum(), FlightControl.ELEVATOR.getMaximum()));
+		controllers.put(AutopilotMode.ROLL_HOLD, 	 new PIDController(FlightControl.AILERON.getMinimum(), FlightControl.AILERON.getMaximum()));
+		controllers.put(AutopilotMode.ALTITUDE_HOLD, new PIDController(-MAX_PITCH_COMMAND, MAX_PITCH_COMMAND));
+		controllers.put(AutopilotMode.HEADING_HOLD,  new PIDController(-MAX_ROLL_COMMAND, MAX_ROLL_COMMAND));
+		controllers.put(AutopilotMode.AIRSPEED_HOLD, new PIDController(-1.0, 1.0));
+		
+		setGains(configuration.getGains());
+		
+		for (Map.Entry<AutopilotMode, Double> engagedMode : configuration.getEngagedModes().entrySet()) {
+			if (engagedMode.getValue() != null)
+				engage(engagedMode.getKey(), engagedMode.getValue());
+			else
+				engage(engagedMode.getKey());
+		}
+	}
+	
+	/**
+	 * Sets the gains of each mode's controller; gains missing from gains are set to zero
+	 * 
+	 * @param gains
+	 */
+	public void setGains(Map<AutopilotGain, Double> gains) {
+		controllers.get(AutopilotMode.PITCH_HOLD).setGains(gain(gains, AutopilotGain.PITCH_KP), gain(gains, AutopilotGain.PITCH_KI), 
+														   gain(gains, AutopilotGain.PITCH_KD));
+		controllers.get(AutopilotMode.ROLL_HOLD).setGains(gain(gains, AutopilotGain.ROLL_KP), gain(gains, AutopilotGain.ROLL_KI), 
+														  gain(gains, AutopilotGain.ROLL_KD));
+		controllers.get(AutopilotMode.ALTITUDE_HOLD).setGains(gain(gains, AutopilotGain.ALTITUDE_KP), gain(gains, AutopilotGain.ALTITUDE_KI), 
+															  gain(gains, AutopilotGain.ALTITUDE_KD));
+		controllers.get(AutopilotMode.HEADING_HOLD).setGains(gain(gains, AutopilotGain.HEADING_KP), gain(gains, AutopilotGain.HEADING_KI), 0);
+		controllers.get(AutopilotMode.AIRSPEED_HOLD).setGains(gain(gains, AutopilotGain.AIRSPEED_KP), gain(gains, AutopilotGain.AIRSPEED_KI), 0);
+	}
+	
+	private static double gain(Map<AutopilotGain, Double> gains, AutopilotGain gain) {
+		Double value = gains.get(gain);
+		
+		return value != null ? value : 0.0;
+	}
+	
+	/**
+	 * Engages a mode, holding the aircraft at target
+	 * 
+	 * @param mode
+	 * @param target value of {@link AutopilotMode#getHeldValue()} to hold, in the units of {@link SimOuts}
+	 */
+	public void engage(AutopilotMode mode, double target) {
+		if (!targets.containsKey(mode))
+			controllers.get(mode).reset();
+		
+		if (mode == AutopilotMode.ALTITUDE_HOLD && !targets.containsKey(mode))
+			pitchReference = Double.NaN;
+		
+		targets.put(mode, target);
+		
+		logger.debug(mode + " engaged" + (Double.isNaN(target) ? "" : " at " + target));
+	}
+	
+	/**
+	 * Engages a mode, holding the aircraft at the value of {@link AutopilotMode#getHeldValue()} when next updated  
+	 * 
+	 * @param mode
+	 */
+	public void engage(AutopilotMode mode) { engage(mode, Double.NaN); }
+	
+	public void disengage(AutopilotMode mode) {
+		if (targets.remove(mode) != null)
+			logger.debug(mode + " disengaged");
+	}
+	
+	public boolean isEngaged(AutopilotMode mode) { return targets.containsKey(mode); }
+	
+	/**
+	 * @param mode
+	 * @return target of an engaged mode, NaN if it will hold the value when next updated, or null if not engaged
+	 */
+	public Double getTarget(AutopilotMode mode) { return targets.get(mode); }
+	
+	/**
+	 * Disengages all modes and clears the integrals of their controllers
+	 */
+	public void reset() {
+		targets.clear();
+		
+		for (PIDController controller : controllers.values())
+			controller.reset();
+		
+		pitchReference = Double.NaN;
+	}
+	
+	/**
+	 * Runs each engaged mode's control loop for one step, commanding the flight controls through actuator
+	 * 
+	 * @param actuator
+	 */
+	public void update(ControlParameterActuator actuator) {
+		Map<SimOuts, Double> simOut = simulation.getSimOut();
+		
+		// Simulation has not stepped yet
+		if (simOut.isEmpty() || targets.isEmpty())
+			return;
+		
+		for (Map.Entry<AutopilotMode, Double> target : targets.entrySet()) {
+			if (Double.isNaN(target.getValue()))
+				target.setValue(simOut.get(target.getKey().getHeldValue()));
+		}
+		
+		double theta = simOut.get(SimOuts.THETA);
+		double phi   = simOut.get(SimOuts.PHI);
+		
+		// Longitudinal: altitude hold changes pitch attitude around the attitude it was engaged at
+		Double pitchTarget = targets.get(AutopilotMode.PITCH_HOLD);
+		if (targets.containsKey(AutopilotMode.ALTITUDE_HOLD)) {
+			if (Double.isNaN(pitchReference))
+				pitchReference = theta;
+			
+			double altitudeError = targets.get(AutopilotMode.ALTITUDE_HOLD) - simOut.get(SimOuts.ALT);
+			double pitchChange = controllers.get(AutopilotMode.ALTITUDE_HOLD).update(altitudeError, simOut.get(SimOuts.ALT_DOT) * ALT_DOT_TO_FT_SEC, dt);
+			
+			pitchTarget = limit(pitchReference + pitchChange, MAX_PITCH_COMMAND);
+		}
+		
+		// Positive elevator pitches the nose down
+		if (pitchTarget != null) {
+			double elevator = -controllers.get(AutopilotMode.PITCH_HOLD).update(pitchTarget - theta, simOut.get(SimOuts.Q), dt);
+			actuator.handleParameterChange(FlightControl.ELEVATOR, deflectionCommand(FlightControl.ELEVATOR, elevator));
+		}
+		
+		// Lateral: heading hold commands a bank angle
+		Double rollTarget = targets.get(AutopilotMode.ROLL_HOLD);
+		if (targets.containsKey(AutopilotMode.HEADING_HOLD)) {
+			double headingError = wrapAngle(targets.get(AutopilotMode.HEADING_HOLD) - simOut.get(SimOuts.PSI));
+			rollTarget = controllers.get(AutopilotMode.HEADING_HOLD).update(headingError, simOut.get(SimOuts.PSI_DOT), dt);
+		}
+		
+		// Positive aileron rolls the aircraft left
+		if (rollTarget != null) {
+			double aileron = -controllers.get(AutopilotMode.ROLL_HOLD).update(rollTarget - phi, simOut.get(SimOuts.P), dt);
+			actuator.handleParameterChange(FlightControl.AILERON, deflectionCommand(FlightControl.AILERON, aileron));
+		}
+		
+		// Airspeed: throttles move together from their trim settings
+		if (targets.containsKey(AutopilotMode.AIRSPEED_HOLD)) {
+			double airspeedError = targets.get(AutopilotMode.AIRSPEED_HOLD) - simOut.get(SimOuts.TAS);
+			double throttleChange = controllers.get(AutopilotMode.AIRSPEED_HOLD).update(airspeedError, simOut.get(SimOuts.U_DOT), dt);
+			
+			for (int i = 0; i < EngineChannels.MAX_ENGINES; i++) {
+				double throttle = Math.max(0.0, Math.min(1.0, controlsState.getTrimValue(EngineChannels.THROTTLE[i]) + throttleChange));
+				
+				// Levers are commanded from 1 (idle) to -1 (full)
+				actuator.handleParameterChange(EngineChannels.THROTTLE[i], (float) (1 - 2 * throttle));
+			}
+		}
+	}
+	
+	/**
+	 * Inverts the mapping of joystick axis values to deflections from trim used by the actuator for trimmable controls, where a 
+	 * squared axis value (keeping its sign) scales the control's maximum if negative, or its minimum if positive
+	 * 
+	 * @param control
+	 * @param deflection deflection from trim (rad)
+	 * @return axis value that deflects control by deflection
+	 */
+	static float deflectionCommand(FlightControl control, double deflection) {
+		double value = deflection >= 0 ? -Math.sqrt(deflection / control.getMaximum()) : Math.sqrt(deflection / control.getMinimum());
+		
+		return (float) Math.max(-1.0, Math.min(1.0, value));
+	}
+	
+	private static double limit(double value, double limit) { return Math.max(-limit, Math.min(limit, value)); }
+	
+	/**
+	 * @param angle (rad)
+	 * @return angle wrapped between -pi and pi
+	 */
+	static double wrapAngle(double angle) {
+		return angle - 2 * Math.PI * Math.floor((angle + Math.PI) / (2 * Math.PI));
+	}
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.autopilot;
+
+import java.io.File;
+import java.util.EnumMap;
+
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+import com.chrisali.javaflightsim.simulation.utilities.SimDirectories;
+
+/**
+ * Gains of the {@link Autopilot} and the modes it engages when the simulation starts. Gains are tuned for each aircraft, so this 
+ * is used to (de)serialize the file AutopilotConfiguration.json in the Aircraft/{aircraftName} directory; gains missing from the 
+ * file keep the conservative defaults set here, which can be improved with {@link AutopilotGainOptimizer}
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class AutopilotConfiguration {
+	
+	private EnumMap<AutopilotGain, Double> gains = new EnumMap<>(AutopilotGain.class);
+	
+	/**
+	 * Modes engaged when the simulation starts, with their targets; a null target holds the value when the mode is engaged
+	 */
+	private EnumMap<AutopilotMode, Double> engagedModes = new EnumMap<>(AutopilotMode.class);
+	
+	public AutopilotConfiguration() {
+		gains.put(AutopilotGain.PITCH_KP, 	 2.0);
+		gains.put(AutopilotGain.PITCH_KI, 	 0.5);
+		gains.put(AutopilotGain.PITCH_KD, 	 0.2);
+		gains.put(AutopilotGain.ROLL_KP, 	 1.0);
+		gains.put(AutopilotGain.ROLL_KI, 	 0.1);
+		gains.put(AutopilotGain.ROLL_KD, 	 0.1);
+		gains.put(AutopilotGain.ALTITUDE_KP, 0.002);
+		gains.put(AutopilotGain.ALTITUDE_KI, 0.0002);
+		gains.put(AutopilotGain.ALTITUDE_KD, 0.005);
+		gains.put(AutopilotGain.HEADING_KP,  1.0);
+		gains.put(AutopilotGain.HEADING_KI,  0.02);
+		gains.put(AutopilotGain.AIRSPEED_KP, 0.02);
+		gains.put(AutopilotGain.AIRSPEED_KI, 0.005);
+		
+		engagedModes.put(AutopilotMode.ALTITUDE_HOLD, null);
+		engagedModes.put(AutopilotMode.HEADING_HOLD, null);
+		engagedModes.put(AutopilotMode.AIRSPEED_HOLD, null);
+	}
+	
+	/**
+	 * Saves this configuration to AutopilotConfiguration.json in the Aircraft/{aircraftName} directory
+	 * 
+	 * @param aircraftName
+	 */
+	public void save(String aircraftName) {
+		FileUtilities.serializeJson(SimDirectories.AIRCRAFT.toString() + File.separator + aircraftName, 
+									this.getClass().getSimpleName(), this);
+	}
+	
+	public double getGain(AutopilotGain gain) { return gains.get(gain); }
+
+	public EnumMap<AutopilotGain, Double> getGains() { return gains; }
+
+	/**
+	 * Replaces the gains in newGains, keeping the current value of any gain not in newGains 
+	 * 
+	 * @param newGains
+	 */
+	public void setGains(EnumMap<AutopilotGain, Double> newGains) { gains.putAll(newGains); }
+
+	public EnumMap<AutopilotMode, Double> getEngagedModes() { return engagedModes; }
+
+	public void setEngagedModes(EnumMap<AutopilotMode, Double> engagedModes) { this.engagedModes = engagedModes; }
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		
+		for (AutopilotGain gain : AutopilotGain.values())
+			sb.append(gain.toString()).append(": ").append(gains.get(gain)).append("\n");
+		
+		return sb.toString();
+	}
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.autopilot;
+
+/**
+ * Provides Enums for the gains EnumMap of {@link AutopilotConfiguration}. Proportional (KP), integral (KI) and derivative (KD) 
+ * gains are grouped by the {@link AutopilotMode} whose loop they belong to; derivative gains act on the rate of the held value 
+ * rather than on its error, so that changing a target does not kick the controls
+ * 
+ * @author Christopher Ali
+ *
+ */
+public enum AutopilotGain {
+	PITCH_KP	("Pitch KP [rad/rad]", 					AutopilotMode.PITCH_HOLD),
+	PITCH_KI	("Pitch KI [rad/rad*sec]", 				AutopilotMode.PITCH_HOLD),
+	PITCH_KD	("Pitch KD [rad/rad/sec]", 				AutopilotMode.PITCH_HOLD),
+	ROLL_KP		("Roll KP [rad/rad]", 					AutopilotMode.ROLL_HOLD),
+	ROLL_KI		("Roll KI [rad/rad*sec]", 				AutopilotMode.ROLL_HOLD),
+	ROLL_KD		("Roll KD [rad/rad/sec]", 				AutopilotMode.ROLL_HOLD),
+	ALTITUDE_KP	("Altitude KP [rad/ft]", 				AutopilotMode.ALTITUDE_HOLD),
+	ALTITUDE_KI	("Altitude KI [rad/ft*sec]", 			AutopilotMode.ALTITUDE_HOLD),
+	ALTITUDE_KD	("Altitude KD [rad/ft/sec]", 			AutopilotMode.ALTITUDE_HOLD),
+	HEADING_KP	("Heading KP [rad/rad]", 				AutopilotMode.HEADING_HOLD),
+	HEADING_KI	("Heading KI [rad/rad*sec]", 			AutopilotMode.HEADING_HOLD),
+	AIRSPEED_KP	("Airspeed KP [throttle/ft/sec]", 		AutopilotMode.AIRSPEED_HOLD),
+	AIRSPEED_KI	("Airspeed KI [throttle/ft]", 			AutopilotMode.AIRSPEED_HOLD);
+	
+	private final String gain;
+	private final AutopilotMode mode;
+	
+	AutopilotGain(String gain, AutopilotMode mode) {
+		this.gain = gain;
+		this.mode = mode;
+	}
+	
+	/**
+	 * @return mode whose loop this gain belongs to
+	 */
+	public AutopilotMode getMode() { return mode; }
+	
+	@Override
+	public String toString() { return gain; }
+}
@@ -0,0 +1,391 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.autopilot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.AnalysisSimulation;
+import com.chrisali.javaflightsim.simulation.SimulationCheckpoint;
+import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControls;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.utilities.ThreadUtilities;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tunes the gains of each {@link AutopilotMode} of the {@link Autopilot} by running short closed-loop simulations of a step 
+ * change in that mode's target, scoring each candidate set of gains by its time-weighted tracking error.<br>
+ * Gains are searched with the cross-entropy method in log space: each generation, a population of candidates is sampled around 
+ * the current mean, all candidates are simulated concurrently by a pool of workers, and the mean and spread are refit to the best
+ * quarter of the population. The best candidate found so far is carried into each generation, so the score never worsens.<br>
+ * Each worker keeps one {@link AnalysisSimulation} and restores it from a {@link SimulationCheckpoint} of trimmed flight before 
+ * every candidate, so that candidates are scored from identical states and the results do not depend on which worker ran them
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class AutopilotGainOptimizer implements AutoCloseable {
+	
+	private static final Logger logger = LogManager.getLogger(AutopilotGainOptimizer.class);
+	
+	private static final ObjectMapper mapper = new ObjectMapper();
+	
+	// Loops beneath others are tuned first, so that the outer loops are tuned around them
+	private static final AutopilotMode[] TUNING_ORDER = {AutopilotMode.PITCH_HOLD, AutopilotMode.ROLL_HOLD, AutopilotMode.AIRSPEED_HOLD, 
+														 AutopilotMode.ALTITUDE_HOLD, AutopilotMode.HEADING_HOLD};
+	
+	private static final double ELITE_FRACTION = 0.25;
+	private static final double INITIAL_SPREAD = 0.5;
+	private static final double MINIMUM_SPREAD = 0.02;
+	
+	// Scores of simulations that leave the flight envelope start above any tracking error
+	private static final double DIVERGED_SCORE = 1000.0;
+	private static final double MAX_PHI = Math.toRadians(60);
+	private static final double MAX_THETA = Math.toRadians(30);
+	private static final double MAX_ALTITUDE_CHANGE = 2000.0;
+	
+	private final SimulationConfiguration configuration;
+	
+	private final ExecutorService executor;
+	private final ThreadLocal<Worker> workers;
+	
+	/**
+	 * Step response simulated to score the gains of a mode: the mode is engaged with its target changed by step from the trimmed 
+	 * value, while the other modes hold their trimmed values
+	 */
+	private static class Scenario {
+		private final AutopilotMode mode;
+		private final double step;
+		private final double duration;
+		private final EnumSet<AutopilotMode> holds;
+		
+		private Scenario(AutopilotMode mode, double step, double duration, EnumSet<AutopilotMode> holds) {
+			this.mode = mode;
+			this.step = step;
+			this.duration = duration;
+			this.holds = holds;
+		}
+	}
+	
+	private static Scenario scenario(AutopilotMode mode) {
+		switch (mode) {
+		case PITCH_HOLD:
+			return new Scenario(mode, Math.toRadians(5), 10.0, EnumSet.of(AutopilotMode.ROLL_HOLD));
+		case ROLL_HOLD:
+			return new Scenario(mode, Math.toRadians(20), 10.0, EnumSet.of(AutopilotMode.PITCH_HOLD));
+		case ALTITUDE_HOLD:
+			return new Scenario(mode, 200.0, 30.0, EnumSet.of(AutopilotMode.ROLL_HOLD, AutopilotMode.AIRSPEED_HOLD));
+		case HEADING_HOLD:
+			return new Scenario(mode, Math.toRadians(30), 30.0, EnumSet.of(AutopilotMode.ALTITUDE_HOLD, AutopilotMode.AIRSPEED_HOLD));
+		case AIRSPEED_HOLD:
+		default:
+			return new Scenario(mode, 15.0, 30.0, EnumSet.of(AutopilotMode.ROLL_HOLD, AutopilotMode.PITCH_HOLD));
+		}
+	}
+	
+	/**
+	 * Simulation owned by one worker thread, restored to trimmed flight before each candidate
+	 */
+	private class Worker {
+		private final AnalysisSimulation analysis;
+		private final SimulationCheckpoint trimmed;
+		private final Autopilot autopilot;
+		
+		private Worker() {
+			AnalysisControls noInputs = new AnalysisControls();
+			noInputs.setAnalysisInputs(new ArrayList<>());
+			
+			AutopilotConfiguration autopilotConfig = new AutopilotConfiguration();
+			autopilotConfig.getEngagedModes().clear();
+			
+			analysis = new AnalysisSimulation(configuration, noInputs);
+			autopilot = new Autopilot(autopilotConfig, analysis.getSimulation(), analysis.getFlightControlsManager().getControlsState(), 
+									  analysis.getDt());
+			analysis.getFlightControlsManager().setAutopilot(autopilot);
+			
+			trimmed = analysis.checkpoint();
+		}
+		
+		private double evaluate(Scenario scenario, Map<AutopilotGain, Double> gains) {
+			analysis.restore(trimmed);
+			
+			autopilot.reset();
+			autopilot.setGains(gains);
+			
+			// Simulation has to step once for the autopilot to read the trimmed state 
+			Integrate6DOFEquations simulation = analysis.getSimulation();
+			double startTime = simulation.getTime();
+			analysis.step();
+			
+			Map<SimOuts, Double> trim = simulation.getSimOut();
+			double startAltitude = trim.get(SimOuts.ALT);
+			
+			for (AutopilotMode hold : scenario.holds)
+				autopilot.engage(hold);
+			autopilot.engage(scenario.mode, trim.get(scenario.mode.getHeldValue()) + scenario.step);
+			
+			double target = autopilot.getTarget(scenario.mode);
+			double dt = analysis.getDt();
+			double score = 0;
+			
+			for (double t = dt; t < scenario.duration; t += dt) {
+				analysis.step();
+				simulation.clearLogsOut();
+				
+				Map<SimOuts, Double> simOut = simulation.getSimOut();
+				double phi = simOut.get(SimOuts.PHI), theta = simOut.get(SimOuts.THETA), altitude = simOut.get(SimOuts.ALT);
+				
+				if (Double.isNaN(phi + theta + altitude) || Math.abs(phi) > MAX_PHI || Math.abs(theta) > MAX_THETA 
+						|| Math.abs(altitude - startAltitude) > MAX_ALTITUDE_CHANGE)
+					return DIVERGED_SCORE + scenario.duration - (simulation.getTime() - startTime);
+				
+				double error = target - simOut.get(scenario.mode.getHeldValue());
+				if (scenario.mode == AutopilotMode.HEADING_HOLD)
+					error = Autopilot.wrapAngle(error);
+				
+				// Integral of time weighted absolute error, normalized so that scores of each mode are comparable
+				score += t * Math.abs(error / scenario.step) * dt;
+			}
+			
+			return score / scenario.duration;
+		}
+	}
+	
+	/**
+	 * Results of tuning a mode with {@link AutopilotGainOptimizer#optimize(AutopilotMode, Map, int, int, long)}
+	 */
+	public static class TuningResult {
+		private final EnumMap<AutopilotGain, Double> gains;
+		private final double initialScore;
+		private final double score;
+		private final int evaluations;
+		
+		private TuningResult(EnumMap<AutopilotGain, Double> gains, double initialScore, double score, int evaluations) {
+			this.gains = gains;
+			this.initialScore = initialScore;
+			this.score = score;
+			this.evaluations = evaluations;
+		}
+		
+		/**
+		 * @return all gains, with the tuned mode's gains replaced by the best found
+		 */
+		public EnumMap<AutopilotGain, Double> getGains() { return gains; }
+		
+		public double getInitialScore() { return initialScore; }
+		
+		public double getScore() { return score; }
+		
+		public int getEvaluations() { return evaluations; }
+	}
+	
+	/**
+	 * Creates an optimizer simulating the aircraft and initial conditions of configuration in analysis mode; configuration should
+	 * be trimmed, and is not modified
+	 * 
+	 * @param configuration
+	 * @param workers number of simulations to run concurrently
+	 * @throws IOException if configuration cannot be copied
+	 */
+	public AutopilotGainOptimizer(SimulationConfiguration configuration, int workers) throws IOException {
+		this.configuration = mapper.readValue(mapper.writeValueAsBytes(configuration), SimulationConfiguration.class);
+		this.configuration.updateOptions(EnumSet.of(Options.ANALYSIS_MODE));
+		
+		executor = Executors.newFixedThreadPool(workers, ThreadUtilities.namedDaemonThreads("Autopilot Tuning Worker"));
+		this.workers = ThreadLocal.withInitial(Worker::new);
+	}
+	
+	/**
+	 * Scores a set of gains for a mode; lower scores track the mode's target more closely
+	 * 
+	 * @param mode
+	 * @param gains
+	 * @return score of gains
+	 */
+	public double evaluate(AutopilotMode mode, Map<AutopilotGain, Double> gains) {
+		return evaluate(mode, Arrays.asList(gains))[0];
+	}
+	
+	/**
+	 * Scores candidate sets of gains for a mode, simulating them concurrently
+	 * 
+	 * @param mode
+	 * @param candidates
+	 * @return score of each candidate, in the order of candidates
+	 */
+	public double[] evaluate(AutopilotMode mode, List<? extends Map<AutopilotGain, Double>> candidates) {
+		Scenario scenario = scenario(mode);
+		
+		List<Future<Double>> futures = new ArrayList<>(candidates.size());
+		for (Map<AutopilotGain, Double> candidate : candidates)
+			futures.add(executor.submit(() -> workers.get().evaluate(scenario, candidate)));
+		
+		double[] scores = new double[candidates.size()];
+		try {
+			for (int i = 0; i < scores.length; i++)
+				scores[i] = futures.get(i).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while evaluating autopilot gains", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Error evaluating autopilot gains", e.getCause());
+		}
+		
+		return scores;
+	}
+	
+	/**
+	 * Tunes the gains of a mode, starting from initialGains
+	 * 
+	 * @param mode
+	 * @param initialGains gains of every mode; those of other modes are used unchanged in the loops beneath or beside mode
+	 * @param generations
+	 * @param population candidates simulated each generation
+	 * @param seed seed of the random sampling of candidates, so that runs can be repeated
+	 * @return best gains found and their score
+	 * @throws IllegalArgumentException if initialGains is missing any of the gains of mode, or any of them is not positive
+	 */
+	public TuningResult optimize(AutopilotMode mode, Map<AutopilotGain, Double> initialGains, int generations, int population, long seed) {
+		List<AutopilotGain> tuned = new ArrayList<>();
+		for (AutopilotGain gain : AutopilotGain.values()) {
+			if (gain.getMode() != mode)
+				continue;
+			
+			Double initialGain = initialGains.get(gain);
+			if (initialGain == null)
+				throw new IllegalArgumentException("No initial value for " + gain + " given to tune " + mode);
+			
+			// Gains are searched in log space, where a gain starting at zero could never move
+			if (!(initialGain > 0))
+				throw new IllegalArgumentException("Initial value of " + gain + " must be positive to tune " + mode + ", was " + initialGain);
+			
+			tuned.add(gain);
+		}
+		
+		int dimensions = tuned.size();
+		double[] mean = new double[dimensions];
+		double[] spread = new double[dimensions];
+		for (int i = 0; i < dimensions; i++) {
+			mean[i] = Math.log(initialGains.get(tuned.get(i)));
+			spread[i] = INITIAL_SPREAD;
+		}
+		
+		EnumMap<AutopilotGain, Double> best = new EnumMap<>(initialGains);
+		double bestScore = evaluate(mode, best);
+		double initialScore = bestScore;
+		int evaluations = 1;
+		
+		logger.debug("Tuning " + mode + ", initial score: " + initialScore);
+		
+		Random random = new Random(seed);
+		int elites = Math.max(2, (int) Math.ceil(population * ELITE_FRACTION));
+		
+		for (int generation = 0; generation < generations; generation++) {
+			List<EnumMap<AutopilotGain, Double>> candidates = new ArrayList<>(population);
+			double[][] samples = new double[population][dimensions];
+			
+			for (int c = 0; c < population; c++) {
+				EnumMap<AutopilotGain, Double> candidate = new EnumMap<>(best);
+				
+				for (int i = 0; i < dimensions; i++) {
+					samples[c][i] = mean[i] + spread[i] * random.nextGaussian();
+					candidate.put(tuned.get(i), Math.exp(samples[c][i]));
+				}
+				
+				candidates.add(candidate);
+			}
+			
+			double[] scores = evaluate(mode, candidates);
+			evaluations += population;
+			
+			Integer[] ranking = new Integer[population];
+			for (int c = 0; c < population; c++)
+				ranking[c] = c;
+			Arrays.sort(ranking, (a, b) -> Double.compare(scores[a], scores[b]));
+			
+			if (scores[ranking[0]] < bestScore) {
+				bestScore = scores[ranking[0]];
+				best = candidates.get(ranking[0]);
+			}
+			
+			// Refit the sampling distribution to the elite candidates
+			for (int i = 0; i < dimensions; i++) {
+				double eliteMean = 0, eliteVariance = 0;
+				for (int e = 0; e < elites; e++)
+					eliteMean += samples[ranking[e]][i] / elites;
+				for (int e = 0; e < elites; e++)
+					eliteVariance += Math.pow(samples[ranking[e]][i] - eliteMean, 2) / elites;
+				
+				mean[i] = eliteMean;
+				spread[i] = Math.max(MINIMUM_SPREAD, Math.sqrt(eliteVariance));
+			}
+			
+			logger.debug(mode + " generation " + (generation + 1) + " of " + generations + ", best score: " + bestScore);
+		}
+		
+		logger.debug("Tuned " + mode + " in " + evaluations + " simulations, score improved from " + initialScore + " to " + bestScore);
+		
+		return new TuningResult(best, initialScore, bestScore, evaluations);
+	}
+	
+	/**
+	 * Tunes the gains of every mode, inner loops first, replacing the gains of configuration with the best found
+	 * 
+	 * @param configuration
+	 * @param generations
+	 * @param population
+	 * @param seed
+	 * @return configuration
+	 */
+	public AutopilotConfiguration optimizeAll(AutopilotConfiguration configuration, int generations, int population, long seed) {
+		for (AutopilotMode mode : TUNING_ORDER) {
+			TuningResult result = optimize(mode, configuration.getGains(), generations, population, seed);
+			configuration.setGains(result.getGains());
+			
+			logger.info(mode + " score: " + result.getInitialScore() + " -> " + result.getScore());
+		}
+		
+		return configuration;
+	}
+	
+	/**
+	 * Stops the workers
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.autopilot;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+/**
+ * Modes of the {@link Autopilot}, each holding one {@link SimOuts} value at a target. Altitude hold commands pitch attitude and
+ * heading hold commands roll attitude, so engaging either also runs the attitude loop beneath it
+ * 
+ * @author Christopher Ali
+ *
+ */
+public enum AutopilotMode {
+	PITCH_HOLD	  ("Pitch Hold", 	SimOuts.THETA),
+	ROLL_HOLD	  ("Roll Hold", 	SimOuts.PHI),
+	ALTITUDE_HOLD ("Altitude Hold", SimOuts.ALT),
+	HEADING_HOLD  ("Heading Hold", 	SimOuts.PSI),
+	AIRSPEED_HOLD ("Airspeed Hold", SimOuts.TAS);
+	
+	private final String mode;
+	private final SimOuts heldValue;
+	
+	AutopilotMode(String mode, SimOuts heldValue) {
+		this.mode = mode;
+		this.heldValue = heldValue;
+	}
+	
+	/**
+	 * @return simulation output that this mode holds at its target
+	 */
+	public SimOuts getHeldValue() { return heldValue; }
+	
+	@Override
+	public String toString() { return mode; }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.autopilot;
+
+/**
+ * Proportional-integral-derivative controller with output limits. The derivative term acts on the rate of the measured value 
+ * instead of the rate of the error, and the integral is only accumulated while it can still affect a saturated output, so that 
+ * it does not wind up while the output is held at a limit
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class PIDController {
+	
+	private double kp, ki, kd;
+	
+	private final double minimum, maximum;
+	
+	private double integral;
+	
+	/**
+	 * @param minimum lowest output of the controller
+	 * @param maximum highest output of the controller
+	 */
+	public PIDController(double minimum, double maximum) {
+		this.minimum = minimum;
+		this.maximum = maximum;
+	}
+	
+	public void setGains(double kp, double ki, double kd) {
+		this.kp = kp;
+		this.ki = ki;
+		this.kd = kd;
+	}
+	
+	/**
+	 * Calculates the controller's output for one step
+	 * 
+	 * @param error target value minus measured value
+	 * @param rate rate of change of the measured value
+	 * @param dt time step (sec)
+	 * @return output, limited between minimum and maximum
+	 */
+	public double update(double error, double rate, double dt) {
+		double unintegrated = kp * error - kd * rate;
+		double output = unintegrated + ki * (integral + error * dt);
+		
+		// Conditional integration: only integrate if doing so does not push a saturated output further past its limit
+		if ((output < maximum || error < 0) && (output > minimum || error > 0))
+			integral += error * dt;
+		
+		output = unintegrated + ki * integral;
+		
+		return Math.max(minimum, Math.min(maximum, output));
+	}
+	
+	/**
+	 * Clears the accumulated integral
+	 */
+	public void reset() { integral = 0; }
+}
@@ -28,14 +28,15 @@ import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.chrisali.javaflightsim.interfaces.OTWWorld;
 import com.chrisali.javaflightsim.interfaces.Steppable;
-import com.chrisali.javaflightsim.lwjgl.LWJGLWorld;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.terrain.HeightSource;
 
 /**
- *	Interacts with {@link LWJGLWorld} and any registered listeners to pass data from the out the window display back to
- *	the simulation {@link Integrate6DOFEquations}. Uses threading to obtain data at a reasonable rate
+ *	Interacts with a terrain {@link HeightSource} and any registered listeners to pass data about the environment around the
+ *	aircraft back to the simulation {@link Integrate6DOFEquations}. Needs no out the window display, so that terrain is found 
+ *	in every mode of the simulation
  */
 public class EnvironmentData implements Steppable {
 	
@@ -43,30 +44,32 @@ public class EnvironmentData implements Steppable {
 	
 	private Map<EnvironmentDataType, Double> environmentData = Collections.synchronizedMap(new EnumMap<EnvironmentDataType, Double>(EnvironmentDataType.class));
 	
-	private OTWWorld outTheWindow;
+	private HeightSource terrain;
+	private Integrate6DOFEquations simulation;
 	private List<EnvironmentDataListener> dataListenerList;
 	
 	/**
-	 * Creates an instance of {@link EnvironmentData} with a reference to {@link LWJGLWorld} so
-	 * that the thread in this class knows when the out the window display is running
+	 * Creates an instance of {@link EnvironmentData} that finds the height of the terrain under the position of simulation
 	 * 
-	 * @param outTheWindow
+	 * @param terrain terrain of the world, in feet with x north and z east
+	 * @param simulation
 	 */
-	public EnvironmentData(OTWWorld outTheWindow) {
-		this.outTheWindow = outTheWindow;
+	public EnvironmentData(HeightSource terrain, Integrate6DOFEquations simulation) {
+		this.terrain = terrain;
+		this.simulation = simulation;
 		this.dataListenerList = new ArrayList<>();
 	}
 	
 	public Map<EnvironmentDataType, Double> getEnvironmentData() { return environmentData; }
 	
 	/**
-	 * Polls simOut for data, and assigns and converts the values needed to the flightData EnumMap  
+	 * Assigns the values found about the environment to the environmentData EnumMap and lets listeners know about them
 	 * 
-	 * @param simOut
+	 * @param terrainHeight (ft)
 	 */
-	public void updateData(float terrainHeight) {
+	public void updateData(double terrainHeight) {
 		synchronized (environmentData) {
-			environmentData.put(EnvironmentDataType.TERRAIN_HEIGHT, (double) terrainHeight);
+			environmentData.put(EnvironmentDataType.TERRAIN_HEIGHT, terrainHeight);
 		}
 		
 		fireDataArrived();
@@ -80,8 +83,10 @@ public class EnvironmentData implements Steppable {
 	@Override
 	public void step() {
 		try {
-			if(outTheWindow != null)
-				updateData(outTheWindow.getTerrainHeight());
+			Map<SimOuts, Double> simOut = simulation.getSimOut();
+			
+			if (terrain != null && !simOut.isEmpty())
+				updateData(terrain.getHeight(simOut.get(SimOuts.NORTH), simOut.get(SimOuts.EAST)));
 		} catch (Exception e) {
 			logger.error("Exception encountered while running environment data listener!", e);
 		}
@@ -99,8 +104,7 @@ public class EnvironmentData implements Steppable {
 	}
 	
 	/**
-	 * Lets registered listeners know that data has arrived from the {@link LWJGLWorld} thread
-	 * so that they can use it as needed
+	 * Lets registered listeners know that data has arrived so that they can use it as needed
 	 */
 	private void fireDataArrived() {
 		for (EnvironmentDataListener listener : dataListenerList) {
@@ -19,10 +19,6 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.datatransfer;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.EnumMap;
-import java.util.List;
 import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
@@ -31,20 +27,25 @@ import org.apache.logging.log4j.Logger;
 import com.chrisali.javaflightsim.interfaces.Steppable;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.propulsion.EngineChannels;
 import com.chrisali.javaflightsim.simulation.utilities.SixDOFUtilities;
 
 /**
- *	Interacts with {@link Integrate6DOFEquations} and any registered listeners to pass flight data from the simulation
- *	listeners. Uses threading to obtain data from the simulation at a reasonable rate
+ *	Interacts with {@link Integrate6DOFEquations} to publish flight data from the simulation once per step. Data is written
+ *	to a {@link SeqLockBuffer} without locking, and consumers pull it at their own rate through {@link FlightDataSnapshot}
+ *	objects obtained from {@link FlightData#createSnapshot()}
  */
 public class FlightData implements Steppable {
 	
 	private static final Logger logger = LogManager.getLogger(FlightData.class);
 	
-	private Map<FlightDataType, Double> flightData = Collections.synchronizedMap(new EnumMap<FlightDataType, Double>(FlightDataType.class));
+	private static final int FLIGHT_DATA_SIZE = FlightDataType.values().length;
+	
+	// Written only by the simulation thread, then published to buffer 
+	private final double[] flightData = new double[FLIGHT_DATA_SIZE];
+	private final SeqLockBuffer buffer = new SeqLockBuffer(FLIGHT_DATA_SIZE);
 	
 	private Integrate6DOFEquations simulation;
-	private List<FlightDataListener> dataListenerList;
 	
 	/**
 	 * Creates an instance of {@link FlightData} with a reference to {@link Integrate6DOFEquations} so
@@ -54,55 +55,63 @@ public class FlightData implements Steppable {
 	 */
 	public FlightData(Integrate6DOFEquations simulation) {
 		this.simulation = simulation;
-		this.dataListenerList = new ArrayList<>();
 	}
 	
-	public Map<FlightDataType, Double> getFlightData() {return flightData;}
+	/**
+	 * Creates a new {@link FlightDataSnapshot} that a consumer can refresh at its own rate. Each consumer thread 
+	 * should create its own snapshot
+	 * 
+	 * @return snapshot reading from this object's flight data
+	 */
+	public FlightDataSnapshot createSnapshot() {
+		logger.debug("Creating flight data snapshot...");
+		
+		return new FlightDataSnapshot(buffer);
+	}
 	
 	/**
-	 * Polls simOut for data, and assigns and converts the values needed to the flightData EnumMap  
+	 * Polls simOut for data, assigns and converts the values needed to the flightData array, and publishes them to
+	 * all snapshots 
 	 * 
 	 * @param simOut
 	 */
 	public void updateData(Map<SimOuts, Double> simOut) {
-		final Double TAS_TO_IAS = 1/(1+((simOut.get(SimOuts.ALT)/1000)*0.02));
-		
-		synchronized (flightData) {
-			flightData.put(FlightDataType.IAS, SixDOFUtilities.toKnots(simOut.get(SimOuts.TAS)*TAS_TO_IAS));
-			flightData.put(FlightDataType.TAS, SixDOFUtilities.toKnots(simOut.get(SimOuts.TAS)));
-			
-			flightData.put(FlightDataType.VERT_SPEED, simOut.get(SimOuts.ALT_DOT));
-			
-			flightData.put(FlightDataType.ALTITUDE, simOut.get(SimOuts.ALT));
-			
-			flightData.put(FlightDataType.ROLL, Math.toDegrees(simOut.get(SimOuts.PHI)));
-			flightData.put(FlightDataType.PITCH, Math.toDegrees(simOut.get(SimOuts.THETA)));
-			
-			flightData.put(FlightDataType.HEADING, Math.toDegrees(simOut.get(SimOuts.PSI)));
-			
-			flightData.put(FlightDataType.TURN_RATE, Math.toDegrees(simOut.get(SimOuts.PSI_DOT)));
-			flightData.put(FlightDataType.TURN_COORD, simOut.get(SimOuts.AN_Y));
-			
-			flightData.put(FlightDataType.GFORCE, simOut.get(SimOuts.AN_Z));
-			
-			flightData.put(FlightDataType.LATITUDE, Math.toDegrees(simOut.get(SimOuts.LAT)));
-			flightData.put(FlightDataType.LONGITUDE, Math.toDegrees(simOut.get(SimOuts.LON)));
-			
-			flightData.put(FlightDataType.NORTH, simOut.get(SimOuts.NORTH));
-			flightData.put(FlightDataType.EAST, simOut.get(SimOuts.EAST));
-			
-			flightData.put(FlightDataType.RPM_1, simOut.get(SimOuts.RPM_1));
-			flightData.put(FlightDataType.RPM_2, simOut.get(SimOuts.RPM_2));
-			
-			flightData.put(FlightDataType.GEAR, simOut.get(SimOuts.GEAR));
-			flightData.put(FlightDataType.FLAPS, Math.toDegrees(simOut.get(SimOuts.FLAPS)));
-			
-			flightData.put(FlightDataType.AOA, Math.abs(simOut.get(SimOuts.ALPHA)));
-			
-			flightData.put(FlightDataType.PITCH_RATE, Math.toDegrees(simOut.get(SimOuts.Q)));
-		}
+		final double TAS_TO_IAS = 1/(1+((simOut.get(SimOuts.ALT)/1000)*0.02));
+		
+		flightData[FlightDataType.IAS.ordinal()]		= SixDOFUtilities.toKnots(simOut.get(SimOuts.TAS)*TAS_TO_IAS);
+		flightData[FlightDataType.TAS.ordinal()] 		= SixDOFUtilities.toKnots(simOut.get(SimOuts.TAS));
+		
+		flightData[FlightDataType.VERT_SPEED.ordinal()] = simOut.get(SimOuts.ALT_DOT);
+		
+		flightData[FlightDataType.ALTITUDE.ordinal()] 	= simOut.get(SimOuts.ALT);
+		
+		flightData[FlightDataType.ROLL.ordinal()] 		= Math.toDegrees(simOut.get(SimOuts.PHI));
+		flightData[FlightDataType.PITCH.ordinal()] 		= Math.toDegrees(simOut.get(SimOuts.THETA));
+		
+		flightData[FlightDataType.HEADING.ordinal()] 	= Math.toDegrees(simOut.get(SimOuts.PSI));
+		
+		flightData[FlightDataType.TURN_RATE.ordinal()] 	= Math.toDegrees(simOut.get(SimOuts.PSI_DOT));
+		flightData[FlightDataType.TURN_COORD.ordinal()] = simOut.get(SimOuts.AN_Y);
+		
+		flightData[FlightDataType.GFORCE.ordinal()] 	= simOut.get(SimOuts.AN_Z);
 		
-		fireDataArrived();
+		flightData[FlightDataType.LATITUDE.ordinal()] 	= Math.toDegrees(simOut.get(SimOuts.LAT));
+		flightData[FlightDataType.LONGITUDE.ordinal()] 	= Math.toDegrees(simOut.get(SimOuts.LON));
+		
+		flightData[FlightDataType.NORTH.ordinal()] 		= simOut.get(SimOuts.NORTH);
+		flightData[FlightDataType.EAST.ordinal()] 		= simOut.get(SimOuts.EAST);
+		
+		for (int i = 0; i < EngineChannels.MAX_ENGINES; i++)
+			flightData[EngineChannels.RPM_DATA[i].ordinal()] = simOut.get(EngineChannels.RPM_OUT[i]);
+		
+		flightData[FlightDataType.GEAR.ordinal()] 		= simOut.get(SimOuts.GEAR);
+		flightData[FlightDataType.FLAPS.ordinal()] 		= Math.toDegrees(simOut.get(SimOuts.FLAPS));
+		
+		flightData[FlightDataType.AOA.ordinal()] 		= Math.abs(simOut.get(SimOuts.ALPHA));
+		
+		flightData[FlightDataType.PITCH_RATE.ordinal()] = Math.toDegrees(simOut.get(SimOuts.Q));
+		
+		buffer.publish(flightData);
 	}
 		
 	@Override
@@ -116,39 +125,22 @@ public class FlightData implements Steppable {
 			if(simulation.getSimOut() != null)
 				updateData(simulation.getSimOut());
 		} catch (Exception ez) {
-			logger.error("Exception encountered in Flight Data Listener!", ez);
+			logger.error("Exception encountered while publishing flight data!", ez);
 		}
 	}
 	
 	/**
-	 * Adds a listener that implements {@link FlightDataListener} to a list of listeners that can listen
-	 * to {@link NewFlightData} 
-	 * 
-	 * @param dataListener
+	 * @return number of times flight data has been published
 	 */
-	public void addFlightDataListener(FlightDataListener dataListener) {
-		logger.debug("Adding flight data listener: " + dataListener.getClass());
-		dataListenerList.add(dataListener);
-	}
-	
-	/**
-	 * Lets registered listeners know that data has arrived from the {@link Integrate6DOFEquations} thread
-	 * so that they can use it as needed
-	 */
-	private void fireDataArrived() {
-		for (FlightDataListener listener : dataListenerList) {
-			if(listener != null) 
-				listener.onFlightDataReceived(this);
-		}
-	}
+	public long getVersion() { return buffer.getVersion(); }
 
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		
-		for (Map.Entry<FlightDataType, Double> entry : flightData.entrySet()) {
-			 sb.append(entry.getKey().toString()).append(": ").append(entry.getValue())
-			   .append(" ").append(entry.getKey().getUnit()).append("\n");
+		for (FlightDataType type : FlightDataType.values()) {
+			 sb.append(type.toString()).append(": ").append(flightData[type.ordinal()])
+			   .append(" ").append(type.getUnit()).append("\n");
 		}
 		sb.append("\n");
 		
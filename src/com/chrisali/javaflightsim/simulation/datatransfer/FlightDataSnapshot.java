@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.datatransfer;
+
+/**
+ * A reader's own copy of the most recent flight data published by {@link FlightData}. Each consumer (OTW display,
+ * instrument panel, audio, network) creates its own snapshot with {@link FlightData#createSnapshot()} and calls
+ * {@link FlightDataSnapshot#refresh()} at whatever rate it runs; values are then read as primitives with
+ * {@link FlightDataSnapshot#get(FlightDataType)}. Instances are not thread safe and should only be used by one thread
+ *
+ * @author Christopher Ali
+ *
+ */
+public class FlightDataSnapshot {
+
+	private final SeqLockBuffer buffer;
+	private final double[] values;
+	private long version = 0;
+
+	FlightDataSnapshot(SeqLockBuffer buffer) {
+		this.buffer = buffer;
+		this.values = new double[buffer.size()];
+	}
+
+	/**
+	 * Copies the latest published flight data into this snapshot if it has changed since the last refresh
+	 *
+	 * @return true if new flight data was copied
+	 */
+	public boolean refresh() {
+		if (buffer.getVersion() == version)
+			return false;
+
+		version = buffer.read(values);
+
+		return true;
+	}
+
+	/**
+	 * @param type
+	 * @return value of flight data type as of the last refresh
+	 */
+	public double get(FlightDataType type) { return values[type.ordinal()]; }
+
+	/**
+	 * @return true if at least one set of flight data has been copied into this snapshot
+	 */
+	public boolean hasData() { return version > 0; }
+
+	/**
+	 * @return version of the flight data held by this snapshot; increases by one every time {@link FlightData} publishes
+	 */
+	public long getVersion() { return version; }
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+
+		for (FlightDataType type : FlightDataType.values()) {
+			 sb.append(type.toString()).append(": ").append(values[type.ordinal()])
+			   .append(" ").append(type.getUnit()).append("\n");
+		}
+		sb.append("\n");
+
+		return sb.toString();
+	}
+}
@@ -44,7 +44,11 @@ public enum FlightDataType {
 	GEAR		 ("Gear Position", "norm"),
 	FLAPS		 ("Flaps Position", "deg"),
 	AOA			 ("Angle of Attack", "deg"),
-	GFORCE		 ("G Force", "g");
+	GFORCE		 ("G Force", "g"),
+	RPM_5		 ("Engine 5 RPM", "1/min"),
+	RPM_6		 ("Engine 6 RPM", "1/min"),
+	RPM_7		 ("Engine 7 RPM", "1/min"),
+	RPM_8		 ("Engine 8 RPM", "1/min");
 	
 	private final String dataType;
 	private final String unit;
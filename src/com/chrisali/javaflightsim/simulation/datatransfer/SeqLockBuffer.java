@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.datatransfer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size buffer of doubles published by a single writer and read by any number of readers without locks, using a
+ * sequence lock. The writer makes the sequence odd, stores its values and makes the sequence even again; readers copy
+ * the values into their own array and retry if the sequence changed while they were copying. Neither side allocates,
+ * and a slow reader never holds up the writer
+ *
+ * @author Christopher Ali
+ *
+ */
+public class SeqLockBuffer {
+
+	private final AtomicLong sequence = new AtomicLong(0);
+	private final AtomicLongArray values;
+
+	/**
+	 * @param size number of doubles held in the buffer
+	 */
+	public SeqLockBuffer(int size) {
+		values = new AtomicLongArray(size);
+	}
+
+	/**
+	 * Publishes a new set of values to readers. Must only be called from one thread at a time
+	 *
+	 * @param source values to publish; must be at least as long as the buffer
+	 */
+	public void publish(double[] source) {
+		long seq = sequence.get();
+
+		sequence.set(seq + 1);
+
+		for (int i = 0; i < values.length(); i++)
+			values.lazySet(i, Double.doubleToRawLongBits(source[i]));
+
+		sequence.set(seq + 2);
+	}
+
+	/**
+	 * Copies a consistent set of values into destination, retrying if a publish occurred during the copy
+	 *
+	 * @param destination array to copy values into; must be at least as long as the buffer
+	 * @return version of the values copied; 0 if nothing has been published yet
+	 */
+	public long read(double[] destination) {
+		while (true) {
+			long before = sequence.get();
+
+			// Writer is mid-publish
+			if ((before & 1) != 0) {
+				Thread.yield();
+				continue;
+			}
+
+			for (int i = 0; i < values.length(); i++)
+				destination[i] = Double.longBitsToDouble(values.get(i));
+
+			if (sequence.get() == before)
+				return before >>> 1;
+		}
+	}
+
+	/**
+	 * @return number of times values have been published; lets readers skip copying when nothing has changed
+	 */
+	public long getVersion() { return sequence.get() >>> 1; }
+
+	/**
+	 * @return number of doubles held in the buffer
+	 */
+	public int size() { return values.length(); }
+}
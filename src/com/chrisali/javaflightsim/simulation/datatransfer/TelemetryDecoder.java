@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.datatransfer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+/**
+ * Reads telemetry frames sent by {@link TelemetryPublisher} (see {@link TelemetryFrame} for the layout) for external displays 
+ * and monitoring tools. Values of the last frame decoded are held as primitives and read with {@link #get(FlightDataType)} and 
+ * {@link #get(SimOuts)}; channels the publisher does not send read as NaN. Decoding does not allocate, and instances are
+ * not thread safe
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TelemetryDecoder {
+	
+	private static final FlightDataType[] FLIGHT_DATA_TYPES = FlightDataType.values();
+	private static final SimOuts[] SIM_OUTS = SimOuts.values();
+	
+	private final double[] flightData = new double[FLIGHT_DATA_TYPES.length];
+	private final double[] simOuts = new double[SIM_OUTS.length];
+	
+	private long sequence = -1;
+	private double time;
+	private long decodedFrames = 0;
+	private long lostFrames = 0;
+	
+	public TelemetryDecoder() {
+		Arrays.fill(flightData, Double.NaN);
+		Arrays.fill(simOuts, Double.NaN);
+	}
+	
+	/**
+	 * Decodes the frame between the packet's position and limit; the packet's position is left unchanged
+	 * 
+	 * @param packet
+	 * @return false if the packet is not a telemetry frame of a supported version, in which case no values are changed
+	 */
+	public boolean decode(ByteBuffer packet) {
+		final int base = packet.position();
+		final int length = packet.remaining();
+		
+		if (length < TelemetryFrame.CHANNELS_OFFSET
+				|| packet.getInt(base) != TelemetryFrame.MAGIC
+				|| (packet.getShort(base + TelemetryFrame.VERSION_OFFSET) & 0xFFFF) != TelemetryFrame.VERSION)
+			return false;
+		
+		int flightDataCount = packet.get(base + TelemetryFrame.FLIGHT_DATA_COUNT_OFFSET) & 0xFF;
+		int simOutCount = packet.get(base + TelemetryFrame.SIM_OUT_COUNT_OFFSET) & 0xFF;
+		int channelCount = flightDataCount + simOutCount;
+		
+		if (length < TelemetryFrame.size(channelCount))
+			return false;
+		
+		// Validate ordinals before touching any values, so that a frame from a build with different enums is rejected whole
+		for (int i = 0; i < channelCount; i++) {
+			int ordinal = packet.get(base + TelemetryFrame.CHANNELS_OFFSET + i) & 0xFF;
+			if (ordinal >= (i < flightDataCount ? flightData.length : simOuts.length))
+				return false;
+		}
+		
+		int valuesOffset = base + TelemetryFrame.valuesOffset(channelCount);
+		for (int i = 0; i < channelCount; i++) {
+			int ordinal = packet.get(base + TelemetryFrame.CHANNELS_OFFSET + i) & 0xFF;
+			double value = packet.getDouble(valuesOffset + i * Double.BYTES);
+			
+			if (i < flightDataCount)
+				flightData[ordinal] = value;
+			else
+				simOuts[ordinal] = value;
+		}
+		
+		long frameSequence = packet.getLong(base + TelemetryFrame.SEQUENCE_OFFSET);
+		if (sequence >= 0 && frameSequence > sequence + 1)
+			lostFrames += frameSequence - sequence - 1;
+		
+		sequence = frameSequence;
+		time = packet.getDouble(base + TelemetryFrame.TIME_OFFSET);
+		decodedFrames++;
+		
+		return true;
+	}
+	
+	/**
+	 * @param type
+	 * @return value of the flight data channel in the last frame decoded, or NaN if it has not been received
+	 */
+	public double get(FlightDataType type) { return flightData[type.ordinal()]; }
+	
+	/**
+	 * @param simOut
+	 * @return value of the simulation output channel in the last frame decoded, or NaN if it has not been received
+	 */
+	public double get(SimOuts simOut) { return simOuts[simOut.ordinal()]; }
+	
+	/**
+	 * @return sequence number of the last frame decoded, or -1 if none have been
+	 */
+	public long getSequence() { return sequence; }
+	
+	/**
+	 * @return simulation time (sec) of the last frame decoded
+	 */
+	public double getTime() { return time; }
+	
+	/**
+	 * @return number of frames successfully decoded
+	 */
+	public long getDecodedFrames() { return decodedFrames; }
+	
+	/**
+	 * @return number of frames skipped over in the sequence numbers of decoded frames; frames arriving out of order are not counted
+	 */
+	public long getLostFrames() { return lostFrames; }
+}
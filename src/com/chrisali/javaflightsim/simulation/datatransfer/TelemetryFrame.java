@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.datatransfer;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+/**
+ * Fixed binary layout of the telemetry frames sent by {@link TelemetryPublisher} and read by {@link TelemetryDecoder}.
+ * All values are big endian (network order):
+ * 
+ * <p>0  - int magic number ({@link #MAGIC})</p>
+ * <p>4  - unsigned short layout version ({@link #VERSION})</p>
+ * <p>6  - unsigned byte number of {@link FlightDataType} channels</p>
+ * <p>7  - unsigned byte number of {@link SimOuts} channels</p>
+ * <p>8  - long frame sequence number, starting at 0</p>
+ * <p>16 - double simulation time (sec)</p>
+ * <p>24 - one unsigned byte ordinal per channel, {@link FlightDataType} channels first, padded to a multiple of 8 bytes</p>
+ * <p>then one double per channel, in the same order as the ordinals</p>
+ * 
+ * <p>The channel list of a publisher never changes, so a consumer only needs to read it from the first frame it receives. 
+ * With every channel selected a frame is 1168 bytes, small enough not to be fragmented on an Ethernet network</p>
+ * 
+ * @author Christopher Ali
+ *
+ */
+public final class TelemetryFrame {
+	
+	public static final int MAGIC = 0x4A465354; // "JFST"
+	public static final int VERSION = 1;
+	
+	static final int VERSION_OFFSET 		  = 4;
+	static final int FLIGHT_DATA_COUNT_OFFSET = 6;
+	static final int SIM_OUT_COUNT_OFFSET 	  = 7;
+	static final int SEQUENCE_OFFSET 		  = 8;
+	static final int TIME_OFFSET 			  = 16;
+	static final int CHANNELS_OFFSET 		  = 24;
+	
+	private TelemetryFrame() {}
+	
+	/**
+	 * @param channelCount total number of channels in the frame
+	 * @return byte offset of the first channel value
+	 */
+	public static int valuesOffset(int channelCount) { return CHANNELS_OFFSET + ((channelCount + 7) & ~7); }
+	
+	/**
+	 * @param channelCount total number of channels in the frame
+	 * @return size of a frame in bytes
+	 */
+	public static int size(int channelCount) { return valuesOffset(channelCount) + channelCount * Double.BYTES; }
+}
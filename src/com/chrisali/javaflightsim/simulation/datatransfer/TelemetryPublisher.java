@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.datatransfer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.interfaces.Steppable;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.NetworkConfiguration;
+
+/**
+ * Sends {@link FlightData} and {@link SimOuts} channels selected in {@link NetworkConfiguration} as UDP datagrams, unicast or 
+ * multicast, once every telemetryDecimation steps of the simulation. Frames use the fixed layout described in {@link TelemetryFrame}; 
+ * the header and channel list are written once into a direct buffer that is reused for every frame, so that publishing does not
+ * allocate. The channel is non-blocking, so a frame that cannot be sent immediately is dropped rather than holding up the simulation
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TelemetryPublisher implements Steppable, AutoCloseable {
+	
+	private static final Logger logger = LogManager.getLogger(TelemetryPublisher.class);
+	
+	private final DatagramChannel channel;
+	private final InetSocketAddress target;
+	private final ByteBuffer frame;
+	
+	private final FlightDataSnapshot snapshot;
+	private final Integrate6DOFEquations simulation;
+	
+	private final FlightDataType[] flightDataChannels;
+	private final SimOuts[] simOutChannels;
+	private final int valuesOffset;
+	private final int decimation;
+	
+	private int stepCount = 0;
+	private long sequence = 0;
+	private long droppedFrames = 0;
+	
+	/**
+	 * Opens a datagram channel to the address configured in {@link NetworkConfiguration}
+	 * 
+	 * @param configuration
+	 * @param flightData source of flight data channels
+	 * @param simulation source of simulation output channels, polled in {@link #step()}
+	 * @throws IOException if the address cannot be resolved or the channel cannot be opened
+	 */
+	public TelemetryPublisher(NetworkConfiguration configuration, FlightData flightData, Integrate6DOFEquations simulation) throws IOException {
+		this.simulation = simulation;
+		this.snapshot = flightData.createSnapshot();
+		this.decimation = Math.max(1, configuration.getTelemetryDecimation());
+		
+		flightDataChannels = configuration.getFlightDataChannels().toArray(new FlightDataType[0]);
+		simOutChannels = configuration.getSimOutChannels().toArray(new SimOuts[0]);
+		
+		int channelCount = flightDataChannels.length + simOutChannels.length;
+		if (flightDataChannels.length > 0xFF || simOutChannels.length > 0xFF)
+			throw new IllegalArgumentException("Too many telemetry channels selected: " + channelCount);
+		
+		valuesOffset = TelemetryFrame.valuesOffset(channelCount);
+		frame = ByteBuffer.allocateDirect(TelemetryFrame.size(channelCount));
+		
+		frame.putInt(TelemetryFrame.MAGIC)
+			 .putShort((short) TelemetryFrame.VERSION)
+			 .put((byte) flightDataChannels.length)
+			 .put((byte) simOutChannels.length);
+		
+		frame.position(TelemetryFrame.CHANNELS_OFFSET);
+		for (FlightDataType type : flightDataChannels)
+			frame.put((byte) type.ordinal());
+		for (SimOuts simOut : simOutChannels)
+			frame.put((byte) simOut.ordinal());
+		
+		InetAddress address = InetAddress.getByName(configuration.getTelemetryAddress());
+		target = new InetSocketAddress(address, configuration.getTelemetryPort());
+		
+		if (address.isMulticastAddress()) {
+			channel = DatagramChannel.open(address.getAddress().length == 4 ? StandardProtocolFamily.INET : StandardProtocolFamily.INET6);
+			channel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, configuration.getMulticastTimeToLive());
+			
+			if (configuration.getMulticastInterface() != null) 
+				channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, NetworkInterface.getByName(configuration.getMulticastInterface()));
+		} else {
+			channel = DatagramChannel.open();
+		}
+		
+		channel.configureBlocking(false);
+		
+		logger.debug("Sending " + channelCount + " channels of telemetry to " + target + " every " + decimation + " steps");
+	}
+	
+	/**
+	 * Copies the selected channels into the frame buffer and sends it
+	 * 
+	 * @param simOut simulation outputs to send; may be null if no {@link SimOuts} channels are selected
+	 * @throws IOException
+	 */
+	public void publish(Map<SimOuts, Double> simOut) throws IOException {
+		snapshot.refresh();
+		
+		int offset = valuesOffset;
+		for (FlightDataType type : flightDataChannels) {
+			frame.putDouble(offset, snapshot.get(type));
+			offset += Double.BYTES;
+		}
+		
+		for (SimOuts out : simOutChannels) {
+			Double value = (simOut != null) ? simOut.get(out) : null;
+			frame.putDouble(offset, (value != null) ? value : Double.NaN);
+			offset += Double.BYTES;
+		}
+		
+		Double time = (simOut != null) ? simOut.get(SimOuts.TIME) : null;
+		frame.putLong(TelemetryFrame.SEQUENCE_OFFSET, sequence++);
+		frame.putDouble(TelemetryFrame.TIME_OFFSET, (time != null) ? time : Double.NaN);
+		
+		frame.clear();
+		if (channel.send(frame, target) == 0)
+			droppedFrames++;
+	}
+	
+	@Override
+	public boolean canStepNow(int simTimeMS) {
+		return simTimeMS % 1 == 0;
+	}
+
+	@Override
+	public void step() {
+		if (stepCount++ % decimation != 0)
+			return;
+		
+		try {
+			publish(simulation.getSimOut());
+		} catch (Exception ez) {
+			logger.error("Exception encountered while publishing telemetry!", ez);
+		}
+	}
+	
+	/**
+	 * @return number of frames sent or dropped
+	 */
+	public long getSequence() { return sequence; }
+	
+	/**
+	 * @return number of frames dropped because the network could not accept them immediately
+	 */
+	public long getDroppedFrames() { return droppedFrames; }
+	
+	/**
+	 * @return size of each frame in bytes
+	 */
+	public int getFrameSize() { return frame.capacity(); }
+
+	@Override
+	public void close() throws IOException {
+		logger.debug("Closing telemetry channel after " + sequence + " frames, " + droppedFrames + " dropped...");
+		
+		channel.close();
+	}
+}
@@ -61,6 +61,18 @@ public class Environment {
 	 * @return EnumMap of environment parameters
 	 */
 	public static Map<EnvironmentParameters, Double> getAndUpdateEnvironmentParams(double[] NEDPosition) {
+		return getAndUpdateEnvironmentParams(NEDPosition, environmentParams);
+	}
+	
+	/**
+	 * Calculates environment parameters as in {@link Environment#getAndUpdateEnvironmentParams(double[])}, but places them 
+	 * into the caller's own map, so that simulations running on separate threads do not share one
+	 * 
+	 * @param NEDPosition
+	 * @param environmentParams map to place the environment parameters into
+	 * @return environmentParams
+	 */
+	public static Map<EnvironmentParameters, Double> getAndUpdateEnvironmentParams(double[] NEDPosition, Map<EnvironmentParameters, Double> environmentParams) {
 		double temp, rho, p, a, g, windN, windE, windD;
 		
 		// Troposphere
@@ -96,6 +108,42 @@ public class Environment {
 		return environmentParams;
 	}
 	
+	/**
+	 * Calculates the ratio of standard atmosphere density at a given altitude to that at standard sea level
+	 * 
+	 * @param altitude (ft)
+	 * @return density ratio sigma
+	 */
+	public static double calculateDensityRatio(double altitude) {
+		if (altitude < HT_TROP)
+			return Math.pow((1-(ENV_CONST_TROP*altitude)),4.2559);
+		else
+			return (RHO_TROP/RHO_SSL)*Math.exp(ENV_CONST_STRAT*(altitude-HT_TROP));
+	}
+	
+	/**
+	 * Calculates the ratio of standard atmosphere temperature at a given altitude to that at standard sea level
+	 * 
+	 * @param altitude (ft)
+	 * @return temperature ratio theta
+	 */
+	public static double calculateTemperatureRatio(double altitude) {
+		return ((altitude < HT_TROP) ? T_SSL-(0.003566*altitude) : 389.97)/T_SSL;
+	}
+	
+	/**
+	 * Calculates the altitude in the standard atmosphere at which the given static pressure occurs
+	 * 
+	 * @param pressure (lbf/ft^2)
+	 * @return pressure altitude (ft)
+	 */
+	public static double calculatePressureAltitude(double pressure) {
+		if (pressure > P_TROP)
+			return (1-Math.pow(pressure/P_SSL, 1/5.2559))/ENV_CONST_TROP;
+		else
+			return HT_TROP + Math.log(pressure/P_TROP)/ENV_CONST_STRAT;
+	}
+	
 	/**
 	 * @return Gravity (ft/sec^2) as a double array vector
 	 */
@@ -124,4 +172,20 @@ public class Environment {
 	 */
 	public static void setDeltaIsa(double deltaIsa) {Environment.deltaIsa = deltaIsa;}
 	
+	/**
+	 * @return wind speed (ft/sec), wind direction (rad) and difference in temperature from ISA (F) shared by all simulations
+	 */
+	public static double[] getWeather() { return new double[] {windSpeed, windDir, deltaIsa}; }
+	
+	/**
+	 * Sets the weather from values returned by {@link Environment#getWeather()} without converting units
+	 * 
+	 * @param weather
+	 */
+	public static void restoreWeather(double[] weather) {
+		windSpeed = weather[0];
+		windDir   = weather[1];
+		deltaIsa  = weather[2];
+	}
+	
 }
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.flightcontrols;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free queue of {@link ControlParameter} changes. Input devices polled on their own threads enqueue changes
+ * by using this queue as their {@link ControlParameterActuator}, and the simulation thread drains them into the actual 
+ * actuator once per step with {@link #drainTo(ControlParameterActuator)}.<br>
+ * Slots are preallocated, so neither enqueuing nor draining allocates; each slot carries a sequence number that tells 
+ * producers and the consumer whose turn it is to use it (Vyukov's bounded queue). Any number of threads may enqueue, but 
+ * only one thread may drain. If the queue is full, the change is dropped and counted by {@link #getDroppedCount()}
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class ControlParameterQueue implements ControlParameterActuator {
+	
+	private final int mask;
+	
+	private final AtomicLongArray sequences;
+	private final ControlParameter[] parameters;
+	private final float[] values;
+	
+	private final AtomicLong enqueuePosition = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+	
+	// Only accessed by the draining thread
+	private long dequeuePosition = 0;
+	
+	/**
+	 * @param capacity maximum number of changes held by the queue; rounded up to the next power of two
+	 */
+	public ControlParameterQueue(int capacity) {
+		if (capacity < 1 || capacity > (1 << 30))
+			throw new IllegalArgumentException("Queue capacity must be between 1 and 2^30, was: " + capacity);
+		
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		
+		mask = size - 1;
+		sequences = new AtomicLongArray(size);
+		parameters = new ControlParameter[size];
+		values = new float[size];
+		
+		for (int i = 0; i < size; i++)
+			sequences.set(i, i);
+	}
+	
+	/**
+	 * Enqueues a change to parameter; may be called from any thread
+	 * 
+	 * @param parameter
+	 * @param value
+	 * @return true if the change was enqueued, false if the queue was full and the change was dropped
+	 */
+	public boolean offer(ControlParameter parameter, float value) {
+		long position = enqueuePosition.get();
+		
+		while (true) {
+			int index = (int) (position & mask);
+			long difference = sequences.get(index) - position;
+			
+			if (difference == 0) {
+				if (enqueuePosition.compareAndSet(position, position + 1)) {
+					parameters[index] = parameter;
+					values[index] = value;
+					// Publishes the slot contents to the draining thread
+					sequences.set(index, position + 1);
+					
+					return true;
+				}
+				position = enqueuePosition.get();
+			} else if (difference < 0) {
+				droppedCount.incrementAndGet();
+				
+				return false;
+			} else {
+				position = enqueuePosition.get();
+			}
+		}
+	}
+	
+	/**
+	 * Enqueues a change to parameter, dropping it if the queue is full
+	 */
+	@Override
+	public void handleParameterChange(ControlParameter parameter, float value) {
+		offer(parameter, value);
+	}
+	
+	/**
+	 * Passes all enqueued changes to actuator in the order they were enqueued; must only be called by one thread
+	 * 
+	 * @param actuator
+	 * @return number of changes drained
+	 */
+	public int drainTo(ControlParameterActuator actuator) {
+		int drained = 0;
+		
+		while (true) {
+			int index = (int) (dequeuePosition & mask);
+			
+			if (sequences.get(index) != dequeuePosition + 1)
+				return drained;
+			
+			ControlParameter parameter = parameters[index];
+			float value = values[index];
+			parameters[index] = null;
+			
+			// Hands the slot back to producers one lap ahead
+			sequences.set(index, dequeuePosition + mask + 1);
+			dequeuePosition++;
+			
+			actuator.handleParameterChange(parameter, value);
+			drained++;
+		}
+	}
+	
+	/**
+	 * @return maximum number of changes that the queue can hold
+	 */
+	public int getCapacity() { return mask + 1; }
+	
+	/**
+	 * @return number of changes dropped since this queue was created because the queue was full
+	 */
+	public long getDroppedCount() { return droppedCount.get(); }
+}
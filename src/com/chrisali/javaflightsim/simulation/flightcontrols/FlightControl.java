@@ -46,7 +46,19 @@ public enum FlightControl implements ControlParameter {
 	FLAPS		("Flaps", 			0.0, 				 Math.toRadians(30)),
 	GEAR		("Gear", 			0.0, 				 1.0),
 	BRAKE_L		("Left Brake", 		0.0, 				 1.0),
-	BRAKE_R		("Right Brake", 	0.0, 				 1.0);
+	BRAKE_R		("Right Brake", 	0.0, 				 1.0),
+	THROTTLE_5	("Throttle 5",  	0.0, 				 1.0),
+	THROTTLE_6	("Throttle 6",  	0.0, 				 1.0),
+	THROTTLE_7	("Throttle 7",  	0.0, 				 1.0),
+	THROTTLE_8	("Throttle 8",  	0.0, 				 1.0),
+	PROPELLER_5	("Propeller 5", 	0.0, 				 1.0),
+	PROPELLER_6	("Propeller 6", 	0.0, 				 1.0),
+	PROPELLER_7	("Propeller 7", 	0.0, 				 1.0),
+	PROPELLER_8	("Propeller 8", 	0.0, 				 1.0),
+	MIXTURE_5	("Mixture 5",   	0.0, 				 1.0),
+	MIXTURE_6	("Mixture 6",   	0.0, 				 1.0),
+	MIXTURE_7	("Mixture 7",   	0.0, 				 1.0),
+	MIXTURE_8	("Mixture 8",   	0.0, 				 1.0);
 	
 	private final String control;
 	private final double minimum;
@@ -3,6 +3,8 @@ package com.chrisali.javaflightsim.simulation.flightcontrols;
 import static com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl.*;
 import static com.chrisali.javaflightsim.simulation.setup.KeyCommand.*;
 
+import com.chrisali.javaflightsim.interfaces.Checkpointable;
+import com.chrisali.javaflightsim.simulation.propulsion.EngineChannels;
 import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
 import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
 
@@ -12,7 +14,7 @@ import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
  * @author Christopher
  *
  */
-public class FlightControlActuator implements ControlParameterActuator {
+public class FlightControlActuator implements ControlParameterActuator, Checkpointable {
 	
 	FlightControlsState controlsState;
 	
@@ -140,9 +142,17 @@ public class FlightControlActuator implements ControlParameterActuator {
 				lever(THROTTLE_3, value);
 			} else if (parameter.equals(THROTTLE_4)) {
 				lever(THROTTLE_4, value);
+			} else if (isEngineLever(parameter)) {
+				lever((FlightControl) parameter, value);
 			}
 		}
-		
+	}
+	
+	/**
+	 * Gradually moves controls that take time to reach their commanded position (landing gear); must be called once every 
+	 * simulation step, whether or not any parameters changed during that step
+	 */
+	public void updateContinuousControls() {
 		continuous(GEAR, gearLeverDown ? GEAR.getMinimum() : GEAR.getMaximum());
 	}
 		
@@ -215,6 +225,18 @@ public class FlightControlActuator implements ControlParameterActuator {
 		case MIXTURE_2:
 		case MIXTURE_3:
 		case MIXTURE_4:
+		case THROTTLE_5:
+		case THROTTLE_6:
+		case THROTTLE_7:
+		case THROTTLE_8:
+		case PROPELLER_5:
+		case PROPELLER_6:
+		case PROPELLER_7:
+		case PROPELLER_8:
+		case MIXTURE_5:
+		case MIXTURE_6:
+		case MIXTURE_7:
+		case MIXTURE_8:
 			return 0.0005 / dt;
 		case FLAPS:
 			return 0.00015 / dt;
@@ -232,6 +254,33 @@ public class FlightControlActuator implements ControlParameterActuator {
 	 */
 	public void setUseTransientLag(boolean useTransientLag) { this.useTransientLag = useTransientLag; }
 	
+	@Override
+	public int getCheckpointSize() { return 6; }
+	
+	@Override
+	public int writeCheckpoint(double[] state, int offset) {
+		state[offset++] = trimElevator;
+		state[offset++] = trimAileron;
+		state[offset++] = trimRudder;
+		state[offset++] = flaps;
+		state[offset++] = gearPressed ? 1.0 : 0.0;
+		state[offset++] = gearLeverDown ? 1.0 : 0.0;
+		
+		return offset;
+	}
+	
+	@Override
+	public int readCheckpoint(double[] state, int offset) {
+		trimElevator  = state[offset++];
+		trimAileron   = state[offset++];
+		trimRudder	  = state[offset++];
+		flaps 		  = state[offset++];
+		gearPressed   = state[offset++] == 1.0;
+		gearLeverDown = state[offset++] == 1.0;
+		
+		return offset;
+	}
+	
 	/**
 	 * Flight controls that have a trim control associated with them (elevator, rudder, aileron) 
 	 * should use this method to calculate their actual value; includes a call to negativeSquare()
@@ -383,28 +432,38 @@ public class FlightControlActuator implements ControlParameterActuator {
 	}
 		
 	private void increaseThrottle() {
-		if (controlsState.get(THROTTLE_1) <= THROTTLE_1.getMaximum() &&
-			controlsState.get(THROTTLE_2) <= THROTTLE_2.getMaximum() &&
-			controlsState.get(THROTTLE_3) <= THROTTLE_3.getMaximum() &&
-			controlsState.get(THROTTLE_4) <= THROTTLE_4.getMaximum()) {
-			
-			controlsState.set(THROTTLE_1, controlsState.get(THROTTLE_1) + getRate(THROTTLE_1));
-			controlsState.set(THROTTLE_2, controlsState.get(THROTTLE_2) + getRate(THROTTLE_2));
-			controlsState.set(THROTTLE_3, controlsState.get(THROTTLE_3) + getRate(THROTTLE_3));
-			controlsState.set(THROTTLE_4, controlsState.get(THROTTLE_4) + getRate(THROTTLE_4));
+		for (FlightControl throttle : EngineChannels.THROTTLE) {
+			if (controlsState.get(throttle) > throttle.getMaximum())
+				return;
 		}
+		
+		for (FlightControl throttle : EngineChannels.THROTTLE)
+			controlsState.set(throttle, controlsState.get(throttle) + getRate(throttle));
 	}
 	
 	private void decreaseThrottle() {
-		if (controlsState.get(THROTTLE_1) >= THROTTLE_1.getMinimum() &&
-			controlsState.get(THROTTLE_2) >= THROTTLE_2.getMinimum() &&
-			controlsState.get(THROTTLE_3) >= THROTTLE_3.getMinimum() &&
-			controlsState.get(THROTTLE_4) >= THROTTLE_4.getMinimum()) {
-			
-			controlsState.set(THROTTLE_1, controlsState.get(THROTTLE_1) - getRate(THROTTLE_1));
-			controlsState.set(THROTTLE_2, controlsState.get(THROTTLE_2) - getRate(THROTTLE_2));
-			controlsState.set(THROTTLE_3, controlsState.get(THROTTLE_3) - getRate(THROTTLE_3));
-			controlsState.set(THROTTLE_4, controlsState.get(THROTTLE_4) - getRate(THROTTLE_4));
+		for (FlightControl throttle : EngineChannels.THROTTLE) {
+			if (controlsState.get(throttle) < throttle.getMinimum())
+				return;
 		}
+		
+		for (FlightControl throttle : EngineChannels.THROTTLE)
+			controlsState.set(throttle, controlsState.get(throttle) - getRate(throttle));
+	}
+	
+	/**
+	 * @param parameter
+	 * @return if parameter is a throttle, propeller or mixture lever of engines beyond the fourth
+	 */
+	private boolean isEngineLever(ControlParameter parameter) {
+		if (!(parameter instanceof FlightControl))
+			return false;
+		
+		for (int i = 4; i < EngineChannels.MAX_ENGINES; i++) {
+			if (parameter == EngineChannels.THROTTLE[i] || parameter == EngineChannels.PROPELLER[i] || parameter == EngineChannels.MIXTURE[i])
+				return true;
+		}
+		
+		return false;
 	}
 }
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.flightcontrols;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Records the value of every {@link FlightControl} once per simulation step into a compact binary stream that 
+ * {@link FlightControlsReplay} can play back. Only controls whose values changed since the previous step are written, 
+ * and steps where no control changed are only counted, so a recording of a long session stays small.<br>
+ * 
+ * <p>The stream begins with a header (magic number, version, number of controls and simulation time step). Each frame 
+ * then contains a varint count of unchanged steps preceding it, a bit mask of the controls that changed, and for each
+ * changed control the XOR of its new and previous IEEE 754 bits, with leading zero bytes removed. Values are therefore 
+ * reproduced exactly. A frame with an empty mask ends the recording</p>
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class FlightControlsRecorder implements Closeable {
+	
+	private static final Logger logger = LogManager.getLogger(FlightControlsRecorder.class);
+	
+	static final int MAGIC = 0x4A464352; // "JFCR"
+	
+	static final int VERSION = 1;
+	
+	static final int SIZE = FlightControl.values().length;
+	
+	static final int MASK_BYTES = (SIZE + 7) / 8;
+	
+	private final DataOutputStream stream;
+	
+	private final FlightControlsSnapshot snapshot = new FlightControlsSnapshot();
+	private final long[] previousBits = new long[SIZE];
+	private final byte[] mask = new byte[MASK_BYTES];
+	
+	private int unchangedSteps = 0;
+	private long recordedSteps = 0;
+	private boolean closed = false;
+	
+	/**
+	 * @param file file to record to; created if it does not exist, or overwritten if it does
+	 * @param dt simulation time step (sec)
+	 * @throws IOException
+	 */
+	public FlightControlsRecorder(File file, double dt) throws IOException {
+		this(new FileOutputStream(file), dt);
+		
+		logger.debug("Recording flight controls to " + file + "...");
+	}
+	
+	/**
+	 * @param outputStream stream to record to; closed when this recorder is closed
+	 * @param dt simulation time step (sec)
+	 * @throws IOException
+	 */
+	public FlightControlsRecorder(OutputStream outputStream, double dt) throws IOException {
+		stream = new DataOutputStream(new BufferedOutputStream(outputStream));
+		
+		stream.writeInt(MAGIC);
+		stream.writeInt(VERSION);
+		stream.writeInt(SIZE);
+		stream.writeDouble(dt);
+	}
+	
+	/**
+	 * Records the current value of every control in controlsState as the next step of the recording
+	 * 
+	 * @param controlsState
+	 * @throws IOException
+	 */
+	public void record(FlightControlsState controlsState) throws IOException {
+		controlsState.snapshot(snapshot);
+		record(snapshot);
+	}
+	
+	/**
+	 * Records the values in snapshot as the next step of the recording
+	 * 
+	 * @param controls
+	 * @throws IOException
+	 */
+	public void record(FlightControlsSnapshot controls) throws IOException {
+		boolean changed = false;
+		
+		for (int i = 0; i < SIZE; i++) {
+			if (Double.doubleToRawLongBits(controls.values[i]) != previousBits[i]) {
+				mask[i >>> 3] |= 1 << (i & 7);
+				changed = true;
+			}
+		}
+		
+		recordedSteps++;
+		
+		if (!changed) {
+			unchangedSteps++;
+			return;
+		}
+		
+		writeVarInt(unchangedSteps);
+		stream.write(mask);
+		
+		for (int i = 0; i < SIZE; i++) {
+			if ((mask[i >>> 3] & (1 << (i & 7))) == 0)
+				continue;
+			
+			long bits = Double.doubleToRawLongBits(controls.values[i]);
+			writeDelta(bits ^ previousBits[i]);
+			previousBits[i] = bits;
+		}
+		
+		Arrays.fill(mask, (byte) 0);
+		unchangedSteps = 0;
+	}
+	
+	/**
+	 * Writes the significant bytes of a non-zero XOR delta, preceded by their count
+	 * 
+	 * @param delta
+	 * @throws IOException
+	 */
+	private void writeDelta(long delta) throws IOException {
+		int bytes = 8 - (Long.numberOfLeadingZeros(delta) >>> 3);
+		
+		stream.writeByte(bytes);
+		for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8)
+			stream.writeByte((int) (delta >>> shift));
+	}
+	
+	private void writeVarInt(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			stream.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		stream.writeByte(value);
+	}
+	
+	/**
+	 * @return number of steps recorded so far
+	 */
+	public long getRecordedSteps() { return recordedSteps; }
+	
+	/**
+	 * @return number of bytes written so far
+	 */
+	public int size() { return stream.size(); }
+
+	/**
+	 * Ends the recording and closes its stream
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			return;
+		
+		closed = true;
+		
+		writeVarInt(unchangedSteps);
+		stream.write(new byte[MASK_BYTES]);
+		stream.close();
+		
+		logger.debug("Recorded " + recordedSteps + " steps of flight controls in " + stream.size() + " bytes");
+	}
+}
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.flightcontrols;
+
+import static com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsRecorder.MAGIC;
+import static com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsRecorder.MASK_BYTES;
+import static com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsRecorder.SIZE;
+import static com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsRecorder.VERSION;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Plays back a recording made by {@link FlightControlsRecorder}, reproducing the exact value of every {@link FlightControl}
+ * for each step of the recording. {@link FlightControlsStateManager} uses this in place of input devices or analysis inputs, 
+ * so that a recorded session can be simulated again without a pilot in the loop 
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class FlightControlsReplay implements Closeable {
+	
+	private static final Logger logger = LogManager.getLogger(FlightControlsReplay.class);
+	
+	private final DataInputStream stream;
+	
+	private final double dt;
+	
+	private final FlightControlsSnapshot snapshot = new FlightControlsSnapshot();
+	private final long[] bits = new long[SIZE];
+	private final long[] pendingDeltas = new long[SIZE];
+	private final byte[] mask = new byte[MASK_BYTES];
+	
+	// Unchanged steps to play before the pending frame, if any
+	private int unchangedSteps = 0;
+	private boolean hasPendingFrame = false;
+	
+	private long playedSteps = 0;
+	
+	/**
+	 * @param file recording to play back
+	 * @throws IOException if the file cannot be read or is not a flight controls recording
+	 */
+	public FlightControlsReplay(File file) throws IOException {
+		this(new FileInputStream(file));
+		
+		logger.debug("Replaying flight controls from " + file + "...");
+	}
+	
+	/**
+	 * @param inputStream recording to play back; closed when this replay is closed
+	 * @throws IOException if the stream cannot be read or is not a flight controls recording
+	 */
+	public FlightControlsReplay(InputStream inputStream) throws IOException {
+		stream = new DataInputStream(new BufferedInputStream(inputStream));
+		
+		if (stream.readInt() != MAGIC)
+			throw new IOException("Not a flight controls recording");
+		
+		int version = stream.readInt();
+		if (version != VERSION)
+			throw new IOException("Unsupported flight controls recording version: " + version);
+		
+		int size = stream.readInt();
+		if (size != SIZE)
+			throw new IOException("Recording has " + size + " flight controls, but " + SIZE + " are defined");
+		
+		dt = stream.readDouble();
+		
+		readFrame();
+	}
+	
+	/**
+	 * Reads the next frame of the recording, if there is one
+	 * 
+	 * @throws IOException
+	 */
+	private void readFrame() throws IOException {
+		hasPendingFrame = false;
+		
+		try {
+			unchangedSteps = readVarInt();
+			stream.readFully(mask);
+		} catch (EOFException e) {
+			// Recording was not closed properly; play back everything up to this point
+			unchangedSteps = 0;
+			return;
+		}
+		
+		for (int i = 0; i < SIZE; i++) {
+			if ((mask[i >>> 3] & (1 << (i & 7))) == 0)
+				continue;
+			
+			pendingDeltas[i] = readDelta();
+			hasPendingFrame = true;
+		}
+	}
+	
+	private long readDelta() throws IOException {
+		int bytes = stream.readUnsignedByte();
+		
+		if (bytes < 1 || bytes > 8)
+			throw new IOException("Corrupt flight controls recording");
+		
+		long delta = 0;
+		for (int i = 0; i < bytes; i++)
+			delta = (delta << 8) | stream.readUnsignedByte();
+		
+		return delta;
+	}
+	
+	private int readVarInt() throws IOException {
+		int value = 0;
+		
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = stream.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		
+		throw new IOException("Corrupt flight controls recording");
+	}
+	
+	/**
+	 * Advances the replay by one step
+	 * 
+	 * @return snapshot holding the control values of the next step, or null if the recording has ended
+	 * @throws IOException
+	 */
+	public FlightControlsSnapshot next() throws IOException {
+		if (unchangedSteps > 0) {
+			unchangedSteps--;
+		} else if (hasPendingFrame) {
+			for (int i = 0; i < SIZE; i++) {
+				if ((mask[i >>> 3] & (1 << (i & 7))) == 0)
+					continue;
+				
+				bits[i] ^= pendingDeltas[i];
+				snapshot.values[i] = Double.longBitsToDouble(bits[i]);
+			}
+			
+			readFrame();
+		} else {
+			return null;
+		}
+		
+		playedSteps++;
+		
+		return snapshot;
+	}
+	
+	/**
+	 * Sets every control in controlsState to its value at the next step of the recording
+	 * 
+	 * @param controlsState
+	 * @return false if the recording has ended, in which case controlsState is left unchanged
+	 * @throws IOException
+	 */
+	public boolean next(FlightControlsState controlsState) throws IOException {
+		FlightControlsSnapshot controls = next();
+		
+		if (controls == null)
+			return false;
+		
+		controlsState.restore(controls);
+		
+		return true;
+	}
+	
+	/**
+	 * @return if all steps of the recording have been played back
+	 */
+	public boolean isFinished() { return unchangedSteps == 0 && !hasPendingFrame; }
+	
+	/**
+	 * @return simulation time step (sec) that the recording was made with
+	 */
+	public double getDt() { return dt; }
+	
+	/**
+	 * @return number of steps played back so far
+	 */
+	public long getPlayedSteps() { return playedSteps; }
+
+	@Override
+	public void close() throws IOException { stream.close(); }
+}
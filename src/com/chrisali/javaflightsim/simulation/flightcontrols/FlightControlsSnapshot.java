@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.flightcontrols;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+
+/**
+ * Primitive vector of flight control values indexed by {@link FlightControl#ordinal()}. {@link Integrate6DOFEquations}
+ * copies {@link FlightControlsState} into one of these once per step, so that aerodynamics, engines and ground reaction
+ * all see the same control values for the whole step without boxing. Instances are not thread safe
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class FlightControlsSnapshot {
+	
+	private static final int SIZE = FlightControl.values().length;
+	
+	final double[] values = new double[SIZE];
+	
+	/**
+	 * Creates a snapshot with all controls set to 0
+	 */
+	public FlightControlsSnapshot() {}
+	
+	/**
+	 * Creates a snapshot with values copied from a map of controls; controls missing from the map are set to 0
+	 * 
+	 * @param controls
+	 */
+	public FlightControlsSnapshot(Map<FlightControl, Double> controls) {
+		setAll(controls);
+	}
+	
+	public double get(FlightControl control) { return values[control.ordinal()]; }
+	
+	public void set(FlightControl control, double value) { values[control.ordinal()] = value; }
+	
+	/**
+	 * Copies values from a map of controls into this snapshot; controls missing from the map are left unchanged
+	 * 
+	 * @param controls
+	 */
+	public void setAll(Map<FlightControl, Double> controls) {
+		for (Map.Entry<FlightControl, Double> entry : controls.entrySet()) {
+			if (entry.getValue() != null)
+				values[entry.getKey().ordinal()] = entry.getValue();
+		}
+	}
+	
+	/**
+	 * @return copy of this snapshot as an EnumMap
+	 */
+	public EnumMap<FlightControl, Double> toMap() {
+		EnumMap<FlightControl, Double> controls = new EnumMap<>(FlightControl.class);
+		
+		for (FlightControl control : FlightControl.values())
+			controls.put(control, values[control.ordinal()]);
+		
+		return controls;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		
+		for (FlightControl control : FlightControl.values())
+			sb.append(control).append(": ").append(values[control.ordinal()]).append("\n");
+		sb.append("\n");
+		
+		return sb.toString();
+	}
+}
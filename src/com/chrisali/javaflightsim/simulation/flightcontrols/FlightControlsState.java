@@ -19,28 +19,35 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.flightcontrols;
 
-import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.chrisali.javaflightsim.interfaces.Checkpointable;
 import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
 
 /**
  * Handles the exact current, trim and transient states of flight controls that other aspects of the simulation (engine, aerodynamics, ground reaction)
  * will see. {@link FlightControlsStateManager} 
  * 
+ * <p>Current values are held as primitives indexed by {@link FlightControl#ordinal()}; each control can be written from any thread
+ * (i.e. input devices) without locking, and the simulation copies all of them into a {@link FlightControlsSnapshot} once per step
+ * using {@link FlightControlsState#snapshot(FlightControlsSnapshot)}</p>
+ * 
  * @author Christopher Ali
  *
  */
-public class FlightControlsState {
+public class FlightControlsState implements Checkpointable {
 
 	private static final Logger logger = LogManager.getLogger(FlightControlsState.class);
 	
-	private Map<FlightControl, Double> flightControls;
-	private Map<FlightControl, Double> trimflightControls;
-	private Map<FlightControl, Double> transientFlightControls;
+	private static final int SIZE = FlightControl.values().length;
+	
+	private final AtomicLongArray flightControls = new AtomicLongArray(SIZE);
+	private final double[] trimFlightControls = new double[SIZE];
+	private final double[] transientFlightControls = new double[SIZE];
 	
 	/**
 	 * Initializes the object with a flightControls map of values equal to the initial controls values
@@ -54,39 +61,88 @@ public class FlightControlsState {
 	public FlightControlsState(Map<FlightControl, Double> aFlightControls, SimulationConfiguration simConfig) {
 		logger.debug("Initializing flight controls state...");
 		
-		flightControls = new EnumMap<FlightControl, Double>((aFlightControls != null) ? aFlightControls : simConfig.getInitialControls());
+		Map<FlightControl, Double> initialControls = simConfig.getInitialControls();
 		
-		trimflightControls = simConfig.getInitialControls();
-		
-		transientFlightControls = new EnumMap<FlightControl, Double>(flightControls);
+		for (FlightControl control : FlightControl.values()) {
+			Double trim = initialControls.get(control);
+			Double initial = (aFlightControls != null) ? aFlightControls.get(control) : trim;
+			
+			trimFlightControls[control.ordinal()] = (trim != null) ? trim : 0.0;
+			transientFlightControls[control.ordinal()] = (initial != null) ? initial : 0.0;
+			set(control, (initial != null) ? initial : 0.0);
+		}
 	}
 
 	/**
 	 * Resets flightControls back to initial trim values
 	 */
 	public void reset() {
-		for (Map.Entry<FlightControl, Double> entry : flightControls.entrySet())
-			flightControls.put(entry.getKey(), trimflightControls.get(entry.getKey()));
+		for (int i = 0; i < SIZE; i++)
+			flightControls.set(i, Double.doubleToRawLongBits(trimFlightControls[i]));
+	}
+	
+	/**
+	 * Copies the current value of every flight control into a snapshot. Called by the simulation once per step so that all
+	 * consumers see the same control values
+	 * 
+	 * @param snapshot
+	 */
+	public void snapshot(FlightControlsSnapshot snapshot) {
+		for (int i = 0; i < SIZE; i++)
+			snapshot.values[i] = Double.longBitsToDouble(flightControls.get(i));
 	}
-
-	public Map<FlightControl, Double> getFlightControls() { return flightControls; }
 	
-	public double get(FlightControl parameter) { return flightControls.get(parameter); }
+	/**
+	 * Sets the current value of every flight control from a snapshot; used to play back recorded flight controls
+	 * 
+	 * @param snapshot
+	 */
+	public void restore(FlightControlsSnapshot snapshot) {
+		for (int i = 0; i < SIZE; i++)
+			flightControls.set(i, Double.doubleToRawLongBits(snapshot.values[i]));
+	}
 	
-	public void set(FlightControl parameter, Double value) { flightControls.put(parameter, value); }
+	public double get(FlightControl parameter) { return Double.longBitsToDouble(flightControls.get(parameter.ordinal())); }
 	
-	public double getTransientValue(FlightControl parameter) { return transientFlightControls.get(parameter); }
+	public void set(FlightControl parameter, double value) { flightControls.set(parameter.ordinal(), Double.doubleToRawLongBits(value)); }
 	
-	public void setTransientValue(FlightControl parameter, Double value) { transientFlightControls.put(parameter, value); }
+	public double getTransientValue(FlightControl parameter) { return transientFlightControls[parameter.ordinal()]; }
+	
+	public void setTransientValue(FlightControl parameter, double value) { transientFlightControls[parameter.ordinal()] = value; }
 
-	public double getTrimValue(FlightControl parameter) { return trimflightControls.get(parameter); }
+	public double getTrimValue(FlightControl parameter) { return trimFlightControls[parameter.ordinal()]; }
+	
+	@Override
+	public int getCheckpointSize() { return 3 * SIZE; }
+	
+	@Override
+	public int writeCheckpoint(double[] state, int offset) {
+		for (int i = 0; i < SIZE; i++)
+			state[offset++] = Double.longBitsToDouble(flightControls.get(i));
+		
+		System.arraycopy(trimFlightControls, 0, state, offset, SIZE);
+		System.arraycopy(transientFlightControls, 0, state, offset + SIZE, SIZE);
+		
+		return offset + 2 * SIZE;
+	}
+	
+	@Override
+	public int readCheckpoint(double[] state, int offset) {
+		for (int i = 0; i < SIZE; i++)
+			flightControls.set(i, Double.doubleToRawLongBits(state[offset++]));
+		
+		System.arraycopy(state, offset, trimFlightControls, 0, SIZE);
+		System.arraycopy(state, offset + SIZE, transientFlightControls, 0, SIZE);
+		
+		return offset + 2 * SIZE;
+	}
 	
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		
-		for (Map.Entry<FlightControl, Double> entry : flightControls.entrySet()) {
-			sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+		for (FlightControl control : FlightControl.values()) {
+			sb.append(control).append(": ").append(get(control)).append("\n");
 		}
 		sb.append("\n");
 		
@@ -19,17 +19,24 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.flightcontrols;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.chrisali.javaflightsim.interfaces.Checkpointable;
 import com.chrisali.javaflightsim.interfaces.SimulationController;
 import com.chrisali.javaflightsim.interfaces.Steppable;
+import com.chrisali.javaflightsim.simulation.autopilot.Autopilot;
 import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControlInput;
 import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControls;
 import com.chrisali.javaflightsim.simulation.inputdevices.AbstractDevice;
+import com.chrisali.javaflightsim.simulation.inputdevices.InputDevicePoller;
 import com.chrisali.javaflightsim.simulation.inputdevices.Joystick;
 import com.chrisali.javaflightsim.simulation.inputdevices.JoystickVisitor;
 import com.chrisali.javaflightsim.simulation.inputdevices.Keyboard;
@@ -37,20 +44,40 @@ import com.chrisali.javaflightsim.simulation.inputdevices.KeyboardVisitor;
 import com.chrisali.javaflightsim.simulation.inputdevices.Mouse;
 import com.chrisali.javaflightsim.simulation.inputdevices.MouseVisitor;
 import com.chrisali.javaflightsim.simulation.setup.ControlsConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.NetworkConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.NetworkProtocol;
 import com.chrisali.javaflightsim.simulation.setup.Options;
 import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
 import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+import com.chrisali.javaflightsim.simulation.utilities.SimDirectories;
 
 /**
  * Handles flight controls actuated by human interface devices. Also contains 
- * {@link AnalysisControlInput} functionality when simulation in Analysis Mode
+ * {@link AnalysisControlInput} functionality when simulation in Analysis Mode.<br>
+ * Devices are polled by an {@link InputDevicePoller} on their own thread, and their commands are placed in a 
+ * {@link ControlParameterQueue} that is drained into the {@link FlightControlActuator} each step. Relative commands 
+ * (keys and buttons) that are held down are repeated once per step, so their effect does not depend on the poll rate.<br>
+ * If a control protocol is selected in {@link NetworkConfiguration}, commands received by a {@link NetworkControlInput} are
+ * applied at each step boundary, overriding input devices and analysis inputs for the controls they hold.<br>
+ * If an {@link Autopilot} is set, it commands the controls of its engaged modes after input devices and analysis inputs, and 
+ * before network commands.<br>
+ * If {@link Options#RECORD_CONTROLS} is enabled, the controls seen by the simulation each step are recorded with a 
+ * {@link FlightControlsRecorder}; if {@link Options#REPLAY_CONTROLS} is enabled, they are played back by a {@link FlightControlsReplay}
+ * instead of being set by input devices or analysis inputs.<br>
+ * Checkpoints hold the state of the controls and actuator; analysis inputs are a function of simulation time, so they resume from the
+ * time restored, while input devices, recordings, network commands and the autopilot are not checkpointed
  * 
  * @author Christopher Ali
  *
  */
-public class FlightControlsStateManager implements Steppable {
+public class FlightControlsStateManager implements Steppable, Checkpointable {
 
 	private static final Logger logger = LogManager.getLogger(FlightControlsStateManager.class);
+	
+	private static final int INPUT_QUEUE_CAPACITY = 1024;
+	
+	public static final String RECORDING_FILE_NAME = "FlightControls.rec";
 
 	private FlightControlsState controlsState;
 	
@@ -62,66 +89,175 @@ public class FlightControlsStateManager implements Steppable {
 	private Keyboard hidKeyboard;
 	private AnalysisControls analysisControls;
 
-	private ControlParameterActuator actuator;
+	private FlightControlActuator actuator;
 	
 	private JoystickVisitor joystickVisitor;
     private KeyboardVisitor keyboardVisitor;
     private MouseVisitor mouseVisitor;
+    
+    private ControlParameterQueue inputQueue = new ControlParameterQueue(INPUT_QUEUE_CAPACITY);
+    private InputDevicePoller devicePoller;
+    private ControlParameterActuator queuedInputHandler = this::handleQueuedInput;
+    
+    // Relative parameters currently held down, and those that changed during the current step
+    private List<ControlParameter> heldParameters = new ArrayList<>();
+    private List<ControlParameter> changedParameters = new ArrayList<>();
+    
+    private FlightControlsRecorder recorder;
+    private FlightControlsReplay replay;
+    
+    private NetworkControlInput networkInput;
+    
+    private Autopilot autopilot;
 	
 	public FlightControlsStateManager(SimulationController simController, AtomicInteger simTimeMS) {
-		logger.debug("Initializing flight controls...");
+		this(simController.getConfiguration(), FileUtilities.readAnalysisControls(), simTimeMS);
 		
 		SimEvents.init(simController);
-
-		SimulationConfiguration simConfig = simController.getConfiguration();
-		options = simConfig.getSimulationOptions();
-		controlsState = new FlightControlsState(simConfig);
-		actuator = new FlightControlActuator(simConfig, controlsState);
-
-		this.simTimeMS = simTimeMS;
 		
+		SimulationConfiguration simConfig = simController.getConfiguration();
 		ControlsConfiguration controlsConfig = FileUtilities.readControlsConfiguration();
-		analysisControls = FileUtilities.readAnalysisControls();
 		
-		if (analysisControls != null) {
-			logger.debug(analysisControls.getAnalysisInputs().size() + " analysis flight control inputs found:");
-			logger.debug(analysisControls.toString());
-		}
+		double dt = simConfig.getIntegratorConfig().get(IntegratorConfig.DT);
+		
+		if (options.contains(Options.REPLAY_CONTROLS))
+			openReplay(dt);
+		else if (options.contains(Options.RECORD_CONTROLS))
+			openRecorder(dt);
 		
 		// Use controllers for pilot in loop simulation if ANALYSIS_MODE not enabled 
-		if (!options.contains(Options.ANALYSIS_MODE)) {
+		if (!options.contains(Options.ANALYSIS_MODE) && replay == null) {
+			// Poll devices at the simulation's rate unless configured otherwise 
+			double pollRate = controlsConfig.getPollRate() > 0 ? controlsConfig.getPollRate() : 1 / dt;
+			devicePoller = new InputDevicePoller(pollRate);
+			
 			if (options.contains(Options.USE_JOYSTICK)) {
 				logger.debug("Joystick controller selected");
 				hidController = new Joystick();
-				joystickVisitor = new JoystickVisitor(controlsConfig.getJoystickAssignments(), actuator);
+				joystickVisitor = new JoystickVisitor(controlsConfig.getJoystickAssignments(), inputQueue);
+				devicePoller.addDevice(hidController, joystickVisitor);
 			}
 			else if (options.contains(Options.USE_MOUSE)){
 				logger.debug("Mouse controller selected");
 				hidController = new Mouse();
-				mouseVisitor = new MouseVisitor(controlsState, actuator);
+				mouseVisitor = new MouseVisitor(controlsState, inputQueue);
+				devicePoller.addDevice(hidController, mouseVisitor);
 			}
 			
 			hidKeyboard = new Keyboard();
-			keyboardVisitor = new KeyboardVisitor(controlsConfig.getKeyboardAssignments(), actuator);
+			keyboardVisitor = new KeyboardVisitor(controlsConfig.getKeyboardAssignments(), inputQueue);
+			devicePoller.addDevice(hidKeyboard, keyboardVisitor);
+			
+			devicePoller.start();
+		}
+		
+		NetworkConfiguration networkConfig = simConfig.getNetworkConfiguration();
+		if (networkConfig.getControlProtocol() != NetworkProtocol.NONE && replay == null)
+			openNetworkInput(networkConfig);
+	}
+	
+	/**
+	 * Initializes flight controls without a {@link SimulationController}, input devices, recording or network input; used to run
+	 * simulations in analysis mode outside of the application, such as jobs run by a simulation server 
+	 * 
+	 * @param simConfig
+	 * @param analysisControls analysis inputs to apply if simConfig contains {@link Options#ANALYSIS_MODE}
+	 * @param simTimeMS
+	 */
+	public FlightControlsStateManager(SimulationConfiguration simConfig, AnalysisControls analysisControls, AtomicInteger simTimeMS) {
+		logger.debug("Initializing flight controls...");
+		
+		options = simConfig.getSimulationOptions();
+		controlsState = new FlightControlsState(simConfig);
+		actuator = new FlightControlActuator(simConfig, controlsState);
+
+		this.simTimeMS = simTimeMS;
+		this.analysisControls = analysisControls;
+		
+		if (analysisControls != null) {
+			logger.debug(analysisControls.getAnalysisInputs().size() + " analysis flight control inputs found:");
+			logger.debug(analysisControls.toString());
+		}
+	}
+	
+	/**
+	 * @return file in {@link SimDirectories#RECORDINGS} that flight controls are recorded to and replayed from
+	 */
+	public static File getRecordingFile() {
+		return new File(FileUtilities.FILE_ROOT + SimDirectories.RECORDINGS.toString(), RECORDING_FILE_NAME);
+	}
+	
+	private void openRecorder(double dt) {
+		File recordingFile = getRecordingFile();
+		
+		try {
+			recordingFile.getParentFile().mkdirs();
+			recorder = new FlightControlsRecorder(recordingFile, dt);
+		} catch (IOException e) {
+			logger.error("Unable to record flight controls to " + recordingFile + "!", e);
+		}
+	}
+	
+	private void openReplay(double dt) {
+		File recordingFile = getRecordingFile();
+		
+		try {
+			replay = new FlightControlsReplay(recordingFile);
+			
+			if (replay.getDt() != dt)
+				logger.warn("Flight controls were recorded with a time step of " + replay.getDt() + " sec, but the simulation uses " 
+							+ dt + " sec; trajectories will not match the recorded session");
+		} catch (IOException e) {
+			logger.error("Unable to replay flight controls from " + recordingFile + "!", e);
+		}
+	}
+	
+	private void openNetworkInput(NetworkConfiguration networkConfig) {
+		try {
+			networkInput = new NetworkControlInput(networkConfig, simTimeMS);
+			networkInput.start();
+		} catch (IOException e) {
+			logger.error("Unable to receive flight control commands on " + networkConfig.getControlAddress() + ":" 
+						 + networkConfig.getControlPort() + "!", e);
 		}
 	}
 	
 	@Override
 	public void step() {
 		try {
+			// Recorded controls already include continuous controls and limits
+			if (replay != null) {
+				if (!options.contains(Options.PAUSED))
+					replay.next(controlsState);
+				
+				return;
+			}
+			
 			// if not running in analysis mode, controls and options are updated with pilot input
 			// otherwise, controls updated using generated doublets
 			if (!options.contains(Options.ANALYSIS_MODE)) {
-				if (hidController != null) 
-					hidController.collectControlDeviceValues(joystickVisitor != null ? joystickVisitor : mouseVisitor);
-		
-				if (hidKeyboard != null)
-					hidKeyboard.collectControlDeviceValues(keyboardVisitor);
-			} else {
+				changedParameters.clear();
+				
+				inputQueue.drainTo(queuedInputHandler);
+				
+				repeatHeldParameters();
+			} else if (analysisControls != null) {
 				analysisControls.updateFlightControls(simTimeMS, actuator);
 			}
 			
+			if (autopilot != null && !options.contains(Options.PAUSED))
+				autopilot.update(actuator);
+			
+			actuator.updateContinuousControls();
+			
+			if (networkInput != null)
+				networkInput.apply(controlsState, simTimeMS.get());
+			
 			limitControls(controlsState);
+			
+			// Integration is skipped while paused, so those steps are left out of the recording
+			if (recorder != null && !options.contains(Options.PAUSED))
+				recordControls();
 		} catch (Exception e) {
 			logger.error("Flight controls encountered an error!", e);
 		}
@@ -137,6 +273,122 @@ public class FlightControlsStateManager implements Steppable {
 	public AtomicInteger getSimTimeMS() { return simTimeMS;	}
 	
 	public FlightControlsState getControlsState() { return controlsState; }
+	
+	@Override
+	public int getCheckpointSize() { return controlsState.getCheckpointSize() + actuator.getCheckpointSize(); }
+	
+	@Override
+	public int writeCheckpoint(double[] state, int offset) {
+		return actuator.writeCheckpoint(state, controlsState.writeCheckpoint(state, offset));
+	}
+	
+	@Override
+	public int readCheckpoint(double[] state, int offset) {
+		return actuator.readCheckpoint(state, controlsState.readCheckpoint(state, offset));
+	}
+	
+	/**
+	 * @return queue that input sources other than polled devices can send {@link ControlParameter} changes to from any thread
+	 */
+	public ControlParameterQueue getInputQueue() { return inputQueue; }
+	
+	/**
+	 * @return if flight controls are being replayed and every recorded step has been played back
+	 */
+	public boolean isReplayFinished() { return replay != null && replay.isFinished(); }
+	
+	/**
+	 * @return source of flight control commands received over the network, or null if none is configured
+	 */
+	public NetworkControlInput getNetworkInput() { return networkInput; }
+	
+	/**
+	 * @return autopilot commanding the flight controls, or null if none is set
+	 */
+	public Autopilot getAutopilot() { return autopilot; }
+	
+	/**
+	 * Sets an autopilot to command the flight controls each step, or removes it if null; autopilots are not checkpointed 
+	 * 
+	 * @param autopilot
+	 */
+	public void setAutopilot(Autopilot autopilot) { this.autopilot = autopilot; }
+	
+	/**
+	 * Stops polling input devices and receiving network commands, and closes any flight controls recording or replay; called 
+	 * when the simulation ends
+	 */
+	public void shutdown() {
+		if (devicePoller != null)
+			devicePoller.stop();
+		
+		try {
+			if (networkInput != null)
+				networkInput.close();
+		} catch (IOException e) {
+			logger.error("Error closing network flight control input!", e);
+		}
+		
+		try {
+			if (recorder != null)
+				recorder.close();
+			
+			if (replay != null) {
+				logger.debug("Replayed " + replay.getPlayedSteps() + " steps of flight controls");
+				replay.close();
+			}
+		} catch (IOException e) {
+			logger.error("Error closing flight controls recording!", e);
+		}
+	}
+	
+	private void recordControls() {
+		try {
+			recorder.record(controlsState);
+		} catch (IOException e) {
+			logger.error("Unable to record flight controls, recording stopped!", e);
+			
+			try { recorder.close(); } 
+			catch (IOException ignored) {}
+			
+			recorder = null;
+		}
+	}
+	
+	/**
+	 * Passes a change drained from the input queue to the actuator, keeping track of which relative parameters are held down
+	 * 
+	 * @param parameter
+	 * @param value
+	 */
+	private void handleQueuedInput(ControlParameter parameter, float value) {
+		if (parameter.isRelative()) {
+			if (!changedParameters.contains(parameter))
+				changedParameters.add(parameter);
+			
+			if (value == 1.0f) {
+				if (!heldParameters.contains(parameter))
+					heldParameters.add(parameter);
+			} else {
+				heldParameters.remove(parameter);
+			}
+		}
+		
+		actuator.handleParameterChange(parameter, value);
+	}
+	
+	/**
+	 * Actuates relative parameters that have been held down since a previous step, as their input devices only report 
+	 * when they are pressed and released
+	 */
+	private void repeatHeldParameters() {
+		for (int i = 0; i < heldParameters.size(); i++) {
+			ControlParameter parameter = heldParameters.get(i);
+			
+			if (!changedParameters.contains(parameter))
+				actuator.handleParameterChange(parameter, 1.0f);
+		}
+	}
 
 	/**
 	 *  Limit control inputs to sensible deflection values based on the minimum and maximum values defined for 
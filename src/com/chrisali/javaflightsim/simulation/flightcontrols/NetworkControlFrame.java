@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.flightcontrols;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary layout of the flight control commands received by {@link NetworkControlInput}, and an encoder for programs that send
+ * them. All values are big endian (network order):
+ * 
+ * <p>0  - int magic number ({@link #MAGIC})</p>
+ * <p>4  - unsigned short layout version ({@link #VERSION})</p>
+ * <p>6  - unsigned byte number of commands</p>
+ * <p>7  - reserved, 0</p>
+ * <p>8  - long frame sequence number, increasing by one each frame sent</p>
+ * <p>16 - double simulation time (sec) that the commands apply at, or NaN to apply them as soon as they are received</p>
+ * <p>24 - one unsigned byte {@link FlightControl} ordinal per command, padded to a multiple of 8 bytes</p>
+ * <p>then one double per command in the same order as the ordinals; the units of {@link FlightControlsState} are used 
+ * (rad for control surfaces and flaps, 0 to 1 for the others). A value of NaN releases the control to other input sources</p>
+ * 
+ * <p>Over TCP, frames are simply sent back to back on the stream</p>
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class NetworkControlFrame {
+	
+	public static final int MAGIC = 0x4A465343; // "JFSC"
+	public static final int VERSION = 1;
+	
+	static final int VERSION_OFFSET   = 4;
+	static final int COUNT_OFFSET	  = 6;
+	static final int SEQUENCE_OFFSET  = 8;
+	static final int TIME_OFFSET	  = 16;
+	static final int CONTROLS_OFFSET  = 24;
+	
+	private static final FlightControl[] CONTROLS = FlightControl.values();
+	
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(size(CONTROLS.length));
+	private final double[] values = new double[CONTROLS.length];
+	private final boolean[] commanded = new boolean[CONTROLS.length];
+	
+	/**
+	 * @param count number of commands in the frame
+	 * @return byte offset of the first command value
+	 */
+	public static int valuesOffset(int count) { return CONTROLS_OFFSET + ((count + 7) & ~7); }
+	
+	/**
+	 * @param count number of commands in the frame
+	 * @return size of a frame in bytes
+	 */
+	public static int size(int count) { return valuesOffset(count) + count * Double.BYTES; }
+	
+	/**
+	 * Commands control to value in the next frame encoded
+	 * 
+	 * @param control
+	 * @param value
+	 * @return this frame
+	 */
+	public NetworkControlFrame set(FlightControl control, double value) {
+		values[control.ordinal()] = value;
+		commanded[control.ordinal()] = true;
+		
+		return this;
+	}
+	
+	/**
+	 * Releases control to other input sources in the next frame encoded
+	 * 
+	 * @param control
+	 * @return this frame
+	 */
+	public NetworkControlFrame release(FlightControl control) { return set(control, Double.NaN); }
+	
+	/**
+	 * Removes all commands from the frame
+	 */
+	public void clear() {
+		for (int i = 0; i < commanded.length; i++)
+			commanded[i] = false;
+	}
+	
+	/**
+	 * Encodes the commands set since the last {@link #clear()} into a buffer reused by each call
+	 * 
+	 * @param sequence frame sequence number
+	 * @param commandTime simulation time (sec) that the commands apply at, or NaN to apply them as soon as they are received
+	 * @return buffer ready to be written to a channel
+	 */
+	public ByteBuffer encode(long sequence, double commandTime) {
+		int count = 0;
+		for (boolean isCommanded : commanded)
+			if (isCommanded) count++;
+		
+		buffer.clear();
+		buffer.putInt(MAGIC)
+			  .putShort((short) VERSION)
+			  .put((byte) count)
+			  .put((byte) 0)
+			  .putLong(sequence)
+			  .putDouble(commandTime);
+		
+		int valuesOffset = valuesOffset(count);
+		for (int i = 0, command = 0; i < CONTROLS.length; i++) {
+			if (!commanded[i])
+				continue;
+			
+			buffer.put(CONTROLS_OFFSET + command, (byte) i);
+			buffer.putDouble(valuesOffset + command * Double.BYTES, values[i]);
+			command++;
+		}
+		
+		buffer.position(0).limit(size(count));
+		
+		return buffer;
+	}
+}
@@ -0,0 +1,402 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.flightcontrols;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.NetworkChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.setup.NetworkConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.NetworkProtocol;
+
+/**
+ * Receives flight control commands from external programs (guidance software, autopilots, hardware in the loop rigs) over UDP
+ * or TCP, in the format described by {@link NetworkControlFrame}. Frames are received and checked on their own thread, stamped 
+ * with the simulation time they arrived at, and passed to the simulation thread through a preallocated single producer, single 
+ * consumer ring. Once per step, {@link #apply(FlightControlsState, int)} applies every frame that has become due; a frame is due 
+ * at its command time, or at its arrival time if it has none.<br>
+ * Commanded values are held until changed or released, overriding other input sources. Frames are discarded and counted if they
+ * arrive out of order, if the ring is full, or if they would be applied more than maxControlLatencyMS after they were due, so 
+ * that a command is never applied later than that bound plus one simulation step. Frames after one commanded in the future are 
+ * held behind it, so senders should stamp frames in increasing order of time
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class NetworkControlInput implements AutoCloseable {
+	
+	private static final Logger logger = LogManager.getLogger(NetworkControlInput.class);
+	
+	private static final FlightControl[] CONTROLS = FlightControl.values();
+	
+	private static final int RING_CAPACITY = 256;
+	private static final int RING_MASK = RING_CAPACITY - 1;
+	
+	private final NetworkProtocol protocol;
+	private final NetworkChannel channel;
+	private final AtomicInteger simTimeMS;
+	private final double maxLatency;
+	
+	private final ByteBuffer packet = ByteBuffer.allocateDirect(NetworkControlFrame.size(CONTROLS.length));
+	private Thread receiverThread;
+	private volatile boolean running = false;
+	private volatile SocketChannel client;
+	
+	// Ring slots; written only by the receiver thread before publishing writePosition, read only by the simulation thread
+	private final double[] dueTimes = new double[RING_CAPACITY];
+	private final int[] commandCounts = new int[RING_CAPACITY];
+	private final byte[] commandControls = new byte[RING_CAPACITY * CONTROLS.length];
+	private final double[] commandValues = new double[RING_CAPACITY * CONTROLS.length];
+	private final AtomicLong writePosition = new AtomicLong();
+	private final AtomicLong readPosition = new AtomicLong();
+	
+	// Commands held by the simulation thread
+	private final boolean[] commanded = new boolean[CONTROLS.length];
+	private final double[] commandedValues = new double[CONTROLS.length];
+	
+	// Each counter is only written by one thread, unless noted
+	private long lastSequence = -1;
+	private volatile long receivedFrames = 0;
+	private volatile long malformedFrames = 0;
+	private volatile long outOfOrderFrames = 0;
+	private volatile long lostFrames = 0;
+	private volatile long droppedFrames = 0;
+	private volatile long appliedFrames = 0;
+	// Counted by both threads
+	private final AtomicLong lateFrames = new AtomicLong();
+	
+	/**
+	 * Binds to the address and port configured in {@link NetworkConfiguration}; call {@link #start()} to begin receiving
+	 * 
+	 * @param configuration
+	 * @param simTimeMS simulation time that frames are stamped against
+	 * @throws IOException if the address cannot be bound
+	 */
+	public NetworkControlInput(NetworkConfiguration configuration, AtomicInteger simTimeMS) throws IOException {
+		this.protocol = configuration.getControlProtocol();
+		this.simTimeMS = simTimeMS;
+		this.maxLatency = configuration.getMaxControlLatencyMS() / 1000.0;
+		
+		InetSocketAddress address = new InetSocketAddress(InetAddress.getByName(configuration.getControlAddress()), 
+														  configuration.getControlPort());
+		
+		switch (protocol) {
+		case UDP:
+			channel = DatagramChannel.open().bind(address);
+			break;
+		case TCP:
+			channel = ServerSocketChannel.open().bind(address);
+			break;
+		default:
+			throw new IllegalArgumentException("No network protocol selected for flight control input");
+		}
+	}
+	
+	/**
+	 * Starts receiving frames on a daemon thread
+	 */
+	public void start() {
+		if (running)
+			return;
+		
+		running = true;
+		receiverThread = new Thread(protocol == NetworkProtocol.UDP ? this::receiveDatagrams : this::receiveStreams, "Network Control Input");
+		receiverThread.setDaemon(true);
+		receiverThread.start();
+		
+		try {
+			logger.debug("Receiving flight control commands over " + protocol + " on " + channel.getLocalAddress() + "...");
+		} catch (IOException ignored) {}
+	}
+	
+	private void receiveDatagrams() {
+		DatagramChannel datagrams = (DatagramChannel) channel;
+		
+		try {
+			while (running) {
+				packet.clear();
+				datagrams.receive(packet);
+				packet.flip();
+				
+				receive(packet);
+			}
+		} catch (ClosedChannelException e) {
+			// Closed by close()
+		} catch (IOException e) {
+			logger.error("Error receiving flight control commands, network input stopped!", e);
+		}
+	}
+	
+	private void receiveStreams() {
+		ServerSocketChannel server = (ServerSocketChannel) channel;
+		
+		while (running) {
+			try (SocketChannel accepted = server.accept()) {
+				client = accepted;
+				lastSequence = -1;
+				
+				logger.debug("Flight control sender connected from " + accepted.getRemoteAddress());
+				
+				while (running) {
+					packet.clear();
+					if (!readFully(accepted, NetworkControlFrame.CONTROLS_OFFSET))
+						break;
+					
+					int count = packet.get(NetworkControlFrame.COUNT_OFFSET) & 0xFF;
+					if (packet.getInt(0) != NetworkControlFrame.MAGIC || count > CONTROLS.length) {
+						// The stream cannot be resynchronized, so the sender is disconnected 
+						malformedFrames++;
+						logger.warn("Malformed flight control frame received, disconnecting sender...");
+						break;
+					}
+					
+					if (!readFully(accepted, NetworkControlFrame.size(count)))
+						break;
+					
+					packet.flip();
+					receive(packet);
+				}
+				
+				logger.debug("Flight control sender disconnected");
+			} catch (ClosedChannelException e) {
+				// Closed by close()
+			} catch (IOException e) {
+				if (running)
+					logger.error("Error receiving flight control commands, waiting for a new sender...", e);
+			} finally {
+				client = null;
+			}
+		}
+	}
+	
+	private boolean readFully(SocketChannel source, int length) throws IOException {
+		packet.limit(length);
+		
+		while (packet.hasRemaining()) {
+			if (source.read(packet) < 0)
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Checks a frame and passes it to the simulation thread; called by the receiver thread
+	 * 
+	 * @param frame frame between position and limit; position and limit are left unchanged
+	 */
+	void receive(ByteBuffer frame) {
+		int base = frame.position();
+		int length = frame.remaining();
+		int count = (length >= NetworkControlFrame.CONTROLS_OFFSET) ? frame.get(base + NetworkControlFrame.COUNT_OFFSET) & 0xFF : 0;
+		
+		if (length < NetworkControlFrame.CONTROLS_OFFSET
+				|| frame.getInt(base) != NetworkControlFrame.MAGIC
+				|| (frame.getShort(base + NetworkControlFrame.VERSION_OFFSET) & 0xFFFF) != NetworkControlFrame.VERSION
+				|| count > CONTROLS.length
+				|| length < NetworkControlFrame.size(count)) {
+			malformedFrames++;
+			return;
+		}
+		
+		for (int i = 0; i < count; i++) {
+			if ((frame.get(base + NetworkControlFrame.CONTROLS_OFFSET + i) & 0xFF) >= CONTROLS.length) {
+				malformedFrames++;
+				return;
+			}
+		}
+		
+		publish(frame, base, count);
+		
+		// Counted once the frame has been published, so a waiting reader always sees its commands
+		receivedFrames++;
+	}
+	
+	/**
+	 * Writes a validated frame into the ring unless it is out of order, late or the ring is full
+	 */
+	private void publish(ByteBuffer frame, int base, int count) {
+		long sequence = frame.getLong(base + NetworkControlFrame.SEQUENCE_OFFSET);
+		if (sequence <= lastSequence) {
+			outOfOrderFrames++;
+			return;
+		}
+		
+		if (lastSequence >= 0)
+			lostFrames += sequence - lastSequence - 1;
+		lastSequence = sequence;
+		
+		double arrivalTime = simTimeMS.get() / 1000.0;
+		double commandTime = frame.getDouble(base + NetworkControlFrame.TIME_OFFSET);
+		double dueTime = Double.isNaN(commandTime) ? arrivalTime : commandTime;
+		
+		if (arrivalTime - dueTime > maxLatency) {
+			lateFrames.incrementAndGet();
+			return;
+		}
+		
+		long position = writePosition.get();
+		if (position - readPosition.get() >= RING_CAPACITY) {
+			droppedFrames++;
+			return;
+		}
+		
+		int slot = (int) (position & RING_MASK);
+		int valuesOffset = NetworkControlFrame.valuesOffset(count);
+		
+		dueTimes[slot] = dueTime;
+		commandCounts[slot] = count;
+		for (int i = 0; i < count; i++) {
+			commandControls[slot * CONTROLS.length + i] = frame.get(base + NetworkControlFrame.CONTROLS_OFFSET + i);
+			commandValues[slot * CONTROLS.length + i] = frame.getDouble(base + valuesOffset + i * Double.BYTES);
+		}
+		
+		// Publishes the slot contents to the simulation thread
+		writePosition.lazySet(position + 1);
+	}
+	
+	/**
+	 * Applies frames that are due at the current simulation time, then sets all controls held by network commands; called
+	 * by the simulation thread at each step boundary
+	 * 
+	 * @param controlsState
+	 * @param timeMS current simulation time in milliseconds
+	 */
+	public void apply(FlightControlsState controlsState, int timeMS) {
+		double simTime = timeMS / 1000.0;
+		long position = readPosition.get();
+		long available = writePosition.get();
+		
+		for (; position < available; position++) {
+			int slot = (int) (position & RING_MASK);
+			
+			if (dueTimes[slot] > simTime)
+				break;
+			
+			if (simTime - dueTimes[slot] > maxLatency) {
+				lateFrames.incrementAndGet();
+				continue;
+			}
+			
+			for (int i = 0; i < commandCounts[slot]; i++) {
+				int control = commandControls[slot * CONTROLS.length + i] & 0xFF;
+				double value = commandValues[slot * CONTROLS.length + i];
+				
+				commanded[control] = !Double.isNaN(value);
+				commandedValues[control] = value;
+			}
+			
+			appliedFrames++;
+		}
+		
+		// Hands the slots back to the receiver thread
+		readPosition.lazySet(position);
+		
+		for (int i = 0; i < CONTROLS.length; i++) {
+			if (commanded[i])
+				controlsState.set(CONTROLS[i], commandedValues[i]);
+		}
+	}
+	
+	/**
+	 * @param control
+	 * @return if control is currently held by a network command
+	 */
+	public boolean isCommanded(FlightControl control) { return commanded[control.ordinal()]; }
+	
+	/**
+	 * @return address that frames are received on
+	 * @throws IOException
+	 */
+	public InetSocketAddress getLocalAddress() throws IOException { return (InetSocketAddress) channel.getLocalAddress(); }
+	
+	/**
+	 * @return number of well formed frames received, including those later discarded; a frame is counted only after its
+	 * commands are visible to {@link #apply(FlightControlsState, int)}
+	 */
+	public long getReceivedFrames() { return receivedFrames; }
+	
+	/**
+	 * @return number of frames applied to the flight controls
+	 */
+	public long getAppliedFrames() { return appliedFrames; }
+	
+	/**
+	 * @return number of frames discarded because they arrived or would have been applied more than maxControlLatencyMS after they were due
+	 */
+	public long getLateFrames() { return lateFrames.get(); }
+	
+	/**
+	 * @return number of frames discarded because the simulation thread had not yet taken RING_CAPACITY earlier frames
+	 */
+	public long getDroppedFrames() { return droppedFrames; }
+	
+	/**
+	 * @return number of frames discarded because their sequence number was not greater than that of an earlier frame
+	 */
+	public long getOutOfOrderFrames() { return outOfOrderFrames; }
+	
+	/**
+	 * @return number of frames never received, found from gaps in sequence numbers
+	 */
+	public long getLostFrames() { return lostFrames; }
+	
+	/**
+	 * @return number of packets received that were not valid frames
+	 */
+	public long getMalformedFrames() { return malformedFrames; }
+	
+	/**
+	 * Stops receiving frames and closes the network channel
+	 */
+	@Override
+	public void close() throws IOException {
+		running = false;
+		
+		SocketChannel connected = client;
+		if (connected != null)
+			connected.close();
+		
+		channel.close();
+		
+		if (receiverThread != null) {
+			try {
+				receiverThread.join(1000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		logger.debug("Flight control commands received: " + receivedFrames + ", applied: " + appliedFrames + ", late: " + lateFrames 
+					 + ", dropped: " + droppedFrames + ", out of order: " + outOfOrderFrames + ", lost: " + lostFrames 
+					 + ", malformed: " + malformedFrames);
+	}
+}
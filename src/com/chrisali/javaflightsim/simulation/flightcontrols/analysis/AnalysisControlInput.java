@@ -19,10 +19,8 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.flightcontrols.analysis;
 
-import java.util.concurrent.atomic.AtomicInteger;
-
-import com.chrisali.javaflightsim.simulation.flightcontrols.ControlParameterActuator;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonSubTypes.Type;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
@@ -39,6 +37,10 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo.Id;
 @JsonSubTypes({
 	@Type(value = Doublet.class, name = "Doublet"),
 	@Type(value = Singlet.class, name = "Singlet"),
+	@Type(value = ThreeTwoOneOne.class, name = "ThreeTwoOneOne"),
+	@Type(value = FrequencySweep.class, name = "FrequencySweep"),
+	@Type(value = Multisine.class, name = "Multisine"),
+	@Type(value = RandomBinarySequence.class, name = "RandomBinarySequence"),
 })
 public abstract class AnalysisControlInput implements Comparable<AnalysisControlInput> {
 
@@ -69,7 +71,20 @@ public abstract class AnalysisControlInput implements Comparable<AnalysisControl
 		this.amplitude = amplitude;
 	}
 
-	public abstract void generate(AtomicInteger timeMS, ControlParameterActuator actuator);
+	/**
+	 * Calculates the deflection of this input from trim value; only called by {@link AnalysisControlTimeline} while this input 
+	 * is active, from its start time (inclusive) to its end time (exclusive)
+	 * 
+	 * @param timeMS simulation time in milliseconds
+	 * @return control deflection from trim value in radians
+	 */
+	public abstract double value(int timeMS);
+	
+	/**
+	 * @return time in milliseconds when this input ends and its control returns to trim value
+	 */
+	@JsonIgnore
+	public int getEndTimeMS() { return startTimeMS + durationMS; }
 
 	public FlightControl getControlType() { return controlType;	}
 
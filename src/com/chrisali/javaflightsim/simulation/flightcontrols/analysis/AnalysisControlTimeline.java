@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.flightcontrols.analysis;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.ControlParameterActuator;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+
+/**
+ * Compiled form of a list of {@link AnalysisControlInput} objects. Inputs are sorted by start time, and an active set is swept 
+ * along the timeline as simulation time advances: inputs join the set when they start and leave it when they end, so the cost 
+ * of each update depends only on the number of inputs active at that time and the number of flight controls they affect, not on
+ * the total number of inputs.<br>
+ * Inputs active on the same flight control at the same time are summed. Once the first input on a flight control starts, that 
+ * control is commanded once per update, returning to trim value whenever none of its inputs are active
+ * 
+ * @author Christopher
+ *
+ */
+public class AnalysisControlTimeline {
+	
+	private final AnalysisControlInput[] inputs;
+	
+	private final AnalysisControlInput[] activeInputs;
+	private int activeCount = 0;
+	private int nextInput = 0;
+	
+	// Flight controls commanded so far, in the order that their first input started
+	private final FlightControl[] commandedControls = new FlightControl[FlightControl.values().length];
+	private final boolean[] isCommanded = new boolean[FlightControl.values().length];
+	private final double[] deflections = new double[FlightControl.values().length];
+	private int commandedCount = 0;
+	
+	private int lastTimeMS = Integer.MIN_VALUE;
+	
+	/**
+	 * @param analysisInputs inputs to compile; the list is not modified
+	 */
+	public AnalysisControlTimeline(List<AnalysisControlInput> analysisInputs) {
+		inputs = analysisInputs.toArray(new AnalysisControlInput[analysisInputs.size()]);
+		Arrays.sort(inputs);
+		
+		activeInputs = new AnalysisControlInput[inputs.length];
+	}
+	
+	/**
+	 * Commands all flight controls affected by inputs so far with the sum of the deflections of their active inputs
+	 * 
+	 * @param timeMS simulation time in milliseconds
+	 * @param actuator
+	 */
+	public void update(int timeMS, ControlParameterActuator actuator) {
+		// Simulation was reset to an earlier time
+		if (timeMS < lastTimeMS)
+			rewind();
+		
+		lastTimeMS = timeMS;
+		
+		// Inputs that have started join the active set
+		while (nextInput < inputs.length && inputs[nextInput].getStartTimeMS() <= timeMS) {
+			AnalysisControlInput input = inputs[nextInput++];
+			activeInputs[activeCount++] = input;
+			
+			int control = input.getControlType().ordinal();
+			if (!isCommanded[control]) {
+				isCommanded[control] = true;
+				commandedControls[commandedCount++] = input.getControlType();
+			}
+		}
+		
+		for (int i = 0; i < commandedCount; i++)
+			deflections[commandedControls[i].ordinal()] = 0.0;
+		
+		// Inputs that have ended leave the active set, keeping the remaining inputs in order of start time 
+		int remaining = 0;
+		for (int i = 0; i < activeCount; i++) {
+			AnalysisControlInput input = activeInputs[i];
+			
+			if (timeMS >= input.getEndTimeMS())
+				continue;
+			
+			deflections[input.getControlType().ordinal()] += input.value(timeMS);
+			activeInputs[remaining++] = input;
+		}
+		for (int i = remaining; i < activeCount; i++)
+			activeInputs[i] = null;
+		activeCount = remaining;
+		
+		for (int i = 0; i < commandedCount; i++) {
+			FlightControl control = commandedControls[i];
+			actuator.handleParameterChange(control, (float)(deflections[control.ordinal()]/control.getMaximum()));
+		}
+	}
+	
+	/**
+	 * Returns the timeline to its state before any input started
+	 */
+	public void rewind() {
+		Arrays.fill(activeInputs, null);
+		Arrays.fill(isCommanded, false);
+		activeCount = 0;
+		nextInput = 0;
+		commandedCount = 0;
+		lastTimeMS = Integer.MIN_VALUE;
+	}
+	
+	/**
+	 * @return number of inputs currently active
+	 */
+	public int getActiveCount() { return activeCount; }
+	
+	/**
+	 * @return number of inputs compiled into this timeline
+	 */
+	public int size() { return inputs.length; }
+}
@@ -44,25 +44,24 @@ public class AnalysisControls implements Saveable {
 	private static final Logger logger = LogManager.getLogger(AnalysisControls.class);
 
 	private List<AnalysisControlInput> analysisInputs;
+	
+	@JsonIgnore
+	private AnalysisControlTimeline timeline;
 		
 	public AnalysisControls() { }
 	
 	/**
 	 * Given a list of {@link AnalysisControlInput} objects, update the flight controls appropriate with a control input 
-	 * at the appropriate time
+	 * at the appropriate time. The list is compiled into an {@link AnalysisControlTimeline} the first time this is called
 	 * 
 	 * @param timeMS time in milliseconds
 	 * @param actuator
 	 */
 	public void updateFlightControls(AtomicInteger timeMS, ControlParameterActuator actuator) {
-		for (AnalysisControlInput input : analysisInputs) {
-			// Only consider an input if simulation time is within a time window (from 63/64 of input start time to 65/64 of end time)
-			boolean withinTimeWindow = timeMS.get() > (63 * input.getStartTimeMS() / 64) &&
-									   timeMS.get() < (65 * (2 * input.getDurationMS() + timeMS.get()) / 64);
-			
-			if (withinTimeWindow)
-				input.generate(timeMS, actuator);
-		}
+		if (timeline == null)
+			timeline = new AnalysisControlTimeline(analysisInputs);
+		
+		timeline.update(timeMS.get(), actuator);
 	}
 	
 	@Override
@@ -72,7 +71,15 @@ public class AnalysisControls implements Saveable {
 
 	public List<AnalysisControlInput> getAnalysisInputs() { return analysisInputs; }
 
-	public void setAnalysisInputs(List<AnalysisControlInput> analysisInputs) { this.analysisInputs = analysisInputs; }
+	/**
+	 * Sets the list of inputs, which is compiled into a new {@link AnalysisControlTimeline} the next time flight controls are updated
+	 * 
+	 * @param analysisInputs
+	 */
+	public void setAnalysisInputs(List<AnalysisControlInput> analysisInputs) { 
+		this.analysisInputs = analysisInputs;
+		timeline = null;
+	}
 
 	@Override
 	public String toString() {
@@ -19,11 +19,9 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.flightcontrols.analysis;
 
-import java.util.concurrent.atomic.AtomicInteger;
-
-import com.chrisali.javaflightsim.simulation.flightcontrols.ControlParameterActuator;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -42,29 +40,17 @@ public class Doublet extends AnalysisControlInput {
 	}
 
 	/**
-	 * Generates a control doublet in the positive and then negative direction (or opposite, if a negative value is specified for amplitude), 
-	 * and then returns to trim value. 
+	 * Generates a control doublet in the positive and then negative direction (or opposite, if a negative value is specified for amplitude)
 	 * 
 	 * @param timeMS
-	 * @param actuator
 	 */
 	@Override
-	public void generate(AtomicInteger timeMS, ControlParameterActuator actuator) {
-		Integer time = timeMS.get();
-		Integer firstHalfEndTimeMS = startTimeMS + durationMS;
-		Integer doubletEndTimeMS   = startTimeMS + (2 * durationMS);
-		
-		boolean startedFirstHalf = time.compareTo(startTimeMS) == 1 || time.compareTo(startTimeMS) == 0;
-		boolean endedFirstHalf   = time.compareTo(firstHalfEndTimeMS) == 1 || time.compareTo(firstHalfEndTimeMS) == 0;
-		
-		boolean startedSecondHalf = time.compareTo(firstHalfEndTimeMS) == 1 || time.compareTo(firstHalfEndTimeMS) == 0;
-		boolean endedSecondHalf   = time.compareTo(doubletEndTimeMS)   == 1 || time.compareTo(doubletEndTimeMS)   == 0;
-		
-		if (startedFirstHalf && !endedFirstHalf)
-			actuator.handleParameterChange(controlType, (float)(amplitude/controlType.getMaximum()));
-		else if (startedSecondHalf && !endedSecondHalf)
-			actuator.handleParameterChange(controlType, (float)(-amplitude/controlType.getMaximum()));
-		else 
-			actuator.handleParameterChange(controlType, 0.0f);
-	}	
+	public double value(int timeMS) { return (timeMS < startTimeMS + durationMS) ? amplitude : -amplitude; }
+	
+	/**
+	 * @return time in milliseconds when the second half of the doublet ends
+	 */
+	@JsonIgnore
+	@Override
+	public int getEndTimeMS() { return startTimeMS + (2 * durationMS); }
 }
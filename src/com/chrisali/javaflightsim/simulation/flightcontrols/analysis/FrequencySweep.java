@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.flightcontrols.analysis;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Class that contains time and flight control information to generate a frequency sweep (chirp) control input, a sine wave whose 
+ * frequency changes from a start to an end frequency over the duration of the input. The frequency changes linearly with time, 
+ * or exponentially if the sweep is logarithmic, which spends equal time in each octave. The amplitude is the peak deflection (rad)  
+ * 
+ * @author Christopher
+ *
+ */
+public class FrequencySweep extends AnalysisControlInput {
+	
+	private static final double MS_TO_SEC = 1.0 / 1000.0;
+	
+	/**
+	 * Frequency in Hz at the start of the sweep
+	 */
+	private double startFrequency;
+	
+	/**
+	 * Frequency in Hz at the end of the sweep
+	 */
+	private double endFrequency;
+	
+	/**
+	 * If true, frequency changes exponentially with time instead of linearly
+	 */
+	private boolean logarithmic;
+
+	@JsonCreator
+	public FrequencySweep(@JsonProperty("controlType") FlightControl controlType, @JsonProperty("startTimeMS") int startTimeMS, 
+				   		  @JsonProperty("durationMS") int durationMS, @JsonProperty("amplitude") double amplitude,
+				   		  @JsonProperty("startFrequency") double startFrequency, @JsonProperty("endFrequency") double endFrequency,
+				   		  @JsonProperty("logarithmic") boolean logarithmic) {
+		super(controlType, startTimeMS, durationMS, amplitude);
+		
+		if (logarithmic && (startFrequency <= 0 || endFrequency <= 0))
+			throw new IllegalArgumentException("Frequencies of a logarithmic sweep must be greater than zero");
+		
+		this.startFrequency = startFrequency;
+		this.endFrequency = endFrequency;
+		this.logarithmic = logarithmic;
+	}
+
+	/**
+	 * Generates a sine wave whose phase is the integral of the sweep's instantaneous frequency
+	 * 
+	 * @param timeMS
+	 */
+	@Override
+	public double value(int timeMS) {
+		double time = (timeMS - startTimeMS) * MS_TO_SEC;
+		double duration = durationMS * MS_TO_SEC;
+		double phase;
+		
+		if (logarithmic && startFrequency != endFrequency) {
+			double logRatio = Math.log(endFrequency / startFrequency);
+			phase = startFrequency * duration / logRatio * (Math.exp(logRatio * time / duration) - 1);
+		} else {
+			phase = startFrequency * time + (endFrequency - startFrequency) * time * time / (2 * duration);
+		}
+		
+		return amplitude * Math.sin(2 * Math.PI * phase);
+	}
+
+	public double getStartFrequency() { return startFrequency; }
+
+	public double getEndFrequency() { return endFrequency; }
+
+	public boolean isLogarithmic() { return logarithmic; }
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.flightcontrols.analysis;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Class that contains time and flight control information to generate a multisine control input, a sum of sine waves at 
+ * chosen frequencies that excites each of them simultaneously. Unless phases are given, Schroeder phases are used to keep 
+ * the peak deflection low relative to the energy of the input. Each sine wave's amplitude is the input's amplitude (rad) 
+ * divided by the number of frequencies, so the deflection never exceeds the amplitude 
+ * 
+ * @author Christopher
+ *
+ */
+public class Multisine extends AnalysisControlInput {
+	
+	private static final double MS_TO_SEC = 1.0 / 1000.0;
+	
+	/**
+	 * Frequencies in Hz of each sine wave
+	 */
+	private double[] frequencies;
+	
+	/**
+	 * Phase angles in radians of each sine wave
+	 */
+	private double[] phases;
+	
+	@JsonIgnore
+	private double[] angularFrequencies;
+
+	@JsonCreator
+	public Multisine(@JsonProperty("controlType") FlightControl controlType, @JsonProperty("startTimeMS") int startTimeMS, 
+				   	 @JsonProperty("durationMS") int durationMS, @JsonProperty("amplitude") double amplitude,
+				   	 @JsonProperty("frequencies") double[] frequencies, @JsonProperty("phases") double[] phases) {
+		super(controlType, startTimeMS, durationMS, amplitude);
+		
+		if (frequencies == null || frequencies.length == 0)
+			throw new IllegalArgumentException("A multisine input needs at least one frequency");
+		
+		if (phases != null && phases.length != frequencies.length)
+			throw new IllegalArgumentException("A multisine input needs one phase for each of its " + frequencies.length + " frequencies");
+		
+		this.frequencies = frequencies;
+		this.phases = (phases != null) ? phases : schroederPhases(frequencies.length);
+		
+		angularFrequencies = new double[frequencies.length];
+		for (int i = 0; i < frequencies.length; i++)
+			angularFrequencies[i] = 2 * Math.PI * frequencies[i];
+	}
+	
+	/**
+	 * Calculates Schroeder phases for sine waves of equal amplitude
+	 * 
+	 * @param count number of sine waves
+	 * @return phase angles (rad)
+	 */
+	private static double[] schroederPhases(int count) {
+		double[] phases = new double[count];
+		
+		for (int k = 0; k < count; k++)
+			phases[k] = -Math.PI * k * (k + 1) / count;
+		
+		return phases;
+	}
+
+	/**
+	 * Generates the sum of all sine waves
+	 * 
+	 * @param timeMS
+	 */
+	@Override
+	public double value(int timeMS) {
+		double time = (timeMS - startTimeMS) * MS_TO_SEC;
+		double sum = 0;
+		
+		for (int i = 0; i < angularFrequencies.length; i++)
+			sum += Math.sin(angularFrequencies[i] * time + phases[i]);
+		
+		return amplitude * sum / angularFrequencies.length;
+	}
+
+	public double[] getFrequencies() { return frequencies; }
+
+	public double[] getPhases() { return phases; }
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.flightcontrols.analysis;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Class that contains time and flight control information to generate a pseudo-random binary sequence (PRBS) control input, which 
+ * switches between positive and negative amplitude (rad) according to the bits of a maximum length linear feedback shift register. 
+ * The bit time defines how long each bit is held, and the order of the register defines how many bits (2^order - 1) pass before the 
+ * sequence repeats. The sequence is deterministic for a given order and seed, so runs can be repeated exactly 
+ * 
+ * @author Christopher
+ *
+ */
+public class RandomBinarySequence extends AnalysisControlInput {
+	
+	/**
+	 * Feedback masks of maximum length Galois shift registers, indexed by order 
+	 */
+	private static final int[] FEEDBACK_MASKS = {0, 0, 0x3, 0x6, 0xC, 0x14, 0x30, 0x60, 0xB8, 0x110, 0x240, 0x500, 
+												 0x829, 0x100D, 0x2015, 0x6000, 0xD008};
+	
+	/**
+	 * How long each bit of the sequence is held in milliseconds 
+	 */
+	private int bitTimeMS;
+	
+	/**
+	 * Number of bits in the shift register, between 2 and 16 
+	 */
+	private int order;
+	
+	/**
+	 * Initial state of the shift register; must be non-zero within the register's order 
+	 */
+	private int seed;
+	
+	@JsonIgnore
+	private boolean[] sequence;
+
+	@JsonCreator
+	public RandomBinarySequence(@JsonProperty("controlType") FlightControl controlType, @JsonProperty("startTimeMS") int startTimeMS, 
+				   				@JsonProperty("durationMS") int durationMS, @JsonProperty("amplitude") double amplitude,
+				   				@JsonProperty("bitTimeMS") int bitTimeMS, @JsonProperty("order") int order, @JsonProperty("seed") int seed) {
+		super(controlType, startTimeMS, durationMS, amplitude);
+		
+		if (bitTimeMS <= 0)
+			throw new IllegalArgumentException("Bit time must be greater than zero, was: " + bitTimeMS);
+		
+		if (order < 2 || order >= FEEDBACK_MASKS.length)
+			throw new IllegalArgumentException("Order must be between 2 and " + (FEEDBACK_MASKS.length - 1) + ", was: " + order);
+		
+		int register = seed & ((1 << order) - 1);
+		if (register == 0)
+			throw new IllegalArgumentException("Seed must have at least one of its lowest " + order + " bits set, was: " + seed);
+		
+		this.bitTimeMS = bitTimeMS;
+		this.order = order;
+		this.seed = seed;
+		
+		sequence = new boolean[(1 << order) - 1];
+		for (int i = 0; i < sequence.length; i++) {
+			sequence[i] = (register & 1) == 1;
+			
+			register >>>= 1;
+			if (sequence[i])
+				register ^= FEEDBACK_MASKS[order];
+		}
+	}
+
+	/**
+	 * Generates positive amplitude for each set bit of the sequence, and negative amplitude otherwise 
+	 * 
+	 * @param timeMS
+	 */
+	@Override
+	public double value(int timeMS) {
+		int bit = ((timeMS - startTimeMS) / bitTimeMS) % sequence.length;
+		
+		return sequence[bit] ? amplitude : -amplitude;
+	}
+
+	public int getBitTimeMS() { return bitTimeMS; }
+
+	public int getOrder() { return order; }
+
+	public int getSeed() { return seed; }
+}
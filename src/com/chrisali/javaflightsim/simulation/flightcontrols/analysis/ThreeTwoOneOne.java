@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.flightcontrols.analysis;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Class that contains time and flight control information to generate a 3-2-1-1 control input, a sequence of alternating pulses 
+ * lasting 3, 2, 1 and 1 times the duration. The start time defines when the input should start, the duration is the length of the
+ * shortest pulse, and the amplitude is the deflection (rad) of each pulse. Its wide frequency content makes it well suited to 
+ * system identification 
+ * 
+ * @author Christopher
+ *
+ */
+public class ThreeTwoOneOne extends AnalysisControlInput {
+
+	@JsonCreator
+	public ThreeTwoOneOne(@JsonProperty("controlType") FlightControl controlType, @JsonProperty("startTimeMS") int startTimeMS, 
+				   		  @JsonProperty("durationMS") int durationMS, @JsonProperty("amplitude") double amplitude) {
+		super(controlType, startTimeMS, durationMS, amplitude);
+	}
+
+	/**
+	 * Generates a 3-2-1-1 input in the positive, negative, positive and then negative direction (or opposite, if a negative value 
+	 * is specified for amplitude)
+	 * 
+	 * @param timeMS
+	 */
+	@Override
+	public double value(int timeMS) {
+		int elapsedMS = timeMS - startTimeMS;
+		
+		if (elapsedMS < 3 * durationMS)
+			return amplitude;
+		else if (elapsedMS < 5 * durationMS)
+			return -amplitude;
+		else if (elapsedMS < 6 * durationMS)
+			return amplitude;
+		else
+			return -amplitude;
+	}
+	
+	/**
+	 * @return time in milliseconds when the last pulse of the input ends
+	 */
+	@JsonIgnore
+	@Override
+	public int getEndTimeMS() { return startTimeMS + (7 * durationMS); }
+}
@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.inputdevices;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.ControlParameterActuator;
+
+/**
+ * Shapes raw values polled from a joystick axis before they are sent to a {@link ControlParameterActuator}. Filters are chained 
+ * together per axis in an {@link AxisFilterChain} and run on the input device polling thread, keeping them off of the simulation thread
+ * 
+ * @author Christopher Ali
+ *
+ */
+public interface AxisFilter {
+	
+	/**
+	 * @param value axis value between -1.0 and 1.0
+	 * @param dt time since this filter was last called (sec)
+	 * @return filtered axis value between -1.0 and 1.0
+	 */
+	float filter(float value, double dt);
+	
+	/**
+	 * Clears any state kept by this filter, so that the next value passes through as if it were the first one polled
+	 */
+	default void reset() {}
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.inputdevices;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.chrisali.javaflightsim.simulation.setup.JoystickAxis;
+
+/**
+ * Ordered chain of {@link AxisFilter} objects that shapes the values polled from a single joystick axis. Keeps track of the 
+ * time between polls for rate dependent filters, and of the last raw value so that the chain can be run again while a 
+ * {@link RateLimitFilter} is still catching up with it
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class AxisFilterChain {
+	
+	private static final double NANOS_TO_SEC = 1e-9;
+	
+	private final AxisFilter[] filters;
+	
+	private float rawValue;
+	private long lastNanos;
+	private boolean hasValue = false;
+	
+	public AxisFilterChain(AxisFilter... filters) {
+		this.filters = filters;
+	}
+	
+	/**
+	 * Creates a filter chain from the dead zone, sensitivity and rate limit settings of a {@link JoystickAxis}; filters 
+	 * whose settings would have no effect are left out of the chain
+	 * 
+	 * @param axis
+	 * @return filter chain for axis
+	 */
+	public static AxisFilterChain fromJoystickAxis(JoystickAxis axis) {
+		List<AxisFilter> filters = new ArrayList<>();
+		
+		if (axis.getDeadZone() > 0.0)
+			filters.add(new DeadZoneFilter(axis.getDeadZone()));
+		
+		if (axis.getSensitivity() > 1.0)
+			filters.add(new ExponentialFilter(axis.getSensitivity()));
+		
+		if (axis.getRateLimit() > 0.0)
+			filters.add(new RateLimitFilter(axis.getRateLimit()));
+		
+		return new AxisFilterChain(filters.toArray(new AxisFilter[filters.size()]));
+	}
+	
+	/**
+	 * Runs a newly polled raw value through the chain
+	 * 
+	 * @param value raw axis value
+	 * @param nanos time that the value was polled (ns)
+	 * @return filtered axis value
+	 */
+	public float filter(float value, long nanos) {
+		double dt = hasValue ? (nanos - lastNanos) * NANOS_TO_SEC : 0.0;
+		
+		rawValue = value;
+		lastNanos = nanos;
+		hasValue = true;
+		
+		float filtered = value;
+		for (AxisFilter filter : filters)
+			filtered = filter.filter(filtered, dt);
+		
+		return filtered;
+	}
+	
+	/**
+	 * Runs the last raw value through the chain again; used to advance the chain's output while it is not settled
+	 * 
+	 * @param nanos current time (ns)
+	 * @return filtered axis value
+	 */
+	public float update(long nanos) { return filter(rawValue, nanos); }
+	
+	/**
+	 * @return if the output of every filter in the chain has caught up with its input
+	 */
+	public boolean isSettled() {
+		for (AxisFilter filter : filters) {
+			if (filter instanceof RateLimitFilter && !((RateLimitFilter) filter).isSettled())
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Clears the state of all filters in the chain
+	 */
+	public void reset() {
+		hasValue = false;
+		
+		for (AxisFilter filter : filters)
+			filter.reset();
+	}
+	
+	/**
+	 * @return number of filters in the chain
+	 */
+	public int size() { return filters.length; }
+}
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.inputdevices;
+
+/**
+ * Zeroes axis values within the dead zone around center, and rescales the remaining travel so that the output still
+ * reaches -1.0 and 1.0 at the axis' limits without a step at the edge of the dead zone
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class DeadZoneFilter implements AxisFilter {
+	
+	private final float deadZone;
+	
+	/**
+	 * @param deadZone fraction of half of the axis' travel between 0.0 and 1.0 that is ignored
+	 */
+	public DeadZoneFilter(double deadZone) {
+		this.deadZone = (float) Math.max(0.0, Math.min(1.0, deadZone));
+	}
+
+	@Override
+	public float filter(float value, double dt) {
+		float magnitude = Math.abs(value);
+		
+		if (magnitude <= deadZone)
+			return 0.0f;
+		
+		return Math.signum(value) * Math.min(1.0f, (magnitude - deadZone) / (1.0f - deadZone));
+	}
+}
@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.inputdevices;
+
+/**
+ * Raises the magnitude of an axis value to the power of its sensitivity while retaining its sign; a sensitivity of 1.0
+ * gives a linear response and 2.0 a quadratic response, which softens control inputs near center
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class ExponentialFilter implements AxisFilter {
+	
+	private final double exponent;
+	
+	/**
+	 * @param sensitivity exponent between 1.0 and 2.0
+	 */
+	public ExponentialFilter(double sensitivity) {
+		this.exponent = Math.max(1.0, Math.min(2.0, sensitivity));
+	}
+
+	@Override
+	public float filter(float value, double dt) {
+		return (float) (Math.signum(value) * Math.pow(Math.abs(value), exponent));
+	}
+}
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.inputdevices;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.ControlParameterQueue;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsStateManager;
+
+/**
+ * Polls {@link AbstractDevice} objects with their {@link InputDeviceVisitor} on a dedicated thread at a fixed rate, so that 
+ * slow device drivers do not delay the simulation thread. Visitors should send their commands to a {@link ControlParameterQueue},
+ * which {@link FlightControlsStateManager} drains each simulation step
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class InputDevicePoller implements Runnable {
+	
+	private static final Logger logger = LogManager.getLogger(InputDevicePoller.class);
+	
+	private final List<AbstractDevice> devices = new ArrayList<>();
+	private final List<InputDeviceVisitor> visitors = new ArrayList<>();
+	
+	private final long pollPeriodNanos;
+	
+	private volatile boolean running = false;
+	private Thread pollingThread;
+	
+	/**
+	 * @param pollRate rate that devices are polled at (Hz)
+	 */
+	public InputDevicePoller(double pollRate) {
+		if (pollRate <= 0)
+			throw new IllegalArgumentException("Poll rate must be greater than zero, was: " + pollRate);
+		
+		pollPeriodNanos = (long) (1e9 / pollRate);
+	}
+	
+	/**
+	 * Adds a device to be polled by visitor; must be called before {@link #start()}
+	 * 
+	 * @param device
+	 * @param visitor
+	 */
+	public void addDevice(AbstractDevice device, InputDeviceVisitor visitor) {
+		if (running)
+			throw new IllegalStateException("Devices cannot be added while polling");
+		
+		devices.add(device);
+		visitors.add(visitor);
+	}
+	
+	/**
+	 * Starts polling devices on a new daemon thread
+	 */
+	public synchronized void start() {
+		if (running)
+			return;
+		
+		logger.debug("Polling " + devices.size() + " input device(s) every " + (pollPeriodNanos / 1000) + " us...");
+		
+		running = true;
+		pollingThread = new Thread(this, "Input Device Poller");
+		pollingThread.setDaemon(true);
+		pollingThread.start();
+	}
+	
+	/**
+	 * Stops polling devices and waits for the polling thread to finish
+	 */
+	public synchronized void stop() {
+		running = false;
+		
+		if (pollingThread == null)
+			return;
+		
+		try {
+			pollingThread.join(1000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		
+		pollingThread = null;
+	}
+	
+	/**
+	 * Polls all devices once
+	 */
+	public void poll() {
+		for (int i = 0; i < devices.size(); i++)
+			devices.get(i).collectControlDeviceValues(visitors.get(i));
+	}
+
+	@Override
+	public void run() {
+		long nextPollNanos = System.nanoTime();
+		
+		while (running) {
+			try {
+				poll();
+			} catch (Exception e) {
+				logger.error("Error encountered while polling input devices. Attempting to continue...", e);
+			}
+			
+			nextPollNanos += pollPeriodNanos;
+			long waitNanos = nextPollNanos - System.nanoTime();
+			
+			// Don't try to catch up if polling fell behind
+			if (waitNanos <= 0) {
+				nextPollNanos = System.nanoTime();
+				continue;
+			}
+			
+			LockSupport.parkNanos(this, waitNanos);
+		}
+	}
+	
+	/**
+	 * @return if devices are being polled
+	 */
+	public boolean isRunning() { return running; }
+}
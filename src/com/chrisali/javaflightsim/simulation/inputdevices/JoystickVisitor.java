@@ -19,6 +19,7 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.inputdevices;
 
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 import com.chrisali.javaflightsim.simulation.flightcontrols.ControlParameterActuator;
@@ -36,7 +37,8 @@ import net.java.games.input.Component.Identifier.Axis;
 
 /**
  * Visitor that {@link FlightControlsStateManager} calls to poll joystick data via jInput and send to a {@link ControlParameterActuator}
- * object, which then updates the {@link FlightControlsState} object as needed
+ * object, which then updates the {@link FlightControlsState} object as needed. Axis values are shaped by an {@link AxisFilterChain}
+ * built from each {@link JoystickAxis}' settings before being sent
  * 
  * @author Christopher
  *
@@ -46,9 +48,24 @@ public class JoystickVisitor implements InputDeviceVisitor {
 	private Map<String, JoystickAssignments> joystickAssignments;
 	private ControlParameterActuator actuator;
 	
+	private Map<JoystickAxis, AxisFilterChain> axisFilters = new IdentityHashMap<>();
+	
+	private Event event = new Event();
+	
+	// Hat switches do not report which direction was released, so the last command sent is kept to release it
+	private KeyCommand pressedHatCommand;
+	
 	public JoystickVisitor(Map<String, JoystickAssignments> joystickAssignments, ControlParameterActuator actuator) {
 		this.joystickAssignments = joystickAssignments;
 		this.actuator = actuator;
+		
+		for (JoystickAssignments assignments : joystickAssignments.values()) {
+			if (assignments.getAxisAssignments() == null)
+				continue;
+			
+			for (JoystickAxis axis : assignments.getAxisAssignments().values())
+				axisFilters.put(axis, AxisFilterChain.fromJoystickAxis(axis));
+		}
 	}
 
 	@Override
@@ -67,8 +84,6 @@ public class JoystickVisitor implements InputDeviceVisitor {
         Map<Float, KeyCommand>    hatAssignments  	= assignments.getHatAssignments();
 
 		if(device.poll()) {	
-			Event event = new Event();
-			
 			while (device.getEventQueue().getNextEvent(event)) {
 				Component component = event.getComponent();
 				
@@ -90,9 +105,14 @@ public class JoystickVisitor implements InputDeviceVisitor {
 				if(hatAssignments != null && componentIdentifier == Axis.POV) {										
 					KeyCommand command = hatAssignments.get(pollValue);
 					
+					if(pressedHatCommand != null && pressedHatCommand != command)
+						actuator.handleParameterChange(pressedHatCommand, 0.0f);
+					
 					if(command != null)					
 						actuator.handleParameterChange(command, pollValue);					
 					
+					pressedHatCommand = command;
+					
 					continue;
 				}
 				
@@ -101,11 +121,21 @@ public class JoystickVisitor implements InputDeviceVisitor {
 					JoystickAxis axis = axisAssignments.get(componentName);
 					
 					if(axis != null)					
-						actuator.handleParameterChange(axis.getAxisAssignment(), pollValue);				
+						actuator.handleParameterChange(axis.getAxisAssignment(), axisFilters.get(axis).filter(pollValue, System.nanoTime()));				
 					
 					continue;
 				}
 			}
+			
+			// Rate limited axes keep moving toward their last polled value even if the joystick did not report a change 
+			if (axisAssignments != null) {
+				for (JoystickAxis axis : axisAssignments.values()) {
+					AxisFilterChain filterChain = axisFilters.get(axis);
+					
+					if (!filterChain.isSettled())
+						actuator.handleParameterChange(axis.getAxisAssignment(), filterChain.update(System.nanoTime()));
+				}
+			}
 		}	
 	}
 }
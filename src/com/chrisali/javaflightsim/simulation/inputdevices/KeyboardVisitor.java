@@ -19,7 +19,9 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.inputdevices;
 
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import com.chrisali.javaflightsim.simulation.flightcontrols.ControlParameterActuator;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsState;
@@ -31,7 +33,8 @@ import net.java.games.input.Controller;
 
 /**
  * Visitor that {@link FlightControlsStateManager} calls to poll keyboard data via jInput and send to a {@link ControlParameterActuator}
- * object, which then updates the {@link FlightControlsState} object as needed
+ * object, which then updates the {@link FlightControlsState} object as needed. Only presses and releases of keys are sent; 
+ * {@link FlightControlsStateManager} repeats commands of keys held down once per simulation step
  * 
  * @author Christopher
  *
@@ -40,6 +43,8 @@ public class KeyboardVisitor implements InputDeviceVisitor {
 
 	private Map<String, KeyCommand> keyboardAssignments;
 	private ControlParameterActuator actuator;
+	
+	private Set<String> pressedKeys = new HashSet<>();
 
 	public KeyboardVisitor(Map<String, KeyCommand> keyboardAssignments, ControlParameterActuator actuator) {
 		this.keyboardAssignments = keyboardAssignments;
@@ -60,8 +65,14 @@ public class KeyboardVisitor implements InputDeviceVisitor {
 			String componentName = component.getIdentifier().getName().toUpperCase();
 			KeyCommand command = keyboardAssignments.get(componentName);
 			
-			if(command != null)					
-				actuator.handleParameterChange(command, component.getPollData());
+			if(command == null)
+				continue;
+			
+			float value = component.getPollData();
+			boolean changed = (value == 1.0f) ? pressedKeys.add(componentName) : pressedKeys.remove(componentName);
+			
+			if(changed)					
+				actuator.handleParameterChange(command, value);
 							
 			continue;
 		}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.inputdevices;
+
+/**
+ * Limits how quickly an axis value can change, emulating the finite actuation rate of a control; because the output lags
+ * behind the input, the filter must keep being called after the input stops changing until {@link #isSettled()} is true
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class RateLimitFilter implements AxisFilter {
+	
+	private final double maxRate;
+	
+	private float output;
+	private float input;
+	private boolean initialized = false;
+	
+	/**
+	 * @param maxRate maximum change of the axis value per second
+	 */
+	public RateLimitFilter(double maxRate) {
+		if (maxRate <= 0)
+			throw new IllegalArgumentException("Rate limit must be greater than zero, was: " + maxRate);
+		
+		this.maxRate = maxRate;
+	}
+
+	@Override
+	public float filter(float value, double dt) {
+		input = value;
+		
+		if (!initialized) {
+			initialized = true;
+			output = value;
+			
+			return output;
+		}
+		
+		float maxChange = (float) (maxRate * Math.max(0.0, dt));
+		output += Math.max(-maxChange, Math.min(maxChange, value - output));
+		
+		return output;
+	}
+	
+	@Override
+	public void reset() { initialized = false; }
+	
+	/**
+	 * @return if the output of this filter has caught up with its latest input
+	 */
+	public boolean isSettled() { return !initialized || output == input; }
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.inputdevices;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.ControlParameterActuator;
+
+import net.java.games.input.AbstractComponent;
+import net.java.games.input.AbstractController;
+import net.java.games.input.Component;
+import net.java.games.input.Component.Identifier;
+import net.java.games.input.Controller;
+import net.java.games.input.Event;
+import net.java.games.input.Rumbler;
+
+/**
+ * HID whose component values are set programmatically instead of being read from hardware. It presents itself as a jInput 
+ * {@link Controller}, so the same {@link InputDeviceVisitor} objects that handle real joysticks, keyboards and mice convert its 
+ * values into commands that a {@link ControlParameterActuator} must handle; used to test input handling without any devices 
+ * connected. Values may be set from any thread, and are reported as jInput events the next time the device is polled
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class SimulatedDevice extends AbstractDevice {
+	
+	private final SimulatedController controller;
+	
+	/**
+	 * @param name name of the device, used by {@link JoystickVisitor} to find its assignments
+	 * @param type type of device to simulate
+	 * @param identifiers axes, buttons or keys of the device; axes of a simulated mouse are relative 
+	 */
+	public SimulatedDevice(String name, Controller.Type type, Identifier... identifiers) {
+		logger.debug("Setting up simulated " + type + ": " + name + "...");
+		
+		controller = new SimulatedController(name, type, identifiers);
+		
+		searchForControlDevices();
+	}
+
+	@Override
+	public void searchForControlDevices() {
+		controlDeviceList = new ArrayList<>();
+		controlDeviceList.add(controller);
+	}
+	
+	/**
+	 * Sets the value of one of this device's components; relative components add value to their position instead
+	 * 
+	 * @param identifier
+	 * @param value
+	 */
+	public void setValue(Identifier identifier, float value) {
+		SimulatedComponent component = controller.components.get(identifier);
+		
+		if (component == null)
+			throw new IllegalArgumentException("Simulated device " + controller.getName() + " has no component " + identifier);
+		
+		if (!component.relative)
+			component.value = value;
+		
+		controller.pendingChanges.add(new PendingChange(component, value));
+	}
+	
+	/**
+	 * @param identifier
+	 * @return current value of an absolute component
+	 */
+	public float getValue(Identifier identifier) { return controller.components.get(identifier).value; }
+	
+	/**
+	 * @return jInput controller that represents this device
+	 */
+	public Controller getController() { return controller; }
+	
+	private static class PendingChange {
+		
+		private final Component component;
+		private final float value;
+		
+		private PendingChange(Component component, float value) {
+			this.component = component;
+			this.value = value;
+		}
+	}
+	
+	private static class SimulatedComponent extends AbstractComponent {
+		
+		private final boolean relative;
+		
+		private volatile float value;
+		
+		private SimulatedComponent(Identifier identifier, boolean relative) {
+			super(identifier.getName(), identifier);
+			this.relative = relative;
+		}
+
+		@Override
+		public boolean isRelative() { return relative; }
+
+		@Override
+		protected float poll() { return value; }
+	}
+	
+	private static class SimulatedController extends AbstractController {
+		
+		private final Controller.Type type;
+		
+		private final Map<Identifier, SimulatedComponent> components;
+		
+		private final ConcurrentLinkedQueue<PendingChange> pendingChanges = new ConcurrentLinkedQueue<>();
+		
+		private SimulatedController(String name, Controller.Type type, Identifier... identifiers) {
+			this(name, type, createComponents(type, identifiers));
+		}
+		
+		private SimulatedController(String name, Controller.Type type, Map<Identifier, SimulatedComponent> components) {
+			super(name, components.values().toArray(new Component[components.size()]), new Controller[0], new Rumbler[0]);
+			this.type = type;
+			this.components = components;
+		}
+		
+		private static Map<Identifier, SimulatedComponent> createComponents(Controller.Type type, Identifier... identifiers) {
+			Map<Identifier, SimulatedComponent> components = new LinkedHashMap<>();
+			
+			for (Identifier identifier : identifiers)
+				components.put(identifier, new SimulatedComponent(identifier, type == Controller.Type.MOUSE && identifier instanceof Identifier.Axis));
+			
+			return components;
+		}
+		
+		@Override
+		public Controller.Type getType() { return type; }
+
+		@Override
+		protected boolean getNextDeviceEvent(Event event) {
+			PendingChange change = pendingChanges.poll();
+			
+			if (change == null)
+				return false;
+			
+			event.set(change.component, change.value, System.nanoTime());
+			
+			return true;
+		}
+	}
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.instrumentation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in nanoseconds with log-linear buckets: each power of two is split into {@link #SUB_BUCKETS} equal 
+ * buckets, so any recorded value is reported to within about 3% of its true value, from 1 ns up to about 18 minutes, in a fixed 
+ * array of counts. Recording is constant time and allocation free.<br>
+ * Values are recorded by a single thread (the thread that steps the simulation); counts are published with ordered writes so 
+ * that other threads, such as JMX, can read them at any time without locking
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class LatencyHistogram {
+	
+	private static final int SUB_BUCKET_BITS = 5;
+	
+	public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	
+	// Values of 2^MAX_EXPONENT ns (about 18 minutes) and longer are counted in the last bucket
+	private static final int MAX_EXPONENT = 40;
+	
+	public static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+	
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+	
+	/**
+	 * @param nanos
+	 * @return index of the bucket that nanos is counted in
+	 */
+	static int bucketIndex(long nanos) {
+		if (nanos < SUB_BUCKETS)
+			return (int) Math.max(0, nanos);
+		
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		if (exponent >= MAX_EXPONENT)
+			return BUCKETS - 1;
+		
+		int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+	
+	/**
+	 * @param index
+	 * @return largest value counted in the bucket at index (ns)
+	 */
+	static long bucketUpperBound(int index) {
+		if (index < SUB_BUCKETS)
+			return index;
+		
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long width = 1L << (exponent - SUB_BUCKET_BITS);
+		
+		return (1L << exponent) + (index % SUB_BUCKETS + 1) * width - 1;
+	}
+	
+	/**
+	 * Records a latency; must only be called by one thread
+	 * 
+	 * @param nanos
+	 */
+	public void record(long nanos) {
+		int index = bucketIndex(nanos);
+		
+		counts.lazySet(index, counts.get(index) + 1);
+		count.lazySet(count.get() + 1);
+		totalNanos.lazySet(totalNanos.get() + nanos);
+		
+		if (nanos > maxNanos.get())
+			maxNanos.lazySet(nanos);
+	}
+	
+	/**
+	 * Copies the count of every bucket into snapshot, so that the latencies recorded between two snapshots can be found with
+	 * {@link #percentile(long[], long[], double)}
+	 * 
+	 * @param snapshot array of length {@link #BUCKETS}
+	 * @return snapshot
+	 */
+	public long[] snapshot(long[] snapshot) {
+		for (int i = 0; i < BUCKETS; i++)
+			snapshot[i] = counts.get(i);
+		
+		return snapshot;
+	}
+	
+	/**
+	 * Finds the latency at a percentile of the values recorded between two snapshots
+	 * 
+	 * @param from earlier snapshot, or null to include all values recorded before to
+	 * @param to later snapshot
+	 * @param percentile between 0 and 100
+	 * @return latency that percentile of values recorded between the snapshots are at or below (ns), or 0 if none were recorded
+	 */
+	public static long percentile(long[] from, long[] to, double percentile) {
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++)
+			total += to[i] - (from != null ? from[i] : 0);
+		
+		if (total == 0)
+			return 0;
+		
+		long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+		long seen = 0;
+		
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += to[i] - (from != null ? from[i] : 0);
+			
+			if (seen >= rank)
+				return bucketUpperBound(i);
+		}
+		
+		return bucketUpperBound(BUCKETS - 1);
+	}
+	
+	/**
+	 * @param percentile between 0 and 100
+	 * @return latency that percentile of all recorded values are at or below (ns)
+	 */
+	public long getPercentileNanos(double percentile) { return percentile(null, snapshot(new long[BUCKETS]), percentile); }
+	
+	public long getCount() { return count.get(); }
+	
+	/**
+	 * @return mean of all recorded values (ns)
+	 */
+	public double getMeanNanos() {
+		long n = count.get();
+		
+		return n > 0 ? (double) totalNanos.get() / n : 0;
+	}
+	
+	public long getMaxNanos() { return maxNanos.get(); }
+}
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Instrumentation of {@link com.chrisali.javaflightsim.simulation.SimulationRunner} enabled by 
+ * {@link com.chrisali.javaflightsim.simulation.setup.Options#INSTRUMENTATION}. Records a {@link StepTimer} for each {@link TimedStep}, 
+ * counts frames whose work overran the frame deadline, steps run late to catch up with real time and frames dropped when too far 
+ * behind, and samples the bytes allocated by the thread running the simulation.<br>
+ * All of these are exposed as MBeans under the {@link #DOMAIN} domain, and are summarized in the log every 
+ * {@link #SUMMARY_PERIOD_NANOS}; all methods but the getters must be called by the thread running the simulation
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class SimulationMetrics implements SimulationMetricsMBean {
+	
+	private static final Logger logger = LogManager.getLogger(SimulationMetrics.class);
+	
+	public static final String DOMAIN = "com.chrisali.javaflightsim";
+	
+	public static final long SUMMARY_PERIOD_NANOS = 10_000_000_000L;
+	
+	private final Map<TimedStep, StepTimer> stepTimers = new EnumMap<>(TimedStep.class);
+	
+	private volatile long frameCount;
+	private volatile long overrunCount;
+	private volatile long catchUpStepCount;
+	private volatile long droppedFrameCount;
+	private volatile long allocatedBytes;
+	private volatile double allocationRateMBPerSec;
+	
+	private final long frameDeadlineNanos;
+	
+	private final com.sun.management.ThreadMXBean threadBean;
+	private long threadId;
+	
+	private long lastSummaryNanos;
+	private long lastSummaryFrames;
+	private long lastSummaryOverruns;
+	private long lastSummaryCatchUpSteps;
+	private long lastSummaryDroppedFrames;
+	private long lastSummaryAllocatedBytes;
+	
+	private MBeanServer mBeanServer;
+	
+	/**
+	 * @param frameDeadlineNanos time that the work of each frame should be completed within; 0 to not count overruns  
+	 */
+	public SimulationMetrics(long frameDeadlineNanos) {
+		this.frameDeadlineNanos = frameDeadlineNanos;
+		
+		for (TimedStep timedStep : TimedStep.values())
+			stepTimers.put(timedStep, new StepTimer(timedStep));
+		
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+			threadBean = (com.sun.management.ThreadMXBean) bean;
+			threadBean.setThreadAllocatedMemoryEnabled(true);
+		} else {
+			threadBean = null;
+			logger.warn("Thread allocation measurement not supported by this JVM; allocation rate will not be recorded");
+		}
+	}
+	
+	/**
+	 * Registers MBeans for these metrics and each {@link StepTimer} with the platform MBean server, replacing those of any earlier 
+	 * simulation, and starts measuring the current thread 
+	 */
+	public void start() {
+		threadId = Thread.currentThread().getId();
+		lastSummaryNanos = System.nanoTime();
+		lastSummaryAllocatedBytes = allocatedBytes = threadAllocatedBytes();
+		
+		mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		try {
+			register(objectName(null), this);
+			for (StepTimer stepTimer : stepTimers.values())
+				register(objectName(stepTimer.getTimedStep()), stepTimer);
+		} catch (JMException e) {
+			logger.error("Unable to register simulation metrics MBeans!", e);
+		}
+	}
+	
+	/**
+	 * Logs a final summary and unregisters all MBeans registered by {@link #start()}
+	 */
+	public void stop() {
+		logSummary(System.nanoTime());
+		
+		try {
+			unregister(objectName(null));
+			for (TimedStep timedStep : TimedStep.values())
+				unregister(objectName(timedStep));
+		} catch (JMException e) {
+			logger.error("Unable to unregister simulation metrics MBeans!", e);
+		}
+	}
+	
+	/**
+	 * @param timedStep
+	 * @return name of the MBean of timedStep's {@link StepTimer}, or of these metrics if null
+	 * @throws JMException
+	 */
+	public static ObjectName objectName(TimedStep timedStep) throws JMException {
+		return new ObjectName(DOMAIN + ":type=SimulationMetrics" + (timedStep != null ? ",step=" + timedStep.name() : ""));
+	}
+	
+	private void register(ObjectName name, Object mBean) throws JMException {
+		unregister(name);
+		mBeanServer.registerMBean(mBean, name);
+	}
+	
+	private void unregister(ObjectName name) throws JMException {
+		if (mBeanServer != null && mBeanServer.isRegistered(name))
+			mBeanServer.unregisterMBean(name);
+	}
+	
+	/**
+	 * @param timedStep
+	 * @return {@link StepTimer} recording the latencies of timedStep
+	 */
+	public StepTimer getStepTimer(TimedStep timedStep) { return stepTimers.get(timedStep); }
+	
+	/**
+	 * Records the end of a frame that began at frameStartNanos, and logs a summary if {@link #SUMMARY_PERIOD_NANOS} has passed since
+	 * the last
+	 * 
+	 * @param frameStartNanos value of {@link System#nanoTime()} when the frame began
+	 * @return value of {@link System#nanoTime()} when the frame was recorded
+	 */
+	public long endFrame(long frameStartNanos) {
+		long now = stepTimers.get(TimedStep.FRAME).stop(frameStartNanos);
+		
+		frameCount++;
+		if (frameDeadlineNanos > 0 && now - frameStartNanos > frameDeadlineNanos)
+			overrunCount++;
+		
+		if (now - lastSummaryNanos >= SUMMARY_PERIOD_NANOS)
+			logSummary(now);
+		
+		return now;
+	}
+	
+	/**
+	 * Counts a frame that was begun late, without sleeping, to catch up with real time 
+	 */
+	public void catchUpStep() { catchUpStepCount++; }
+	
+	/**
+	 * Counts frames that were skipped because the simulation fell too far behind real time to catch up
+	 * 
+	 * @param frames
+	 */
+	public void droppedFrames(long frames) { droppedFrameCount += frames; }
+	
+	private long threadAllocatedBytes() {
+		return threadBean != null ? threadBean.getThreadAllocatedBytes(threadId) : 0;
+	}
+	
+	/**
+	 * Logs the frame counters, allocation rate and step latencies recorded since the last summary
+	 * 
+	 * @param now value of {@link System#nanoTime()}
+	 */
+	private void logSummary(long now) {
+		double seconds = (now - lastSummaryNanos) / 1e9;
+		
+		allocatedBytes = threadAllocatedBytes();
+		allocationRateMBPerSec = seconds > 0 ? (allocatedBytes - lastSummaryAllocatedBytes) / seconds / (1 << 20) : 0;
+		
+		if (logger.isInfoEnabled()) {
+			StringBuilder summary = new StringBuilder(String.format("Simulation metrics over last %.1f sec: frames=%d overruns=%d "
+												+ "catch-up steps=%d dropped frames=%d allocation=%.2f MB/sec", seconds, 
+												frameCount - lastSummaryFrames, overrunCount - lastSummaryOverruns, 
+												catchUpStepCount - lastSummaryCatchUpSteps, droppedFrameCount - lastSummaryDroppedFrames,
+												allocationRateMBPerSec));
+			
+			for (StepTimer stepTimer : stepTimers.values()) {
+				String stepSummary = stepTimer.intervalSummary();
+				if (stepSummary != null)
+					summary.append(System.lineSeparator()).append('\t').append(stepSummary);
+			}
+			
+			logger.info(summary);
+		}
+		
+		lastSummaryNanos = now;
+		lastSummaryFrames = frameCount;
+		lastSummaryOverruns = overrunCount;
+		lastSummaryCatchUpSteps = catchUpStepCount;
+		lastSummaryDroppedFrames = droppedFrameCount;
+		lastSummaryAllocatedBytes = allocatedBytes;
+	}
+	
+	@Override
+	public long getFrameCount() { return frameCount; }
+
+	@Override
+	public long getOverrunCount() { return overrunCount; }
+
+	@Override
+	public long getCatchUpStepCount() { return catchUpStepCount; }
+
+	@Override
+	public long getDroppedFrameCount() { return droppedFrameCount; }
+
+	@Override
+	public long getAllocatedBytes() { return allocatedBytes; }
+
+	@Override
+	public double getAllocationRateMBPerSec() { return allocationRateMBPerSec; }
+}
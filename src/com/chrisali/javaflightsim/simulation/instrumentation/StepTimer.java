@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.instrumentation;
+
+/**
+ * Records the latency of each step of one {@link TimedStep} into a {@link LatencyHistogram}, and keeps a snapshot of the 
+ * histogram so that {@link SimulationMetrics} can summarize the latencies recorded since its last summary
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class StepTimer implements StepTimerMBean {
+	
+	private final TimedStep timedStep;
+	
+	private final LatencyHistogram histogram = new LatencyHistogram();
+	
+	private long[] lastSnapshot = new long[LatencyHistogram.BUCKETS];
+	private long[] currentSnapshot = new long[LatencyHistogram.BUCKETS];
+	
+	public StepTimer(TimedStep timedStep) {
+		this.timedStep = timedStep;
+	}
+	
+	/**
+	 * Records the latency of a step that began at startNanos
+	 * 
+	 * @param startNanos value of {@link System#nanoTime()} when the step began
+	 * @return value of {@link System#nanoTime()} when the step was recorded
+	 */
+	public long stop(long startNanos) {
+		long now = System.nanoTime();
+		histogram.record(now - startNanos);
+		
+		return now;
+	}
+	
+	/**
+	 * Summarizes the latencies recorded since the last call to this method
+	 * 
+	 * @return summary of the interval, or null if no steps were recorded in it
+	 */
+	synchronized String intervalSummary() {
+		histogram.snapshot(currentSnapshot);
+		
+		long count = 0;
+		for (int i = 0; i < LatencyHistogram.BUCKETS; i++)
+			count += currentSnapshot[i] - lastSnapshot[i];
+		
+		String summary = count == 0 ? null : String.format("%-20s n=%-7d p50=%8.1f p99=%8.1f p99.9=%8.1f us", timedStep, count,
+										toMicros(LatencyHistogram.percentile(lastSnapshot, currentSnapshot, 50)),
+										toMicros(LatencyHistogram.percentile(lastSnapshot, currentSnapshot, 99)),
+										toMicros(LatencyHistogram.percentile(lastSnapshot, currentSnapshot, 99.9)));
+		
+		long[] temp = lastSnapshot;
+		lastSnapshot = currentSnapshot;
+		currentSnapshot = temp;
+		
+		return summary;
+	}
+	
+	private static double toMicros(double nanos) { return nanos / 1000; }
+
+	public TimedStep getTimedStep() { return timedStep; }
+	
+	public LatencyHistogram getHistogram() { return histogram; }
+	
+	@Override
+	public long getCount() { return histogram.getCount(); }
+
+	@Override
+	public double getMeanMicros() { return toMicros(histogram.getMeanNanos()); }
+
+	@Override
+	public double getP50Micros() { return toMicros(histogram.getPercentileNanos(50)); }
+
+	@Override
+	public double getP99Micros() { return toMicros(histogram.getPercentileNanos(99)); }
+
+	@Override
+	public double getP999Micros() { return toMicros(histogram.getPercentileNanos(99.9)); }
+
+	@Override
+	public double getMaxMicros() { return toMicros(histogram.getMaxNanos()); }
+}
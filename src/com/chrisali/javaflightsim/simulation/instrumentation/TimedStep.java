@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.instrumentation;
+
+/**
+ * Parts of a frame of {@link com.chrisali.javaflightsim.simulation.SimulationRunner} whose latencies are recorded by 
+ * {@link SimulationMetrics}
+ * 
+ * @author Christopher Ali
+ *
+ */
+public enum TimedStep {
+	FLIGHT_CONTROLS  ("Flight Controls"),
+	SIMULATION	     ("Simulation"),
+	FLIGHT_DATA      ("Flight Data"),
+	TELEMETRY	     ("Telemetry"),
+	ENVIRONMENT_DATA ("Environment Data"),
+	TRAFFIC_ALERTS	 ("Traffic Alerts"),
+	OUT_THE_WINDOW   ("Out the Window"),
+	FRAME            ("Frame");
+	
+	private final String name;
+	
+	TimedStep(String name) {
+		this.name = name;
+	}
+	
+	@Override
+	public String toString() { return name; }
+}
@@ -20,7 +20,9 @@
 package com.chrisali.javaflightsim.simulation.integration;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.List;
@@ -33,6 +35,7 @@ import org.apache.commons.math3.ode.nonstiff.ClassicalRungeKuttaIntegrator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.chrisali.javaflightsim.interfaces.Checkpointable;
 import com.chrisali.javaflightsim.interfaces.Steppable;
 import com.chrisali.javaflightsim.simulation.aircraft.AccelAndMoments;
 import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
@@ -42,8 +45,10 @@ import com.chrisali.javaflightsim.simulation.datatransfer.EnvironmentDataType;
 import com.chrisali.javaflightsim.simulation.enviroment.Environment;
 import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsSnapshot;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsState;
 import com.chrisali.javaflightsim.simulation.propulsion.Engine;
+import com.chrisali.javaflightsim.simulation.propulsion.EngineChannels;
 import com.chrisali.javaflightsim.simulation.setup.Options;
 import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
 import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
@@ -69,10 +74,13 @@ import com.chrisali.javaflightsim.simulation.utilities.SixDOFUtilities;
  * @see AircraftBuilder
  * @see Options
  */
-public class Integrate6DOFEquations implements Steppable, EnvironmentDataListener {
+public class Integrate6DOFEquations implements Steppable, EnvironmentDataListener, Checkpointable {
 	//Logging
 	private static final Logger logger = LogManager.getLogger(Integrate6DOFEquations.class);
 	
+	// Height above the terrain at which the landing gear meets the ground (ft)
+	private static final double TERRAIN_CONTACT_OFFSET = 5;
+	
 	// 6DOF Integration Results
 	private double[] linearVelocities 		= new double[3];
 	private double[] NEDPosition      		= new double[3];
@@ -80,7 +88,7 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 	private double[] angularRates     		= new double[3];
 	
 	// Environment and Wind Parameters
-	private Map<EnvironmentParameters, Double> environmentParameters;
+	private Map<EnvironmentParameters, Double> environmentParameters = new EnumMap<>(EnvironmentParameters.class);
 	private double   gravity			    = Environment.getGravity();
 	private double[] windParameters   		= new double[3];	
 	private double   alphaDot 				= 0.0f;
@@ -91,12 +99,13 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 	private double   terrainHeight			= 0.0f;
 	
 	// Forces and Moments
+	private AccelAndMoments accelAndMoments;
 	private double[] linearAccelerations    = new double[3];
 	private double[] totalMoments     		= new double[3];
 	
 	// Simulation Controls (Joystick, Keyboard, etc.)
 	private FlightControlsState flightControls;
-	private Map<FlightControl, Double> controlsMap;
+	private FlightControlsSnapshot controls = new FlightControlsSnapshot();
 	
 	// Integrator Fields
 	private ClassicalRungeKuttaIntegrator integrator;
@@ -130,7 +139,6 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 	public Integrate6DOFEquations(FlightControlsState flightControls, SimulationConfiguration configuration) {
 		this.flightControls = flightControls;
 		
-	    controlsMap 	   = flightControls.getFlightControls();
 		aircraft 		   = FileUtilities.readAircraftConfiguration(configuration.getSelectedAircraft());
 		engineList   	   = aircraft.getEngines();
 		options		       = configuration.getSimulationOptions();
@@ -164,10 +172,10 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 													 sixDOFDerivatives,
 													 integratorConfig, 
 													 aircraft, 
-													 controlsMap);
+													 controls);
 		
 		// Initialize accelerations and moments, and calculate initial data members' values
-		AccelAndMoments.init(aircraft);
+		accelAndMoments = new AccelAndMoments(aircraft);
 		
 		updateDataMembers();
 	}
@@ -292,11 +300,16 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 		windParameters = SixDOFUtilities.calculateWindParameters(linearVelocities);
 		
 		// Update environment		
-		environmentParameters = Environment.getAndUpdateEnvironmentParams(NEDPosition);
+		environmentParameters = Environment.getAndUpdateEnvironmentParams(NEDPosition, environmentParameters);
+		
+		// Copy flight controls once so that engines, aerodynamics and ground reaction all see the same values this step
+		flightControls.snapshot(controls);
 		
 		// Update all engines in engine list
+		double rho = environmentParameters.get(EnvironmentParameters.RHO);
+		double speedOfSound = environmentParameters.get(EnvironmentParameters.A);
 		for(Engine engine : engineList)
-			 engine.updateEngineState(controlsMap, environmentParameters, windParameters);
+			 engine.updateEngineState(controls, rho, speedOfSound, NEDPosition[2], windParameters[0]);
 		
 		// Update alphaDot
 		alphaDot = SixDOFUtilities.calculateAlphaDot(linearVelocities, sixDOFDerivatives);
@@ -312,20 +325,20 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 		//System.out.println(groundReaction);
 		
 		// Update accelerations
-		linearAccelerations = AccelAndMoments.calculateLinearAccelerations(windParameters,
+		linearAccelerations = accelAndMoments.calculateLinearAccelerations(windParameters,
 																		   angularRates,
 																		   environmentParameters,
-																		   controlsMap,
+																		   controls,
 																		   alphaDot,
 																		   engineList,
 																		   aircraft,
 																		   groundReaction,
 																		   heightAGL);
 		// Update moments
-		totalMoments = AccelAndMoments.calculateTotalMoments(windParameters,
+		totalMoments = accelAndMoments.calculateTotalMoments(windParameters,
 														 	 angularRates,
 															 environmentParameters,
-															 controlsMap,
+															 controls,
 															 alphaDot,
 															 engineList,
 															 aircraft,
@@ -407,45 +420,31 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 			simOut.put(SimOuts.R_DOT, 	 	sixDOFDerivatives[11]);
 	
 			// Engine(s)
-			simOut.put(SimOuts.THRUST_1, 	0.0);
-			simOut.put(SimOuts.RPM_1, 	 	0.0);
-			simOut.put(SimOuts.FUEL_FLOW_1, 0.0);
-			simOut.put(SimOuts.THRUST_2, 	0.0);
-			simOut.put(SimOuts.RPM_2, 	 	0.0);
-			simOut.put(SimOuts.FUEL_FLOW_2, 0.0);
-			simOut.put(SimOuts.THRUST_3, 	0.0);
-			simOut.put(SimOuts.RPM_3, 	 	0.0);
-			simOut.put(SimOuts.FUEL_FLOW_3, 0.0);
-			simOut.put(SimOuts.THRUST_4, 	0.0);
-			simOut.put(SimOuts.RPM_4, 	 	0.0);
-			simOut.put(SimOuts.FUEL_FLOW_4, 0.0);
+			for (int i = 0; i < EngineChannels.MAX_ENGINES; i++) {
+				simOut.put(EngineChannels.THRUST_OUT[i], 	0.0);
+				simOut.put(EngineChannels.RPM_OUT[i], 		0.0);
+				simOut.put(EngineChannels.FUEL_FLOW_OUT[i], 0.0);
+			}
 	
 			for (Engine engine : engineList) {
-				int engineNumber = engine.getEngineNumber();
+				int channel = engine.getChannel();
 				
-				simOut.put(Enum.valueOf(SimOuts.class, "THRUST_" + engineNumber), 	 engine.getEngineThrust()[0]);
-				simOut.put(Enum.valueOf(SimOuts.class, "RPM_" + engineNumber), 	 	 engine.getRPM());
-				simOut.put(Enum.valueOf(SimOuts.class, "FUEL_FLOW_" + engineNumber), engine.getFuelFlow());
+				simOut.put(EngineChannels.THRUST_OUT[channel], 	  engine.getEngineThrust()[0]);
+				simOut.put(EngineChannels.RPM_OUT[channel], 	  engine.getRPM());
+				simOut.put(EngineChannels.FUEL_FLOW_OUT[channel], engine.getFuelFlow());
 			}
 			
 			// Controls
-			simOut.put(SimOuts.ELEVATOR,    controlsMap.get(FlightControl.ELEVATOR));
-			simOut.put(SimOuts.AILERON, 	controlsMap.get(FlightControl.AILERON));
-			simOut.put(SimOuts.RUDDER, 	 	controlsMap.get(FlightControl.RUDDER));
-			simOut.put(SimOuts.THROTTLE_1, 	controlsMap.get(FlightControl.THROTTLE_1));
-			simOut.put(SimOuts.THROTTLE_2, 	controlsMap.get(FlightControl.THROTTLE_2));
-			simOut.put(SimOuts.THROTTLE_3, 	controlsMap.get(FlightControl.THROTTLE_3));
-			simOut.put(SimOuts.THROTTLE_4, 	controlsMap.get(FlightControl.THROTTLE_4));
-			simOut.put(SimOuts.PROPELLER_1, controlsMap.get(FlightControl.PROPELLER_1));
-			simOut.put(SimOuts.PROPELLER_2, controlsMap.get(FlightControl.PROPELLER_2));
-			simOut.put(SimOuts.PROPELLER_3, controlsMap.get(FlightControl.PROPELLER_3));
-			simOut.put(SimOuts.PROPELLER_4, controlsMap.get(FlightControl.PROPELLER_4));
-			simOut.put(SimOuts.MIXTURE_1, 	controlsMap.get(FlightControl.MIXTURE_1));
-			simOut.put(SimOuts.MIXTURE_2, 	controlsMap.get(FlightControl.MIXTURE_2));
-			simOut.put(SimOuts.MIXTURE_3, 	controlsMap.get(FlightControl.MIXTURE_3));
-			simOut.put(SimOuts.MIXTURE_4, 	controlsMap.get(FlightControl.MIXTURE_4));
-			simOut.put(SimOuts.FLAPS, 	 	controlsMap.get(FlightControl.FLAPS));
-			simOut.put(SimOuts.GEAR, 	 	controlsMap.get(FlightControl.GEAR));
+			simOut.put(SimOuts.ELEVATOR,    controls.get(FlightControl.ELEVATOR));
+			simOut.put(SimOuts.AILERON, 	controls.get(FlightControl.AILERON));
+			simOut.put(SimOuts.RUDDER, 	 	controls.get(FlightControl.RUDDER));
+			for (int i = 0; i < EngineChannels.MAX_ENGINES; i++) {
+				simOut.put(EngineChannels.THROTTLE_OUT[i],  controls.get(EngineChannels.THROTTLE[i]));
+				simOut.put(EngineChannels.PROPELLER_OUT[i], controls.get(EngineChannels.PROPELLER[i]));
+				simOut.put(EngineChannels.MIXTURE_OUT[i], 	controls.get(EngineChannels.MIXTURE[i]));
+			}
+			simOut.put(SimOuts.FLAPS, 	 	controls.get(FlightControl.FLAPS));
+			simOut.put(SimOuts.GEAR, 	 	controls.get(FlightControl.GEAR));
 		}
 		
 		synchronized (logsOut) {
@@ -478,9 +477,11 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 	/**
 	 * Returns an EnumMap of data for a single step of integration accomplished in {@link Integrate6DOFEquations#accelAndMoments#logData(double)}	
 	 * 
-	 * @return simOut
+	 * @return simOut, or an empty map if the simulation has not been stepped yet
 	 */
-	public synchronized Map<SimOuts, Double> getSimOut() { return Collections.unmodifiableMap(simOut); }
+	public synchronized Map<SimOuts, Double> getSimOut() { 
+		return simOut == null ? Collections.emptyMap() : Collections.unmodifiableMap(simOut); 
+	}
 	
 	//========================================= Time ============================================================
 	
@@ -489,6 +490,118 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 	 */
 	public double getTime() { return t; }
 	
+	//====================================== Checkpoints ========================================================
+	
+	/**
+	 * @return engines in order of their channel, so that checkpoints line up between simulations of the same aircraft 
+	 */
+	private Engine[] getEnginesByChannel() {
+		Engine[] engines = engineList.toArray(new Engine[engineList.size()]);
+		Arrays.sort(engines, Comparator.comparingInt(Engine::getChannel));
+		
+		return engines;
+	}
+	
+	/**
+	 * @return arrays whose contents carry over between steps; they are restored in place since {@link IntegrateGroundReaction} shares them
+	 */
+	private double[][] getStateArrays() {
+		return new double[][] {sixDOFDerivatives, linearVelocities, NEDPosition, eulerAngles, angularRates, 
+							   windParameters, linearAccelerations, totalMoments};
+	}
+	
+	@Override
+	public int getCheckpointSize() {
+		int size = 4 + initialConditions.length + y.length + EnvironmentParameters.values().length + FlightControl.values().length
+				 + groundReaction.getCheckpointSize();
+		
+		for (double[] array : getStateArrays())
+			size += array.length;
+		
+		for (Engine engine : engineList)
+			size += engine.getCheckpointSize();
+		
+		return size;
+	}
+	
+	/**
+	 * Copies the 6DOF state, integrator, environment, flight controls seen this step, ground reaction and engines into state. 
+	 * Logged outputs are not included
+	 */
+	@Override
+	public int writeCheckpoint(double[] state, int offset) {
+		state[offset++] = t;
+		state[offset++] = terrainHeight;
+		state[offset++] = alphaDot;
+		state[offset++] = mach;
+		
+		System.arraycopy(initialConditions, 0, state, offset, initialConditions.length);
+		offset += initialConditions.length;
+		System.arraycopy(y, 0, state, offset, y.length);
+		offset += y.length;
+		
+		for (double[] array : getStateArrays()) {
+			System.arraycopy(array, 0, state, offset, array.length);
+			offset += array.length;
+		}
+		
+		// Parameters not calculated by the environment model are written as NaN
+		for (EnvironmentParameters parameter : EnvironmentParameters.values())
+			state[offset++] = environmentParameters.getOrDefault(parameter, Double.NaN);
+		
+		for (FlightControl control : FlightControl.values())
+			state[offset++] = controls.get(control);
+		
+		offset = groundReaction.writeCheckpoint(state, offset);
+		
+		for (Engine engine : getEnginesByChannel())
+			offset = engine.writeCheckpoint(state, offset);
+		
+		return offset;
+	}
+	
+	/**
+	 * Sets the simulation to the state written by {@link #writeCheckpoint(double[], int)}; initial conditions used by 
+	 * {@link Options#RESET} are left unchanged
+	 */
+	@Override
+	public int readCheckpoint(double[] state, int offset) {
+		t 			  = state[offset++];
+		terrainHeight = state[offset++];
+		alphaDot 	  = state[offset++];
+		mach 		  = state[offset++];
+		
+		// Copied into new arrays, as initialConditions refers to resetInitialConditions until the first step
+		initialConditions = Arrays.copyOfRange(state, offset, offset + initialConditions.length);
+		offset += initialConditions.length;
+		y = Arrays.copyOfRange(state, offset, offset + y.length);
+		offset += y.length;
+		
+		for (double[] array : getStateArrays()) {
+			System.arraycopy(state, offset, array, 0, array.length);
+			offset += array.length;
+		}
+		
+		for (EnvironmentParameters parameter : EnvironmentParameters.values()) {
+			double value = state[offset++];
+			
+			if (Double.isNaN(value))
+				environmentParameters.remove(parameter);
+			else
+				environmentParameters.put(parameter, value);
+		}
+		
+		for (FlightControl control : FlightControl.values())
+			controls.set(control, state[offset++]);
+		
+		offset = groundReaction.readCheckpoint(state, offset);
+		
+		for (Engine engine : getEnginesByChannel())
+			offset = engine.readCheckpoint(state, offset);
+		
+		return offset;
+	}
+	
 	//==================================== Environment ==========================================================
 	
 	/**
@@ -510,6 +623,6 @@ public class Integrate6DOFEquations implements Steppable, EnvironmentDataListene
 		Map<EnvironmentDataType, Double> receivedEnvironmentData = environmentData.getEnvironmentData();
 		
 		if (environmentData != null)
-			terrainHeight = (receivedEnvironmentData.get(EnvironmentDataType.TERRAIN_HEIGHT)*15)+5;
+			terrainHeight = receivedEnvironmentData.get(EnvironmentDataType.TERRAIN_HEIGHT) + TERRAIN_CONTACT_OFFSET;
 	}
 }
@@ -28,10 +28,12 @@ import org.apache.commons.math3.ode.nonstiff.ClassicalRungeKuttaIntegrator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.chrisali.javaflightsim.interfaces.Checkpointable;
 import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
 import com.chrisali.javaflightsim.simulation.aircraft.GroundReaction;
 import com.chrisali.javaflightsim.simulation.aircraft.MassProperties;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsSnapshot;
 import com.chrisali.javaflightsim.simulation.utilities.SixDOFUtilities;
 
 /**
@@ -48,7 +50,7 @@ import com.chrisali.javaflightsim.simulation.utilities.SixDOFUtilities;
  * @author Christopher Ali
  *
  */
-public class IntegrateGroundReaction {
+public class IntegrateGroundReaction implements Checkpointable {
 	//Logging
 	private static final Logger logger = LogManager.getLogger(IntegrateGroundReaction.class);
 	
@@ -58,7 +60,7 @@ public class IntegrateGroundReaction {
 	
 	// Aircraft Properties
 	private double mass;
-	private Map<FlightControl, Double> controls;
+	private FlightControlsSnapshot controls;
 	private Map<GroundReaction, Double> groundReaction;
 	private boolean weightOnWheels = false;
 	
@@ -115,7 +117,7 @@ public class IntegrateGroundReaction {
 								   double[] sixDOFDerivatives,
 								   double[] integratorConfig,
 								   Aircraft aircraft,
-								   Map<FlightControl, Double> controls) {
+								   FlightControlsSnapshot controls) {
 		
 		this.NEDPosition = NEDPosition;
 		this.linearVelocities = linearVelocities;
@@ -424,6 +426,51 @@ public class IntegrateGroundReaction {
 	 */
 	public double[] getTotalGroundMoments() {return totalGroundMoments;}
 	
+	/**
+	 * @return arrays holding the state of the landing gear between steps; each keeps its length when it is replaced
+	 */
+	private double[][] getStateArrays() {
+		return new double[][] {y, y0, groundReactionDerivatives, tirePosition, tireVelocity, 
+							   noseGroundForces, leftGroundForces, rightGroundForces, totalGroundForces, totalGroundMoments};
+	}
+	
+	@Override
+	public int getCheckpointSize() {
+		int size = 3;
+		for (double[] array : getStateArrays())
+			size += array.length;
+		
+		return size;
+	}
+	
+	@Override
+	public int writeCheckpoint(double[] state, int offset) {
+		state[offset++] = t;
+		state[offset++] = terrainHeight;
+		state[offset++] = weightOnWheels ? 1.0 : 0.0;
+		
+		for (double[] array : getStateArrays()) {
+			System.arraycopy(array, 0, state, offset, array.length);
+			offset += array.length;
+		}
+		
+		return offset;
+	}
+	
+	@Override
+	public int readCheckpoint(double[] state, int offset) {
+		t 			   = state[offset++];
+		terrainHeight  = state[offset++];
+		weightOnWheels = state[offset++] == 1.0;
+		
+		for (double[] array : getStateArrays()) {
+			System.arraycopy(state, offset, array, 0, array.length);
+			offset += array.length;
+		}
+		
+		return offset;
+	}
+	
 	@Override
 	public String toString() {
 		DecimalFormat df = new DecimalFormat("####.##");
@@ -95,7 +95,31 @@ public enum SimOuts {
 	MIXTURE_3	("Mixture 3"),
 	MIXTURE_4	("Mixture 4"),
 	GEAR		("Gear"),
-	FLAPS		("Flaps [rad]");
+	FLAPS		("Flaps [rad]"),
+	THRUST_5	("Thrust 5 [lbf]"),
+	RPM_5		("RPM 5"),
+	FUEL_FLOW_5	("Fuel Flow 5"),
+	THRUST_6	("Thrust 6 [lbf]"),
+	RPM_6		("RPM 6"),
+	FUEL_FLOW_6	("Fuel Flow 6"),
+	THRUST_7	("Thrust 7 [lbf]"),
+	RPM_7		("RPM 7"),
+	FUEL_FLOW_7	("Fuel Flow 7"),
+	THRUST_8	("Thrust 8 [lbf]"),
+	RPM_8		("RPM 8"),
+	FUEL_FLOW_8	("Fuel Flow 8"),
+	THROTTLE_5	("Throttle 5"),
+	THROTTLE_6	("Throttle 6"),
+	THROTTLE_7	("Throttle 7"),
+	THROTTLE_8	("Throttle 8"),
+	PROPELLER_5	("Propeller 5"),
+	PROPELLER_6	("Propeller 6"),
+	PROPELLER_7	("Propeller 7"),
+	PROPELLER_8	("Propeller 8"),
+	MIXTURE_5	("Mixture 5"),
+	MIXTURE_6	("Mixture 6"),
+	MIXTURE_7	("Mixture 7"),
+	MIXTURE_8	("Mixture 8");
 	
 	private final String simOut;
 	
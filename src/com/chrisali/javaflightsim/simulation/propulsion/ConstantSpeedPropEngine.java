@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.propulsion;
+
+import java.util.Arrays;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsSnapshot;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Piston engine model driving a constant speed propeller. The propeller lever sets the RPM held by the governor,
+ * which adjusts blade angle so that the propeller absorbs the shaft power produced by the engine. Thrust and
+ * absorbed power are read from a {@link PropellerMap}; if the propeller cannot absorb all shaft power at its coarsest
+ * blade angle, RPM rises above the governed value (overspeed), and if it cannot be driven at governed RPM at its finest
+ * blade angle, RPM droops
+ */
+public class ConstantSpeedPropEngine extends Engine {
+
+	@JsonIgnore
+	protected static final double AVGAS_LB_PER_GAL = 6.0;
+
+	// Fraction of maximum power produced with throttle closed
+	@JsonIgnore
+	protected static final double IDLE_POWER = 0.05;
+
+	// Number of fixed point iterations used to find RPM when propeller is outside of its governing range
+	@JsonIgnore
+	private static final int OFF_GOVERNOR_ITERATIONS = 3;
+
+	protected double minGovernedRPM;	//rev/min
+	protected double specificFuelConsumption; //lb/hp/hr
+	protected PropellerMap propellerMap;
+
+	@JsonIgnore
+	protected double throttle;
+	@JsonIgnore
+	protected double propeller;
+	@JsonIgnore
+	protected double mixture;
+	@JsonIgnore
+	protected double shaftPower;		//ft*lbf/sec
+	@JsonIgnore
+	protected double bladeAngle;		//deg
+
+	/**
+	 * Default constructor, generating a Lycoming IO-360 driving a generic two blade constant speed propeller
+	 */
+	public ConstantSpeedPropEngine() {
+		this.engineName		 		 = "Lycoming IO-360 Constant Speed";
+		this.maxBHP 		 		 = 200;
+		this.maxRPM 		 		 = 2700;
+		this.minGovernedRPM  		 = 2000;
+		this.specificFuelConsumption = 0.45;
+		this.enginePosition  		 = new double[] {0, 0, 0};
+		this.propellerMap	 		 = PropellerMap.createDefault();
+		setPropDiameter(6.5);
+		setEngineNumber(1);
+	}
+
+	/**
+	 * Updates all fields of engine; called by {@link Integrate6DOFEquations} to recalculate thrust, moment, fuel flow and RPM for this engine
+	 */
+	@Override
+	public void updateEngineState(FlightControlsSnapshot controls,
+								  double rho,
+								  double speedOfSound,
+								  double altitude,
+								  double trueAirspeed) {
+		throttle  = controls.get(EngineChannels.THROTTLE[channel]);
+		propeller = controls.get(EngineChannels.PROPELLER[channel]);
+		mixture   = controls.get(EngineChannels.MIXTURE[channel]);
+
+		double governedRPM = minGovernedRPM + (propeller * (maxRPM - minGovernedRPM));
+
+		shaftPower = calculateShaftPower(rho, speedOfSound, altitude, trueAirspeed, governedRPM);
+
+		calculatePropeller(rho, trueAirspeed, governedRPM);
+
+		calculateEngMoments();
+
+		calculateFuelFlow();
+	}
+
+	/**
+	 * Calculates the power of the piston engine using the Gagg and Ferrar density lapse, scaled by governed RPM
+	 * and mixture
+	 *
+	 * @param rho
+	 * @param speedOfSound
+	 * @param altitude
+	 * @param trueAirspeed
+	 * @param governedRPM
+	 * @return shaft power (ft*lbf/sec)
+	 */
+	protected double calculateShaftPower(double rho, double speedOfSound, double altitude, double trueAirspeed, double governedRPM) {
+		double densityLapse  = Math.max(0, (A_P*rho/RHO_SSL) - B_P);
+		double mixtureFactor = Math.min(1.0, 1.5*mixture);
+
+		return maxBHP*HP_2_FTLBS*(IDLE_POWER + (1 - IDLE_POWER)*throttle)*(governedRPM/maxRPM)*densityLapse*mixtureFactor;
+	}
+
+	/**
+	 * Finds the blade angle that absorbs shaft power at governed RPM, then calculates thrust from the propeller map.
+	 * If the governor runs out of blade angle range, the blade angle is held at its stop and RPM is found instead
+	 *
+	 * @param rho
+	 * @param trueAirspeed
+	 * @param governedRPM
+	 */
+	private void calculatePropeller(double rho, double trueAirspeed, double governedRPM) {
+		final double d2 = propDiameter*propDiameter, d4 = d2*d2, d5 = d4*propDiameter;
+
+		double revsPerSec = governedRPM/60;
+		double advanceRatio = trueAirspeed/(revsPerSec*propDiameter);
+		double cpRequired = shaftPower/(rho*revsPerSec*revsPerSec*revsPerSec*d5);
+
+		double minBlade = propellerMap.getMinimumBladeAngle(), maxBlade = propellerMap.getMaximumBladeAngle();
+
+		if (cpRequired > propellerMap.powerCoefficient(advanceRatio, maxBlade)) {
+			bladeAngle = maxBlade;
+		} else if (cpRequired < propellerMap.powerCoefficient(advanceRatio, minBlade)) {
+			bladeAngle = minBlade;
+		} else {
+			bladeAngle = propellerMap.bladeAngle(advanceRatio, cpRequired);
+		}
+
+		// Off governor; find the RPM at which the propeller absorbs shaft power at the blade angle stop
+		if (bladeAngle == maxBlade || bladeAngle == minBlade) {
+			double minRevsPerSec = 0.2*minGovernedRPM/60, maxRevsPerSec = 1.2*maxRPM/60;
+
+			for (int i = 0; i < OFF_GOVERNOR_ITERATIONS; i++) {
+				double cp = propellerMap.powerCoefficient(advanceRatio, bladeAngle);
+				
+				// Windmilling; governed RPM is held
+				if (cp <= 0)
+					break;
+				
+				revsPerSec = Math.cbrt(Math.max(0, shaftPower)/(cp*rho*d5));
+				revsPerSec = Math.max(minRevsPerSec, Math.min(maxRevsPerSec, revsPerSec));
+				advanceRatio = trueAirspeed/(revsPerSec*propDiameter);
+			}
+		}
+
+		rpm = revsPerSec*60;
+		engineThrust[0] = propellerMap.thrustCoefficient(advanceRatio, bladeAngle)*rho*revsPerSec*revsPerSec*d4;
+	}
+
+	/**
+	 * Calculates fuel flow (gal/hr) from brake specific fuel consumption
+	 */
+	protected void calculateFuelFlow() { fuelFlow = specificFuelConsumption*(shaftPower/HP_2_FTLBS)/AVGAS_LB_PER_GAL; }
+
+	/**
+	 * @return current blade angle of propeller (deg)
+	 */
+	@JsonIgnore
+	public double getBladeAngle() { return bladeAngle; }
+
+	public double getMinGovernedRPM() { return minGovernedRPM; }
+
+	public void setMinGovernedRPM(double minGovernedRPM) { this.minGovernedRPM = minGovernedRPM; }
+
+	/**
+	 * @return specific fuel consumption (lb/hp/hr)
+	 */
+	public double getSpecificFuelConsumption() { return specificFuelConsumption; }
+
+	public void setSpecificFuelConsumption(double specificFuelConsumption) { this.specificFuelConsumption = specificFuelConsumption; }
+
+	public PropellerMap getPropellerMap() { return propellerMap; }
+
+	public void setPropellerMap(PropellerMap propellerMap) { this.propellerMap = propellerMap; }
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("Engine: ").append(engineName).append(" (# ").append(Integer.toString(engineNumber)).append(")")
+		  .append("\nMax BHP: ").append(maxBHP)
+		  .append("\nMax RPM: ").append(maxRPM)
+		  .append("\nMin Governed RPM: ").append(minGovernedRPM)
+		  .append("\nProp Diameter [ft]: ").append(propDiameter)
+		  .append("\nEngine Position [ft]: ").append(Arrays.toString(enginePosition));
+
+		return sb.toString();
+	}
+}
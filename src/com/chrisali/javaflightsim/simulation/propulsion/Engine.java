@@ -20,22 +20,34 @@
 package com.chrisali.javaflightsim.simulation.propulsion;
 
 import java.util.Arrays;
-import java.util.EnumMap;
 import java.util.Map;
 
-import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
-
+import com.chrisali.javaflightsim.interfaces.Checkpointable;
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
 import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
-import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsSnapshot;
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonSubTypes.Type;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonTypeInfo.Id;
 
 /**
  * Base abstract class for the flight simulation's engine model. 
  * It uses the 1976 NASA Standard Atmosphere model, and assumes that gravity is constant in the Z direction.
+ * The type of each engine is specified by its engineType property, which uses the names in {@link EngineType}; 
+ * engines without this property are considered to be {@link FixedPitchPropEngine}s. Each time a new subclass 
+ * is added to the project, be sure to add its type to the JsonSubTypes annotation for this class. Subclasses whose state 
+ * carries over from one step to the next should extend the checkpoint methods to include it
  */
-@JsonDeserialize(as = FixedPitchPropEngine.class)
-public abstract class Engine {
+@JsonTypeInfo(use = Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "engineType", defaultImpl = FixedPitchPropEngine.class)
+@JsonSubTypes({
+	@Type(value = FixedPitchPropEngine.class,    name = "fixedPitchProp"),
+	@Type(value = ConstantSpeedPropEngine.class, name = "constSpeedProp"),
+	@Type(value = TurbopropEngine.class, 		 name = "turboprop"),
+	@Type(value = TurbojetEngine.class, 		 name = "jet"),
+})
+public abstract class Engine implements Checkpointable {
 	
 	// Propeller Engine Parameters
 	@JsonIgnore
@@ -54,12 +66,11 @@ public abstract class Engine {
 	protected double propArea;			//ft^2
 	protected double propEfficiency;
 		
-	// Jet Engine Parameters
-	//TODO add jet/turboprop
-	
 	// Universal Parameters
 	protected String   engineName;
 	protected int      engineNumber;
+	@JsonIgnore
+	protected int      channel;						// engineNumber - 1; index into EngineChannels tables
 	protected double[] enginePosition; 	   			// {eng_x,eng_y,eng_z}  (ft)
 
 	// State Parameters
@@ -70,31 +81,50 @@ public abstract class Engine {
 	@JsonIgnore
 	protected double[] engineThrust   = {0, 0, 0};	// {T_x,T_y,T_z}	    (lbf)			
 	@JsonIgnore
-	protected double[] engineMoment;				// {M_x,M_y,M_z}        (lbf)
-		
-	//TODO need engine model properties (etaP, advance ratio, bhp curves) for lookup tables
-	//TODO etaP needs to vary
+	protected double[] engineMoment   = {0, 0, 0};	// {M_x,M_y,M_z}        (lbf)
   	
 	/**
-	 * Calculates all parameters of the engine given the input parameters specified below
+	 * Calculates all parameters of the engine given the input parameters specified below. Unboxes the environment
+	 * parameters needed by the engine and calls {@link Engine#updateEngineState(FlightControlsSnapshot, double, double, double, double)}, 
+	 * using the pressure altitude calculated from {@link EnvironmentParameters#P} as altitude
 	 * 
 	 * @param controls
 	 * @param environmentParameters
 	 * @param windParameters
 	 */
-	public abstract void updateEngineState(Map<FlightControl, Double> controls,				
-										   Map<EnvironmentParameters, Double> environmentParameters,
-										   double[] windParameters);
+	public void updateEngineState(FlightControlsSnapshot controls,				
+								  Map<EnvironmentParameters, Double> environmentParameters,
+								  double[] windParameters) {
+		updateEngineState(controls,
+						  environmentParameters.get(EnvironmentParameters.RHO),
+						  environmentParameters.get(EnvironmentParameters.A),
+						  Environment.calculatePressureAltitude(environmentParameters.get(EnvironmentParameters.P)),
+						  windParameters[0]);
+	}
+	
+	/**
+	 * Calculates all parameters of the engine given the input parameters specified below
+	 * 
+	 * @param controls
+	 * @param rho air density (slug/ft^3)
+	 * @param speedOfSound (ft/sec)
+	 * @param altitude (ft)
+	 * @param trueAirspeed (ft/sec)
+	 */
+	public abstract void updateEngineState(FlightControlsSnapshot controls, 
+										   double rho, 
+										   double speedOfSound, 
+										   double altitude, 
+										   double trueAirspeed);
 	
 	/**
 	 * Calculates the moment generated by the engine as a function of its thrust and location
-	 * relative to the aircraft's center of gravity. Used in {@link Engine#updateEngineState(EnumMap, EnumMap, double[])}
+	 * relative to the aircraft's center of gravity. Used in {@link Engine#updateEngineState(FlightControlsSnapshot, double, double, double, double)}
 	 */
 	protected void calculateEngMoments() {
-		Vector3D forceVector = new Vector3D(engineThrust);
-		Vector3D armVector   = new Vector3D(enginePosition);
-		
-		this.engineMoment = Vector3D.crossProduct(forceVector, armVector).toArray();
+		engineMoment[0] = engineThrust[1]*enginePosition[2] - engineThrust[2]*enginePosition[1];
+		engineMoment[1] = engineThrust[2]*enginePosition[0] - engineThrust[0]*enginePosition[2];
+		engineMoment[2] = engineThrust[0]*enginePosition[1] - engineThrust[1]*enginePosition[0];
 	}
 	
 	/**
@@ -127,7 +157,10 @@ public abstract class Engine {
 
 	public double getPropDiameter() { return propDiameter; }
 
-	public void setPropDiameter(double propDiameter) { this.propDiameter = propDiameter; }
+	public void setPropDiameter(double propDiameter) { 
+		this.propDiameter = propDiameter;
+		this.propArea = Math.PI*(Math.pow(propDiameter, 2))/4;
+	}
 
 	public double getPropEfficiency() { return propEfficiency; }
 
@@ -139,7 +172,44 @@ public abstract class Engine {
 
 	public int getEngineNumber() { return engineNumber; }
 
-	public void setEngineNumber(int engineNumber) { this.engineNumber = engineNumber; }
+	public void setEngineNumber(int engineNumber) { 
+		this.channel = EngineChannels.toChannel(engineNumber);
+		this.engineNumber = engineNumber; 
+	}
+	
+	/**
+	 * @return index of this engine's controls and outputs in {@link EngineChannels}; resolved when the engine number is set
+	 */
+	@JsonIgnore
+	public int getChannel() { return channel; }
+	
+	@Override
+	@JsonIgnore
+	public int getCheckpointSize() { return 2 + engineThrust.length + engineMoment.length; }
+	
+	@Override
+	public int writeCheckpoint(double[] state, int offset) {
+		state[offset++] = rpm;
+		state[offset++] = fuelFlow;
+		
+		System.arraycopy(engineThrust, 0, state, offset, engineThrust.length);
+		offset += engineThrust.length;
+		System.arraycopy(engineMoment, 0, state, offset, engineMoment.length);
+		
+		return offset + engineMoment.length;
+	}
+	
+	@Override
+	public int readCheckpoint(double[] state, int offset) {
+		rpm 	 = state[offset++];
+		fuelFlow = state[offset++];
+		
+		System.arraycopy(state, offset, engineThrust, 0, engineThrust.length);
+		offset += engineThrust.length;
+		System.arraycopy(state, offset, engineMoment, 0, engineMoment.length);
+		
+		return offset + engineMoment.length;
+	}
 	
 	/**
 	 * @return engine position relative to aircraft CG [x, y, z] (ft)
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.propulsion;
+
+import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataType;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+/**
+ * Tables of the per-engine control inputs and output channels of the simulation, indexed by engine channel
+ * (engine number - 1). Channels are resolved once when this class is loaded so that engines, logging and
+ * sound do not need to build enum names from strings every simulation step
+ *
+ * @author Christopher Ali
+ *
+ */
+public class EngineChannels {
+
+	/**
+	 * Maximum number of engines that the simulation can model
+	 */
+	public static final int MAX_ENGINES = 8;
+
+	// Control inputs
+	public static final FlightControl[] THROTTLE  = new FlightControl[MAX_ENGINES];
+	public static final FlightControl[] PROPELLER = new FlightControl[MAX_ENGINES];
+	public static final FlightControl[] MIXTURE   = new FlightControl[MAX_ENGINES];
+
+	// Simulation outputs
+	public static final SimOuts[] THRUST_OUT    = new SimOuts[MAX_ENGINES];
+	public static final SimOuts[] RPM_OUT       = new SimOuts[MAX_ENGINES];
+	public static final SimOuts[] FUEL_FLOW_OUT = new SimOuts[MAX_ENGINES];
+	public static final SimOuts[] THROTTLE_OUT  = new SimOuts[MAX_ENGINES];
+	public static final SimOuts[] PROPELLER_OUT = new SimOuts[MAX_ENGINES];
+	public static final SimOuts[] MIXTURE_OUT   = new SimOuts[MAX_ENGINES];
+
+	// Flight data
+	public static final FlightDataType[] RPM_DATA = new FlightDataType[MAX_ENGINES];
+
+	static {
+		for (int i = 0; i < MAX_ENGINES; i++) {
+			String suffix = "_" + (i + 1);
+
+			THROTTLE[i]  = FlightControl.valueOf("THROTTLE" + suffix);
+			PROPELLER[i] = FlightControl.valueOf("PROPELLER" + suffix);
+			MIXTURE[i]   = FlightControl.valueOf("MIXTURE" + suffix);
+
+			THRUST_OUT[i]    = SimOuts.valueOf("THRUST" + suffix);
+			RPM_OUT[i]       = SimOuts.valueOf("RPM" + suffix);
+			FUEL_FLOW_OUT[i] = SimOuts.valueOf("FUEL_FLOW" + suffix);
+			THROTTLE_OUT[i]  = SimOuts.valueOf("THROTTLE" + suffix);
+			PROPELLER_OUT[i] = SimOuts.valueOf("PROPELLER" + suffix);
+			MIXTURE_OUT[i]   = SimOuts.valueOf("MIXTURE" + suffix);
+
+			RPM_DATA[i] = FlightDataType.valueOf("RPM" + suffix);
+		}
+	}
+
+	/**
+	 * Converts an engine number into its channel index in the tables of this class
+	 *
+	 * @param engineNumber number of engine, starting at 1
+	 * @return channel index of engine, starting at 0
+	 * @throws IllegalArgumentException if engineNumber is not between 1 and {@value #MAX_ENGINES}
+	 */
+	public static int toChannel(int engineNumber) {
+		if (engineNumber < 1 || engineNumber > MAX_ENGINES)
+			throw new IllegalArgumentException("Engine number must be between 1 and " + MAX_ENGINES + ", was: " + engineNumber);
+
+		return engineNumber - 1;
+	}
+}
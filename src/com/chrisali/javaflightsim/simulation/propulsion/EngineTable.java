@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.propulsion;
+
+import com.chrisali.javaflightsim.simulation.utilities.InterpolationUtilities;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Two dimensional performance table used by table-driven {@link Engine} models (i.e. propeller thrust coefficient
+ * as a function of advance ratio and blade angle, or thrust lapse as a function of altitude and Mach number). Values
+ * are bilinearly interpolated on primitive arrays and held constant beyond the edges of the table, so that evaluating
+ * a table does not allocate or throw
+ *
+ * @author Christopher Ali
+ *
+ */
+public class EngineTable {
+
+	private String name;
+
+	private double[] breakPointsX;
+
+	private double[] breakPointsY;
+
+	private double[][] lookupValues;
+
+	/**
+	 * @param name
+	 * @param breakPointsX breakpoints of the first dimension
+	 * @param breakPointsY breakpoints of the second dimension
+	 * @param lookupValues table values indexed [x][y]
+	 */
+	@JsonCreator
+	public EngineTable(@JsonProperty("name") String name,
+					   @JsonProperty("breakPointsX") double[] breakPointsX,
+					   @JsonProperty("breakPointsY") double[] breakPointsY,
+					   @JsonProperty("lookupValues") double[][] lookupValues) {
+		if (breakPointsX == null || breakPointsY == null || lookupValues == null)
+			throw new IllegalArgumentException("Engine table " + name + " must define breakpoints and lookup values!");
+
+		if (lookupValues.length != breakPointsX.length || lookupValues[0].length != breakPointsY.length)
+			throw new IllegalArgumentException("Size of engine table " + name + " does not match its breakpoints!");
+
+		this.name = name;
+		this.breakPointsX = breakPointsX;
+		this.breakPointsY = breakPointsY;
+		this.lookupValues = lookupValues;
+	}
+
+	/**
+	 * @param x
+	 * @param y
+	 * @return value bilinearly interpolated from table
+	 */
+	public double value(double x, double y) {
+		return InterpolationUtilities.bilinearValue(breakPointsX, breakPointsY, lookupValues, x, y);
+	}
+
+	/**
+	 * @return smallest breakpoint of the second dimension
+	 */
+	@JsonIgnore
+	public double getMinimumY() { return breakPointsY[0]; }
+
+	/**
+	 * @return largest breakpoint of the second dimension
+	 */
+	@JsonIgnore
+	public double getMaximumY() { return breakPointsY[breakPointsY.length - 1]; }
+
+	public String getName() { return name; }
+
+	public double[] getBreakPointsX() { return breakPointsX; }
+
+	public double[] getBreakPointsY() { return breakPointsY; }
+
+	public double[][] getLookupValues() { return lookupValues; }
+}
@@ -20,10 +20,8 @@
 package com.chrisali.javaflightsim.simulation.propulsion;
 
 import java.util.Arrays;
-import java.util.Map;
 
-import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
-import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsSnapshot;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 
 /**
@@ -44,7 +42,7 @@ public class FixedPitchPropEngine extends Engine {
 		this.propArea 		= Math.PI*(Math.pow(propDiameter, 2))/4;
 		this.propEfficiency = 0.85;
 		this.enginePosition = new double[] {0, 0, 0};
-		this.engineNumber   = 1;
+		setEngineNumber(1);
 	}
 	
 	/**
@@ -71,36 +69,23 @@ public class FixedPitchPropEngine extends Engine {
 		this.propArea 		= Math.PI*(Math.pow(propDiameter, 2))/4;
 		this.propEfficiency = 0.85;
 		this.enginePosition = enginePosition;
-		this.engineNumber   = engineNumber;
+		setEngineNumber(engineNumber);
 	}
 		
 	/**
 	 * Updates all fields of engine; called by {@link Integrate6DOFEquations} to recalculate thrust, moment, fuel flow and RPM for this engine
 	 */
-	public void updateEngineState(Map<FlightControl, Double> controls,				
-								  Map<EnvironmentParameters, Double> environmentParameters,
-								  double[] windParameters) {		//{vTrue,beta,alpha}
-		// Assign engine controls depending on engine number specified
-		switch (engineNumber) {
-			case 1:
-				mixture  = controls.get(FlightControl.MIXTURE_1);
-				throttle = controls.get(FlightControl.THROTTLE_1);
-				break;
-			case 2:
-				mixture  = controls.get(FlightControl.MIXTURE_2);
-				throttle = controls.get(FlightControl.THROTTLE_2);
-				break;
-			case 3:
-				mixture  = controls.get(FlightControl.MIXTURE_3);
-				throttle = controls.get(FlightControl.THROTTLE_3);
-				break;
-			case 4:
-				mixture  = controls.get(FlightControl.MIXTURE_4);
-				throttle = controls.get(FlightControl.THROTTLE_4);
-				break;
-		}
+	@Override
+	public void updateEngineState(FlightControlsSnapshot controls, 
+								  double rho, 
+								  double speedOfSound, 
+								  double altitude, 
+								  double trueAirspeed) {
+		// Assign engine controls using channel resolved from engine number
+		mixture  = controls.get(EngineChannels.MIXTURE[channel]);
+		throttle = controls.get(EngineChannels.THROTTLE[channel]);
 		
-		calculateThrust(environmentParameters, windParameters);
+		calculateThrust(rho, trueAirspeed);
 		
 		calculateEngMoments();
 		
@@ -113,18 +98,17 @@ public class FixedPitchPropEngine extends Engine {
 	/**
 	 * Calculates thrust of the engine
 	 * 
-	 * @param environmentParameters
-	 * @param windParameters
+	 * @param rho
+	 * @param trueAirspeed
 	 * 
 	 * @return Double array vector of engine force (lbf)
 	 */
-	private void calculateThrust(Map<EnvironmentParameters, Double> environmentParameters, 
-								 double[] windParameters) {		 
+	private void calculateThrust(double rho, double trueAirspeed) {		 
 		// Consider static thrust case at low speeds
-		if (windParameters[0] <= 65)
-			this.engineThrust[0] = Math.pow((throttle*maxBHP*HP_2_FTLBS), 0.6667)*Math.pow((2*environmentParameters.get(EnvironmentParameters.RHO)*propArea), 0.3333);			
+		if (trueAirspeed <= 65)
+			this.engineThrust[0] = Math.pow((throttle*maxBHP*HP_2_FTLBS), 0.6667)*Math.pow((2*rho*propArea), 0.3333);			
 		else
-			this.engineThrust[0] = (throttle*maxBHP*HP_2_FTLBS)*((A_P*environmentParameters.get(EnvironmentParameters.RHO)/RHO_SSL)-B_P)*(propEfficiency/windParameters[0]);
+			this.engineThrust[0] = (throttle*maxBHP*HP_2_FTLBS)*((A_P*rho/RHO_SSL)-B_P)*(propEfficiency/trueAirspeed);
 	}
 	
 	/**
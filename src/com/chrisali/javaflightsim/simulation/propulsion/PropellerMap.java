@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.propulsion;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Performance map of a variable pitch propeller, consisting of thrust and power coefficient {@link EngineTable}s
+ * indexed by advance ratio J = V/(nD) and blade angle at 75% radius (deg). Upon construction, the power coefficient
+ * table is inverted into a blade angle schedule indexed by advance ratio and power coefficient, which lets a constant
+ * speed propeller find the blade angle its governor would hold without iterating every simulation step
+ *
+ * @author Christopher Ali
+ *
+ */
+public class PropellerMap {
+
+	// Resolution of the power coefficient dimension of the blade angle schedule
+	private static final int SCHEDULE_POINTS = 41;
+
+	private EngineTable thrustCoefficient;
+
+	private EngineTable powerCoefficient;
+
+	@JsonIgnore
+	private EngineTable bladeAngleSchedule;
+
+	/**
+	 * @param thrustCoefficient table of C_T indexed by [advance ratio][blade angle]
+	 * @param powerCoefficient table of C_P indexed by [advance ratio][blade angle]; C_P must not decrease with blade angle
+	 */
+	@JsonCreator
+	public PropellerMap(@JsonProperty("thrustCoefficient") EngineTable thrustCoefficient,
+						@JsonProperty("powerCoefficient") EngineTable powerCoefficient) {
+		this.thrustCoefficient = thrustCoefficient;
+		this.powerCoefficient = powerCoefficient;
+		this.bladeAngleSchedule = createBladeAngleSchedule(powerCoefficient);
+	}
+
+	/**
+	 * Inverts the power coefficient table so that blade angle can be interpolated from advance ratio and power coefficient
+	 *
+	 * @param powerCoefficient
+	 * @return blade angle schedule indexed by [advance ratio][power coefficient]
+	 */
+	private static EngineTable createBladeAngleSchedule(EngineTable powerCoefficient) {
+		double[] advanceRatios = powerCoefficient.getBreakPointsX();
+		double[] bladeAngles   = powerCoefficient.getBreakPointsY();
+		double[][] cp 		   = powerCoefficient.getLookupValues();
+
+		double cpMin = Double.MAX_VALUE, cpMax = -Double.MAX_VALUE;
+		for (double[] row : cp) {
+			for (double value : row) {
+				cpMin = Math.min(cpMin, value);
+				cpMax = Math.max(cpMax, value);
+			}
+		}
+
+		double[] cpBreakPoints = new double[SCHEDULE_POINTS];
+		for (int k = 0; k < SCHEDULE_POINTS; k++)
+			cpBreakPoints[k] = cpMin + (cpMax - cpMin) * k / (SCHEDULE_POINTS - 1);
+
+		double[][] schedule = new double[advanceRatios.length][SCHEDULE_POINTS];
+		double[] monotonicCp = new double[bladeAngles.length];
+
+		for (int i = 0; i < advanceRatios.length; i++) {
+			// Guard against small non-monotonic regions in the table
+			monotonicCp[0] = cp[i][0];
+			for (int j = 1; j < bladeAngles.length; j++)
+				monotonicCp[j] = Math.max(monotonicCp[j - 1], cp[i][j]);
+
+			for (int k = 0; k < SCHEDULE_POINTS; k++) {
+				double target = cpBreakPoints[k];
+
+				if (target <= monotonicCp[0]) {
+					schedule[i][k] = bladeAngles[0];
+				} else if (target >= monotonicCp[bladeAngles.length - 1]) {
+					schedule[i][k] = bladeAngles[bladeAngles.length - 1];
+				} else {
+					int j = 0;
+					while (monotonicCp[j + 1] < target)
+						j++;
+
+					double span = monotonicCp[j + 1] - monotonicCp[j];
+					double t = (span > 0) ? (target - monotonicCp[j]) / span : 0;
+					schedule[i][k] = bladeAngles[j] + t * (bladeAngles[j + 1] - bladeAngles[j]);
+				}
+			}
+		}
+
+		return new EngineTable("Blade Angle Schedule", advanceRatios.clone(), cpBreakPoints, schedule);
+	}
+
+	/**
+	 * Creates a generic two blade propeller map using a simple blade element model evaluated at 75% radius,
+	 * with post-stall drag growth; gives a static C_T of about 0.1 and a peak efficiency of about 0.8
+	 *
+	 * @return default propeller map
+	 */
+	public static PropellerMap createDefault() {
+		double[] advanceRatios = new double[13];
+		for (int i = 0; i < advanceRatios.length; i++)
+			advanceRatios[i] = 0.2 * i;
+
+		double[] bladeAngles = new double[9];
+		for (int j = 0; j < bladeAngles.length; j++)
+			bladeAngles[j] = 10 + 5 * j;
+
+		final double solidity = 0.08, clMax = 1.2, stallAlpha = clMax / (2 * Math.PI);
+		double[][] ct = new double[advanceRatios.length][bladeAngles.length];
+		double[][] cp = new double[advanceRatios.length][bladeAngles.length];
+
+		for (int i = 0; i < advanceRatios.length; i++) {
+			double inflow = advanceRatios[i] / (0.75 * Math.PI);
+			double phi    = Math.atan(inflow);
+
+			for (int j = 0; j < bladeAngles.length; j++) {
+				double alpha = Math.toRadians(bladeAngles[j]) - phi;
+				double cl 	 = Math.max(-clMax, Math.min(clMax, 2 * Math.PI * alpha));
+				double cd 	 = 0.01 + 0.06 * cl * cl + 1.5 * Math.max(0, Math.abs(alpha) - stallAlpha);
+				double scale = solidity * (1 + inflow * inflow);
+
+				ct[i][j] = scale * (cl * Math.cos(phi) - cd * Math.sin(phi));
+				cp[i][j] = scale * 0.75 * Math.PI * (cl * Math.sin(phi) + cd * Math.cos(phi));
+			}
+		}
+
+		return new PropellerMap(new EngineTable("C_T", advanceRatios, bladeAngles, ct),
+								new EngineTable("C_P", advanceRatios.clone(), bladeAngles.clone(), cp));
+	}
+
+	/**
+	 * @param advanceRatio
+	 * @param bladeAngle (deg)
+	 * @return thrust coefficient C_T
+	 */
+	public double thrustCoefficient(double advanceRatio, double bladeAngle) { return thrustCoefficient.value(advanceRatio, bladeAngle); }
+
+	/**
+	 * @param advanceRatio
+	 * @param bladeAngle (deg)
+	 * @return power coefficient C_P
+	 */
+	public double powerCoefficient(double advanceRatio, double bladeAngle) { return powerCoefficient.value(advanceRatio, bladeAngle); }
+
+	/**
+	 * @param advanceRatio
+	 * @param powerCoefficient
+	 * @return blade angle (deg) at which the propeller absorbs the given power coefficient
+	 */
+	public double bladeAngle(double advanceRatio, double powerCoefficient) { return bladeAngleSchedule.value(advanceRatio, powerCoefficient); }
+
+	/**
+	 * @return finest blade angle of the propeller (deg)
+	 */
+	@JsonIgnore
+	public double getMinimumBladeAngle() { return powerCoefficient.getMinimumY(); }
+
+	/**
+	 * @return coarsest blade angle of the propeller (deg)
+	 */
+	@JsonIgnore
+	public double getMaximumBladeAngle() { return powerCoefficient.getMaximumY(); }
+
+	public EngineTable getThrustCoefficient() { return thrustCoefficient; }
+
+	public EngineTable getPowerCoefficient() { return powerCoefficient; }
+}
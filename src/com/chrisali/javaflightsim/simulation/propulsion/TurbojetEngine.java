@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.propulsion;
+
+import java.util.Arrays;
+
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsSnapshot;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Turbojet engine model. Thrust is the static sea level thrust scaled by a thrust lapse {@link EngineTable}, and fuel
+ * flow is calculated from a thrust specific fuel consumption {@link EngineTable}, both indexed by altitude (ft) and
+ * Mach number. The engine's RPM represents its spool speed, using {@link Engine#getMaxRPM()} as 100% N1. The mixture
+ * control is used as the fuel cutoff
+ */
+public class TurbojetEngine extends Engine {
+
+	@JsonIgnore
+	private static final double JET_A_LB_PER_GAL = 6.7;
+
+	// Fuel control position below which fuel is cut off
+	@JsonIgnore
+	private static final double CUTOFF = 0.05;
+
+	private double maxThrust;		//lbf, static sea level
+	private double idleThrust;		//fraction of maxThrust
+	private double idleN1;			//fraction of maxRPM
+	private EngineTable thrustLapse;
+	private EngineTable specificFuelConsumption;
+
+	@JsonIgnore
+	private double throttle;
+	@JsonIgnore
+	private double fuelCutoff;
+
+	/**
+	 * Default constructor, generating a J85-class turbojet
+	 */
+	public TurbojetEngine() {
+		this.engineName				 = "Generic 2850 lbf Turbojet";
+		this.maxThrust 				 = 2850;
+		this.idleThrust 			 = 0.05;
+		this.idleN1 				 = 0.55;
+		this.maxRPM 				 = 16500;
+		this.enginePosition 		 = new double[] {0, 0, 0};
+		this.thrustLapse 			 = createDefaultThrustLapse();
+		this.specificFuelConsumption = createDefaultSpecificFuelConsumption();
+		setEngineNumber(1);
+	}
+
+	private static double[] defaultAltitudes() { return new double[] {0, 5000, 10000, 15000, 20000, 25000, 30000, 36089, 40000, 45000}; }
+
+	private static double[] defaultMachs() { return new double[] {0, 0.2, 0.4, 0.6, 0.8, 1.0, 1.2}; }
+
+	/**
+	 * Creates a thrust lapse table where thrust falls with density ratio, dips at low Mach numbers due to momentum drag,
+	 * then recovers with ram pressure
+	 *
+	 * @return default thrust lapse table
+	 */
+	private static EngineTable createDefaultThrustLapse() {
+		double[] altitudes = defaultAltitudes(), machs = defaultMachs();
+		double[][] lapse = new double[altitudes.length][machs.length];
+
+		for (int i = 0; i < altitudes.length; i++) {
+			double sigma = Environment.calculateDensityRatio(altitudes[i]);
+
+			for (int j = 0; j < machs.length; j++)
+				lapse[i][j] = Math.pow(sigma, 0.7)*(1 - 0.4*machs[j] + 0.6*machs[j]*machs[j]);
+		}
+
+		return new EngineTable("Thrust Lapse", altitudes, machs, lapse);
+	}
+
+	/**
+	 * Creates a thrust specific fuel consumption (lb/lbf/hr) table that increases with Mach number and temperature ratio
+	 *
+	 * @return default TSFC table
+	 */
+	private static EngineTable createDefaultSpecificFuelConsumption() {
+		double[] altitudes = defaultAltitudes(), machs = defaultMachs();
+		double[][] tsfc = new double[altitudes.length][machs.length];
+
+		for (int i = 0; i < altitudes.length; i++) {
+			double theta = Environment.calculateTemperatureRatio(altitudes[i]);
+
+			for (int j = 0; j < machs.length; j++)
+				tsfc[i][j] = 1.0*(1 + 0.35*machs[j])*Math.sqrt(theta);
+		}
+
+		return new EngineTable("TSFC", altitudes, machs, tsfc);
+	}
+
+	/**
+	 * Updates all fields of engine; called by {@link Integrate6DOFEquations} to recalculate thrust, moment, fuel flow and RPM for this engine
+	 */
+	@Override
+	public void updateEngineState(FlightControlsSnapshot controls,
+								  double rho,
+								  double speedOfSound,
+								  double altitude,
+								  double trueAirspeed) {
+		throttle   = controls.get(EngineChannels.THROTTLE[channel]);
+		fuelCutoff = controls.get(EngineChannels.MIXTURE[channel]);
+
+		double mach = trueAirspeed/speedOfSound;
+
+		if (fuelCutoff < CUTOFF) {
+			engineThrust[0] = 0;
+			fuelFlow = 0;
+			rpm = 0;
+		} else {
+			double thrustFraction = idleThrust + (1 - idleThrust)*throttle;
+
+			engineThrust[0] = maxThrust*thrustFraction*thrustLapse.value(altitude, mach);
+			fuelFlow = specificFuelConsumption.value(altitude, mach)*engineThrust[0]/JET_A_LB_PER_GAL;
+			rpm = maxRPM*(idleN1 + (1 - idleN1)*Math.sqrt(throttle));
+		}
+
+		calculateEngMoments();
+	}
+
+	/**
+	 * @return static sea level thrust at full throttle (lbf)
+	 */
+	public double getMaxThrust() { return maxThrust; }
+
+	public void setMaxThrust(double maxThrust) { this.maxThrust = maxThrust; }
+
+	/**
+	 * @return thrust at idle as a fraction of maximum thrust
+	 */
+	public double getIdleThrust() { return idleThrust; }
+
+	public void setIdleThrust(double idleThrust) { this.idleThrust = idleThrust; }
+
+	/**
+	 * @return spool speed at idle as a fraction of maximum RPM
+	 */
+	public double getIdleN1() { return idleN1; }
+
+	public void setIdleN1(double idleN1) { this.idleN1 = idleN1; }
+
+	/**
+	 * @return table of thrust / static sea level thrust indexed by [altitude (ft)][Mach]
+	 */
+	public EngineTable getThrustLapse() { return thrustLapse; }
+
+	public void setThrustLapse(EngineTable thrustLapse) { this.thrustLapse = thrustLapse; }
+
+	/**
+	 * @return table of thrust specific fuel consumption (lb/lbf/hr) indexed by [altitude (ft)][Mach]
+	 */
+	public EngineTable getSpecificFuelConsumption() { return specificFuelConsumption; }
+
+	public void setSpecificFuelConsumption(EngineTable specificFuelConsumption) { this.specificFuelConsumption = specificFuelConsumption; }
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("Engine: ").append(engineName).append(" (# ").append(Integer.toString(engineNumber)).append(")")
+		  .append("\nMax Thrust [lbf]: ").append(maxThrust)
+		  .append("\nMax RPM: ").append(maxRPM)
+		  .append("\nEngine Position [ft]: ").append(Arrays.toString(enginePosition));
+
+		return sb.toString();
+	}
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.propulsion;
+
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Free turbine turboprop engine model driving a constant speed propeller. Shaft power available is the maximum shaft
+ * horsepower ({@link Engine#getMaxBHP()}) scaled by a power lapse {@link EngineTable} indexed by altitude (ft) and Mach number.
+ * The mixture control is used as the condition lever, shutting off fuel when pulled to cutoff
+ */
+public class TurbopropEngine extends ConstantSpeedPropEngine {
+
+	@JsonIgnore
+	private static final double JET_A_LB_PER_GAL = 6.7;
+
+	// Fraction of maximum shaft power produced at flight idle
+	@JsonIgnore
+	private static final double FLIGHT_IDLE_POWER = 0.08;
+
+	// Condition lever position below which fuel is cut off
+	@JsonIgnore
+	private static final double CUTOFF = 0.05;
+
+	private EngineTable powerLapse;
+
+	/**
+	 * Default constructor, generating a PT6A-class turboprop driving a generic two blade constant speed propeller
+	 */
+	public TurbopropEngine() {
+		super();
+
+		this.engineName				 = "Generic 750 SHP Turboprop";
+		this.maxBHP 				 = 750;
+		this.maxRPM 				 = 2200;
+		this.minGovernedRPM			 = 1600;
+		this.specificFuelConsumption = 0.6;
+		this.powerLapse 			 = createDefaultPowerLapse();
+		setPropDiameter(8.2);
+	}
+
+	/**
+	 * Creates a power lapse table where available power falls with density ratio and increases slightly with ram pressure
+	 *
+	 * @return default power lapse table
+	 */
+	private static EngineTable createDefaultPowerLapse() {
+		double[] altitudes = {0, 5000, 10000, 15000, 20000, 25000, 30000, 35000};
+		double[] machs	   = {0, 0.1, 0.2, 0.3, 0.4, 0.5, 0.6};
+		double[][] lapse   = new double[altitudes.length][machs.length];
+
+		for (int i = 0; i < altitudes.length; i++) {
+			double sigma = Environment.calculateDensityRatio(altitudes[i]);
+
+			for (int j = 0; j < machs.length; j++)
+				lapse[i][j] = Math.pow(sigma, 0.8)*(1 + 0.25*machs[j]*machs[j]);
+		}
+
+		return new EngineTable("Power Lapse", altitudes, machs, lapse);
+	}
+
+	@Override
+	protected double calculateShaftPower(double rho, double speedOfSound, double altitude, double trueAirspeed, double governedRPM) {
+		if (mixture < CUTOFF)
+			return 0;
+
+		double lapse = powerLapse.value(altitude, trueAirspeed/speedOfSound);
+
+		return maxBHP*HP_2_FTLBS*lapse*(FLIGHT_IDLE_POWER + (1 - FLIGHT_IDLE_POWER)*throttle);
+	}
+
+	/**
+	 * Calculates fuel flow (gal/hr) from power specific fuel consumption
+	 */
+	@Override
+	protected void calculateFuelFlow() { fuelFlow = specificFuelConsumption*(shaftPower/HP_2_FTLBS)/JET_A_LB_PER_GAL; }
+
+	/**
+	 * @return table of shaft power available / maximum shaft power indexed by [altitude (ft)][Mach]
+	 */
+	public EngineTable getPowerLapse() { return powerLapse; }
+
+	public void setPowerLapse(EngineTable powerLapse) { this.powerLapse = powerLapse; }
+}
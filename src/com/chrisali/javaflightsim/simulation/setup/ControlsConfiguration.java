@@ -40,6 +40,11 @@ public class ControlsConfiguration implements Saveable {
 	 * Key is the lowecase name of the joystick
 	 */
 	private Map<String, JoystickAssignments> joystickAssignments;
+	
+	/**
+	 * Rate that input devices are polled at (Hz); 0 polls them at the simulation's update rate
+	 */
+	private double pollRate;
 
 	public ControlsConfiguration() {}
 	
@@ -55,6 +60,10 @@ public class ControlsConfiguration implements Saveable {
 	public Map<String, JoystickAssignments> getJoystickAssignments() { return joystickAssignments; }
 
 	public void setJoystickAssignments(Map<String, JoystickAssignments> joystickAssignments) { this.joystickAssignments = joystickAssignments; }
+	
+	public double getPollRate() { return pollRate; }
+
+	public void setPollRate(double pollRate) { this.pollRate = pollRate < 0.0 ? 0.0 : pollRate; }
 
 	/**
 	 * Wrapper class to house axis, hat and button assignments for each controller connected to the computer
@@ -22,7 +22,7 @@ package com.chrisali.javaflightsim.simulation.setup;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
 
 /**
- * Contains user-defined {@link FlightControl} axis, dead zone and sensitivity settings for an axis assignment.
+ * Contains user-defined {@link FlightControl} axis, dead zone, sensitivity and rate limit settings for an axis assignment.
  * Used with {@link ControlsConfiguration} to populate a map of a list of axes for each joystick connected
  * 
  * @author Christopher
@@ -36,12 +36,15 @@ public class JoystickAxis {
 	
 	private double sensitivity;
 	
+	private double rateLimit;
+	
 	public JoystickAxis() { }
 	
 	public JoystickAxis(FlightControl axisAssignment) { 
 		this.axisAssignment = axisAssignment;
 		deadZone = 0.0;
 		sensitivity = 1.0;
+		rateLimit = 0.0;
 	}
 	
 	public JoystickAxis(FlightControl axisAssignment, double deadZone, double sensitivity) {
@@ -79,4 +82,14 @@ public class JoystickAxis {
 		this.sensitivity = sensitivity > 2.0 ? 2.0 : 
 						   sensitivity < 1.0 ? 1.0 : sensitivity; 
 	}
+
+	public double getRateLimit() { return rateLimit; }
+
+	/**
+	 * Sets the maximum rate that this axis' value can change per second, where the axis' full travel is 2.0; 0.0 means 
+	 * that this axis' rate is unlimited
+	 * 
+	 * @param rateLimit
+	 */
+	public void setRateLimit(double rateLimit) { this.rateLimit = rateLimit < 0.0 ? 0.0 : rateLimit; }
 }
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.setup;
+
+import java.util.EnumSet;
+
+import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataType;
+import com.chrisali.javaflightsim.simulation.datatransfer.TelemetryPublisher;
+import com.chrisali.javaflightsim.simulation.flightcontrols.NetworkControlInput;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+
+/**
+ * Contains fields used to configure the telemetry sent by {@link TelemetryPublisher} when running in network mode, and 
+ * the flight control commands received by {@link NetworkControlInput}. Telemetry frames are sent to a multicast group if 
+ * telemetryAddress is a multicast address, otherwise they are sent unicast 
+ */
+public class NetworkConfiguration {
+	
+	private String telemetryAddress;
+	
+	private int telemetryPort;
+	
+	// Send one frame every telemetryDecimation simulation steps
+	private int telemetryDecimation;
+	
+	private int multicastTimeToLive;
+	
+	// Name of the network interface to send multicast frames from; the system default is used if null
+	private String multicastInterface;
+	
+	private EnumSet<FlightDataType> flightDataChannels;
+	
+	private EnumSet<SimOuts> simOutChannels;
+	
+	private NetworkProtocol controlProtocol;
+	
+	// Address and port that flight control commands are received on
+	private String controlAddress;
+	
+	private int controlPort;
+	
+	// Commands applied more than this long after their command time are discarded
+	private int maxControlLatencyMS;
+	
+	/**
+	 * Default constructor, sending all flight data at the simulation rate to port 4950 of this machine. Flight control 
+	 * commands are not received unless controlProtocol is changed, in which case they are received on port 4951 of this machine 
+	 */
+	public NetworkConfiguration() {
+		telemetryAddress	= "127.0.0.1";
+		telemetryPort		= 4950;
+		telemetryDecimation = 1;
+		multicastTimeToLive = 1;
+		flightDataChannels	= EnumSet.allOf(FlightDataType.class);
+		simOutChannels		= EnumSet.noneOf(SimOuts.class);
+		controlProtocol		= NetworkProtocol.NONE;
+		controlAddress		= "127.0.0.1";
+		controlPort			= 4951;
+		maxControlLatencyMS = 100;
+	}
+
+	public String getTelemetryAddress() { return telemetryAddress; }
+
+	public void setTelemetryAddress(String telemetryAddress) { this.telemetryAddress = telemetryAddress; }
+
+	public int getTelemetryPort() { return telemetryPort; }
+
+	public void setTelemetryPort(int telemetryPort) { this.telemetryPort = telemetryPort; }
+
+	public int getTelemetryDecimation() { return telemetryDecimation; }
+
+	public void setTelemetryDecimation(int telemetryDecimation) { this.telemetryDecimation = telemetryDecimation; }
+
+	public int getMulticastTimeToLive() { return multicastTimeToLive; }
+
+	public void setMulticastTimeToLive(int multicastTimeToLive) { this.multicastTimeToLive = multicastTimeToLive; }
+
+	public String getMulticastInterface() { return multicastInterface; }
+
+	public void setMulticastInterface(String multicastInterface) { this.multicastInterface = multicastInterface; }
+
+	public EnumSet<FlightDataType> getFlightDataChannels() { return flightDataChannels; }
+
+	public void setFlightDataChannels(EnumSet<FlightDataType> flightDataChannels) { this.flightDataChannels = flightDataChannels; }
+
+	public EnumSet<SimOuts> getSimOutChannels() { return simOutChannels; }
+
+	public void setSimOutChannels(EnumSet<SimOuts> simOutChannels) { this.simOutChannels = simOutChannels; }
+
+	public NetworkProtocol getControlProtocol() { return controlProtocol; }
+
+	public void setControlProtocol(NetworkProtocol controlProtocol) { this.controlProtocol = controlProtocol; }
+
+	public String getControlAddress() { return controlAddress; }
+
+	public void setControlAddress(String controlAddress) { this.controlAddress = controlAddress; }
+
+	public int getControlPort() { return controlPort; }
+
+	public void setControlPort(int controlPort) { this.controlPort = controlPort; }
+
+	public int getMaxControlLatencyMS() { return maxControlLatencyMS; }
+
+	public void setMaxControlLatencyMS(int maxControlLatencyMS) { this.maxControlLatencyMS = maxControlLatencyMS; }
+}
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.setup;
+
+/**
+ * Provides Enums to select the transport used to receive flight control commands over the network:
+ * 
+ * <p>NONE - Flight control commands are not received over the network</p>
+ * <p>UDP - Each command frame is received as a datagram; frames arriving late or out of order are discarded</p>
+ * <p>TCP - Command frames are received back to back on a stream from one sender at a time</p>
+ */
+public enum NetworkProtocol {
+	NONE ("None"),
+	UDP  ("UDP"),
+	TCP  ("TCP");
+	
+	private String protocol;
+	
+	private NetworkProtocol(String protocol) {this.protocol = protocol;}
+	
+	public String toString() {return protocol;}
+}
@@ -19,10 +19,15 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.simulation.setup;
 
+import com.chrisali.javaflightsim.simulation.autopilot.Autopilot;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsRecorder;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsReplay;
 import com.chrisali.javaflightsim.simulation.inputdevices.Joystick;
+import com.chrisali.javaflightsim.simulation.instrumentation.SimulationMetrics;
 import com.chrisali.javaflightsim.simulation.inputdevices.Keyboard;
 import com.chrisali.javaflightsim.simulation.inputdevices.Mouse;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.traffic.TrafficEngine;
 
 /**
  * Provides Enums for the options EnumSet to provide the following options:
@@ -35,6 +40,13 @@ import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
  *	<p>CONSOLE_DISPLAY - Displays every piece of data in {@link Integrate6DOFEquations#getSimOut()} in the console for each step of integration</p>
  *	<p>USE_JOYSTICK - Uses JInput with a {@link Joystick} and {@link Keyboard} to allow pilot in the loop simulation</p>
  *	<p>USE_MOUSE - Uses JInput JInput with a {@link Mouse} and {@link Keyboard} to allow pilot in the loop simulation</p>
+ *	<p>RECORD_CONTROLS - Records flight controls each step of the simulation with a {@link FlightControlsRecorder}</p>
+ *	<p>REPLAY_CONTROLS - Replaces input devices or analysis inputs with flight controls recorded by RECORD_CONTROLS, using a {@link FlightControlsReplay};
+ *	combined with ANALYSIS_MODE, the recorded session is simulated again as fast as possible</p>
+ *	<p>INSTRUMENTATION - Records the latency of each step of the simulation, frame overruns and allocation rate with {@link SimulationMetrics}, 
+ *	exposed as JMX MBeans and summarized periodically in the log</p>
+ *	<p>AUTOPILOT - Engages an {@link Autopilot} with the gains and modes of the aircraft's AutopilotConfiguration.json when the simulation starts</p>
+ *	<p>AI_TRAFFIC - Simulates AI aircraft flying routes around the ownship with a {@link TrafficEngine}, configured by {@link TrafficConfiguration}</p>
  */
 public enum Options {
 	ANALYSIS_MODE     ("Analysis Mode"),
@@ -43,7 +55,12 @@ public enum Options {
 	RESET			  ("Reset"),
 	CONSOLE_DISPLAY	  ("Console Display"),
 	USE_JOYSTICK	  ("Use Joystick"),
-	USE_MOUSE		  ("Use Mouse");
+	USE_MOUSE		  ("Use Mouse"),
+	RECORD_CONTROLS	  ("Record Controls"),
+	REPLAY_CONTROLS	  ("Replay Controls"),
+	INSTRUMENTATION	  ("Instrumentation"),
+	AUTOPILOT		  ("Autopilot"),
+	AI_TRAFFIC		  ("AI Traffic");
 	
 	private String option;
 	
@@ -11,6 +11,7 @@ import org.apache.logging.log4j.Logger;
 
 import com.chrisali.javaflightsim.interfaces.Saveable;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.propulsion.EngineChannels;
 import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
 import com.chrisali.javaflightsim.simulation.utilities.SimDirectories;
 import com.chrisali.javaflightsim.simulation.utilities.SixDOFUtilities;
@@ -36,6 +37,12 @@ public class SimulationConfiguration implements Saveable {
 	private AudioConfiguration audioConfiguration;
 	
 	private CameraConfiguration cameraConfiguration;
+	
+	private NetworkConfiguration networkConfiguration;
+	
+	private TrafficConfiguration trafficConfiguration;
+	
+	private TerrainConfiguration terrainConfiguration;
 
 	public SimulationConfiguration() { }
 		
@@ -86,9 +93,55 @@ public class SimulationConfiguration implements Saveable {
 
 	public DisplayConfiguration getDisplayConfiguration() { return displayConfiguration; }
 
+	/**
+	 * @return network configuration; a default configuration is created if none was read from the configuration file
+	 */
+	public NetworkConfiguration getNetworkConfiguration() { 
+		if (networkConfiguration == null)
+			networkConfiguration = new NetworkConfiguration();
+		
+		return networkConfiguration; 
+	}
+
+	/**
+	 * @return traffic configuration; a default configuration is created if none was read from the configuration file
+	 */
+	public TrafficConfiguration getTrafficConfiguration() { 
+		if (trafficConfiguration == null)
+			trafficConfiguration = new TrafficConfiguration();
+		
+		return trafficConfiguration; 
+	}
+
+	/**
+	 * @return terrain configuration; a default configuration is created if none was read from the configuration file
+	 */
+	public TerrainConfiguration getTerrainConfiguration() { 
+		if (terrainConfiguration == null)
+			terrainConfiguration = new TerrainConfiguration();
+		
+		return terrainConfiguration; 
+	}
+
 	public EnumMap<FlightControl, Double> getInitialControls() { return initialControls; }
 
-	public void setInitialControls(EnumMap<FlightControl, Double> initialControls) { this.initialControls = initialControls; }
+	/**
+	 * Sets the initial controls map; throttle, propeller and mixture values missing for any engine (i.e. from configuration 
+	 * files written before more than four engines were supported) are copied from those of the first engine
+	 * 
+	 * @param initialControls
+	 */
+	public void setInitialControls(EnumMap<FlightControl, Double> initialControls) { 
+		if (initialControls != null) {
+			for (int i = 1; i < EngineChannels.MAX_ENGINES; i++) {
+				initialControls.putIfAbsent(EngineChannels.THROTTLE[i],  initialControls.getOrDefault(EngineChannels.THROTTLE[0], 0.0));
+				initialControls.putIfAbsent(EngineChannels.PROPELLER[i], initialControls.getOrDefault(EngineChannels.PROPELLER[0], 0.0));
+				initialControls.putIfAbsent(EngineChannels.MIXTURE[i],   initialControls.getOrDefault(EngineChannels.MIXTURE[0], 0.0));
+			}
+		}
+		
+		this.initialControls = initialControls; 
+	}
 		
 	public EnumMap<InitialConditions, Double> getInitialConditions() { return initialConditions; }
 	
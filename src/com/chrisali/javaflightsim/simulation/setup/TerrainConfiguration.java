@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.setup;
+
+import com.chrisali.javaflightsim.simulation.terrain.DemTerrain;
+import com.chrisali.javaflightsim.simulation.terrain.WorldTerrain;
+
+/**
+ * Contains fields used to configure the terrain that the simulation and out the window display share through {@link WorldTerrain}.
+ * By default the built in height map is used; if demDirectory is set, terrain is instead read from the SRTM .hgt elevation models
+ * in it by {@link DemTerrain}, around the initial latitude and longitude in {@link InitialConditions}
+ */
+public class TerrainConfiguration {
+	
+	// Directory of SRTM .hgt files; the built in height map is used if empty
+	private String demDirectory;
+	
+	// Grid points along each side of a terrain tile sampled from elevation models
+	private int tileVertexCount;
+	
+	// Maximum number of tiles sampled from elevation models kept in memory
+	private int cachedTiles;
+	
+	// Tiles within this many tiles of the ownship are shown in the out the window display 
+	private int pagingRadius;
+	
+	// Tiles out of range are unloaded from the out the window display once more than this are loaded
+	private int maxResidentTiles;
+	
+	// Generated tiles uploaded to OpenGL per frame of the out the window display, at most
+	private int uploadsPerFrame;
+	
+	// Levels of detail of each tile in the out the window display; each level draws a quarter as many triangles as the one before
+	private int lodLevels;
+	
+	// Largest error in pixels allowed on screen by the level of detail that a tile is drawn at
+	private double lodPixelError;
+	
+	/**
+	 * Default constructor, using the built in height map and showing tiles within 4 tiles of the ownship
+	 */
+	public TerrainConfiguration() {
+		demDirectory 	= "";
+		tileVertexCount = 256;
+		cachedTiles		= 64;
+		pagingRadius	= 4;
+		maxResidentTiles= 96;
+		uploadsPerFrame = 1;
+		lodLevels		= 5;
+		lodPixelError	= 4.0;
+	}
+
+	public String getDemDirectory() { return demDirectory; }
+
+	public void setDemDirectory(String demDirectory) { this.demDirectory = demDirectory; }
+
+	public int getTileVertexCount() { return tileVertexCount; }
+
+	public void setTileVertexCount(int tileVertexCount) { this.tileVertexCount = tileVertexCount; }
+
+	public int getCachedTiles() { return cachedTiles; }
+
+	public void setCachedTiles(int cachedTiles) { this.cachedTiles = cachedTiles; }
+
+	public int getPagingRadius() { return pagingRadius; }
+
+	public void setPagingRadius(int pagingRadius) { this.pagingRadius = pagingRadius; }
+
+	public int getMaxResidentTiles() { return maxResidentTiles; }
+
+	public void setMaxResidentTiles(int maxResidentTiles) { this.maxResidentTiles = maxResidentTiles; }
+
+	public int getUploadsPerFrame() { return uploadsPerFrame; }
+
+	public void setUploadsPerFrame(int uploadsPerFrame) { this.uploadsPerFrame = uploadsPerFrame; }
+
+	public int getLodLevels() { return lodLevels; }
+
+	public void setLodLevels(int lodLevels) { this.lodLevels = lodLevels; }
+
+	public double getLodPixelError() { return lodPixelError; }
+
+	public void setLodPixelError(double lodPixelError) { this.lodPixelError = lodPixelError; }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.setup;
+
+import com.chrisali.javaflightsim.simulation.traffic.TrafficEngine;
+import com.chrisali.javaflightsim.simulation.traffic.TrafficGenerator;
+
+/**
+ * Contains fields used to configure the AI traffic simulated by {@link TrafficEngine} when {@link Options#AI_TRAFFIC} is enabled.
+ * Traffic is generated by {@link TrafficGenerator} on random routes around the initial position of the ownship
+ */
+public class TrafficConfiguration {
+	
+	private int aircraftCount;
+	
+	// Radius around the ownship's initial position that routes are generated within (ft)
+	private double routeRadius;
+	
+	// Only traffic closer to the ownship than this is shown in the out the window display (ft)
+	private double drawDistance;
+	
+	private int updateRateHz;
+	
+	// Threads updating traffic; one per available processor if zero
+	private int workers;
+	
+	private long seed;
+	
+	/**
+	 * Default constructor, generating 1000 aircraft within 30 nautical miles, updated at 20 Hz
+	 */
+	public TrafficConfiguration() {
+		aircraftCount = 1000;
+		routeRadius   = 180000;
+		drawDistance  = 30000;
+		updateRateHz  = 20;
+		workers 	  = 0;
+		seed		  = 1;
+	}
+
+	public int getAircraftCount() { return aircraftCount; }
+
+	public void setAircraftCount(int aircraftCount) { this.aircraftCount = aircraftCount; }
+
+	public double getRouteRadius() { return routeRadius; }
+
+	public void setRouteRadius(double routeRadius) { this.routeRadius = routeRadius; }
+
+	public double getDrawDistance() { return drawDistance; }
+
+	public void setDrawDistance(double drawDistance) { this.drawDistance = drawDistance; }
+
+	public int getUpdateRateHz() { return updateRateHz; }
+
+	public void setUpdateRateHz(int updateRateHz) { this.updateRateHz = updateRateHz; }
+
+	public int getWorkers() { return workers; }
+
+	public void setWorkers(int workers) { this.workers = workers; }
+
+	public long getSeed() { return seed; }
+
+	public void setSeed(long seed) { this.seed = seed; }
+}
@@ -34,7 +34,9 @@ import com.chrisali.javaflightsim.simulation.aircraft.WingGeometry;
 import com.chrisali.javaflightsim.simulation.enviroment.Environment;
 import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsSnapshot;
 import com.chrisali.javaflightsim.simulation.propulsion.Engine;
+import com.chrisali.javaflightsim.simulation.propulsion.EngineChannels;
 import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
 
 /**
@@ -70,18 +72,21 @@ public class Trimming {
 	 * and 
 	 * <p> SimConfig/InitialControls.txt </p>
 	 * 
-	 * as long as the test mode boolean flag is false; otherwise the results will be displayed in the console
+	 * as long as the test mode boolean flag is false; otherwise the results will be displayed in the console. In either case the 
+	 * trim values are placed in configuration. Only one aircraft is trimmed at a time
 	 * 
 	 * @param configuration
 	 * @param testMode
 	 */
-	public static void trimSim(SimulationConfiguration configuration, boolean testMode) {
-		Aircraft aircraft = FileUtilities.readAircraftConfiguration(configuration.getSelectedAircraft());
+	public static synchronized void trimSim(SimulationConfiguration configuration, boolean testMode) {
+		aircraft = FileUtilities.readAircraftConfiguration(configuration.getSelectedAircraft());
 		aero = new Aerodynamics(aircraft);
 		
 		initialConditions = configuration.getInitialConditions();
 		initialControls = configuration.getInitialControls();
 		
+		FlightControlsSnapshot controls = new FlightControlsSnapshot(initialControls);
+		
 		environmentParams = Environment.getAndUpdateEnvironmentParams(new double[]{0,0,initialConditions.get(InitialConditions.INITD)});
 		
 		double alphaMin = -0.18, alphaMax = 0.18, throttleMin = 0.0, throttleMax = 1.0,
@@ -116,13 +121,13 @@ public class Trimming {
 			
 			double[] windParameters = new double[] {trueAirspeed, 0, alphaTrim};
 			
-			double CL_alpha = aero.calculateInterpStabDer(windParameters, initialControls, StabilityDerivatives.CL_ALPHA);
-			double CL_0 = aero.calculateInterpStabDer(windParameters, initialControls, StabilityDerivatives.CL_0);
+			double CL_alpha = aero.calculateInterpStabDer(windParameters, controls, StabilityDerivatives.CL_ALPHA);
+			double CL_0 = aero.calculateInterpStabDer(windParameters, controls, StabilityDerivatives.CL_0);
 			
 			lift = q * s * ((CL_alpha * alphaTrim) + CL_0);
 			
-			double CD_alpha = aero.calculateInterpStabDer(windParameters, initialControls, StabilityDerivatives.CD_ALPHA);
-			double CD_0 = aero.calculateInterpStabDer(windParameters, initialControls, StabilityDerivatives.CD_0);
+			double CD_alpha = aero.calculateInterpStabDer(windParameters, controls, StabilityDerivatives.CD_ALPHA);
+			double CD_0 = aero.calculateInterpStabDer(windParameters, controls, StabilityDerivatives.CD_0);
 			
 			drag = q * s * ((CD_alpha * alphaTrim) + CD_0);
 			
@@ -140,7 +145,7 @@ public class Trimming {
 			//==================================================== Elevator ========================================================
 			
 			// Calculate trim elevator, limiting if necessary
-			double CM_alpha = aero.calculateInterpStabDer(windParameters, initialControls, StabilityDerivatives.CM_ALPHA);
+			double CM_alpha = aero.calculateInterpStabDer(windParameters, controls, StabilityDerivatives.CM_ALPHA);
 			double CM_d_elev = aircraft.getStabilityDerivative(StabilityDerivatives.CM_D_ELEV).getValue();
 			double CM_0 = aircraft.getStabilityDerivative(StabilityDerivatives.CM_0).getValue();
 			
@@ -174,15 +179,15 @@ public class Trimming {
 				break;
 			}
 			
-			initialControls.put(FlightControl.THROTTLE_1, throttleTrim);
-			initialControls.put(FlightControl.THROTTLE_2, throttleTrim);
-			initialControls.put(FlightControl.THROTTLE_3, throttleTrim);
-			initialControls.put(FlightControl.THROTTLE_4, throttleTrim);
+			for (FlightControl throttle : EngineChannels.THROTTLE) {
+				initialControls.put(throttle, throttleTrim);
+				controls.set(throttle, throttleTrim);
+			}
 			
 			// Get total thrust, equate it with drag of aircraft to find trim throttle
 			totalThrust = 0.0;
 			for (Engine engine : engines) {
-				engine.updateEngineState(initialControls, environmentParams, new double[]{trueAirspeed,0,0});
+				engine.updateEngineState(controls, environmentParams, new double[]{trueAirspeed,0,0});
 				totalThrust += engine.getEngineThrust()[0];
 			}
 			
@@ -0,0 +1,439 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.spatial;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Loose uniform grid indexing items by their horizontal position, for range, k-nearest and swept sphere queries around points 
+ * in the world. Items are identified by integer ids chosen by the caller (i.e. the index of an aircraft in a traffic engine or 
+ * of an entity in a list), and each has a position and a radius; an item is stored in the single cell containing its centre, and 
+ * queries are widened by the largest radius indexed, so that items never need to be stored in more than one cell.<br>
+ * x and y are the horizontal axes that are divided into square cells of cellSize; z is the vertical axis, which is not divided.
+ * Cells are found in an open addressing hash table keyed by cell coordinates, so the grid is unbounded, and the items of each 
+ * cell are kept in a doubly linked list threaded through primitive arrays, so that moving an item to another cell 
+ * ({@link #update(int, double, double, double)}) takes constant time and allocates nothing.<br>
+ * This class is not thread safe; queries must not run concurrently with updates
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class SpatialIndex {
+	
+	private static final int NONE = -1;
+	
+	private static final long EMPTY_KEY = Long.MIN_VALUE;
+	
+	private final double cellSize;
+	
+	//====================== Items, indexed by id ============================
+	private double[] x;
+	private double[] y;
+	private double[] z;
+	private double[] radius;
+	private int[] cellOf;
+	private int[] next;
+	private int[] previous;
+	
+	private int size;
+	private double maxRadius;
+	
+	//===================== Cells, in a hash table ===========================
+	private long[] cellKeys;
+	private int[] cellHeads;
+	private int usedCells;
+	
+	// Scratch storage of k-nearest queries
+	private int[] nearestIds = new int[0];
+	private double[] nearestDistances = new double[0];
+	private int nearestCount;
+	
+	/**
+	 * @param cellSize horizontal size of each cell; queries are fastest when this is similar to the range of typical queries
+	 * @param capacity initial number of ids that can be indexed; grows as needed
+	 */
+	public SpatialIndex(double cellSize, int capacity) {
+		this.cellSize = cellSize;
+		
+		capacity = Math.max(capacity, 16);
+		x 		 = new double[capacity];
+		y 		 = new double[capacity];
+		z 		 = new double[capacity];
+		radius 	 = new double[capacity];
+		cellOf 	 = new int[capacity];
+		next 	 = new int[capacity];
+		previous = new int[capacity];
+		Arrays.fill(cellOf, NONE);
+		
+		cellKeys = new long[64];
+		cellHeads = new int[64];
+		Arrays.fill(cellKeys, EMPTY_KEY);
+	}
+	
+	//================================ Items ==================================
+	
+	/**
+	 * Indexes an item as a point
+	 * 
+	 * @param id
+	 * @param x
+	 * @param y
+	 * @param z
+	 */
+	public void insert(int id, double x, double y, double z) { insert(id, x, y, z, 0.0); }
+	
+	/**
+	 * Indexes an item as a sphere; if id is already indexed it is moved instead
+	 * 
+	 * @param id non-negative id of the item
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @param radius
+	 */
+	public void insert(int id, double x, double y, double z, double radius) {
+		if (id >= cellOf.length)
+			grow(Math.max(id + 1, cellOf.length * 2));
+		
+		if (cellOf[id] != NONE) {
+			this.radius[id] = radius;
+			maxRadius = Math.max(maxRadius, radius);
+			update(id, x, y, z);
+			return;
+		}
+		
+		this.x[id] = x;
+		this.y[id] = y;
+		this.z[id] = z;
+		this.radius[id] = radius;
+		maxRadius = Math.max(maxRadius, radius);
+		
+		link(id, cell(key(cellCoordinate(x), cellCoordinate(y)), true));
+		size++;
+	}
+	
+	/**
+	 * Moves an indexed item, only relinking it if it moves to another cell
+	 * 
+	 * @param id
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @throws IllegalArgumentException if id is not indexed
+	 */
+	public void update(int id, double x, double y, double z) {
+		if (!contains(id))
+			throw new IllegalArgumentException("Item " + id + " is not in spatial index");
+		
+		this.x[id] = x;
+		this.y[id] = y;
+		this.z[id] = z;
+		
+		long key = key(cellCoordinate(x), cellCoordinate(y));
+		if (cellKeys[cellOf[id]] == key)
+			return;
+		
+		unlink(id);
+		link(id, cell(key, true));
+	}
+	
+	/**
+	 * Removes an item from the index
+	 * 
+	 * @param id
+	 * @return if the item was indexed
+	 */
+	public boolean remove(int id) {
+		if (!contains(id))
+			return false;
+		
+		unlink(id);
+		cellOf[id] = NONE;
+		size--;
+		
+		return true;
+	}
+	
+	public boolean contains(int id) { return id >= 0 && id < cellOf.length && cellOf[id] != NONE; }
+	
+	/**
+	 * @return number of items indexed
+	 */
+	public int size() { return size; }
+	
+	public double getCellSize() { return cellSize; }
+	
+	public double getX(int id) { return x[id]; }
+	
+	public double getY(int id) { return y[id]; }
+	
+	public double getZ(int id) { return z[id]; }
+	
+	private void grow(int capacity) {
+		int oldCapacity = cellOf.length;
+		
+		x 		 = Arrays.copyOf(x, capacity);
+		y 		 = Arrays.copyOf(y, capacity);
+		z 		 = Arrays.copyOf(z, capacity);
+		radius 	 = Arrays.copyOf(radius, capacity);
+		cellOf 	 = Arrays.copyOf(cellOf, capacity);
+		next 	 = Arrays.copyOf(next, capacity);
+		previous = Arrays.copyOf(previous, capacity);
+		Arrays.fill(cellOf, oldCapacity, capacity, NONE);
+	}
+	
+	private void link(int id, int cell) {
+		int head = cellHeads[cell];
+		
+		cellOf[id] = cell;
+		previous[id] = NONE;
+		next[id] = head;
+		
+		if (head != NONE)
+			previous[head] = id;
+		
+		cellHeads[cell] = id;
+	}
+	
+	private void unlink(int id) {
+		if (previous[id] != NONE)
+			next[previous[id]] = next[id];
+		else
+			cellHeads[cellOf[id]] = next[id];
+		
+		if (next[id] != NONE)
+			previous[next[id]] = previous[id];
+	}
+	
+	//================================ Cells ==================================
+	
+	private int cellCoordinate(double position) { return (int) Math.floor(position / cellSize); }
+	
+	private static long key(int cellX, int cellY) { return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL); }
+	
+	private static int hash(long key, int mask) {
+		long mixed = key * 0x9E3779B97F4A7C15L;
+		
+		return (int) (mixed ^ (mixed >>> 32)) & mask;
+	}
+	
+	/**
+	 * Finds the slot of a cell in the hash table, adding the cell if create is true
+	 * 
+	 * @param key
+	 * @param create
+	 * @return slot of the cell, or NONE if the cell does not exist and create is false
+	 */
+	private int cell(long key, boolean create) {
+		int mask = cellKeys.length - 1;
+		
+		for (int slot = hash(key, mask); ; slot = (slot + 1) & mask) {
+			if (cellKeys[slot] == key)
+				return slot;
+			
+			if (cellKeys[slot] == EMPTY_KEY) {
+				if (!create)
+					return NONE;
+				
+				if ((usedCells + 1) * 2 > cellKeys.length) {
+					rehash();
+					return cell(key, true);
+				}
+				
+				cellKeys[slot] = key;
+				cellHeads[slot] = NONE;
+				usedCells++;
+				
+				return slot;
+			}
+		}
+	}
+	
+	/**
+	 * Rebuilds the hash table, dropping cells that have become empty and doubling its size if still over a quarter full 
+	 */
+	private void rehash() {
+		long[] oldKeys = cellKeys;
+		int[] oldHeads = cellHeads;
+		
+		int occupied = 0;
+		for (int slot = 0; slot < oldKeys.length; slot++) {
+			if (oldKeys[slot] != EMPTY_KEY && oldHeads[slot] != NONE)
+				occupied++;
+		}
+		
+		int length = oldKeys.length;
+		while (occupied * 4 > length)
+			length *= 2;
+		
+		cellKeys = new long[length];
+		cellHeads = new int[length];
+		Arrays.fill(cellKeys, EMPTY_KEY);
+		usedCells = 0;
+		
+		for (int slot = 0; slot < oldKeys.length; slot++) {
+			if (oldKeys[slot] == EMPTY_KEY || oldHeads[slot] == NONE)
+				continue;
+			
+			int newSlot = cell(oldKeys[slot], true);
+			cellHeads[newSlot] = oldHeads[slot];
+			
+			for (int id = oldHeads[slot]; id != NONE; id = next[id])
+				cellOf[id] = newSlot;
+		}
+	}
+	
+	//=============================== Queries =================================
+	
+	/**
+	 * Visits every item within range of a point, including items whose radius reaches within range
+	 * 
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @param range
+	 * @param visitor receives the id of each item found, in no particular order
+	 */
+	public void queryRange(double x, double y, double z, double range, IntConsumer visitor) {
+		querySegment(x, y, z, x, y, z, range, visitor);
+	}
+	
+	/**
+	 * Visits every item that a sphere of radius moving from (x0, y0, z0) to (x1, y1, z1) touches; i.e. items within radius 
+	 * of the segment
+	 * 
+	 * @param x0
+	 * @param y0
+	 * @param z0
+	 * @param x1
+	 * @param y1
+	 * @param z1
+	 * @param radius
+	 * @param visitor receives the id of each item found, in no particular order
+	 */
+	public void querySweptSphere(double x0, double y0, double z0, double x1, double y1, double z1, double radius, IntConsumer visitor) {
+		querySegment(x0, y0, z0, x1, y1, z1, radius, visitor);
+	}
+	
+	private void querySegment(double x0, double y0, double z0, double x1, double y1, double z1, double range, IntConsumer visitor) {
+		double reach = range + maxRadius;
+		
+		int minCellX = cellCoordinate(Math.min(x0, x1) - reach), maxCellX = cellCoordinate(Math.max(x0, x1) + reach);
+		int minCellY = cellCoordinate(Math.min(y0, y1) - reach), maxCellY = cellCoordinate(Math.max(y0, y1) + reach);
+		
+		double dx = x1 - x0, dy = y1 - y0, dz = z1 - z0;
+		double lengthSquared = dx * dx + dy * dy + dz * dz;
+		
+		// Large queries visit every cell rather than probe for cells that mostly do not exist
+		if ((long) (maxCellX - minCellX + 1) * (maxCellY - minCellY + 1) > cellKeys.length) {
+			for (int slot = 0; slot < cellKeys.length; slot++) {
+				if (cellKeys[slot] != EMPTY_KEY)
+					visitCell(cellHeads[slot], x0, y0, z0, dx, dy, dz, lengthSquared, range, visitor);
+			}
+			return;
+		}
+		
+		for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+			for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+				int slot = cell(key(cellX, cellY), false);
+				
+				if (slot != NONE)
+					visitCell(cellHeads[slot], x0, y0, z0, dx, dy, dz, lengthSquared, range, visitor);
+			}
+		}
+	}
+	
+	private void visitCell(int head, double x0, double y0, double z0, double dx, double dy, double dz, double lengthSquared, 
+						   double range, IntConsumer visitor) {
+		for (int id = head; id != NONE; id = next[id]) {
+			double px = x[id] - x0, py = y[id] - y0, pz = z[id] - z0;
+			
+			// Closest point on the segment to the item
+			double t = lengthSquared > 0 ? Math.max(0, Math.min(1, (px * dx + py * dy + pz * dz) / lengthSquared)) : 0;
+			double ex = px - t * dx, ey = py - t * dy, ez = pz - t * dz;
+			double reach = range + radius[id];
+			
+			if (ex * ex + ey * ey + ez * ez <= reach * reach)
+				visitor.accept(id);
+		}
+	}
+	
+	/**
+	 * Finds the k items nearest to a point, measured between the point and the centre of each item, searching outwards
+	 * from the point up to maxRange
+	 * 
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @param k
+	 * @param maxRange
+	 * @param ids receives the ids of the nearest items, nearest first; must hold at least k ids
+	 * @return number of items found, at most k
+	 */
+	public int queryNearest(double x, double y, double z, int k, double maxRange, int[] ids) {
+		if (k <= 0 || size == 0)
+			return 0;
+		
+		if (nearestIds.length < k) {
+			nearestIds = new int[k];
+			nearestDistances = new double[k];
+		}
+		
+		// Widen the search until k items are found within the searched range, so that no nearer item lies outside it
+		for (double range = Math.min(cellSize, maxRange); ; range = Math.min(range * 2, maxRange)) {
+			nearestCount = 0;
+			
+			final int limit = k;
+			queryRange(x, y, z, range, id -> offerNearest(id, this.x[id] - x, this.y[id] - y, this.z[id] - z, limit));
+			
+			boolean complete = nearestCount == k && nearestDistances[k - 1] <= range * range;
+			if (complete || range >= maxRange || nearestCount == size)
+				break;
+		}
+		
+		int found = 0;
+		for (int i = 0; i < nearestCount; i++) {
+			if (nearestDistances[i] <= maxRange * maxRange)
+				ids[found++] = nearestIds[i];
+		}
+		
+		return found;
+	}
+	
+	/**
+	 * Inserts an item into the sorted list of nearest items if nearer than the farthest of the k kept
+	 */
+	private void offerNearest(int id, double dx, double dy, double dz, int k) {
+		double distance = dx * dx + dy * dy + dz * dz;
+		
+		if (nearestCount == k && distance >= nearestDistances[k - 1])
+			return;
+		
+		int i = nearestCount < k ? nearestCount++ : k - 1;
+		for (; i > 0 && nearestDistances[i - 1] > distance; i--) {
+			nearestDistances[i] = nearestDistances[i - 1];
+			nearestIds[i] = nearestIds[i - 1];
+		}
+		
+		nearestDistances[i] = distance;
+		nearestIds[i] = id;
+	}
+}
@@ -0,0 +1,342 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.terrain;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.utilities.ThreadUtilities;
+
+/**
+ * Terrain read from a directory of SRTM .hgt digital elevation models ({@link ElevationGrid}), georeferenced so that the origin of
+ * the simulation's north/east position lies at {@link InitialConditions#INITLAT} and {@link InitialConditions#INITLON}.<br>
+ * Elevation files are memory mapped as they are first needed and stay mapped, so that regions of any size can be flown over 
+ * without reading them into the heap. The elevation models are sampled into tiles of the same layout as {@link HeightField}, in 
+ * feet with x north and z east, and the most recently used of these are kept in an LRU cache for height queries from the 
+ * simulation and for building the out the window terrain mesh. When a tile is first queried, the tiles around it are sampled on
+ * a background thread, so that the simulation rarely has to sample a tile itself as it crosses into the next one. Places that 
+ * no elevation file covers are at sea level.<br>
+ * Positions are converted to latitude and longitude on the plane tangent to the WGS84 ellipsoid at the origin, which is accurate 
+ * to well within a sample over the few hundred miles around it that a flight covers
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class DemTerrain implements HeightSource {
+	
+	private static final Logger logger = LogManager.getLogger(DemTerrain.class);
+	
+	private static final double FT_TO_M = 0.3048;
+	
+	// WGS84 Parameters
+	private static final double EQUATORIAL_RADIUS = 6378137; // m
+	private static final double ECCENTRICITY = 0.08181919;
+	
+	// Tiles around a queried tile that are prefetched; the cache must hold at least twice as many tiles for them to be prefetched, 
+	// so that prefetching never evicts the tiles in use
+	private static final int[][] NEIGHBOURS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+	
+	private final File directory;
+	private final double tileSize;
+	private final int vertexCount;
+	private final double gridSquareSize;
+	
+	private final double originLatitude;
+	private final double originLongitude;
+	private final double latitudePerFoot;
+	private final double longitudePerFoot;
+	
+	// Decoded tiles, least recently used first
+	private final Map<Long, float[]> tiles;
+	
+	// Elevation grids by latitude and longitude of their south west corners; null where there is no file
+	private final Map<Long, ElevationGrid> grids = new HashMap<>();
+	
+	// Tile found by the last query, which is checked before the cache as consecutive queries are usually in the same tile
+	private volatile CachedTile lastTile;
+	
+	// Samples tiles around those queried, or null if the cache is too small to hold them; tiles being sampled are in prefetching
+	private final ExecutorService prefetcher;
+	private final Set<Long> prefetching = ConcurrentHashMap.newKeySet();
+	
+	/**
+	 * @param directory directory containing .hgt files
+	 * @param originLatitude latitude of the origin of north/east positions (rad)
+	 * @param originLongitude longitude of the origin of north/east positions (rad)
+	 * @param tileSize horizontal size of each tile (ft)
+	 * @param vertexCount number of grid points along each side of a tile, including both edges
+	 * @param cachedTiles maximum number of decoded tiles kept in the heap
+	 */
+	public DemTerrain(File directory, double originLatitude, double originLongitude, double tileSize, int vertexCount, final int cachedTiles) {
+		if (!directory.isDirectory())
+			logger.warn("Elevation model directory " + directory.getPath() + " does not exist! Terrain will be at sea level");
+		
+		this.directory = directory;
+		this.tileSize = tileSize;
+		this.vertexCount = vertexCount;
+		this.gridSquareSize = tileSize / (vertexCount - 1);
+		
+		this.originLatitude = Math.toDegrees(originLatitude);
+		this.originLongitude = Math.toDegrees(originLongitude);
+		
+		// Radii of curvature at the origin in the north/south and east/west directions
+		double eSqSinSq = Math.pow(ECCENTRICITY * Math.sin(originLatitude), 2);
+		double meridianRadius = EQUATORIAL_RADIUS * (1 - ECCENTRICITY * ECCENTRICITY) / Math.pow(1 - eSqSinSq, 1.5);
+		double verticalRadius = EQUATORIAL_RADIUS / Math.sqrt(1 - eSqSinSq);
+		
+		latitudePerFoot = Math.toDegrees(FT_TO_M / meridianRadius);
+		longitudePerFoot = Math.toDegrees(FT_TO_M / (verticalRadius * Math.cos(originLatitude)));
+		
+		tiles = new LinkedHashMap<Long, float[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, float[]> eldest) { return size() > cachedTiles; }
+		};
+		
+		prefetcher = cachedTiles >= 2 * (NEIGHBOURS.length + 1) 
+				   ? Executors.newSingleThreadExecutor(ThreadUtilities.namedDaemonThreads("Elevation Model Prefetch")) : null;
+	}
+	
+	//================================= Tiles =================================
+	
+	/**
+	 * Returns the tile at tileX, tileZ from the cache, sampling it from the elevation models if it isn't there, and starts 
+	 * prefetching the tiles around it. Sampling happens outside of any lock, so that a thread building a tile doesn't hold up 
+	 * queries of tiles already in the cache
+	 * 
+	 * @return heights of the tile at tileX, tileZ (ft); never null
+	 */
+	@Override
+	public float[] getTile(int tileX, int tileZ) {
+		long key = HeightField.key(tileX, tileZ);
+		
+		CachedTile last = lastTile;
+		if (last != null && last.key == key)
+			return last.heights;
+		
+		float[] heights;
+		synchronized (tiles) {
+			heights = tiles.get(key);
+		}
+		
+		if (heights == null)
+			heights = cacheTile(key, tileX, tileZ);
+		
+		lastTile = new CachedTile(key, heights);
+		
+		if (prefetcher != null)
+			prefetchNeighbours(tileX, tileZ);
+		
+		return heights;
+	}
+	
+	/**
+	 * Samples a tile and adds it to the cache, unless another thread has already done so
+	 * 
+	 * @param key
+	 * @param tileX
+	 * @param tileZ
+	 * @return heights of the tile (ft)
+	 */
+	private float[] cacheTile(long key, int tileX, int tileZ) {
+		float[] sampled = sampleTile(tileX, tileZ);
+		
+		float[] heights;
+		synchronized (tiles) {
+			heights = tiles.putIfAbsent(key, sampled);
+		}
+		
+		return heights == null ? sampled : heights;
+	}
+	
+	/**
+	 * Starts sampling the tiles around tileX, tileZ that are neither cached nor already being sampled on the prefetch thread
+	 * 
+	 * @param tileX
+	 * @param tileZ
+	 */
+	private void prefetchNeighbours(int tileX, int tileZ) {
+		for (int[] offset : NEIGHBOURS) {
+			final int neighbourX = tileX + offset[0];
+			final int neighbourZ = tileZ + offset[1];
+			final long key = HeightField.key(neighbourX, neighbourZ);
+			
+			// containsKey doesn't mark the tile as used
+			synchronized (tiles) {
+				if (tiles.containsKey(key))
+					continue;
+			}
+			
+			if (!prefetching.add(key))
+				continue;
+			
+			prefetcher.execute(() -> {
+				try {
+					cacheTile(key, neighbourX, neighbourZ);
+				} catch (Exception e) {
+					logger.error("Error prefetching elevation tile " + neighbourX + ", " + neighbourZ + "!", e);
+				} finally {
+					prefetching.remove(key);
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Samples the elevation models at each grid point of a tile
+	 * 
+	 * @param tileX
+	 * @param tileZ
+	 * @return heights of the tile (ft)
+	 */
+	private float[] sampleTile(int tileX, int tileZ) {
+		float[] heights = new float[vertexCount * vertexCount];
+		
+		ElevationGrid grid = null;
+		long gridKey = Long.MIN_VALUE;
+		
+		for (int x = 0; x < vertexCount; x++) {
+			double latitude = originLatitude + (tileX * tileSize + x * gridSquareSize) * latitudePerFoot;
+			
+			for (int z = 0; z < vertexCount; z++) {
+				double longitude = originLongitude + (tileZ * tileSize + z * gridSquareSize) * longitudePerFoot;
+				
+				long key = HeightField.key((int) Math.floor(latitude), (int) Math.floor(longitude));
+				if (key != gridKey) {
+					grid = getGrid((int) Math.floor(latitude), (int) Math.floor(longitude));
+					gridKey = key;
+				}
+				
+				heights[x * vertexCount + z] = grid == null ? 0 : (float) (grid.getElevation(latitude, longitude) / FT_TO_M);
+			}
+		}
+		
+		return heights;
+	}
+	
+	/**
+	 * Memory maps the elevation grid whose south west corner is at latitude, longitude the first time that it is needed
+	 * 
+	 * @param latitude (deg)
+	 * @param longitude (deg)
+	 * @return elevation grid, or null if there is no file for it
+	 */
+	private ElevationGrid getGrid(int latitude, int longitude) {
+		long key = HeightField.key(latitude, longitude);
+		
+		synchronized (grids) {
+			if (grids.containsKey(key))
+				return grids.get(key);
+			
+			ElevationGrid grid = null;
+			File file = new File(directory, ElevationGrid.fileName(latitude, longitude));
+			if (file.exists()) {
+				try {
+					grid = new ElevationGrid(file);
+					logger.debug("Mapped elevation model: " + file.getPath());
+				} catch (IOException e) {
+					logger.error("Could not map elevation model: " + file.getPath() + "!", e);
+				}
+			}
+			grids.put(key, grid);
+			
+			return grid;
+		}
+	}
+	
+	/**
+	 * @param position x or z position (ft)
+	 * @return coordinate of the tile containing position along the same axis
+	 */
+	public int tileCoordinate(double position) { return (int) Math.floor(position / tileSize); }
+	
+	/**
+	 * @return number of tiles in the cache
+	 */
+	public int getCachedTileCount() { 
+		synchronized (tiles) {
+			return tiles.size();
+		}
+	}
+	
+	@Override
+	public double getTileSize() { return tileSize; }
+	
+	@Override
+	public int getVertexCount() { return vertexCount; }
+	
+	//================================ Queries ================================
+	
+	@Override
+	public double getHeight(double x, double z) {
+		int tileX = tileCoordinate(x);
+		int tileZ = tileCoordinate(z);
+		
+		return HeightField.interpolateHeight(getTile(tileX, tileZ), vertexCount, gridSquareSize, x - tileX * tileSize, z - tileZ * tileSize);
+	}
+	
+	@Override
+	public void getHeights(double[] x, double[] z, double[] heights, int count) {
+		for (int i = 0; i < count; i++)
+			heights[i] = getHeight(x[i], z[i]);
+	}
+	
+	@Override
+	public void getNormal(double x, double z, double[] normal) {
+		int tileX = tileCoordinate(x);
+		int tileZ = tileCoordinate(z);
+		
+		HeightField.surfaceNormal(getTile(tileX, tileZ), vertexCount, gridSquareSize, x - tileX * tileSize, z - tileZ * tileSize, normal);
+	}
+	
+	/**
+	 * Latitude and longitude of a position relative to the origin, using the same conversion that tiles are sampled with 
+	 * 
+	 * @param north (ft)
+	 * @param east (ft)
+	 * @param latLon array of at least 2 that the latitude and longitude are written to (deg)
+	 */
+	public void toLatLon(double north, double east, double[] latLon) {
+		latLon[0] = originLatitude + north * latitudePerFoot;
+		latLon[1] = originLongitude + east * longitudePerFoot;
+	}
+	
+	private static class CachedTile {
+		private final long key;
+		private final float[] heights;
+		
+		private CachedTile(long key, float[] heights) {
+			this.key = key;
+			this.heights = heights;
+		}
+	}
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.terrain;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Digital elevation model covering one degree of latitude by one degree of longitude, read from an SRTM .hgt file. These are 
+ * square grids of big endian signed 16 bit elevations in meters without any header, 1201 (3 arc second) or 3601 (1 arc second)
+ * samples per side, in rows from north to south; the file's name gives the latitude and longitude of its south west corner, 
+ * such as N40W075.hgt. Neighbouring files share their edge rows and columns.<br>
+ * The file is memory mapped rather than read, so that the operating system pages in only the parts of it that are used, and 
+ * none of it is held in the heap
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class ElevationGrid {
+	
+	public static final String EXTENSION = ".hgt";
+	
+	/** Value of samples where the elevation is unknown */
+	public static final short VOID = Short.MIN_VALUE;
+	
+	// Furthest that a VOID sample is filled from, in samples along its row and column
+	private static final int VOID_FILL_RADIUS = 32;
+	private static final int[] ROW_STEPS = {-1, 1, 0, 0};
+	private static final int[] COLUMN_STEPS = {0, 0, -1, 1};
+	
+	private static final Pattern NAME = Pattern.compile("([NS])(\\d{2})([EW])(\\d{3})\\" + EXTENSION, Pattern.CASE_INSENSITIVE);
+	
+	private final MappedByteBuffer samples;
+	private final int samplesPerSide;
+	private final int latitude;
+	private final int longitude;
+	
+	/**
+	 * Memory maps an SRTM .hgt file
+	 * 
+	 * @param file
+	 * @throws IOException if the file can't be mapped, or its name or size are not those of an SRTM .hgt file
+	 */
+	public ElevationGrid(File file) throws IOException {
+		Matcher matcher = NAME.matcher(file.getName());
+		if (!matcher.matches())
+			throw new IOException(file.getName() + " is not named like an SRTM tile, such as N40W075" + EXTENSION);
+		
+		latitude  = Integer.parseInt(matcher.group(2)) * (matcher.group(1).equalsIgnoreCase("S") ? -1 : 1);
+		longitude = Integer.parseInt(matcher.group(4)) * (matcher.group(3).equalsIgnoreCase("W") ? -1 : 1);
+		
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+			long size = channel.size();
+			samplesPerSide = (int) Math.round(Math.sqrt(size / 2.0));
+			
+			if (samplesPerSide < 2 || 2L * samplesPerSide * samplesPerSide != size)
+				throw new IOException(file.getName() + " is not a square grid of 16 bit samples");
+			
+			// The mapping stays valid after the channel is closed
+			samples = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+	}
+	
+	/**
+	 * Uses bilinear interpolation between the four samples around latitude, longitude to find the elevation there; 
+	 * {@link #VOID} samples are filled from the valid samples around them
+	 * 
+	 * @param latitude (deg), within this grid
+	 * @param longitude (deg), within this grid
+	 * @return elevation (m)
+	 */
+	public double getElevation(double latitude, double longitude) {
+		int last = samplesPerSide - 1;
+		double row = (this.latitude + 1 - latitude) * last;
+		double column = (longitude - this.longitude) * last;
+		
+		int row0 = Math.max(0, Math.min((int) Math.floor(row), last - 1));
+		int column0 = Math.max(0, Math.min((int) Math.floor(column), last - 1));
+		double rowFraction = Math.max(0, Math.min(row - row0, 1));
+		double columnFraction = Math.max(0, Math.min(column - column0, 1));
+		
+		double north = sample(row0, column0) * (1 - columnFraction) + sample(row0, column0 + 1) * columnFraction;
+		double south = sample(row0 + 1, column0) * (1 - columnFraction) + sample(row0 + 1, column0 + 1) * columnFraction;
+		
+		return north * (1 - rowFraction) + south * rowFraction;
+	}
+	
+	/**
+	 * @param row row from the north edge
+	 * @param column column from the west edge
+	 * @return elevation of the sample (m), filled from the samples around it if it is {@link #VOID}
+	 */
+	public int sample(int row, int column) {
+		short sample = samples.getShort((row * samplesPerSide + column) * 2);
+		
+		return sample == VOID ? fillVoid(row, column) : sample;
+	}
+	
+	/**
+	 * Fills a {@link #VOID} sample by inverse distance weighting of the nearest valid samples north, south, west and east of it, 
+	 * within VOID_FILL_RADIUS samples; voids with none around them, such as those over open water, are at sea level
+	 * 
+	 * @param row
+	 * @param column
+	 * @return elevation of the sample (m)
+	 */
+	private int fillVoid(int row, int column) {
+		double weightedSum = 0, weights = 0;
+		
+		for (int direction = 0; direction < ROW_STEPS.length; direction++) {
+			for (int distance = 1; distance <= VOID_FILL_RADIUS; distance++) {
+				int r = row + ROW_STEPS[direction] * distance;
+				int c = column + COLUMN_STEPS[direction] * distance;
+				
+				if (r < 0 || c < 0 || r >= samplesPerSide || c >= samplesPerSide)
+					break;
+				
+				short sample = samples.getShort((r * samplesPerSide + c) * 2);
+				if (sample != VOID) {
+					weightedSum += sample / (double) distance;
+					weights += 1.0 / distance;
+					break;
+				}
+			}
+		}
+		
+		return weights == 0 ? 0 : (int) Math.round(weightedSum / weights);
+	}
+	
+	/**
+	 * @param latitude (deg)
+	 * @param longitude (deg)
+	 * @return if latitude, longitude lies within this grid
+	 */
+	public boolean contains(double latitude, double longitude) {
+		return latitude >= this.latitude && latitude <= this.latitude + 1 && longitude >= this.longitude && longitude <= this.longitude + 1;
+	}
+	
+	/**
+	 * @param latitude of the south edge of a grid (deg)
+	 * @param longitude of the west edge of a grid (deg)
+	 * @return name of that grid's .hgt file
+	 */
+	public static String fileName(int latitude, int longitude) {
+		return String.format("%s%02d%s%03d%s", latitude < 0 ? "S" : "N", Math.abs(latitude), 
+							 longitude < 0 ? "W" : "E", Math.abs(longitude), EXTENSION);
+	}
+	
+	/**
+	 * @return latitude of the south edge of this grid (deg)
+	 */
+	public int getLatitude() { return latitude; }
+	
+	/**
+	 * @return longitude of the west edge of this grid (deg)
+	 */
+	public int getLongitude() { return longitude; }
+	
+	public int getSamplesPerSide() { return samplesPerSide; }
+}
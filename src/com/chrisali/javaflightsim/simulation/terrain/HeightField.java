@@ -0,0 +1,326 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.terrain;
+
+import java.util.Arrays;
+
+import com.chrisali.javaflightsim.simulation.AnalysisSimulation;
+
+/**
+ * Terrain height field that can be queried without any out the window display running, so that the simulation finds the ground 
+ * in analysis mode, in network mode and in batches of {@link AnalysisSimulation} just as it does when rendering.<br>
+ * The world is divided into square tiles of tileSize on the horizontal x and z axes, each holding a grid of vertexCount by 
+ * vertexCount heights in a flat float array, as described in {@link HeightSource}. Outside of any tile the terrain height is zero.<br>
+ * Tiles are found in an open addressing hash table keyed by integer tile coordinates. The table is copied whenever tiles are put 
+ * or removed, which is rare, so that queries take no locks, allocate nothing and can run on any number of threads at once
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class HeightField implements HeightSource {
+	
+	private static final long EMPTY_KEY = Long.MIN_VALUE;
+	
+	private final double tileSize;
+	private final int vertexCount;
+	private final double gridSquareSize;
+	
+	private volatile TileTable tiles = new TileTable(new long[0], new float[0][]);
+	
+	/**
+	 * @param tileSize horizontal size of each tile
+	 * @param vertexCount number of grid points along each side of a tile, including both edges
+	 */
+	public HeightField(double tileSize, int vertexCount) {
+		if (vertexCount < 2)
+			throw new IllegalArgumentException("A tile needs at least two vertices per side, not " + vertexCount);
+		
+		this.tileSize = tileSize;
+		this.vertexCount = vertexCount;
+		this.gridSquareSize = tileSize / (vertexCount - 1);
+	}
+	
+	//================================= Tiles =================================
+	
+	/**
+	 * Adds a tile to the height field, replacing any tile already at tileX, tileZ. The heights array is not copied, and can be 
+	 * shared between tiles, but must not be changed afterwards
+	 * 
+	 * @param tileX
+	 * @param tileZ
+	 * @param heights vertexCount * vertexCount heights, indexed [xIndex * vertexCount + zIndex]
+	 */
+	public synchronized void putTile(int tileX, int tileZ, float[] heights) {
+		if (heights.length != vertexCount * vertexCount)
+			throw new IllegalArgumentException("Expected " + (vertexCount * vertexCount) + " heights, got " + heights.length);
+		
+		long key = key(tileX, tileZ);
+		TileTable table = tiles;
+		
+		long[] keys = Arrays.copyOf(table.keys, table.keys.length + 1);
+		float[][] heightArrays = Arrays.copyOf(table.heights, table.heights.length + 1);
+		int count = 0;
+		for (int i = 0; i < table.keys.length; i++) {
+			if (table.keys[i] != key) {
+				keys[count] = table.keys[i];
+				heightArrays[count++] = table.heights[i];
+			}
+		}
+		keys[count] = key;
+		heightArrays[count++] = heights;
+		
+		tiles = new TileTable(Arrays.copyOf(keys, count), Arrays.copyOf(heightArrays, count));
+	}
+	
+	/**
+	 * Removes the tile at tileX, tileZ from the height field
+	 * 
+	 * @param tileX
+	 * @param tileZ
+	 * @return if there was a tile to remove
+	 */
+	public synchronized boolean removeTile(int tileX, int tileZ) {
+		long key = key(tileX, tileZ);
+		TileTable table = tiles;
+		
+		long[] keys = new long[table.keys.length];
+		float[][] heightArrays = new float[table.heights.length][];
+		int count = 0;
+		for (int i = 0; i < table.keys.length; i++) {
+			if (table.keys[i] != key) {
+				keys[count] = table.keys[i];
+				heightArrays[count++] = table.heights[i];
+			}
+		}
+		
+		if (count == table.keys.length)
+			return false;
+		
+		tiles = new TileTable(Arrays.copyOf(keys, count), Arrays.copyOf(heightArrays, count));
+		
+		return true;
+	}
+	
+	/**
+	 * @param tileX
+	 * @param tileZ
+	 * @return heights of the tile at tileX, tileZ, indexed [xIndex * vertexCount + zIndex], or null if there is no tile there
+	 */
+	@Override
+	public float[] getTile(int tileX, int tileZ) { return tiles.get(key(tileX, tileZ)); }
+	
+	public boolean hasTile(int tileX, int tileZ) { return getTile(tileX, tileZ) != null; }
+	
+	/**
+	 * @return number of tiles in the height field
+	 */
+	public int getTileCount() { return tiles.keys.length; }
+	
+	/**
+	 * @param position x or z position
+	 * @return coordinate of the tile containing position along the same axis
+	 */
+	public int tileCoordinate(double position) { return (int) Math.floor(position / tileSize); }
+	
+	@Override
+	public double getTileSize() { return tileSize; }
+	
+	@Override
+	public int getVertexCount() { return vertexCount; }
+	
+	//================================ Queries ================================
+	
+	/**
+	 * @return height of the terrain at x, z, or zero outside of all tiles
+	 */
+	@Override
+	public double getHeight(double x, double z) {
+		int tileX = tileCoordinate(x);
+		int tileZ = tileCoordinate(z);
+		float[] tile = tiles.get(key(tileX, tileZ));
+		
+		return tile == null ? 0 : interpolateHeight(tile, vertexCount, gridSquareSize, x - tileX * tileSize, z - tileZ * tileSize);
+	}
+	
+	/**
+	 * Points that fall in the same tile as the one before them skip the tile lookup, so grouping points by position makes this 
+	 * faster than calling {@link #getHeight(double, double)} for each
+	 */
+	@Override
+	public void getHeights(double[] x, double[] z, double[] heights, int count) {
+		TileTable table = tiles;
+		long lastKey = EMPTY_KEY;
+		float[] tile = null;
+		
+		for (int i = 0; i < count; i++) {
+			int tileX = tileCoordinate(x[i]);
+			int tileZ = tileCoordinate(z[i]);
+			long key = key(tileX, tileZ);
+			
+			if (key != lastKey) {
+				tile = table.get(key);
+				lastKey = key;
+			}
+			
+			heights[i] = tile == null ? 0 : interpolateHeight(tile, vertexCount, gridSquareSize, x[i] - tileX * tileSize, z[i] - tileZ * tileSize);
+		}
+	}
+	
+	/**
+	 * The normal is that of the triangle of the terrain mesh that x, z lies on, and points straight up outside of all tiles
+	 */
+	@Override
+	public void getNormal(double x, double z, double[] normal) {
+		int tileX = tileCoordinate(x);
+		int tileZ = tileCoordinate(z);
+		
+		surfaceNormal(tiles.get(key(tileX, tileZ)), vertexCount, gridSquareSize, x - tileX * tileSize, z - tileZ * tileSize, normal);
+	}
+	
+	/**
+	 * Uses barycentric interpolation over the triangle of the grid square that localX, localZ lies in to find the height of
+	 * the terrain; the square is split from its (1, 0) corner to its (0, 1) corner, as the terrain mesh is
+	 * 
+	 * @param tile heights of a tile, indexed [xIndex * vertexCount + zIndex]
+	 * @param vertexCount
+	 * @param gridSquareSize
+	 * @param localX x position relative to the tile's origin
+	 * @param localZ z position relative to the tile's origin
+	 * @return terrain height
+	 */
+	public static double interpolateHeight(float[] tile, int vertexCount, double gridSquareSize, double localX, double localZ) {
+		localX /= gridSquareSize;
+		localZ /= gridSquareSize;
+		int gridX = gridIndex(localX, vertexCount);
+		int gridZ = gridIndex(localZ, vertexCount);
+		double xCoord = localX - gridX;
+		double zCoord = localZ - gridZ;
+		
+		int index = gridX * vertexCount + gridZ;
+		double h10 = tile[index + vertexCount];
+		double h01 = tile[index + 1];
+		
+		if (xCoord <= 1 - zCoord) {
+			double h00 = tile[index];
+			return h00 + xCoord * (h10 - h00) + zCoord * (h01 - h00);
+		} else {
+			double h11 = tile[index + vertexCount + 1];
+			return h11 + (1 - xCoord) * (h01 - h11) + (1 - zCoord) * (h10 - h11);
+		}
+	}
+	
+	/**
+	 * Finds the unit normal of the triangle of the grid square that localX, localZ lies in
+	 * 
+	 * @param tile heights of a tile, indexed [xIndex * vertexCount + zIndex], or null for a flat tile
+	 * @param vertexCount
+	 * @param gridSquareSize
+	 * @param localX x position relative to the tile's origin
+	 * @param localZ z position relative to the tile's origin
+	 * @param normal array of at least 3 that the x, up and z components of the normal are written to
+	 */
+	static void surfaceNormal(float[] tile, int vertexCount, double gridSquareSize, double localX, double localZ, double[] normal) {
+		double slopeX = 0, slopeZ = 0;
+		if (tile != null) {
+			localX /= gridSquareSize;
+			localZ /= gridSquareSize;
+			int gridX = gridIndex(localX, vertexCount);
+			int gridZ = gridIndex(localZ, vertexCount);
+			double xCoord = localX - gridX;
+			double zCoord = localZ - gridZ;
+			
+			int index = gridX * vertexCount + gridZ;
+			double h00 = tile[index];
+			double h10 = tile[index + vertexCount];
+			double h01 = tile[index + 1];
+			double h11 = tile[index + vertexCount + 1];
+			
+			if (xCoord <= 1 - zCoord) {
+				slopeX = (h10 - h00) / gridSquareSize;
+				slopeZ = (h01 - h00) / gridSquareSize;
+			} else {
+				slopeX = (h11 - h01) / gridSquareSize;
+				slopeZ = (h11 - h10) / gridSquareSize;
+			}
+		}
+		
+		double length = Math.sqrt(slopeX * slopeX + 1 + slopeZ * slopeZ);
+		normal[0] = -slopeX / length;
+		normal[1] = 1 / length;
+		normal[2] = -slopeZ / length;
+	}
+	
+	/**
+	 * @param local position relative to the tile's origin in grid squares
+	 * @param vertexCount
+	 * @return index of the grid square containing local, kept within the tile where rounding puts local on its far edge
+	 */
+	private static int gridIndex(double local, int vertexCount) { return Math.max(0, Math.min((int) local, vertexCount - 2)); }
+	
+	static long key(int tileX, int tileZ) { return ((long) tileX << 32) | (tileZ & 0xFFFFFFFFL); }
+	
+	private static int hash(long key, int mask) {
+		long mixed = key * 0x9E3779B97F4A7C15L;
+		
+		return (int) (mixed ^ (mixed >>> 32)) & mask;
+	}
+	
+	/**
+	 * Immutable hash table of tiles, kept at most half full
+	 */
+	private static class TileTable {
+		
+		private final long[] keys;
+		private final float[][] heights;
+		
+		private final long[] slotKeys;
+		private final float[][] slotHeights;
+		
+		private TileTable(long[] keys, float[][] heights) {
+			this.keys = keys;
+			this.heights = heights;
+			
+			int slots = Integer.highestOneBit(Math.max(keys.length, 1) * 4 - 1);
+			slotKeys = new long[slots];
+			slotHeights = new float[slots][];
+			Arrays.fill(slotKeys, EMPTY_KEY);
+			
+			int mask = slots - 1;
+			for (int i = 0; i < keys.length; i++) {
+				int slot = hash(keys[i], mask);
+				while (slotKeys[slot] != EMPTY_KEY)
+					slot = (slot + 1) & mask;
+				
+				slotKeys[slot] = keys[i];
+				slotHeights[slot] = heights[i];
+			}
+		}
+		
+		private float[] get(long key) {
+			int mask = slotKeys.length - 1;
+			for (int slot = hash(key, mask); ; slot = (slot + 1) & mask) {
+				if (slotKeys[slot] == key)
+					return slotHeights[slot];
+				if (slotKeys[slot] == EMPTY_KEY)
+					return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.terrain;
+
+/**
+ * Source of terrain heights divided into square tiles on the horizontal x and z axes, each a grid of vertexCount by vertexCount 
+ * heights indexed [xIndex * vertexCount + zIndex]. Heights between grid points are interpolated over the two triangles per grid 
+ * square that the out the window terrain mesh is drawn with, so that the simulation and the mesh built from 
+ * {@link #getTile(int, int)} agree on where the ground is. Implementations must allow queries from any thread
+ * 
+ * @author Christopher Ali
+ *
+ */
+public interface HeightSource {
+	
+	/**
+	 * @param x
+	 * @param z
+	 * @return height of the terrain at x, z
+	 */
+	double getHeight(double x, double z);
+	
+	/**
+	 * Finds the terrain heights under count points at once, such as the contact points of an aircraft's landing gear or a number
+	 * of aircraft
+	 * 
+	 * @param x x positions of the points
+	 * @param z z positions of the points
+	 * @param heights array that the height of the terrain at each point is written to
+	 * @param count number of points
+	 */
+	void getHeights(double[] x, double[] z, double[] heights, int count);
+	
+	/**
+	 * Finds the unit normal of the terrain surface at x, z
+	 * 
+	 * @param x
+	 * @param z
+	 * @param normal array of at least 3 that the x, up and z components of the normal are written to
+	 */
+	void getNormal(double x, double z, double[] normal);
+	
+	/**
+	 * @param tileX
+	 * @param tileZ
+	 * @return heights of the tile at tileX, tileZ, indexed [xIndex * vertexCount + zIndex], or null if there is no tile there; 
+	 * must not be changed
+	 */
+	float[] getTile(int tileX, int tileZ);
+	
+	/**
+	 * @return horizontal size of each tile
+	 */
+	double getTileSize();
+	
+	/**
+	 * @return number of grid points along each side of a tile, including both edges
+	 */
+	int getVertexCount();
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.terrain;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.TerrainConfiguration;
+import com.chrisali.javaflightsim.simulation.utilities.SimDirectories;
+import com.chrisali.javaflightsim.simulation.utilities.SimFiles;
+
+/**
+ * Provides the terrain of the world that the simulation flies over and that the out the window display draws, in feet, with x 
+ * north and z east, matching the simulation's NED position; the out the window display draws the world at 1/{@link #OTW_SCALE} 
+ * of this scale. This is either a {@link HeightField} decoded from the built in height map, or {@link DemTerrain} read from 
+ * elevation models, depending on the {@link TerrainConfiguration}.<br>
+ * Terrain is built once for each configuration and then shared by every simulation in the process
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class WorldTerrain {
+	
+	private static final Logger logger = LogManager.getLogger(WorldTerrain.class);
+	
+	/** Feet per unit of distance in the out the window display */
+	public static final double OTW_SCALE = 15;
+	
+	/** Size of each terrain tile (ft) */
+	public static final double TILE_SIZE = 1600 * OTW_SCALE;
+	
+	/** Height of the terrain where its height map is white; black is the negative of this (ft) */
+	public static final double MAX_HEIGHT = 20 * OTW_SCALE;
+	
+	/** Number of tiles along each side of the world, which is centred on the origin */
+	public static final int TILES_PER_SIDE = 10;
+	
+	private static final double MAX_PIXEL_COLOR = 256 * 256 * 256;
+	
+	private static HeightField heightField;
+	
+	private static Map<String, DemTerrain> demTerrains = new HashMap<>();
+	
+	private WorldTerrain() {}
+	
+	/**
+	 * @param configuration
+	 * @return terrain set up by the terrain configuration in configuration (ft)
+	 */
+	public static synchronized HeightSource getTerrain(SimulationConfiguration configuration) {
+		TerrainConfiguration terrainConfiguration = configuration.getTerrainConfiguration();
+		String demDirectory = terrainConfiguration.getDemDirectory();
+		
+		if (demDirectory == null || demDirectory.isEmpty())
+			return getHeightField();
+		
+		double latitude = configuration.getInitialConditions().get(InitialConditions.INITLAT);
+		double longitude = configuration.getInitialConditions().get(InitialConditions.INITLON);
+		String key = demDirectory + "," + latitude + "," + longitude + "," 
+				   + terrainConfiguration.getTileVertexCount() + "," + terrainConfiguration.getCachedTiles();
+		
+		DemTerrain demTerrain = demTerrains.get(key);
+		if (demTerrain == null) {
+			logger.debug("Reading terrain from elevation models in: " + demDirectory + "...");
+			
+			demTerrain = new DemTerrain(new File(demDirectory), latitude, longitude, TILE_SIZE, 
+										terrainConfiguration.getTileVertexCount(), terrainConfiguration.getCachedTiles());
+			demTerrains.put(key, demTerrain);
+		}
+		
+		return demTerrain;
+	}
+	
+	/**
+	 * Decodes the world's height map the first time that it is called; if it can't be read, the world is left flat at zero feet 
+	 * 
+	 * @return height field of the world (ft)
+	 */
+	public static synchronized HeightField getHeightField() {
+		if (heightField == null) {
+			File file = new File(SimDirectories.TERRAIN.toString(), SimFiles.HEIGHT_MAP.toString() + SimFiles.HEIGHT_MAP_EXT.toString());
+			
+			logger.debug("Reading height map: " + file.getPath() + "...");
+			
+			try {
+				heightField = readHeightMap(file, TILES_PER_SIDE, TILE_SIZE, MAX_HEIGHT);
+			} catch (IOException | IllegalArgumentException e) {
+				logger.error("Could not read height map: " + file.getPath() + "! Terrain will be flat", e);
+				heightField = new HeightField(TILE_SIZE, 2);
+			}
+		}
+		
+		return heightField;
+	}
+	
+	/**
+	 * Creates a height field of tilesPerSide by tilesPerSide tiles centred on the origin, each with the heights of the same
+	 * height map image 
+	 * 
+	 * @param file square height map image
+	 * @param tilesPerSide
+	 * @param tileSize
+	 * @param maxHeight height where the image is white
+	 * @return height field
+	 * @throws IOException if the image can't be read
+	 */
+	public static HeightField readHeightMap(File file, int tilesPerSide, double tileSize, double maxHeight) throws IOException {
+		BufferedImage image = ImageIO.read(file);
+		if (image == null)
+			throw new IOException("No image reader for " + file.getName());
+		
+		float[] heights = decodeHeightMap(image, maxHeight);
+		HeightField heightField = new HeightField(tileSize, image.getHeight());
+		
+		int median = tilesPerSide / 2;
+		for (int i = -median; i < tilesPerSide - median; i++) {
+			for (int j = -median; j < tilesPerSide - median; j++)
+				heightField.putTile(i, j, heights);
+		}
+		
+		return heightField;
+	}
+	
+	/**
+	 * Converts each pixel of a square height map image from black/white to -/+maxHeight
+	 * 
+	 * @param image
+	 * @param maxHeight
+	 * @return heights of the image, indexed [x * size + y] to match {@link HeightField}
+	 */
+	public static float[] decodeHeightMap(BufferedImage image, double maxHeight) {
+		int size = image.getHeight();
+		if (image.getWidth() != size)
+			throw new IllegalArgumentException("Height map must be square, but is " + image.getWidth() + " by " + size);
+		
+		int[] pixels = image.getRGB(0, 0, size, size, null, 0, size);
+		float[] heights = new float[size * size];
+		
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++)
+				heights[x * size + y] = (float) ((pixels[y * size + x] + MAX_PIXEL_COLOR/2) / (MAX_PIXEL_COLOR/2) * maxHeight);
+		}
+		
+		return heights;
+	}
+}
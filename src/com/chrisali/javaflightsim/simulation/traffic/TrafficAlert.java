@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.traffic;
+
+/**
+ * Immutable alert raised by {@link TrafficAlertService} for an AI aircraft near the ownship
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TrafficAlert {
+	
+	private final int id;
+	private final TrafficAlertLevel level;
+	private final double range;
+	private final double bearing;
+	private final double relativeAltitude;
+	private final double tau;
+	
+	TrafficAlert(int id, TrafficAlertLevel level, double range, double bearing, double relativeAltitude, double tau) {
+		this.id = id;
+		this.level = level;
+		this.range = range;
+		this.bearing = bearing;
+		this.relativeAltitude = relativeAltitude;
+		this.tau = tau;
+	}
+	
+	/**
+	 * @return index of the intruding aircraft in {@link TrafficEngine}
+	 */
+	public int getId() { return id; }
+	
+	public TrafficAlertLevel getLevel() { return level; }
+	
+	/**
+	 * @return horizontal distance to the intruder (ft)
+	 */
+	public double getRange() { return range; }
+	
+	/**
+	 * @return true bearing of the intruder from the ownship (deg)
+	 */
+	public double getBearing() { return bearing; }
+	
+	/**
+	 * @return altitude of the intruder above the ownship (ft)
+	 */
+	public double getRelativeAltitude() { return relativeAltitude; }
+	
+	/**
+	 * @return time until the intruder is within the horizontal protected distance of the ownship, zero if already within it, or
+	 * infinite if diverging (sec)
+	 */
+	public double getTau() { return tau; }
+	
+	/**
+	 * @return sense of the manoeuvre resolving a {@link TrafficAlertLevel#RESOLUTION_ADVISORY}; away from the intruder
+	 */
+	public String getResolution() { return relativeAltitude > 0 ? "Descend" : "Climb"; }
+	
+	@Override
+	public String toString() {
+		return level + ": " + String.format("%.1f nm at %03.0f deg, %+.0f ft", range / TrafficAlertService.FT_PER_NM, bearing, relativeAltitude)
+				+ (level == TrafficAlertLevel.RESOLUTION_ADVISORY ? ", " + getResolution() : "");
+	}
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.traffic;
+
+/**
+ * Levels of {@link TrafficAlert} raised by {@link TrafficAlertService}, in increasing order of severity, following those of TCAS II
+ * 
+ * @author Christopher Ali
+ *
+ */
+public enum TrafficAlertLevel {
+	PROXIMATE 			 ("Proximate Traffic"),
+	TRAFFIC_ADVISORY 	 ("Traffic Advisory"),
+	RESOLUTION_ADVISORY  ("Resolution Advisory");
+	
+	private final String level;
+	
+	TrafficAlertLevel(String level) {
+		this.level = level;
+	}
+	
+	@Override
+	public String toString() { return level; }
+}
@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.traffic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.interfaces.Steppable;
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.spatial.SpatialIndex;
+
+/**
+ * TCAS-style conflict detection between the ownship and the AI aircraft of a {@link TrafficEngine}. Each step, the position and 
+ * velocity of the ownship are read from the simulation and passed to the traffic engine as its observer; after each traffic 
+ * update, nearby aircraft are found in the engine's {@link SpatialIndex} and classified as proximate traffic, traffic advisories
+ * or resolution advisories using the range and altitude tests of TCAS II: an intruder raises an advisory if it is, or within tau 
+ * seconds will be, inside the protected horizontal distance (DMOD) and vertical distance (ZTHR) of the ownship.<br> 
+ * Candidates for advisories are found with a swept sphere query along the ownship's path over the traffic advisory look ahead time, 
+ * whose radius covers the distance the fastest aircraft can fly in that time, so that no aircraft able to close within DMOD is 
+ * missed; proximate traffic is found with a range query
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TrafficAlertService implements TrafficUpdateListener, Steppable {
+	
+	private static final Logger logger = LogManager.getLogger(TrafficAlertService.class);
+	
+	public static final double FT_PER_NM = 6076.12;
+	
+	// Thresholds of TCAS II sensitivity level 5 (5000 to 10000 ft)
+	private static final double TA_TAU = 40.0;
+	private static final double TA_DMOD = 0.55 * FT_PER_NM;
+	private static final double TA_ZTHR = 850.0;
+	
+	private static final double RA_TAU = 25.0;
+	private static final double RA_DMOD = 0.40 * FT_PER_NM;
+	private static final double RA_ZTHR = 600.0;
+	
+	private static final double PROXIMATE_RANGE = 6.0 * FT_PER_NM;
+	private static final double PROXIMATE_ALTITUDE = 1200.0;
+	
+	// ALT_DOT is logged in ft/min
+	private static final double ALT_DOT_TO_FT_SEC = 1.0 / 60.0;
+	
+	private static final Comparator<TrafficAlert> MOST_SEVERE_FIRST = 
+			Comparator.comparing(TrafficAlert::getLevel).reversed().thenComparingDouble(TrafficAlert::getRange);
+	
+	private final Integrate6DOFEquations simulation;
+	private final TrafficEngine traffic;
+	
+	// North, east, altitude and their rates of the ownship
+	private volatile double[] ownship;
+	
+	private volatile List<TrafficAlert> alerts = Collections.emptyList();
+	
+	//========= Used only on the thread updating traffic ==============
+	private double[] own;
+	private TrafficEngine engine;
+	private final List<TrafficAlert> found = new ArrayList<>();
+	
+	// Marks aircraft already evaluated in an update, as the range and swept sphere queries can both find an aircraft
+	private int[] evaluated = new int[0];
+	private int evaluation;
+	
+	private TrafficAlertLevel highestLevel;
+	
+	/**
+	 * Creates a service raising alerts for the aircraft of traffic around the ownship of simulation, and adds it as a listener of
+	 * traffic
+	 * 
+	 * @param traffic
+	 * @param simulation simulation of the ownship; if null, the ownship must be set with {@link #setOwnship(double[])}
+	 */
+	public TrafficAlertService(TrafficEngine traffic, Integrate6DOFEquations simulation) {
+		this.traffic = traffic;
+		this.simulation = simulation;
+		
+		traffic.addTrafficUpdateListener(this);
+	}
+	
+	/**
+	 * Reads the position and velocity of the ownship from the simulation
+	 */
+	@Override
+	public void step() {
+		if (simulation == null)
+			return;
+		
+		Map<SimOuts, Double> simOut = simulation.getSimOut();
+		if (simOut.isEmpty())
+			return;
+		
+		setOwnship(new double[] {simOut.get(SimOuts.NORTH), simOut.get(SimOuts.EAST), simOut.get(SimOuts.ALT),
+								 simOut.get(SimOuts.NORTH_DOT), simOut.get(SimOuts.EAST_DOT), simOut.get(SimOuts.ALT_DOT) * ALT_DOT_TO_FT_SEC});
+	}
+	
+	@Override
+	public boolean canStepNow(int simTimeMS) { return true; }
+	
+	/**
+	 * Sets the state of the ownship, and makes it the observer of the traffic engine
+	 * 
+	 * @param ownship north, east and altitude (ft), and their rates (ft/sec)
+	 */
+	public void setOwnship(double[] ownship) {
+		this.ownship = ownship;
+		traffic.setObserver(ownship[0], ownship[1], ownship[2]);
+	}
+	
+	/**
+	 * Finds and classifies intruders after each traffic update, publishing them to {@link #getAlerts()}
+	 */
+	@Override
+	public void onTrafficUpdated(TrafficEngine engine) {
+		own = ownship;
+		if (own == null)
+			return;
+		
+		this.engine = engine;
+		
+		if (evaluated.length < engine.size())
+			evaluated = new int[engine.getCapacity()];
+		evaluation++;
+		
+		found.clear();
+		
+		SpatialIndex index = engine.getSpatialIndex();
+		index.queryRange(own[0], own[1], own[2], PROXIMATE_RANGE, this::evaluate);
+		index.querySweptSphere(own[0], own[1], own[2], own[0] + own[3] * TA_TAU, own[1] + own[4] * TA_TAU, own[2] + own[5] * TA_TAU, 
+							   engine.getMaxSpeed() * TA_TAU + TA_DMOD, this::evaluate);
+		
+		found.sort(MOST_SEVERE_FIRST);
+		alerts = Collections.unmodifiableList(new ArrayList<>(found));
+		
+		TrafficAlertLevel level = found.isEmpty() ? null : found.get(0).getLevel();
+		if (level != highestLevel && level != null && level != TrafficAlertLevel.PROXIMATE)
+			logger.info(found.get(0));
+		highestLevel = level;
+	}
+	
+	/**
+	 * Classifies aircraft id against the ownship using the range and vertical tests of TCAS II, adding an alert if needed 
+	 * 
+	 * @param id
+	 */
+	private void evaluate(int id) {
+		if (evaluated[id] == evaluation)
+			return;
+		evaluated[id] = evaluation;
+		
+		double heading = engine.getHeading(id), speed = engine.getSpeed(id);
+		
+		double dNorth = engine.getNorth(id) - own[0], dEast = engine.getEast(id) - own[1];
+		double vNorth = speed * Math.cos(heading) - own[3], vEast = speed * Math.sin(heading) - own[4];
+		double relativeAltitude = engine.getAltitude(id) - own[2];
+		double verticalRate = engine.getVerticalSpeed(id) - own[5];
+		
+		double range = Math.sqrt(dNorth * dNorth + dEast * dEast);
+		double rangeRate = range > 0 ? (dNorth * vNorth + dEast * vEast) / range : 0;
+		
+		TrafficAlertLevel level = null;
+		if (isThreat(range, rangeRate, relativeAltitude, verticalRate, RA_TAU, RA_DMOD, RA_ZTHR))
+			level = TrafficAlertLevel.RESOLUTION_ADVISORY;
+		else if (isThreat(range, rangeRate, relativeAltitude, verticalRate, TA_TAU, TA_DMOD, TA_ZTHR))
+			level = TrafficAlertLevel.TRAFFIC_ADVISORY;
+		else if (range < PROXIMATE_RANGE && Math.abs(relativeAltitude) < PROXIMATE_ALTITUDE)
+			level = TrafficAlertLevel.PROXIMATE;
+		
+		if (level == null)
+			return;
+		
+		double bearing = (Math.toDegrees(Math.atan2(dEast, dNorth)) + 360) % 360;
+		
+		found.add(new TrafficAlert(id, level, range, bearing, relativeAltitude, modifiedTau(range, rangeRate, TA_DMOD)));
+	}
+	
+	/**
+	 * @return if an intruder is, or within tau will be, both within dmod horizontally and zthr vertically
+	 */
+	private static boolean isThreat(double range, double rangeRate, double relativeAltitude, double verticalRate, 
+									double tau, double dmod, double zthr) {
+		boolean horizontal = modifiedTau(range, rangeRate, dmod) < tau;
+		
+		boolean vertical = Math.abs(relativeAltitude) < zthr 
+							|| (relativeAltitude * verticalRate < 0 && -relativeAltitude / verticalRate < tau);
+		
+		return horizontal && vertical;
+	}
+	
+	/**
+	 * Modified tau of TCAS II, which reaches zero when range reaches dmod rather than zero, so that slowly closing intruders are
+	 * still alerted on 
+	 * 
+	 * @param range (ft)
+	 * @param rangeRate negative when closing (ft/sec)
+	 * @param dmod (ft)
+	 * @return time until the intruder is within dmod, zero if within it, or infinite if not closing (sec)
+	 */
+	static double modifiedTau(double range, double rangeRate, double dmod) {
+		if (range < dmod)
+			return 0.0;
+		
+		if (rangeRate >= 0)
+			return Double.POSITIVE_INFINITY;
+		
+		return (dmod * dmod - range * range) / (range * rangeRate);
+	}
+	
+	/**
+	 * @return alerts raised after the most recent traffic update, most severe and nearest first
+	 */
+	public List<TrafficAlert> getAlerts() { return alerts; }
+}
@@ -0,0 +1,427 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.traffic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.spatial.SpatialIndex;
+import com.chrisali.javaflightsim.simulation.utilities.ThreadUtilities;
+
+/**
+ * Simulates large numbers of AI aircraft flying {@link TrafficRoute}s with a reduced order point mass model: each aircraft banks 
+ * to turn towards its next waypoint, climbs or descends towards the waypoint's altitude and accelerates towards its speed, 
+ * within fixed limits of bank angle, roll rate, vertical speed and acceleration.<br>
+ * The state of every aircraft is stored in primitive arrays indexed by aircraft, rather than as an object per aircraft, so that 
+ * updates stream through memory; the aircraft are updated in chunks of {@link #CHUNK_SIZE} spread over a pool of worker threads.
+ * Once started, updates run on a thread of their own at a fixed rate, away from the simulation and out the window display. After
+ * each update the aircraft are moved in a {@link SpatialIndex}, a {@link TrafficSnapshot} of the aircraft nearest the observer 
+ * (the ownship) within the draw distance is published, and {@link TrafficUpdateListener}s are notified
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TrafficEngine implements AutoCloseable {
+	
+	private static final Logger logger = LogManager.getLogger(TrafficEngine.class);
+	
+	public static final int CHUNK_SIZE = 1024;
+	
+	// Maximum number of aircraft in each snapshot
+	public static final int MAX_VISIBLE = 256;
+	
+	// Size of the cells of the spatial index (ft)
+	private static final double INDEX_CELL_SIZE = 10000;
+	
+	private static final double GRAVITY = 32.174;
+	
+	// Performance limits shared by all aircraft
+	private static final double MAX_BANK = Math.toRadians(25);
+	private static final double MIN_TURN_RADIUS_PER_SPEED_SQUARED = 1.0 / (GRAVITY * Math.tan(MAX_BANK));
+	private static final double MAX_ROLL_RATE = Math.toRadians(10);
+	private static final double MAX_VERTICAL_SPEED = 1000.0 / 60.0;
+	private static final double MAX_ACCELERATION = 3.0;
+	private static final double MIN_SPEED = 80.0;
+	
+	// Bank angle commanded per radian of heading error, and vertical speed per foot of altitude error
+	private static final double HEADING_GAIN = 2.0;
+	private static final double ALTITUDE_GAIN = 0.1;
+	
+	private static final double MIN_CAPTURE_DISTANCE = 1000.0;
+	
+	private final int capacity;
+	
+	//================= Aircraft state, indexed by aircraft ===================
+	private final double[] north;
+	private final double[] east;
+	private final double[] altitude;
+	private final double[] heading;
+	private final double[] speed;
+	private final double[] verticalSpeed;
+	private final double[] bank;
+	
+	// Index into the waypoint arrays of each aircraft's route, and its next waypoint
+	private final int[] routeStart;
+	private final int[] routeLength;
+	private final int[] waypoint;
+	
+	//===================== Waypoints of every route ===========================
+	private double[] waypointNorth    = new double[64];
+	private double[] waypointEast     = new double[64];
+	private double[] waypointAltitude = new double[64];
+	private double[] waypointSpeed    = new double[64];
+	private int waypointCount;
+	
+	private int count;
+	private double time;
+	private double maxSpeed;
+	
+	private final SpatialIndex index;
+	
+	//============================ Updates =====================================
+	private final ExecutorService workers;
+	private final List<Callable<Void>> chunks = new ArrayList<>();
+	private double chunkDt;
+	
+	private ScheduledExecutorService updater;
+	
+	private final List<TrafficUpdateListener> listeners = new CopyOnWriteArrayList<>();
+	
+	//=============================== Observer =================================
+	private volatile double[] observer;
+	private volatile double drawDistance;
+	private volatile TrafficSnapshot snapshot = TrafficSnapshot.EMPTY;
+	private final int[] visible = new int[MAX_VISIBLE];
+	
+	/**
+	 * Creates a traffic engine for up to capacity aircraft
+	 * 
+	 * @param capacity
+	 * @param workers threads updating aircraft in parallel; chunks are updated on the calling thread if 1
+	 * @param drawDistance distance from the observer within which aircraft are published in snapshots (ft)
+	 */
+	public TrafficEngine(int capacity, int workers, double drawDistance) {
+		this.capacity = capacity;
+		this.drawDistance = drawDistance;
+		
+		north 		  = new double[capacity];
+		east 		  = new double[capacity];
+		altitude 	  = new double[capacity];
+		heading 	  = new double[capacity];
+		speed 		  = new double[capacity];
+		verticalSpeed = new double[capacity];
+		bank 		  = new double[capacity];
+		routeStart 	  = new int[capacity];
+		routeLength   = new int[capacity];
+		waypoint 	  = new int[capacity];
+		
+		index = new SpatialIndex(INDEX_CELL_SIZE, capacity);
+		
+		this.workers = workers > 1 ? Executors.newFixedThreadPool(workers, ThreadUtilities.namedDaemonThreads("Traffic Worker")) : null;
+	}
+	
+	/**
+	 * Adds an aircraft flying route, starting at position towards the route's first waypoint at that waypoint's speed. 
+	 * Aircraft can only be added before the engine is started
+	 * 
+	 * @param route
+	 * @param north (ft)
+	 * @param east (ft)
+	 * @param altitude (ft)
+	 * @return index of the aircraft
+	 * @throws IllegalStateException if the engine is full or has been started
+	 * @throws IllegalArgumentException if route has no waypoints
+	 */
+	public int addAircraft(TrafficRoute route, double north, double east, double altitude) {
+		if (count == capacity)
+			throw new IllegalStateException("Traffic engine is full with " + capacity + " aircraft");
+		if (updater != null)
+			throw new IllegalStateException("Aircraft cannot be added once traffic engine is started");
+		if (route.size() == 0)
+			throw new IllegalArgumentException("Traffic route has no waypoints");
+		
+		if (waypointCount + route.size() > waypointNorth.length) {
+			int length = Math.max(waypointNorth.length * 2, waypointCount + route.size());
+			waypointNorth 	 = Arrays.copyOf(waypointNorth, length);
+			waypointEast 	 = Arrays.copyOf(waypointEast, length);
+			waypointAltitude = Arrays.copyOf(waypointAltitude, length);
+			waypointSpeed 	 = Arrays.copyOf(waypointSpeed, length);
+		}
+		
+		int i = count++;
+		
+		routeStart[i] = waypointCount;
+		routeLength[i] = route.size();
+		waypoint[i] = waypointCount;
+		
+		for (int w = 0; w < route.size(); w++, waypointCount++) {
+			waypointNorth[waypointCount]    = route.getNorth(w);
+			waypointEast[waypointCount] 	= route.getEast(w);
+			waypointAltitude[waypointCount] = route.getAltitude(w);
+			waypointSpeed[waypointCount] 	= route.getSpeed(w);
+			maxSpeed = Math.max(maxSpeed, route.getSpeed(w));
+		}
+		
+		this.north[i] = north;
+		this.east[i] = east;
+		this.altitude[i] = altitude;
+		heading[i] = Math.atan2(route.getEast(0) - east, route.getNorth(0) - north);
+		speed[i] = Math.max(MIN_SPEED, route.getSpeed(0));
+		maxSpeed = Math.max(maxSpeed, speed[i]);
+		
+		index.insert(i, north, east, altitude);
+		
+		if (i % CHUNK_SIZE == 0) {
+			int from = i;
+			chunks.add(() -> { updateChunk(from, Math.min(from + CHUNK_SIZE, count), chunkDt); return null; });
+		}
+		
+		return i;
+	}
+	
+	/**
+	 * Advances every aircraft by dt, publishes a new {@link TrafficSnapshot} and notifies listeners. Called at a fixed rate once 
+	 * the engine is started, but can be called directly if the engine is not started
+	 * 
+	 * @param dt (sec)
+	 */
+	public void update(double dt) {
+		if (workers == null || chunks.size() == 1) {
+			updateChunk(0, count, dt);
+		} else {
+			chunkDt = dt;
+			
+			try {
+				for (Future<Void> chunk : workers.invokeAll(chunks))
+					chunk.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Error updating traffic", e.getCause());
+			}
+		}
+		
+		time += dt;
+		
+		// Aircraft rarely change cells in one update, so this mostly only stores their new positions
+		for (int i = 0; i < count; i++)
+			index.update(i, north[i], east[i], altitude[i]);
+		
+		publishSnapshot();
+		
+		for (TrafficUpdateListener listener : listeners)
+			listener.onTrafficUpdated(this);
+	}
+	
+	/**
+	 * Point mass update of aircraft from index from to to (exclusive); each aircraft only reads and writes its own state, so 
+	 * chunks can be updated concurrently
+	 * 
+	 * @param from
+	 * @param to
+	 * @param dt
+	 */
+	private void updateChunk(int from, int to, double dt) {
+		for (int i = from; i < to; i++) {
+			int w = waypoint[i];
+			double toNorth = waypointNorth[w] - north[i];
+			double toEast  = waypointEast[w] - east[i];
+			
+			// Waypoint is captured once within a turn radius of it, so that the aircraft does not circle it
+			double captureDistance = Math.max(speed[i] * speed[i] * MIN_TURN_RADIUS_PER_SPEED_SQUARED, MIN_CAPTURE_DISTANCE);
+			if (toNorth * toNorth + toEast * toEast < captureDistance * captureDistance) {
+				w = waypoint[i] = (w + 1 < routeStart[i] + routeLength[i]) ? w + 1 : routeStart[i];
+				toNorth = waypointNorth[w] - north[i];
+				toEast  = waypointEast[w] - east[i];
+			}
+			
+			// Lateral: bank towards the waypoint, turning at the rate of a coordinated turn
+			double headingError = wrapAngle(Math.atan2(toEast, toNorth) - heading[i]);
+			double bankCommand = limit(HEADING_GAIN * headingError, MAX_BANK);
+			bank[i] += limit(bankCommand - bank[i], MAX_ROLL_RATE * dt);
+			
+			heading[i] = wrapAngle(heading[i] + GRAVITY * Math.tan(bank[i]) / speed[i] * dt);
+			
+			// Longitudinal
+			speed[i] = Math.max(MIN_SPEED, speed[i] + limit(waypointSpeed[w] - speed[i], MAX_ACCELERATION * dt));
+			verticalSpeed[i] = limit(ALTITUDE_GAIN * (waypointAltitude[w] - altitude[i]), MAX_VERTICAL_SPEED);
+			
+			north[i] 	+= speed[i] * Math.cos(heading[i]) * dt;
+			east[i] 	+= speed[i] * Math.sin(heading[i]) * dt;
+			altitude[i] += verticalSpeed[i] * dt;
+		}
+	}
+	
+	private static double limit(double value, double limit) { return Math.max(-limit, Math.min(limit, value)); }
+	
+	private static double wrapAngle(double angle) {
+		return angle - 2 * Math.PI * Math.floor((angle + Math.PI) / (2 * Math.PI));
+	}
+	
+	/**
+	 * Copies the aircraft within the draw distance of the observer into a new snapshot, nearest first, up to {@link #MAX_VISIBLE} 
+	 * aircraft 
+	 */
+	private void publishSnapshot() {
+		double[] observer = this.observer;
+		if (observer == null)
+			return;
+		
+		int visibleCount = index.queryNearest(observer[0], observer[1], observer[2], MAX_VISIBLE, drawDistance, visible);
+		
+		TrafficSnapshot published = new TrafficSnapshot(visibleCount, time);
+		
+		for (int v = 0; v < visibleCount; v++) {
+			int i = visible[v];
+			
+			published.ids[v] 	  = i;
+			published.north[v] 	  = north[i];
+			published.east[v] 	  = east[i];
+			published.altitude[v] = altitude[i];
+			published.heading[v]  = Math.toDegrees(heading[i]);
+			published.pitch[v] 	  = Math.toDegrees(Math.atan2(verticalSpeed[i], speed[i]));
+			published.roll[v] 	  = Math.toDegrees(bank[i]);
+		}
+		
+		snapshot = published;
+	}
+	
+	/**
+	 * Starts updating traffic at updateRateHz on a thread of its own
+	 * 
+	 * @param updateRateHz
+	 */
+	public synchronized void start(int updateRateHz) {
+		if (updater != null)
+			return;
+		
+		logger.debug("Starting traffic engine with " + count + " aircraft at " + updateRateHz + " Hz...");
+		
+		long periodMicros = 1000000 / updateRateHz;
+		double dt = periodMicros / 1e6;
+		
+		updater = Executors.newSingleThreadScheduledExecutor(ThreadUtilities.namedDaemonThreads("Traffic Update"));
+		updater.scheduleAtFixedRate(() -> {
+			// An exception would cancel all further updates
+			try {
+				update(dt);
+			} catch (Exception e) {
+				logger.error("Error updating traffic!", e);
+			}
+		}, 0, periodMicros, TimeUnit.MICROSECONDS);
+	}
+	
+	/**
+	 * Stops updating traffic
+	 */
+	@Override
+	public synchronized void close() {
+		if (updater != null)
+			updater.shutdownNow();
+		
+		if (workers != null)
+			workers.shutdownNow();
+	}
+	
+	/**
+	 * Sets the position that aircraft are published in snapshots around
+	 * 
+	 * @param north (ft)
+	 * @param east (ft)
+	 * @param altitude (ft)
+	 */
+	public void setObserver(double north, double east, double altitude) { observer = new double[] {north, east, altitude}; }
+	
+	public void setDrawDistance(double drawDistance) { this.drawDistance = drawDistance; }
+	
+	public void addTrafficUpdateListener(TrafficUpdateListener listener) {
+		logger.debug("Adding traffic update listener: " + listener.getClass());
+		listeners.add(listener);
+	}
+	
+	/**
+	 * @return aircraft within the draw distance of the observer after the most recent update
+	 */
+	public TrafficSnapshot getSnapshot() { return snapshot; }
+	
+	/**
+	 * @return number of aircraft
+	 */
+	public int size() { return count; }
+	
+	public int getCapacity() { return capacity; }
+	
+	//=========== State of each aircraft; only consistent between updates if the engine is not started =============
+	
+	public double getNorth(int i) { return north[i]; }
+	
+	public double getEast(int i) { return east[i]; }
+	
+	public double getAltitude(int i) { return altitude[i]; }
+	
+	/**
+	 * @param i
+	 * @return heading of the aircraft (rad)
+	 */
+	public double getHeading(int i) { return heading[i]; }
+	
+	public double getSpeed(int i) { return speed[i]; }
+	
+	/**
+	 * @param i
+	 * @return vertical speed of the aircraft, positive climbing (ft/sec)
+	 */
+	public double getVerticalSpeed(int i) { return verticalSpeed[i]; }
+	
+	/**
+	 * @return fastest speed any aircraft can fly (ft/sec)
+	 */
+	public double getMaxSpeed() { return maxSpeed; }
+	
+	/**
+	 * @return index of aircraft positions, with north and east as the horizontal axes and altitude as the vertical axis; 
+	 * only consistent within {@link TrafficUpdateListener#onTrafficUpdated(TrafficEngine)} once the engine is started
+	 */
+	public SpatialIndex getSpatialIndex() { return index; }
+	
+	/**
+	 * @return time simulated (sec)
+	 */
+	public double getTime() { return time; }
+	
+	/**
+	 * @param i
+	 * @return index of the aircraft's next waypoint in its route
+	 */
+	public int getWaypoint(int i) { return waypoint[i] - routeStart[i]; }
+}
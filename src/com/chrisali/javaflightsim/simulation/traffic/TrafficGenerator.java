@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.traffic;
+
+import java.util.Random;
+
+import com.chrisali.javaflightsim.simulation.setup.TrafficConfiguration;
+
+/**
+ * Populates a {@link TrafficEngine} with AI aircraft flying random closed routes, each a loop of waypoints around a random 
+ * point, at altitudes and speeds typical of general aviation and regional traffic
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TrafficGenerator {
+	
+	private static final double MIN_LOOP_RADIUS = 12000;
+	private static final double MAX_LOOP_RADIUS = 48000;
+	
+	private static final double MIN_SPEED = 150;
+	private static final double MAX_SPEED = 400;
+	
+	private static final double MIN_ALTITUDE = 1000;
+	
+	// Altitudes of traffic are spread this far above and below the centre altitude (ft)
+	private static final double ALTITUDE_SPREAD = 4000;
+	
+	private TrafficGenerator() {}
+	
+	/**
+	 * Fills engine with the number of aircraft in configuration, on routes within the configuration's route radius of a centre point 
+	 * 
+	 * @param engine
+	 * @param configuration
+	 * @param centreNorth (ft)
+	 * @param centreEast (ft)
+	 * @param centreAltitude altitude that traffic is spread around (ft)
+	 */
+	public static void addRandomTraffic(TrafficEngine engine, TrafficConfiguration configuration, 
+										double centreNorth, double centreEast, double centreAltitude) {
+		Random random = new Random(configuration.getSeed());
+		int aircraftCount = Math.min(configuration.getAircraftCount(), engine.getCapacity() - engine.size());
+		
+		for (int i = 0; i < aircraftCount; i++) {
+			// Uniformly distributed over the area within route radius
+			double distance = configuration.getRouteRadius() * Math.sqrt(random.nextDouble());
+			double bearing = 2 * Math.PI * random.nextDouble();
+			double loopNorth = centreNorth + distance * Math.cos(bearing);
+			double loopEast = centreEast + distance * Math.sin(bearing);
+			
+			double loopRadius = MIN_LOOP_RADIUS + (MAX_LOOP_RADIUS - MIN_LOOP_RADIUS) * random.nextDouble();
+			double altitude = Math.max(MIN_ALTITUDE, centreAltitude + ALTITUDE_SPREAD * (2 * random.nextDouble() - 1));
+			double speed = MIN_SPEED + (MAX_SPEED - MIN_SPEED) * random.nextDouble();
+			
+			int waypoints = 3 + random.nextInt(4);
+			double direction = random.nextBoolean() ? 1 : -1;
+			double startAngle = 2 * Math.PI * random.nextDouble();
+			
+			TrafficRoute route = new TrafficRoute();
+			for (int w = 1; w <= waypoints; w++) {
+				double angle = startAngle + direction * 2 * Math.PI * w / waypoints;
+				
+				// Some legs climb or descend 
+				double waypointAltitude = Math.max(MIN_ALTITUDE, altitude + (random.nextInt(3) - 1) * 1000);
+				
+				route.addWaypoint(loopNorth + loopRadius * Math.cos(angle), loopEast + loopRadius * Math.sin(angle), waypointAltitude, speed);
+			}
+			
+			engine.addAircraft(route, loopNorth + loopRadius * Math.cos(startAngle), loopEast + loopRadius * Math.sin(startAngle), altitude);
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.traffic;
+
+import java.util.Arrays;
+
+/**
+ * Closed route of waypoints flown by an AI aircraft of {@link TrafficEngine}; after the last waypoint the aircraft turns back 
+ * towards the first. Positions use the same north/east/altitude axes as the simulation (ft), and each waypoint sets the speed 
+ * (ft/sec) flown towards it
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TrafficRoute {
+	
+	private double[] north    = new double[4];
+	private double[] east     = new double[4];
+	private double[] altitude = new double[4];
+	private double[] speed    = new double[4];
+	
+	private int size;
+	
+	/**
+	 * Adds a waypoint to the end of the route
+	 * 
+	 * @param north (ft)
+	 * @param east (ft)
+	 * @param altitude (ft)
+	 * @param speed speed flown towards this waypoint (ft/sec)
+	 * @return this route
+	 */
+	public TrafficRoute addWaypoint(double north, double east, double altitude, double speed) {
+		if (size == this.north.length) {
+			this.north    = Arrays.copyOf(this.north, size * 2);
+			this.east     = Arrays.copyOf(this.east, size * 2);
+			this.altitude = Arrays.copyOf(this.altitude, size * 2);
+			this.speed    = Arrays.copyOf(this.speed, size * 2);
+		}
+		
+		this.north[size]    = north;
+		this.east[size]     = east;
+		this.altitude[size] = altitude;
+		this.speed[size]    = speed;
+		size++;
+		
+		return this;
+	}
+	
+	public int size() { return size; }
+	
+	public double getNorth(int waypoint) { return north[waypoint]; }
+	
+	public double getEast(int waypoint) { return east[waypoint]; }
+	
+	public double getAltitude(int waypoint) { return altitude[waypoint]; }
+	
+	public double getSpeed(int waypoint) { return speed[waypoint]; }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.traffic;
+
+/**
+ * Immutable copy of the AI aircraft of {@link TrafficEngine} within the draw distance of the observer, published after each 
+ * update so that the out the window display can read traffic without synchronizing with the threads updating it. Positions 
+ * are in ft and angles in degrees, using the axes of the simulation
+ * 
+ * @author Christopher Ali
+ *
+ */
+public class TrafficSnapshot {
+	
+	public static final TrafficSnapshot EMPTY = new TrafficSnapshot(0, 0.0);
+	
+	private final double time;
+	private final int count;
+	
+	final int[] ids;
+	final double[] north;
+	final double[] east;
+	final double[] altitude;
+	final double[] heading;
+	final double[] pitch;
+	final double[] roll;
+	
+	TrafficSnapshot(int count, double time) {
+		this.time = time;
+		this.count = count;
+		
+		ids 	 = new int[count];
+		north 	 = new double[count];
+		east 	 = new double[count];
+		altitude = new double[count];
+		heading  = new double[count];
+		pitch 	 = new double[count];
+		roll 	 = new double[count];
+	}
+	
+	/**
+	 * @return time of the traffic simulation when this snapshot was taken (sec)
+	 */
+	public double getTime() { return time; }
+	
+	/**
+	 * @return number of aircraft in this snapshot
+	 */
+	public int size() { return count; }
+	
+	/**
+	 * @param i index in this snapshot, from 0 to {@link #size()}
+	 * @return index of the aircraft in {@link TrafficEngine}
+	 */
+	public int getId(int i) { return ids[i]; }
+	
+	public double getNorth(int i) { return north[i]; }
+	
+	public double getEast(int i) { return east[i]; }
+	
+	public double getAltitude(int i) { return altitude[i]; }
+	
+	public double getHeading(int i) { return heading[i]; }
+	
+	public double getPitch(int i) { return pitch[i]; }
+	
+	public double getRoll(int i) { return roll[i]; }
+}
@@ -17,10 +17,14 @@
  *  If you have any questions about this project, you can visit
  *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
  ******************************************************************************/
-package com.chrisali.javaflightsim.simulation.datatransfer;
+package com.chrisali.javaflightsim.simulation.traffic;
 
 import java.util.EventListener;
 
-public interface FlightDataListener extends EventListener {
-	public void onFlightDataReceived(FlightData flightData);
+/**
+ * Notified on the thread updating a {@link TrafficEngine} after each update, while the state of its aircraft and its 
+ * spatial index can be read consistently
+ */
+public interface TrafficUpdateListener extends EventListener {
+	public void onTrafficUpdated(TrafficEngine engine);
 }
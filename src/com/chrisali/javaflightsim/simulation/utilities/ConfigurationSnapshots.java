@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.chrisali.javaflightsim.simulation.aircraft.LookupTable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Reads and writes binary snapshots of parsed configuration objects so that subsequent start ups can skip JSON parsing
+ * and expensive post-processing, such as calculating the spline coefficients of each {@link LookupTable}. Each snapshot
+ * is a Smile encoded copy of the configuration object preceded by a small header that records the modification time and size
+ * of the JSON file it was created from; if either differs from the JSON file on disk, the snapshot is stale and is ignored.
+ * Snapshots are stored in the {@link SimDirectories#SNAPSHOTS} directory and are memory mapped when read
+ *
+ * @author Christopher Ali
+ *
+ */
+public class ConfigurationSnapshots {
+
+	private static final Logger logger = LogManager.getLogger(ConfigurationSnapshots.class);
+
+	public static final String SNAPSHOT_EXT = ".snap";
+
+	private static final int MAGIC = 0x4A465353; // "JFSS"
+
+	/**
+	 * Increment whenever the layout of a serialized configuration class changes
+	 */
+	private static final int VERSION = 2;
+
+	// magic, version, source modification time, source length, payload length
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4;
+
+	private static final ObjectMapper mapper = new ObjectMapper(new SmileFactory())
+			.addMixIn(LookupTable.class, LookupTableSnapshotMixIn.class)
+			.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+	/**
+	 * Attempts to read a snapshot of sourceFile. Returns null if no snapshot exists, if it is out of date relative to sourceFile
+	 * or if it cannot be read for any reason, in which case the caller should fall back to parsing sourceFile
+	 *
+	 * @param sourceFile JSON file that the snapshot was created from
+	 * @param klasse
+	 * @return deserialized POJO or null if snapshot is unavailable
+	 */
+	public static <T> T read(File sourceFile, Class<T> klasse) {
+		File snapshotFile = getSnapshotFile(sourceFile);
+
+		if (!snapshotFile.exists() || !sourceFile.exists())
+			return null;
+
+		try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE)
+				return null;
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+					|| buffer.getLong() != sourceFile.lastModified() || buffer.getLong() != sourceFile.length()) {
+				logger.debug("Snapshot of " + sourceFile.getName() + " is out of date");
+				return null;
+			}
+
+			int payloadLength = buffer.getInt();
+			if (payloadLength != buffer.remaining())
+				return null;
+
+			logger.debug("Reading snapshot: " + snapshotFile.getPath() + "...");
+
+			return mapper.readValue(new ByteBufferBackedInputStream(buffer), klasse);
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Could not read snapshot of " + sourceFile.getName() + ", falling back to JSON", e);
+
+			return null;
+		}
+	}
+
+	/**
+	 * Writes a snapshot of objToSnapshot, which was deserialized from sourceFile. The snapshot is written to a temporary
+	 * file first and then moved into place, so that a partially written snapshot is never read
+	 *
+	 * @param sourceFile JSON file that objToSnapshot was deserialized from
+	 * @param objToSnapshot
+	 */
+	public static void write(File sourceFile, Object objToSnapshot) {
+		if (objToSnapshot == null || !sourceFile.exists())
+			return;
+
+		File snapshotFile = getSnapshotFile(sourceFile);
+		Path tempFile = null;
+
+		try {
+			byte[] payload = mapper.writeValueAsBytes(objToSnapshot);
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC)
+				  .putInt(VERSION)
+				  .putLong(sourceFile.lastModified())
+				  .putLong(sourceFile.length())
+				  .putInt(payload.length);
+
+			Files.createDirectories(snapshotFile.getParentFile().toPath());
+			tempFile = Files.createTempFile(snapshotFile.getParentFile().toPath(), snapshotFile.getName(), ".tmp");
+
+			try (OutputStream os = Files.newOutputStream(tempFile)) {
+				os.write(header.array());
+				os.write(payload);
+			}
+
+			Files.move(tempFile, snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+			logger.debug("Saved snapshot: " + snapshotFile.getPath());
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Could not save snapshot of " + sourceFile.getName() + "!", e);
+
+			try {
+				if (tempFile != null)
+					Files.deleteIfExists(tempFile);
+			} catch (IOException ex) {}
+		}
+	}
+
+	/**
+	 * Deletes the snapshot of sourceFile if it exists
+	 *
+	 * @param sourceFile
+	 */
+	public static void delete(File sourceFile) {
+		try {
+			Files.deleteIfExists(getSnapshotFile(sourceFile).toPath());
+		} catch (IOException e) {
+			logger.warn("Could not delete snapshot of " + sourceFile.getName() + "!", e);
+		}
+	}
+
+	/**
+	 * Maps a JSON configuration file to its snapshot file; i.e. Aircraft/TwinNavion/Aircraft.json is mapped to
+	 * SimConfig/Snapshots/Aircraft_TwinNavion_Aircraft.snap
+	 *
+	 * @param sourceFile
+	 * @return snapshot file of sourceFile
+	 */
+	public static File getSnapshotFile(File sourceFile) {
+		String path = sourceFile.getPath();
+
+		if (path.endsWith(FileUtilities.CONFIG_EXT))
+			path = path.substring(0, path.length() - FileUtilities.CONFIG_EXT.length());
+
+		String name = path.replaceAll("[\\\\/:.]+", "_") + SNAPSHOT_EXT;
+
+		return new File(FileUtilities.FILE_ROOT + SimDirectories.SNAPSHOTS.toString(), name);
+	}
+
+	/**
+	 * Allows the precomputed spline coefficients of {@link LookupTable} to be included in snapshots, while still excluding
+	 * them from JSON configuration files
+	 */
+	private static abstract class LookupTableSnapshotMixIn {
+		@JsonProperty(value="splineCoefficients", access=Access.READ_WRITE)
+		abstract double[] getSplineCoefficients();
+	}
+}
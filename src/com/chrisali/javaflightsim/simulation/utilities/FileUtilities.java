@@ -34,13 +34,14 @@ import org.apache.logging.log4j.Logger;
 
 import com.chrisali.javaflightsim.lwjgl.interfaces.gauges.InstrumentPanel;
 import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.autopilot.AutopilotConfiguration;
 import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControls;
 import com.chrisali.javaflightsim.simulation.integration.SimOuts;
 import com.chrisali.javaflightsim.simulation.setup.ControlsConfiguration;
 import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
 import com.chrisali.javaflightsim.swing.plotting.PlotConfiguration;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 /**
  * Contains various static methods for reading and parsing text configuration files
@@ -53,6 +54,13 @@ public class FileUtilities {
 
 	public static final String FILE_ROOT = ""; //"." + File.separator;
 	
+	// ObjectMapper is thread safe once configured, and is expensive to create
+	private static final ObjectMapper mapper = new ObjectMapper();
+	
+	private static final ObjectWriter prettyWriter = mapper.writerWithDefaultPrettyPrinter();
+	
+	private static volatile boolean useSnapshots = true;
+	
 	//===================================================================================================
 	//										File Reading
 	//===================================================================================================
@@ -87,6 +95,21 @@ public class FileUtilities {
 		return panel;
 	}
 	
+	/**
+	 * Creates an {@link AutopilotConfiguration} object by deserializing a JSON file in the Aircraft/{aircraftName} directory 
+	 * called AutopilotConfiguration.json; if the aircraft has no tuned autopilot, the default gains are used 
+	 * 
+	 * @param aircraftName
+	 * @return deserialized {@link AutopilotConfiguration}
+	 */
+	public static AutopilotConfiguration readAutopilotConfiguration(String aircraftName) {
+		AutopilotConfiguration configuration = deserializeJson(AutopilotConfiguration.class.getSimpleName(), 
+															   SimDirectories.AIRCRAFT.toString() + File.separator + aircraftName, 
+															   AutopilotConfiguration.class);
+		
+		return configuration != null ? configuration : new AutopilotConfiguration();
+	}
+	
 	/**
 	 * Creates a {@link SimulationConfiguration} object by deserializing a JSON file in the SimConfig directory 
 	 * called SimulationConfiguration.json
@@ -148,7 +171,21 @@ public class FileUtilities {
 	}
 	
 	/**
-	 * Deserializes an JSON file into a T object based on the file name, file path and class provided
+	 * Enables or disables reading and writing of binary configuration snapshots (see {@link ConfigurationSnapshots}); 
+	 * enabled by default
+	 * 
+	 * @param enabled
+	 */
+	public static void setUseSnapshots(boolean enabled) { useSnapshots = enabled; }
+	
+	/**
+	 * @return if binary configuration snapshots are read and written when deserializing configuration files
+	 */
+	public static boolean isUsingSnapshots() { return useSnapshots; }
+	
+	/**
+	 * Deserializes an JSON file into a T object based on the file name, file path and class provided. If an up to date
+	 * snapshot of the file exists, it is read instead; otherwise a new snapshot is written after the JSON file is parsed
 	 * 
 	 * @param filename
 	 * @param filepath
@@ -158,15 +195,26 @@ public class FileUtilities {
 	private static <T> T deserializeJson(String filename, String filepath, Class<T> klasse) {
 		StringBuilder sb = new StringBuilder();
 		sb.append(FILE_ROOT).append(filepath).append(File.separator).append(filename).append(CONFIG_EXT);
+		
+		File sourceFile = new File(sb.toString());
+		
+		if (useSnapshots) {
+			T snapshot = ConfigurationSnapshots.read(sourceFile, klasse);
+			
+			if (snapshot != null)
+				return snapshot;
+		}
 				
 		logger.debug("Reading file: " + sb.toString() + "...");
 		
 		T objToDeserialize = null;
-		ObjectMapper mapper = new ObjectMapper();
 		
-		try (BufferedReader br = new BufferedReader(new FileReader(sb.toString()))) {
+		try (BufferedReader br = new BufferedReader(new FileReader(sourceFile))) {
 			objToDeserialize = mapper.readValue(br, klasse);
 			
+			if (useSnapshots)
+				ConfigurationSnapshots.write(sourceFile, objToDeserialize);
+			
 		} catch (FileNotFoundException e) {logger.error("Could not find: " + filename + CONFIG_EXT + "!", e);}
 		catch (IOException e) {logger.error("Could not read: " + filename + CONFIG_EXT + "!", e);}
 		catch (NullPointerException e) {logger.error("Bad reference when reading: " + filename + CONFIG_EXT + "!", e);}
@@ -210,11 +258,11 @@ public class FileUtilities {
 		
 		logger.debug("Saving configuration file to: " + sb.toString());
 		
-		ObjectMapper mapper = new ObjectMapper();	
-		mapper.enable(SerializationFeature.INDENT_OUTPUT);
+		File file = new File(sb.toString());
+		ConfigurationSnapshots.delete(file);
 		
-		try (BufferedWriter bw = new BufferedWriter(new FileWriter(sb.toString()))) {
-			mapper.writeValue(bw, objToSerialize);
+		try (BufferedWriter bw = new BufferedWriter(new FileWriter(file))) {
+			prettyWriter.writeValue(bw, objToSerialize);
 			
 		} catch (FileNotFoundException e) {logger.error("Could not find: " + filename + CONFIG_EXT + "!", e);}
 		catch (IOException e) {logger.error("Could not read: " + filename + CONFIG_EXT + "!", e);}
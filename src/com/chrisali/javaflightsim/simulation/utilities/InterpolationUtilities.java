@@ -0,0 +1,330 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.utilities;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.analysis.interpolation.AkimaSplineInterpolator;
+import org.apache.commons.math3.analysis.interpolation.PiecewiseBicubicSplineInterpolatingFunction;
+import org.apache.commons.math3.exception.InsufficientDataException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.util.Precision;
+
+import com.chrisali.javaflightsim.simulation.aircraft.LookupTable;
+
+/**
+ * Contains static methods to precompute and evaluate piecewise bicubic splines on primitive arrays.
+ * The splines are the same interpolant as Apache Commons' {@link PiecewiseBicubicSplineInterpolatingFunction}, which fits an
+ * {@link AkimaSplineInterpolator} spline through a window of {@value #WINDOW} breakpoints in the first dimension for each of 
+ * {@value #WINDOW} rows, and then another through those values in the second dimension. The splines of the first dimension only 
+ * depend on the table, so their coefficients are calculated once, while the spline of the second dimension is fitted on each 
+ * evaluation without allocating, so that evaluating a {@link LookupTable} requires no allocation
+ *
+ * @author Christopher Ali
+ *
+ */
+public class InterpolationUtilities {
+
+	/**
+	 * Number of breakpoints in each dimension that an Akima spline is fitted through
+	 */
+	public static final int WINDOW = 5;
+
+	/**
+	 * Number of coefficients held for the splines of each window and row: a cubic polynomial for each interval of the window
+	 */
+	public static final int COEFFS_PER_SPLINE = (WINDOW - 1) * 4;
+
+	/**
+	 * @param xLength number of breakpoints in the first dimension
+	 * @param yLength number of breakpoints in the second dimension
+	 * @return length of the array returned by {@link #calculateBicubicCoefficients(double[], double[], double[][])}
+	 */
+	public static int getBicubicCoefficientCount(int xLength, int yLength) {
+		return (xLength - WINDOW + 1) * yLength * COEFFS_PER_SPLINE;
+	}
+
+	/**
+	 * Calculates the coefficients of the Akima splines through each window of {@value #WINDOW} breakpoints of xVals, for each
+	 * breakpoint of yVals. The coefficients for window w (starting at xVals[w]) and breakpoint j are stored in the returned array 
+	 * starting at index ((w * yVals.length) + j) * {@value #COEFFS_PER_SPLINE}, with the coefficient multiplying (x - xVals[w + k])^p 
+	 * for the window's interval k at offset (k * 4) + p
+	 *
+	 * @param xVals breakpoints of the first dimension
+	 * @param yVals breakpoints of the second dimension
+	 * @param fVals table values indexed [x][y]
+	 * @return flattened array of spline coefficients
+	 * @throws InsufficientDataException if either dimension has fewer than {@value #WINDOW} breakpoints
+	 */
+	public static double[] calculateBicubicCoefficients(double[] xVals, double[] yVals, double[][] fVals) {
+		final int nx = xVals.length, ny = yVals.length;
+
+		if (nx < WINDOW || ny < WINDOW)
+			throw new InsufficientDataException();
+
+		double[] coefficients = new double[getBicubicCoefficientCount(nx, ny)];
+		double[] values = new double[WINDOW];
+		double[] derivatives = new double[WINDOW];
+
+		for (int w = 0; w <= nx - WINDOW; w++) {
+			for (int j = 0; j < ny; j++) {
+				for (int k = 0; k < WINDOW; k++)
+					values[k] = fVals[w + k][j];
+
+				for (int k = 0; k < WINDOW; k++)
+					derivatives[k] = akimaDerivative(xVals, w, k, values[0], values[1], values[2], values[3], values[4]);
+
+				int offset = ((w * ny) + j) * COEFFS_PER_SPLINE;
+				for (int k = 0; k < WINDOW - 1; k++) {
+					double width = xVals[w + k + 1] - xVals[w + k];
+
+					// Same Hermite coefficients as AkimaSplineInterpolator
+					coefficients[offset + (k * 4)]     = values[k];
+					coefficients[offset + (k * 4) + 1] = derivatives[k];
+					coefficients[offset + (k * 4) + 2] = (3 * (values[k + 1] - values[k]) / width - 2 * derivatives[k] - derivatives[k + 1]) / width;
+					coefficients[offset + (k * 4) + 3] = (2 * (values[k] - values[k + 1]) / width + derivatives[k] + derivatives[k + 1]) / (width * width);
+				}
+			}
+		}
+
+		return coefficients;
+	}
+
+	/**
+	 * Evaluates a piecewise bicubic spline whose coefficients were generated by
+	 * {@link InterpolationUtilities#calculateBicubicCoefficients(double[], double[], double[][])}
+	 *
+	 * @param xVals
+	 * @param yVals
+	 * @param coefficients
+	 * @param x
+	 * @param y
+	 * @return interpolated value
+	 * @throws OutOfRangeException if x or y lies outside of the breakpoints
+	 */
+	public static double bicubicValue(double[] xVals, double[] yVals, double[] coefficients, double x, double y) {
+		int wx = searchWindow(xVals, x);
+		int wy = searchWindow(yVals, y);
+
+		// Splines of the first dimension through each row of the window in the second dimension 
+		int kx = searchWindowInterval(xVals, wx, x);
+		int offset = ((wx * yVals.length) + wy) * COEFFS_PER_SPLINE + (kx * 4);
+		double dx = x - xVals[wx + kx];
+
+		double z0 = cubicValue(coefficients, offset, dx);
+		double z1 = cubicValue(coefficients, offset + COEFFS_PER_SPLINE, dx);
+		double z2 = cubicValue(coefficients, offset + 2 * COEFFS_PER_SPLINE, dx);
+		double z3 = cubicValue(coefficients, offset + 3 * COEFFS_PER_SPLINE, dx);
+		double z4 = cubicValue(coefficients, offset + 4 * COEFFS_PER_SPLINE, dx);
+
+		// Spline of the second dimension through those values
+		int ky = searchWindowInterval(yVals, wy, y);
+		double width = yVals[wy + ky + 1] - yVals[wy + ky];
+		double value = ky == 0 ? z0 : ky == 1 ? z1 : ky == 2 ? z2 : z3;
+		double valueP = ky == 0 ? z1 : ky == 1 ? z2 : ky == 2 ? z3 : z4;
+		double derivative  = akimaDerivative(yVals, wy, ky,     z0, z1, z2, z3, z4);
+		double derivativeP = akimaDerivative(yVals, wy, ky + 1, z0, z1, z2, z3, z4);
+
+		double c2 = (3 * (valueP - value) / width - 2 * derivative - derivativeP) / width;
+		double c3 = (2 * (value - valueP) / width + derivative + derivativeP) / (width * width);
+		double dy = y - yVals[wy + ky];
+
+		return ((c3 * dy + c2) * dy + derivative) * dy + value;
+	}
+
+	private static double cubicValue(double[] coefficients, int offset, double d) {
+		return ((coefficients[offset + 3] * d + coefficients[offset + 2]) * d + coefficients[offset + 1]) * d + coefficients[offset];
+	}
+
+	/**
+	 * Finds the first breakpoint of the window of {@value #WINDOW} breakpoints used to interpolate value, in the same way as 
+	 * PiecewiseBicubicSplineInterpolatingFunction: value is in the second interval of the window unless it lies on a breakpoint, 
+	 * which is then the middle of the window, or near the ends of breakPoints 
+	 *
+	 * @param breakPoints monotonically increasing breakpoints
+	 * @param value
+	 * @return index between 0 and breakPoints.length - {@value #WINDOW}
+	 * @throws OutOfRangeException if value lies outside of the breakpoints
+	 */
+	private static int searchWindow(double[] breakPoints, double value) {
+		int index = Arrays.binarySearch(breakPoints, value);
+
+		if (index == -1 || index == -breakPoints.length - 1)
+			throw new OutOfRangeException(value, breakPoints[0], breakPoints[breakPoints.length - 1]);
+
+		index = index < 0 ? -index - 3 : index - 2;
+
+		return Math.max(0, Math.min(index, breakPoints.length - WINDOW));
+	}
+
+	/**
+	 * @param breakPoints
+	 * @param window first breakpoint of the window
+	 * @param value
+	 * @return index within the window of the interval containing value, from 0 to {@value #WINDOW} - 2
+	 */
+	private static int searchWindowInterval(double[] breakPoints, int window, double value) {
+		int index = Arrays.binarySearch(breakPoints, window, window + WINDOW, value);
+
+		if (index < 0)
+			index = -index - 2;
+
+		return Math.min(index - window, WINDOW - 2);
+	}
+
+	/**
+	 * Estimates the first derivative at breakpoint k of a window of {@value #WINDOW} breakpoints, in the same way as Apache Commons' 
+	 * AkimaSplineInterpolator: Akima's method at the middle breakpoint, and three point differentiation at the two on either end
+	 *
+	 * @param breakPoints
+	 * @param window first breakpoint of the window
+	 * @param k index of the breakpoint within the window
+	 * @param f0 value at each breakpoint of the window
+	 * @param f1
+	 * @param f2
+	 * @param f3
+	 * @param f4
+	 * @return first derivative at breakpoint k
+	 */
+	private static double akimaDerivative(double[] breakPoints, int window, int k, double f0, double f1, double f2, double f3, double f4) {
+		double x0 = breakPoints[window],     x1 = breakPoints[window + 1], x2 = breakPoints[window + 2];
+		double x3 = breakPoints[window + 3], x4 = breakPoints[window + 4];
+
+		switch (k) {
+		case 0:
+			return differentiateThreePoint(0,       x1 - x0, x2 - x0, f0, f1, f2);
+		case 1:
+			return differentiateThreePoint(x1 - x0, x1 - x0, x2 - x0, f0, f1, f2);
+		case 3:
+			return differentiateThreePoint(x3 - x2, x3 - x2, x4 - x2, f2, f3, f4);
+		case 4:
+			return differentiateThreePoint(x4 - x2, x3 - x2, x4 - x2, f2, f3, f4);
+		default:
+			double d0 = (f1 - f0) / (x1 - x0);
+			double d1 = (f2 - f1) / (x2 - x1);
+			double d2 = (f3 - f2) / (x3 - x2);
+			double d3 = (f4 - f3) / (x4 - x3);
+
+			double wP = Math.abs(d3 - d2);
+			double wM = Math.abs(d1 - d0);
+
+			if (Precision.equals(wP, 0.0) && Precision.equals(wM, 0.0))
+				return (((x3 - x2) * d1) + ((x2 - x1) * d2)) / (x3 - x1);
+
+			return ((wP * d1) + (wM * d2)) / (wP + wM);
+		}
+	}
+
+	/**
+	 * Three point differentiation helper, modeled after Apache Commons' AkimaSplineInterpolator
+	 *
+	 * @param t distance from the first sample to the point of differentiation
+	 * @param t1 distance from the first sample to the second
+	 * @param t2 distance from the first sample to the third
+	 * @param y0 value of the first sample
+	 * @param y1 value of the second sample
+	 * @param y2 value of the third sample
+	 * @return first derivative at t
+	 */
+	private static double differentiateThreePoint(double t, double t1, double t2, double y0, double y1, double y2) {
+		double a = (y2 - y0 - (t2 / t1 * (y1 - y0))) / (t2 * t2 - t1 * t2);
+		double b = (y1 - y0 - a * t1 * t1) / t1;
+
+		return (2 * a * t) + b;
+	}
+
+
+	/**
+	 * Linearly interpolates a one dimensional table, holding the end values constant outside of the breakpoints
+	 *
+	 * @param xVals monotonically increasing breakpoints
+	 * @param fVals table values
+	 * @param x
+	 * @return interpolated value
+	 */
+	public static double linearValue(double[] xVals, double[] fVals, double x) {
+		if (xVals.length == 1)
+			return fVals[0];
+
+		int i = searchIntervalClamped(xVals, x);
+		double t = clamp((x - xVals[i]) / (xVals[i + 1] - xVals[i]));
+
+		return fVals[i] + t * (fVals[i + 1] - fVals[i]);
+	}
+
+	/**
+	 * Bilinearly interpolates a two dimensional table, holding the edge values constant outside of the breakpoints
+	 *
+	 * @param xVals monotonically increasing breakpoints of the first dimension
+	 * @param yVals monotonically increasing breakpoints of the second dimension
+	 * @param fVals table values indexed [x][y]
+	 * @param x
+	 * @param y
+	 * @return interpolated value
+	 */
+	public static double bilinearValue(double[] xVals, double[] yVals, double[][] fVals, double x, double y) {
+		if (xVals.length == 1)
+			return linearValue(yVals, fVals[0], y);
+
+		int i = searchIntervalClamped(xVals, x);
+		double t = clamp((x - xVals[i]) / (xVals[i + 1] - xVals[i]));
+
+		if (yVals.length == 1)
+			return fVals[i][0] + t * (fVals[i + 1][0] - fVals[i][0]);
+
+		int j = searchIntervalClamped(yVals, y);
+		double u = clamp((y - yVals[j]) / (yVals[j + 1] - yVals[j]));
+
+		double f0 = fVals[i][j]     + u * (fVals[i][j + 1]     - fVals[i][j]);
+		double f1 = fVals[i + 1][j] + u * (fVals[i + 1][j + 1] - fVals[i + 1][j]);
+
+		return f0 + t * (f1 - f0);
+	}
+
+	/**
+	 * Finds the index of the lower breakpoint of the interval that contains value, returning the first or last
+	 * interval if value lies outside of the breakpoints
+	 *
+	 * @param breakPoints monotonically increasing breakpoints, at least two long
+	 * @param value
+	 * @return index between 0 and breakPoints.length - 2
+	 */
+	public static int searchIntervalClamped(double[] breakPoints, double value) {
+		final int last = breakPoints.length - 1;
+
+		if (!(value > breakPoints[0]))
+			return 0;
+		if (value >= breakPoints[last])
+			return last - 1;
+
+		int low = 0, high = last;
+		while (high - low > 1) {
+			int mid = (low + high) >>> 1;
+			if (breakPoints[mid] <= value)
+				low = mid;
+			else
+				high = mid;
+		}
+
+		return low;
+	}
+
+	private static double clamp(double t) { return t < 0 ? 0 : (t > 1 ? 1 : t); }
+}
@@ -3,6 +3,8 @@
  */
 package com.chrisali.javaflightsim.simulation.utilities;
 
+import java.io.File;
+
 /**
  * Contains directories used by the simulation component of JavaFlightSimulator 
  * 
@@ -11,7 +13,11 @@ package com.chrisali.javaflightsim.simulation.utilities;
  */
 public enum SimDirectories {
 	AIRCRAFT      ("Aircraft"),
-	SIM_CONFIG	  ("SimConfig");
+	SIM_CONFIG	  ("SimConfig"),
+	SNAPSHOTS	  ("SimConfig" + File.separator + "Snapshots"),
+	RECORDINGS	  ("Recordings"),
+	RESULTS		  ("Results"),
+	TERRAIN		  ("Resources" + File.separator + "Terrain");
 	
 	private String directory;
 	
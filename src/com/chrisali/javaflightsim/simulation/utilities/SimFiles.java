@@ -13,10 +13,14 @@ public enum SimFiles {
 	// Aircraft Files
 	DESCRIPTION  		("Description"),
 	PREVIEW_PICTURE  	("PreviewPicture"),
+	
+	// Terrain Files
+	HEIGHT_MAP			("heightMap"),
 		
 	// Extensions
 	DESCRIPTION_EXT		(".txt"),
-	PREVIEW_PIC_EXT     (".jpg");
+	PREVIEW_PIC_EXT     (".jpg"),
+	HEIGHT_MAP_EXT		(".png");
 	
 	private String file;
 	
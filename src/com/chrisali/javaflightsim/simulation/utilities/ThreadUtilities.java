@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.simulation.utilities;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class provides methods shared by the thread pools that run work in the background of the simulation and out the window 
+ * display 
+ */
+public class ThreadUtilities {
+	
+	/**
+	 * Creates daemon threads named name followed by a number counting up from 1, so that a pool's threads can be told apart in 
+	 * logs and never keep the application from exiting
+	 * 
+	 * @param name
+	 * @return thread factory for an executor
+	 */
+	public static ThreadFactory namedDaemonThreads(String name) {
+		AtomicInteger count = new AtomicInteger(1);
+		
+		return runnable -> {
+			Thread thread = new Thread(runnable, name + " " + count.getAndIncrement());
+			thread.setDaemon(true);
+			
+			return thread;
+		};
+	}
+}
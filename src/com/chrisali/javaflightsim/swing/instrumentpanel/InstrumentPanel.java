@@ -22,16 +22,18 @@ package com.chrisali.javaflightsim.swing.instrumentpanel;
 import java.awt.Color;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.text.DecimalFormat;
-import java.util.Map;
 
 import javax.swing.BorderFactory;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.Timer;
 import javax.swing.border.Border;
 
 import com.chrisali.javaflightsim.simulation.datatransfer.FlightData;
-import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataListener;
+import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataSnapshot;
 import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataType;
 import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
 import com.chrisali.javaflightsim.swing.instrumentpanel.gauges.AirspeedIndicator;
@@ -50,10 +52,13 @@ import eu.hansolo.steelseries.tools.LedColor;
  *  gauge framework. Instruments are arranged in a typical "six-pack" layout common in general aviation aircraft, and
  *  make use of flight data gathered by {@link FlightData} from {@link Integrate6DOFEquations}
  */
-public class InstrumentPanel extends JPanel implements FlightDataListener {
+public class InstrumentPanel extends JPanel {
 
 	private static final long serialVersionUID = -3900476226233156470L;
 	
+	// Rate at which gauges are refreshed from flight data
+	private static final int REFRESH_PERIOD_MS = 33;
+	
 	private Altimeter 		   altimeter; 
 	private	ArtificialHorizon  artificalHorizon; 
 	private	DirectionalGyro	   directionalGyro; 
@@ -64,9 +69,12 @@ public class InstrumentPanel extends JPanel implements FlightDataListener {
 	private JLabel			   flapsIndicator;
 	private Led				   gearIndicator;
 	
+	private final DecimalFormat df = new DecimalFormat("#");
+	private Timer refreshTimer;
+	
 	/**
-	 * Creates a simple instrument panel with a {@link FlightDataListener} to set the gauge values from
-	 * flight data received by the simulation in {@link FlightData}
+	 * Creates a simple instrument panel; gauge values are set from flight data published by the simulation in 
+	 * {@link FlightData} once {@link InstrumentPanel#setFlightData(FlightDataSnapshot)} is called
 	 */
 	public InstrumentPanel() {
 		super();
@@ -257,34 +265,49 @@ public class InstrumentPanel extends JPanel implements FlightDataListener {
 	}
 
 	/**
-	 * When the instrument panel receives the event that data was received, use the values stored
-	 * in {@link FlightData}'s EnumMap flightData to set gauge values
+	 * Starts a Swing timer on the event dispatch thread that refreshes the snapshot and, if new flight data has been
+	 * published, updates the gauges. Replaces any snapshot set previously
+	 * 
+	 * @param flightData snapshot created by {@link FlightData#createSnapshot()}
 	 */
-	@Override
-	public void onFlightDataReceived(FlightData flightData) {
-		Map<FlightDataType, Double> receivedFlightData = flightData.getFlightData();
-		DecimalFormat df = new DecimalFormat("#");
-		
-		if (!receivedFlightData.containsValue(null)) {
-			artificalHorizon.setPitch(receivedFlightData.get(FlightDataType.PITCH));
-			artificalHorizon.setRoll(receivedFlightData.get(FlightDataType.ROLL));
-			
-			altimeter.setValue(receivedFlightData.get(FlightDataType.ALTITUDE));
-			
-			airspeedIndicator.setValue(receivedFlightData.get(FlightDataType.IAS));
-			
-			directionalGyro.setValue(receivedFlightData.get(FlightDataType.HEADING));
-			
-			verticalSpeed.setValue(receivedFlightData.get(FlightDataType.VERT_SPEED));
-			
-			turnCoordinator.setInclinoValue(receivedFlightData.get(FlightDataType.TURN_RATE));
-			turnCoordinator.setCoordValue(receivedFlightData.get(FlightDataType.TURN_COORD));
-			
-			tachometer.setLeftValue(receivedFlightData.get(FlightDataType.RPM_1));
-			tachometer.setRightValue(receivedFlightData.get(FlightDataType.RPM_2));
-			
-			flapsIndicator.setText(String.valueOf(df.format(receivedFlightData.get(FlightDataType.FLAPS))));
-			gearIndicator.setLedOn(receivedFlightData.get(FlightDataType.GEAR) == 1.0);
-		}
+	public void setFlightData(final FlightDataSnapshot flightData) {
+		if (refreshTimer != null)
+			refreshTimer.stop();
+		
+		refreshTimer = new Timer(REFRESH_PERIOD_MS, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if (flightData.refresh())
+					updateGauges(flightData);
+			}
+		});
+		refreshTimer.start();
+	}
+
+	/**
+	 * Uses the values pulled into a {@link FlightDataSnapshot} to set gauge values
+	 * 
+	 * @param receivedFlightData
+	 */
+	private void updateGauges(FlightDataSnapshot receivedFlightData) {
+		artificalHorizon.setPitch(receivedFlightData.get(FlightDataType.PITCH));
+		artificalHorizon.setRoll(receivedFlightData.get(FlightDataType.ROLL));
+		
+		altimeter.setValue(receivedFlightData.get(FlightDataType.ALTITUDE));
+		
+		airspeedIndicator.setValue(receivedFlightData.get(FlightDataType.IAS));
+		
+		directionalGyro.setValue(receivedFlightData.get(FlightDataType.HEADING));
+		
+		verticalSpeed.setValue(receivedFlightData.get(FlightDataType.VERT_SPEED));
+		
+		turnCoordinator.setInclinoValue(receivedFlightData.get(FlightDataType.TURN_RATE));
+		turnCoordinator.setCoordValue(receivedFlightData.get(FlightDataType.TURN_COORD));
+		
+		tachometer.setLeftValue(receivedFlightData.get(FlightDataType.RPM_1));
+		tachometer.setRightValue(receivedFlightData.get(FlightDataType.RPM_2));
+		
+		flapsIndicator.setText(String.valueOf(df.format(receivedFlightData.get(FlightDataType.FLAPS))));
+		gearIndicator.setLedOn(receivedFlightData.get(FlightDataType.GEAR) == 1.0);
 	}
 }
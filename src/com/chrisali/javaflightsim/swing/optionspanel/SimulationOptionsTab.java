@@ -55,6 +55,11 @@ public class SimulationOptionsTab extends JPanel {
 	private JLabel headerLabel;
 	private JCheckBox analysisMode;
 	private JCheckBox consoleDisplay;
+	private JCheckBox instrumentation;
+	private JCheckBox autopilot;
+	private JCheckBox aiTraffic;
+	private JCheckBox recordControls;
+	private JCheckBox replayControls;
 	private JList<String> controllers;
 	private JSpinner stepSizeSpinner;
 	private StepSizeValueChangedListener stepSizeValueChangedListener;
@@ -118,7 +123,8 @@ public class SimulationOptionsTab extends JPanel {
 			@Override
 			public void actionPerformed(ActionEvent e) {
 				if(((JCheckBox)e.getSource()).isSelected()) {
-					simulationOptions.removeIf(p -> (p != Options.CONSOLE_DISPLAY));
+					simulationOptions.removeIf(p -> (p != Options.CONSOLE_DISPLAY && p != Options.RECORD_CONTROLS && p != Options.REPLAY_CONTROLS 
+											&& p != Options.INSTRUMENTATION && p != Options.AUTOPILOT));
 					simulationOptions.add(Options.ANALYSIS_MODE);
 					controllers.setEnabled(false);
 				} else {
@@ -153,6 +159,117 @@ public class SimulationOptionsTab extends JPanel {
 		});
 		controlsPanel.add(consoleDisplay, gc);
 		
+		//---------- Instrumentation Checkbox ------------------- 
+		gc.gridy++;
+		
+		gc.gridx = 0;
+		gc.anchor = GridBagConstraints.EAST;
+		controlsPanel.add(new JLabel("Instrumentation:"), gc);
+		
+		gc.gridx = 1;
+		gc.anchor = GridBagConstraints.WEST;
+		instrumentation = new JCheckBox("Record Frame Timing");
+		instrumentation.setToolTipText("Records the time taken by each step of the simulation and frame overruns, available through JMX " +
+									   "and summarized in the log");
+		instrumentation.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if(((JCheckBox)e.getSource()).isSelected())
+					simulationOptions.add(Options.INSTRUMENTATION);
+				else
+					simulationOptions.remove(Options.INSTRUMENTATION);
+			}
+		});
+		controlsPanel.add(instrumentation, gc);
+		
+		//---------- Autopilot Checkbox ------------------------- 
+		gc.gridy++;
+		
+		gc.gridx = 0;
+		gc.anchor = GridBagConstraints.EAST;
+		controlsPanel.add(new JLabel("Autopilot:"), gc);
+		
+		gc.gridx = 1;
+		gc.anchor = GridBagConstraints.WEST;
+		autopilot = new JCheckBox("Engage Autopilot");
+		autopilot.setToolTipText("Engages the autopilot modes of the aircraft's autopilot configuration when the simulation starts, " +
+								 "holding the altitude, heading and airspeed of the initial conditions by default");
+		autopilot.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if(((JCheckBox)e.getSource()).isSelected())
+					simulationOptions.add(Options.AUTOPILOT);
+				else
+					simulationOptions.remove(Options.AUTOPILOT);
+			}
+		});
+		controlsPanel.add(autopilot, gc);
+		
+		//---------- AI Traffic Checkbox ------------------------ 
+		gc.gridy++;
+		
+		gc.gridx = 0;
+		gc.anchor = GridBagConstraints.EAST;
+		controlsPanel.add(new JLabel("AI Traffic:"), gc);
+		
+		gc.gridx = 1;
+		gc.anchor = GridBagConstraints.WEST;
+		aiTraffic = new JCheckBox("Show AI Traffic");
+		aiTraffic.setToolTipText("Fills the sky around the aircraft with AI aircraft flying random routes");
+		aiTraffic.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if(((JCheckBox)e.getSource()).isSelected())
+					simulationOptions.add(Options.AI_TRAFFIC);
+				else
+					simulationOptions.remove(Options.AI_TRAFFIC);
+			}
+		});
+		controlsPanel.add(aiTraffic, gc);
+		
+		//---------- Record/Replay Controls Checkboxes ----------- 
+		gc.gridy++;
+		
+		gc.gridx = 0;
+		gc.anchor = GridBagConstraints.EAST;
+		controlsPanel.add(new JLabel("Flight Controls:"), gc);
+		
+		gc.gridx = 1;
+		gc.anchor = GridBagConstraints.WEST;
+		recordControls = new JCheckBox("Record");
+		recordControls.setToolTipText("Records the flight controls of the simulation so that the session can be replayed later");
+		replayControls = new JCheckBox("Replay");
+		replayControls.setToolTipText("Replaces input devices and analysis inputs with the last recorded flight controls. " +
+									  "In analysis mode, the recorded session is simulated as fast as possible");
+		recordControls.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if(((JCheckBox)e.getSource()).isSelected()) {
+					simulationOptions.add(Options.RECORD_CONTROLS);
+					simulationOptions.remove(Options.REPLAY_CONTROLS);
+					replayControls.setSelected(false);
+				} else {
+					simulationOptions.remove(Options.RECORD_CONTROLS);
+				}
+			}
+		});
+		replayControls.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if(((JCheckBox)e.getSource()).isSelected()) {
+					simulationOptions.add(Options.REPLAY_CONTROLS);
+					simulationOptions.remove(Options.RECORD_CONTROLS);
+					recordControls.setSelected(false);
+				} else {
+					simulationOptions.remove(Options.REPLAY_CONTROLS);
+				}
+			}
+		});
+		JPanel recordReplayPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+		recordReplayPanel.add(recordControls);
+		recordReplayPanel.add(replayControls);
+		controlsPanel.add(recordReplayPanel, gc);
+		
 		//-------------- Controllers List  ------------------------ 
 		gc.gridy++;
 		
@@ -239,6 +356,11 @@ public class SimulationOptionsTab extends JPanel {
 		
 		analysisMode.setSelected(simulationOptions.contains(Options.ANALYSIS_MODE) ? true : false);
 		consoleDisplay.setSelected(simulationOptions.contains(Options.CONSOLE_DISPLAY) ? true : false);
+		instrumentation.setSelected(simulationOptions.contains(Options.INSTRUMENTATION) ? true : false);
+		autopilot.setSelected(simulationOptions.contains(Options.AUTOPILOT));
+		aiTraffic.setSelected(simulationOptions.contains(Options.AI_TRAFFIC));
+		recordControls.setSelected(simulationOptions.contains(Options.RECORD_CONTROLS));
+		replayControls.setSelected(simulationOptions.contains(Options.REPLAY_CONTROLS));
 		
 		if (simulationOptions.contains(Options.USE_MOUSE))
 			controllers.setSelectedIndex(1);
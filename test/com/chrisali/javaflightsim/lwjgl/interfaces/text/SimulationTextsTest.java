@@ -0,0 +1,74 @@
+package com.chrisali.javaflightsim.lwjgl.interfaces.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+import org.lwjgl.util.vector.Vector2f;
+
+public class SimulationTextsTest {
+	
+	private static String format(double value, int decimals) {
+		return SimulationTexts.appendDecimal(new StringBuilder(), value, decimals).toString();
+	}
+	
+	@Test
+	public void AppendDecimalTest() {
+		assertEquals("0", format(0, 0));
+		assertEquals("120", format(119.6, 0));
+		assertEquals("-12.3457", format(-12.34567, 4));
+		assertEquals("0.0005", format(0.00049999, 4));
+		assertEquals("3.07", format(3.0712, 2));
+		assertEquals("1.00", format(0.999, 2));
+		assertEquals("Small negative numbers have no sign", "0.00", format(-0.001, 2));
+		assertEquals("NaN", format(Double.NaN, 2));
+	}
+	
+	@Test
+	public void MatchesDecimalFormatTest() {
+		String[] patterns = {"0", "0.0", "0.00", "0.000", "0.0000"};
+		DecimalFormat[] formats = new DecimalFormat[patterns.length];
+		for (int i = 0; i < patterns.length; i++)
+			formats[i] = new DecimalFormat(patterns[i], DecimalFormatSymbols.getInstance(Locale.ROOT));
+		Random random = new Random(42);
+		
+		for (int i = 0; i < 10000; i++) {
+			double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(7));
+			
+			for (int decimals = 0; decimals < formats.length; decimals++) {
+				String expected = formats[decimals].format(value);
+				
+				// DecimalFormat keeps the sign of negative numbers that round to zero 
+				if (expected.matches("-0(\\.0*)?"))
+					expected = expected.substring(1);
+				
+				assertEquals(expected, format(value, decimals));
+			}
+		}
+	}
+	
+	@Test
+	public void TextStringTest() {
+		GUIText text = new GUIText("ALTITUDE: 100", 1, null, new Vector2f(), 1, false);
+		String string = text.getTextString();
+		
+		assertTrue("No mesh yet", text.isMeshOutdated());
+		text.setMeshUpToDate();
+		assertFalse(text.isMeshOutdated());
+		
+		text.setTextString(new StringBuilder("ALTITUDE: ").append(100));
+		assertSame("Unchanged text keeps its string", string, text.getTextString());
+		assertFalse(text.isMeshOutdated());
+		
+		text.setTextString(new StringBuilder("ALTITUDE: ").append(101));
+		assertEquals("ALTITUDE: 101", text.getTextString());
+		assertTrue(text.isMeshOutdated());
+	}
+}
@@ -0,0 +1,73 @@
+package com.chrisali.javaflightsim.lwjgl.loader;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.chrisali.javaflightsim.lwjgl.models.RawModel;
+
+/**
+ * {@link Loader} that returns a {@link RawModel} without loading the model's data into OpenGL, so that code that loads models can
+ * be tested and benchmarked without a display. Keeps track of the VAOs and VBOs that would be loaded
+ */
+public class HeadlessLoader extends Loader {
+	
+	private int nextID = 1;
+	
+	private final Set<Integer> loadedVAOs = new HashSet<>();
+	private final Set<Integer> loadedVBOs = new HashSet<>();
+	
+	private int createID(Set<Integer> loaded) {
+		int id = nextID++;
+		loaded.add(id);
+		
+		return id;
+	}
+	
+	@Override
+	public RawModel loadToVAO(float[] positions, float[] textureCoords, float[] normals, int[] indices) {
+		return new RawModel(createID(loadedVAOs), indices.length, RawModel.calculateBoundingRadius(positions));
+	}
+	
+	@Override
+	public RawModel loadToVAO(float[] positions, float[] textureCoords, float[] normals, int indexBuffer, int indexCount) {
+		return new RawModel(createID(loadedVAOs), indexCount);
+	}
+	
+	@Override
+	public int loadIndices(int[] indices) {
+		return createID(loadedVBOs);
+	}
+	
+	@Override
+	public int createStaticVBO(float[] data) {
+		return createID(loadedVBOs);
+	}
+	
+	@Override
+	public void unloadVAO(int vaoID) {
+		loadedVAOs.remove(vaoID);
+	}
+	
+	@Override
+	public void unloadVBO(int vbo) {
+		loadedVBOs.remove(vbo);
+	}
+	
+	@Override
+	public int loadTexture(String fileName, String directory) {
+		return 0;
+	}
+	
+	@Override
+	public void cleanUp() {
+		loadedVAOs.clear();
+		loadedVBOs.clear();
+	}
+	
+	/**
+	 * @return number of VAOs loaded and not yet unloaded
+	 */
+	public int getLoadedVAOCount() {
+		return loadedVAOs.size();
+	}
+}
@@ -0,0 +1,75 @@
+package com.chrisali.javaflightsim.lwjgl.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.lwjgl.util.vector.Matrix4f;
+import org.lwjgl.util.vector.Vector3f;
+
+import com.chrisali.javaflightsim.lwjgl.entities.Entity;
+import com.chrisali.javaflightsim.lwjgl.textures.ModelTexture;
+import com.chrisali.javaflightsim.lwjgl.utilities.RenderingUtilities;
+
+public class InstancedModelTest {
+	
+	private static final int LENGTH = InstancedModel.INSTANCE_DATA_LENGTH;
+	
+	private TexturedModel pine;
+	private TexturedModel oak;
+	
+	@Before
+	public void setUp() {
+		pine = new TexturedModel(new RawModel(0, 3, 10), new ModelTexture(0));
+		oak = new TexturedModel(new RawModel(0, 3, 10), new ModelTexture(0));
+		oak.getTexture().setNumberOfAtlasRows(2);
+	}
+	
+	@Test
+	public void GroupByModelTest() {
+		List<Entity> entities = new ArrayList<>();
+		entities.add(new Entity(pine, new Vector3f(1, 2, 3), 0, 0, 0, 1));
+		entities.add(new Entity(oak, new Vector3f(4, 5, 6), 0, 0, 0, 1));
+		entities.add(new Entity(pine, new Vector3f(7, 8, 9), 0, 0, 0, 1));
+		entities.add(new Entity(null, new Vector3f(0, 0, 0), 0, 0, 0, 1));
+		
+		List<InstancedModel> instancedModels = InstancedModel.groupByModel(entities);
+		
+		assertEquals("Entities without a model are left out", 2, instancedModels.size());
+		
+		assertSame(pine, instancedModels.get(0).getModel());
+		assertEquals(2, instancedModels.get(0).getInstanceCount());
+		assertEquals(2 * LENGTH, instancedModels.get(0).getInstanceData().length);
+		assertEquals("Instances in order", 7, instancedModels.get(0).getInstanceData()[LENGTH + 12], 0);
+		
+		assertSame(oak, instancedModels.get(1).getModel());
+		assertEquals(1, instancedModels.get(1).getInstanceCount());
+	}
+	
+	@Test
+	public void InstanceDataTest() {
+		Entity entity = new Entity(oak, 3, new Vector3f(10, 20, 30), 5, 45, 10, 2);
+		Matrix4f expected = RenderingUtilities.createTransformationMatrix(entity.getPosition(), entity.getRotX(), 
+																		  entity.getRotY(), entity.getRotZ(), entity.getScale());
+		
+		float[] data = new float[LENGTH + 1];
+		int pointer = InstancedModel.storeInstanceData(entity, new Matrix4f(), data, 1);
+		
+		assertEquals(LENGTH + 1, pointer);
+		
+		float[] columns = {expected.m00, expected.m01, expected.m02, expected.m03,
+						   expected.m10, expected.m11, expected.m12, expected.m13,
+						   expected.m20, expected.m21, expected.m22, expected.m23,
+						   expected.m30, expected.m31, expected.m32, expected.m33};
+		for (int i = 0; i < columns.length; i++)
+			assertEquals(columns[i], data[1 + i], 0);
+		
+		// Atlas index 3 of 2 rows is the bottom right
+		assertEquals(0.5f, data[17], 0);
+		assertEquals(0.5f, data[18], 0);
+	}
+}
@@ -0,0 +1,88 @@
+package com.chrisali.javaflightsim.lwjgl.renderengine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.lwjgl.util.vector.Matrix4f;
+import org.lwjgl.util.vector.Vector3f;
+
+public class FrustumTest {
+	
+	private static final float FOV = 85;
+	private static final float ASPECT_RATIO = 16f / 9f;
+	private static final float NEAR_PLANE = 0.1f;
+	private static final float FAR_PLANE = 6000;
+	
+	private Frustum frustum;
+	private Matrix4f projectionMatrix;
+	
+	/**
+	 * Projection matrix made as {@link MasterRenderer} makes it
+	 */
+	static Matrix4f createProjectionMatrix() {
+		float yScale = (float) ((1f / Math.tan(Math.toRadians(FOV / 2f))) * ASPECT_RATIO);
+		float xScale = yScale / ASPECT_RATIO;
+		float frustumLength = FAR_PLANE - NEAR_PLANE;
+		
+		Matrix4f projectionMatrix = new Matrix4f();
+		projectionMatrix.m00 = xScale;
+		projectionMatrix.m11 = yScale;
+		projectionMatrix.m22 = -((FAR_PLANE + NEAR_PLANE) / frustumLength);
+		projectionMatrix.m23 = -1;
+		projectionMatrix.m32 = -((2 * NEAR_PLANE * FAR_PLANE) / frustumLength);
+		projectionMatrix.m33 = 0;
+		
+		return projectionMatrix;
+	}
+	
+	/**
+	 * View matrix of a camera at position looking along the negative z axis, turned yaw degrees to the right
+	 */
+	static Matrix4f createViewMatrix(Vector3f position, float yaw) {
+		Matrix4f viewMatrix = new Matrix4f();
+		Matrix4f.rotate((float) Math.toRadians(yaw), new Vector3f(0, 1, 0), viewMatrix, viewMatrix);
+		Matrix4f.translate(new Vector3f(-position.x, -position.y, -position.z), viewMatrix, viewMatrix);
+		
+		return viewMatrix;
+	}
+	
+	@Before
+	public void setUp() {
+		frustum = new Frustum();
+		projectionMatrix = createProjectionMatrix();
+		frustum.update(projectionMatrix, createViewMatrix(new Vector3f(0, 0, 0), 0));
+	}
+	
+	@Test
+	public void SphereTest() {
+		assertTrue("Ahead", frustum.intersectsSphere(0, 0, -100, 1));
+		assertFalse("Behind", frustum.intersectsSphere(0, 0, 100, 1));
+		assertFalse("Beyond the far plane", frustum.intersectsSphere(0, 0, -FAR_PLANE - 10, 1));
+		assertFalse("Left of the view", frustum.intersectsSphere(-1000, 0, -100, 1));
+		assertFalse("Above the view", frustum.intersectsSphere(0, 1000, -100, 1));
+		assertTrue("Behind, but large enough to reach into view", frustum.intersectsSphere(0, 0, 50, 60));
+		assertTrue("Left of the view, but large enough to reach into it", frustum.intersectsSphere(-1000, 0, -100, 1000));
+	}
+	
+	@Test
+	public void BoxTest() {
+		assertEquals(Frustum.INSIDE, frustum.classifyBox(-1, -1, -101, 1, 1, -99));
+		assertEquals(Frustum.INTERSECTING, frustum.classifyBox(-1000, -1, -101, 0, 1, -99));
+		assertEquals(Frustum.INTERSECTING, frustum.classifyBox(-1, -1, -1, 1, 1, 1));
+		assertEquals(Frustum.OUTSIDE, frustum.classifyBox(-1, -1, 10, 1, 1, 20));
+		assertEquals(Frustum.OUTSIDE, frustum.classifyBox(500, -1, -101, 600, 1, -99));
+	}
+	
+	@Test
+	public void MovedCameraTest() {
+		// Moved to the right, then turned to look along the positive x axis
+		frustum.update(projectionMatrix, createViewMatrix(new Vector3f(500, 0, 0), 90));
+		
+		assertTrue(frustum.intersectsSphere(600, 0, 0, 1));
+		assertFalse(frustum.intersectsSphere(400, 0, 0, 1));
+		assertFalse(frustum.intersectsSphere(0, 0, -100, 1));
+	}
+}
@@ -0,0 +1,230 @@
+package com.chrisali.javaflightsim.lwjgl.renderengine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.lwjgl.util.vector.Matrix4f;
+import org.lwjgl.util.vector.Vector3f;
+
+import com.chrisali.javaflightsim.lwjgl.entities.Entity;
+import com.chrisali.javaflightsim.lwjgl.entities.EntityCollections;
+import com.chrisali.javaflightsim.lwjgl.loader.HeadlessLoader;
+import com.chrisali.javaflightsim.lwjgl.models.InstancedModel;
+import com.chrisali.javaflightsim.lwjgl.models.RawModel;
+import com.chrisali.javaflightsim.lwjgl.models.TexturedModel;
+import com.chrisali.javaflightsim.lwjgl.terrain.Terrain;
+import com.chrisali.javaflightsim.lwjgl.textures.ModelTexture;
+import com.chrisali.javaflightsim.lwjgl.utilities.OTWDirectories;
+import com.chrisali.javaflightsim.simulation.terrain.HeightField;
+import com.chrisali.javaflightsim.simulation.terrain.WorldTerrain;
+
+public class SceneCullerTest {
+	
+	private static final int VERTEX_COUNT = 5;
+	private static final float DRAW_DISTANCE = 3000;
+	
+	// Autogen entities are scaled by 6 to 7, so the entities of each tile reach more than 800 beyond it 
+	private static final float ENTITY_MODEL_RADIUS = 140;
+	
+	// Camera over the middle of tile 0, 0 looking along the negative z axis
+	private static final Vector3f CAMERA_POSITION = new Vector3f(800, 100, 800);
+	
+	private Matrix4f projectionMatrix;
+	private Matrix4f viewMatrix;
+	
+	private SceneCuller sceneCuller;
+	private EntityCollections entityCollections;
+	private List<Terrain> terrains;
+	private TexturedModel model;
+	
+	@Before
+	public void setUp() {
+		projectionMatrix = FrustumTest.createProjectionMatrix();
+		viewMatrix = FrustumTest.createViewMatrix(CAMERA_POSITION, 0);
+		sceneCuller = new SceneCuller();
+		model = new TexturedModel(new RawModel(0, 3, 10), new ModelTexture(0));
+		
+		// Loads the models that autogen entities are created with, so that each tile has real entities to cull
+		entityCollections = new EntityCollections(new ArrayList<>(), new HeadlessLoader() {
+			@Override
+			public RawModel loadToVAO(float[] positions, float[] textureCoords, float[] normals, int[] indices) {
+				return new RawModel(0, indices.length, ENTITY_MODEL_RADIUS);
+			}
+		});
+		
+		HeightField heightField = new HeightField(WorldTerrain.TILE_SIZE, VERTEX_COUNT);
+		terrains = new ArrayList<>();
+		for (int x = -3; x <= 3; x++) {
+			for (int z = -3; z <= 3; z++) {
+				heightField.putTile(x, z, new float[VERTEX_COUNT * VERTEX_COUNT]);
+				terrains.add(new Terrain(x, z, heightField, OTWDirectories.TERRAIN.toString(), null, null, null));
+			}
+		}
+	}
+	
+	private static int entityCount(Terrain terrain) {
+		return terrain.getStaticEntities().size() + terrain.getLitEntities().size();
+	}
+	
+	/**
+	 * @return if all of the instanced models of terrain's entities are in the instance buckets
+	 */
+	private boolean entitiesDrawn(Terrain terrain) {
+		for (InstancedModel instancedModel : terrain.getInstancedModels()) {
+			List<InstancedModel> bucket = sceneCuller.getInstanceBuckets().get(instancedModel.getModel());
+			
+			if (bucket == null || !bucket.contains(instancedModel))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * @return if none of the instanced models of terrain's entities are in the instance buckets
+	 */
+	private boolean entitiesCulled(Terrain terrain) {
+		for (List<InstancedModel> bucket : sceneCuller.getInstanceBuckets().values()) {
+			for (InstancedModel instancedModel : terrain.getInstancedModels()) {
+				if (bucket.contains(instancedModel))
+					return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	@Test
+	public void TerrainCullingTest() {
+		sceneCuller.begin(projectionMatrix, viewMatrix, CAMERA_POSITION, DRAW_DISTANCE);
+		sceneCuller.addTerrains(terrains);
+		
+		List<Terrain> visible = sceneCuller.getTerrains();
+		
+		assertEquals(terrains.size(), sceneCuller.getTerrainsDrawn() + sceneCuller.getTerrainsCulled());
+		assertEquals(visible.size(), sceneCuller.getTerrainsDrawn());
+		assertTrue(sceneCuller.getTerrainsCulled() > 0);
+		
+		assertSame("The tile under the camera is nearest", terrainAt(0, 0), visible.get(0));
+		assertTrue("Tile ahead is drawn", visible.contains(terrainAt(0, -1)));
+		assertFalse("Tile behind is culled", visible.contains(terrainAt(0, 2)));
+		assertFalse("Tile beyond the draw distance is culled", visible.contains(terrainAt(0, -3)));
+		
+		for (int i = 1; i < visible.size(); i++)
+			assertTrue("Nearest first", visible.get(i - 1).getDistanceTo(CAMERA_POSITION) <= visible.get(i).getDistanceTo(CAMERA_POSITION));
+		
+		
+		// Every tile has the same autogen entities
+		Terrain under = terrainAt(0, 0);
+		assertTrue(entityCount(under) > 0);
+		assertFalse(under.getInstancedModels().isEmpty());
+		
+		int entitiesDrawn = 0, entitiesCulled = 0;
+		for (Terrain terrain : terrains) {
+			if (entitiesDrawn(terrain))
+				entitiesDrawn += entityCount(terrain);
+			else if (entitiesCulled(terrain))
+				entitiesCulled += entityCount(terrain);
+			else
+				fail("Entities of a tile are either all drawn or all culled");
+		}
+		
+		assertEquals(entitiesDrawn, sceneCuller.getEntitiesDrawn());
+		assertEquals(entitiesCulled, sceneCuller.getEntitiesCulled());
+		assertTrue(entitiesDrawn > 0 && entitiesCulled > 0);
+		
+		assertTrue("Entities of the tile under the camera are drawn", entitiesDrawn(under));
+		assertTrue("Entities of the tile ahead are drawn", entitiesDrawn(terrainAt(0, -1)));
+		assertTrue("Entities of the tile behind reach into view, so are drawn although the tile is culled", 
+				   entitiesDrawn(terrainAt(0, 1)) && !visible.contains(terrainAt(0, 1)));
+		assertTrue("Entities of a tile further behind are culled", entitiesCulled(terrainAt(0, 2)));
+		assertTrue("Entities of a tile beyond the draw distance are culled", entitiesCulled(terrainAt(0, -3)));
+	}
+	
+	private Terrain terrainAt(int gridX, int gridZ) {
+		for (Terrain terrain : terrains) {
+			if (terrain.getGridX() == gridX && terrain.getGridZ() == gridZ)
+				return terrain;
+		}
+		
+		return null;
+	}
+	
+	@Test
+	public void EntityCullingTest() {
+		Entity ahead = new Entity(model, new Vector3f(800, 100, 500), 0, 0, 0, 1);
+		Entity behind = new Entity(model, new Vector3f(800, 100, 1100), 0, 0, 0, 1);
+		Entity reachesIntoView = new Entity(model, new Vector3f(800, 100, 805), 0, 0, 0, 1);
+		Entity hidden = new Entity(model, new Vector3f(800, 100, 500), 0, 0, 0, 1);
+		hidden.setRender(false);
+		
+		sceneCuller.begin(projectionMatrix, viewMatrix, CAMERA_POSITION, DRAW_DISTANCE);
+		sceneCuller.addEntity(ahead);
+		sceneCuller.addEntity(behind);
+		sceneCuller.addEntity(reachesIntoView);
+		sceneCuller.addEntity(hidden);
+		
+		List<Entity> bucket = sceneCuller.getEntityBuckets().get(model);
+		
+		assertEquals(2, sceneCuller.getEntitiesDrawn());
+		assertEquals(2, sceneCuller.getEntitiesCulled());
+		assertTrue(bucket.contains(ahead));
+		assertTrue(bucket.contains(reachesIntoView));
+		
+		// Buckets are kept, but emptied, from one frame to the next
+		sceneCuller.begin(projectionMatrix, viewMatrix, CAMERA_POSITION, DRAW_DISTANCE);
+		
+		assertSame(bucket, sceneCuller.getEntityBuckets().get(model));
+		assertTrue(bucket.isEmpty());
+		assertEquals(0, sceneCuller.getEntitiesDrawn() + sceneCuller.getEntitiesCulled());
+		
+		sceneCuller.addEntity(behind);
+		
+		assertTrue(bucket.isEmpty());
+		assertEquals(1, sceneCuller.getEntitiesCulled());
+	}
+	
+	@Test
+	public void StaticEntityCullingTest() {
+		TexturedModel otherModel = new TexturedModel(new RawModel(0, 3, 10), new ModelTexture(0));
+		
+		entityCollections.addToStaticEntities(new Entity(model, new Vector3f(800, 100, 500), 0, 0, 0, 1));
+		entityCollections.addToStaticEntities(new Entity(model, new Vector3f(700, 100, 400), 0, 0, 0, 1));
+		entityCollections.addToStaticEntities(new Entity(otherModel, new Vector3f(800, 100, 1100), 0, 0, 0, 1));
+		
+		List<InstancedModel> instancedModels = entityCollections.getStaticInstancedModels();
+		
+		assertEquals("An instanced model for each model", 2, instancedModels.size());
+		assertSame("Static entities are only packed once", instancedModels, entityCollections.getStaticInstancedModels());
+		for (InstancedModel instancedModel : instancedModels)
+			assertTrue(instancedModel.isUploaded());
+		
+		// Only moving entities are streamed
+		entityCollections.forEachEntityWithin(CAMERA_POSITION, DRAW_DISTANCE, entity -> fail("Static entities aren't visited"));
+		
+		sceneCuller.begin(projectionMatrix, viewMatrix, CAMERA_POSITION, DRAW_DISTANCE);
+		sceneCuller.addInstancedModels(instancedModels);
+		
+		List<InstancedModel> bucket = sceneCuller.getInstanceBuckets().get(model);
+		
+		assertEquals(2, sceneCuller.getEntitiesDrawn());
+		assertEquals(1, sceneCuller.getEntitiesCulled());
+		assertEquals(1, bucket.size());
+		assertSame(model, bucket.get(0).getModel());
+		assertEquals(null, sceneCuller.getInstanceBuckets().get(otherModel));
+		
+		// Another static entity packs them again, and unloads those packed before
+		entityCollections.addToStaticEntities(new Entity(otherModel, new Vector3f(800, 100, 600), 0, 0, 0, 1));
+		
+		assertEquals(2, entityCollections.getStaticInstancedModels().size());
+		assertFalse(instancedModels.get(0).isUploaded());
+	}
+}
@@ -0,0 +1,275 @@
+package com.chrisali.javaflightsim.lwjgl.terrain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Test;
+import org.lwjgl.util.vector.Vector3f;
+
+import com.chrisali.javaflightsim.lwjgl.entities.Ownship;
+import com.chrisali.javaflightsim.lwjgl.loader.HeadlessLoader;
+import com.chrisali.javaflightsim.simulation.setup.TerrainConfiguration;
+import com.chrisali.javaflightsim.simulation.terrain.HeightSource;
+import com.chrisali.javaflightsim.simulation.terrain.WorldTerrain;
+
+public class TerrainCollectionTest {
+
+	private static final int VERTEX_COUNT = 17;
+	private static final long TIMEOUT_MS = 10000;
+
+	// Threads that TerrainCollection generates tiles on
+	private static final int GENERATOR_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+	private final HeadlessLoader loader = new HeadlessLoader();
+	private final Ownship ownship = new Ownship(null, new Vector3f(), 0, 0, 0, 1);
+	private final GatedHeightSource heightSource = new GatedHeightSource();
+
+	private TerrainCollection terrainCollection;
+
+	/**
+	 * Flat {@link HeightSource} that records the tiles sampled, can hold tile generation until it is opened, and can fail to read
+	 * a tile once
+	 */
+	private static class GatedHeightSource implements HeightSource {
+
+		private final float[] tile = new float[VERTEX_COUNT * VERTEX_COUNT];
+		private final Set<String> sampledTiles = Collections.synchronizedSet(new HashSet<>());
+		private volatile CountDownLatch gate;
+		private volatile String failingTile;
+
+		@Override
+		public float[] getTile(int tileX, int tileZ) {
+			String key = tileX + "," + tileZ;
+			sampledTiles.add(key);
+
+			if (key.equals(failingTile)) {
+				failingTile = null;
+				throw new IllegalStateException("Could not read tile " + key);
+			}
+
+			CountDownLatch latch = gate;
+			if (latch != null) {
+				try {
+					latch.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			return tile;
+		}
+
+		@Override
+		public double getHeight(double x, double z) { return 0; }
+
+		@Override
+		public void getHeights(double[] x, double[] z, double[] heights, int count) {}
+
+		@Override
+		public void getNormal(double x, double z, double[] normal) {
+			normal[0] = 0;
+			normal[1] = 1;
+			normal[2] = 0;
+		}
+
+		@Override
+		public double getTileSize() { return WorldTerrain.TILE_SIZE; }
+
+		@Override
+		public int getVertexCount() { return VERTEX_COUNT; }
+	}
+
+	private void createTerrainCollection(int maxResidentTiles) {
+		TerrainConfiguration configuration = new TerrainConfiguration();
+		configuration.setPagingRadius(1);
+		configuration.setMaxResidentTiles(maxResidentTiles);
+		configuration.setUploadsPerFrame(16);
+
+		terrainCollection = new TerrainCollection(loader, ownship, heightSource, configuration);
+	}
+
+	@After
+	public void tearDown() {
+		if (heightSource.gate != null)
+			heightSource.gate.countDown();
+		if (terrainCollection != null)
+			terrainCollection.close();
+	}
+
+	/**
+	 * Moves the ownship over the middle of the tile at gridX, gridZ
+	 */
+	private void moveTo(int gridX, int gridZ) {
+		ownship.getPosition().set((gridX + 0.5f) * Terrain.getSize(), 0, (gridZ + 0.5f) * Terrain.getSize());
+	}
+
+	/**
+	 * Updates the collection, as the display would each frame, until no tiles are pending
+	 */
+	private void updateUntilSettled() throws InterruptedException {
+		long end = System.currentTimeMillis() + TIMEOUT_MS;
+
+		terrainCollection.update();
+		while (terrainCollection.getPendingTileCount() > 0) {
+			assertTrue("Tiles were generated in time", System.currentTimeMillis() < end);
+			Thread.sleep(5);
+			terrainCollection.update();
+		}
+	}
+
+	private Set<String> residentTiles() {
+		Set<String> tiles = new HashSet<>();
+		for (Terrain terrain : terrainCollection.getTerrains())
+			tiles.add(terrain.getGridX() + "," + terrain.getGridZ());
+
+		return tiles;
+	}
+
+	/**
+	 * @return tiles within a paging radius of 1 of gridX, gridZ
+	 */
+	private static Set<String> tilesAround(int gridX, int gridZ) {
+		Set<String> tiles = new HashSet<>();
+		tiles.add(gridX + "," + gridZ);
+		tiles.add((gridX - 1) + "," + gridZ);
+		tiles.add((gridX + 1) + "," + gridZ);
+		tiles.add(gridX + "," + (gridZ - 1));
+		tiles.add(gridX + "," + (gridZ + 1));
+
+		return tiles;
+	}
+
+	private static Set<String> union(Set<String> a, Set<String> b) {
+		Set<String> tiles = new HashSet<>(a);
+		tiles.addAll(b);
+
+		return tiles;
+	}
+
+	@Test
+	public void PagesTilesAcrossBoundariesTest() throws InterruptedException {
+		moveTo(0, 0);
+		createTerrainCollection(5);
+
+		assertEquals("The tile under the ownship is uploaded right away", Collections.singleton("0,0"), residentTiles());
+		assertEquals(4, terrainCollection.getPendingTileCount());
+
+		updateUntilSettled();
+
+		assertEquals(tilesAround(0, 0), residentTiles());
+		assertEquals(0.0f, terrainCollection.getTerrainHeight(0.5f * Terrain.getSize(), 0.5f * Terrain.getSize()), 0.0f);
+
+		// Crossing into the next tile pages in the three tiles that came into range, and unloads the three that left it
+		moveTo(1, 0);
+		updateUntilSettled();
+
+		assertEquals(tilesAround(1, 0), residentTiles());
+		assertEquals("Evicted tiles are unloaded", 5, loader.getLoadedVAOCount());
+		assertEquals(null, terrainCollection.getTerrainAt(-0.5f * Terrain.getSize(), 0.5f * Terrain.getSize()));
+
+		// Back across the boundary, the tiles that left range are generated again
+		moveTo(0, 0);
+		updateUntilSettled();
+
+		assertEquals(tilesAround(0, 0), residentTiles());
+		assertEquals(5, loader.getLoadedVAOCount());
+	}
+
+	@Test
+	public void RetriesFailedTilesTest() throws InterruptedException {
+		moveTo(0, 0);
+		heightSource.failingTile = "1,0";
+		createTerrainCollection(5);
+
+		// The failed tile is no longer pending once the failure is seen, and is generated again without the ownship moving
+		updateUntilSettled();
+
+		assertEquals(null, heightSource.failingTile);
+		assertEquals(tilesAround(0, 0), residentTiles());
+		assertEquals(5, loader.getLoadedVAOCount());
+	}
+
+	@Test
+	public void EvictsLeastRecentlyUsedTilesTest() throws InterruptedException {
+		moveTo(0, 0);
+		createTerrainCollection(10);
+		updateUntilSettled();
+
+		// Room for both sets of tiles, so none are evicted
+		moveTo(0, 5);
+		updateUntilSettled();
+
+		assertEquals(union(tilesAround(0, 0), tilesAround(0, 5)), residentTiles());
+
+		// Tiles out of range are kept until more than maxResidentTiles are resident, then the least recently in range are evicted
+		moveTo(0, 10);
+		updateUntilSettled();
+
+		assertEquals(union(tilesAround(0, 5), tilesAround(0, 10)), residentTiles());
+		assertEquals(10, loader.getLoadedVAOCount());
+
+		// Tiles back in range are resident again, and those least recently in range evicted in their place
+		moveTo(0, 5);
+		updateUntilSettled();
+
+		assertEquals(union(tilesAround(0, 5), tilesAround(0, 10)), residentTiles());
+
+		moveTo(0, 0);
+		updateUntilSettled();
+
+		assertEquals(union(tilesAround(0, 0), tilesAround(0, 5)), residentTiles());
+		assertEquals(10, loader.getLoadedVAOCount());
+	}
+
+	@Test
+	public void CancelsPendingTilesOutOfRangeTest() throws InterruptedException {
+		moveTo(0, 0);
+		createTerrainCollection(10);
+		updateUntilSettled();
+
+		// Generation is held so that the tiles around 0, 5 stay pending
+		heightSource.gate = new CountDownLatch(1);
+		heightSource.sampledTiles.clear();
+
+		moveTo(0, 5);
+		terrainCollection.update();
+
+		assertEquals(5, terrainCollection.getPendingTileCount());
+
+		// Waits until every generator thread is held, so that no other tile can start generating
+		int running = Math.min(5, GENERATOR_THREADS);
+		long end = System.currentTimeMillis() + TIMEOUT_MS;
+		while (heightSource.sampledTiles.size() < running) {
+			assertTrue("Tiles started generating in time", System.currentTimeMillis() < end);
+			Thread.sleep(5);
+		}
+		Set<String> started = new HashSet<>(heightSource.sampledTiles);
+
+		// Moving on before they are generated cancels them, and only the tiles now in range are pending
+		moveTo(0, 10);
+		terrainCollection.update();
+
+		assertEquals(5, terrainCollection.getPendingTileCount());
+
+		heightSource.gate.countDown();
+		heightSource.gate = null;
+		updateUntilSettled();
+
+		assertEquals(union(tilesAround(0, 0), tilesAround(0, 10)), residentTiles());
+		assertEquals("Tiles cancelled after they were generated are dropped", 10, loader.getLoadedVAOCount());
+
+		Set<String> sampledAround = new HashSet<>(heightSource.sampledTiles);
+		sampledAround.retainAll(tilesAround(0, 5));
+		assertEquals("Cancelled tiles that hadn't started are never generated", started, sampledAround);
+
+		for (String tile : tilesAround(0, 5))
+			assertFalse(residentTiles().contains(tile));
+	}
+}
@@ -0,0 +1,214 @@
+package com.chrisali.javaflightsim.lwjgl.terrain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class TerrainLodTest {
+	
+	// One grid whose sides are a power of two plus one, and one whose last grid squares are narrower than the rest
+	private static final int[] VERTEX_COUNTS = {17, 20};
+	
+	private static final int[] EDGES = {TerrainLod.NEGATIVE_X, TerrainLod.POSITIVE_X, TerrainLod.NEGATIVE_Z, TerrainLod.POSITIVE_Z};
+	
+	/**
+	 * Twice the signed area of a triangle in the x, z plane of the mesh, positive for triangles wound as the mesh's are 
+	 */
+	private static long signedArea(int a, int b, int c, int vertexCount) {
+		long ax = a % vertexCount, az = a / vertexCount;
+		long bx = b % vertexCount, bz = b / vertexCount;
+		long cx = c % vertexCount, cz = c / vertexCount;
+		
+		return (bz - az) * (cx - ax) - (bx - ax) * (cz - az);
+	}
+	
+	private static boolean onEdge(int vertex, int edge, int vertexCount) {
+		int x = vertex % vertexCount, z = vertex / vertexCount, last = vertexCount - 1;
+		
+		switch (edge) {
+		case TerrainLod.NEGATIVE_X: return x == 0;
+		case TerrainLod.POSITIVE_X: return x == last;
+		case TerrainLod.NEGATIVE_Z: return z == 0;
+		default:					return z == last;
+		}
+	}
+	
+	/**
+	 * @return sides of triangles that lie along an edge of the tile, as vertex pairs in ascending order
+	 */
+	private static Set<Long> edgeSegments(TerrainLod lod, int level, int mask, int edge) {
+		int[] indices = drawnIndices(lod, level, mask);
+		int vertexCount = lod.getVertexCount();
+		Set<Long> segments = new HashSet<>();
+		
+		for (int i = 0; i < indices.length; i += 3) {
+			for (int side = 0; side < 3; side++) {
+				int a = indices[i + side], b = indices[i + (side + 1) % 3];
+				
+				if (onEdge(a, edge, vertexCount) && onEdge(b, edge, vertexCount))
+					segments.add(((long) Math.min(a, b) << 32) | Math.max(a, b));
+			}
+		}
+		
+		return segments;
+	}
+	
+	/**
+	 * @return indices drawn for a tile at level, stitched along the edges in mask; its level's interior followed by its border
+	 */
+	private static int[] drawnIndices(TerrainLod lod, int level, int mask) {
+		int[] drawn = new int[lod.getIndexCount(level, mask)];
+		System.arraycopy(lod.getIndices(), lod.getInteriorOffset(level), drawn, 0, lod.getInteriorCount(level));
+		System.arraycopy(lod.getIndices(), lod.getBorderOffset(level, mask), drawn, lod.getInteriorCount(level), lod.getBorderCount(level, mask));
+		
+		return drawn;
+	}
+	
+	private static Set<List<Integer>> triangles(int[] indices) {
+		Set<List<Integer>> triangles = new HashSet<>();
+		for (int i = 0; i < indices.length; i += 3)
+			triangles.add(Arrays.asList(indices[i], indices[i + 1], indices[i + 2]));
+		
+		return triangles;
+	}
+	
+	@Test
+	public void LevelZeroIsFullMeshTest() {
+		int vertexCount = 5;
+		TerrainLod lod = new TerrainLod(vertexCount, 3);
+		
+		int[] expected = new int[6 * (vertexCount - 1) * (vertexCount - 1)];
+		int pointer = 0;
+		for (int gz = 0; gz < vertexCount - 1; gz++) {
+			for (int gx = 0; gx < vertexCount - 1; gx++) {
+				int topLeft = gz * vertexCount + gx, topRight = topLeft + 1;
+				int bottomLeft = (gz + 1) * vertexCount + gx, bottomRight = bottomLeft + 1;
+				
+				expected[pointer++] = topLeft;
+				expected[pointer++] = bottomLeft;
+				expected[pointer++] = topRight;
+				expected[pointer++] = topRight;
+				expected[pointer++] = bottomLeft;
+				expected[pointer++] = bottomRight;
+			}
+		}
+		
+		int[] level0 = drawnIndices(lod, 0, 0);
+		
+		// Triangles may be in any order
+		assertEquals(expected.length, level0.length);
+		assertEquals(triangles(expected), triangles(level0));
+		assertEquals("Levels are limited by the grid size", 2, lod.getLevels());
+	}
+	
+	@Test
+	public void LevelsCoverTileWithoutFlippedTrianglesTest() {
+		for (int vertexCount : VERTEX_COUNTS) {
+			TerrainLod lod = new TerrainLod(vertexCount, 8);
+			long tileArea = 2L * (vertexCount - 1) * (vertexCount - 1);
+			
+			for (int level = 0; level < lod.getLevels(); level++) {
+				for (int mask = 0; mask < TerrainLod.MASKS; mask++) {
+					long area = 0;
+					int[] indices = drawnIndices(lod, level, mask);
+					
+					for (int i = 0; i < indices.length; i += 3) {
+						long triangleArea = signedArea(indices[i], indices[i + 1], indices[i + 2], vertexCount);
+						assertTrue("Triangles keep the winding of the mesh", triangleArea > 0);
+						area += triangleArea;
+					}
+					
+					assertEquals("Level " + level + " mask " + mask + " covers the tile", tileArea, area);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void StitchedEdgesMatchCoarserLevelTest() {
+		for (int vertexCount : VERTEX_COUNTS) {
+			TerrainLod lod = new TerrainLod(vertexCount, 8);
+			
+			for (int level = 0; level + 1 < lod.getLevels(); level++) {
+				for (int mask = 0; mask < TerrainLod.MASKS; mask++) {
+					for (int edge : EDGES) {
+						int expectedLevel = (mask & edge) != 0 ? level + 1 : level;
+						
+						assertEquals(edgeSegments(lod, expectedLevel, 0, edge), edgeSegments(lod, level, mask, edge));
+					}
+				}
+			}
+			
+			assertTrue("Coarser levels draw fewer triangles", 
+					   lod.getIndexCount(lod.getLevels() - 1, 0) < lod.getIndexCount(0, 0) / 16);
+		}
+	}
+	
+	@Test
+	public void InteriorsStoredOnceTest() {
+		for (int vertexCount : VERTEX_COUNTS) {
+			TerrainLod lod = new TerrainLod(vertexCount, 8);
+			int size = 0;
+			
+			for (int level = 0; level < lod.getLevels(); level++) {
+				size += lod.getInteriorCount(level);
+				
+				for (int mask = 0; mask < TerrainLod.MASKS; mask++)
+					size += lod.getBorderCount(level, mask);
+			}
+			
+			assertEquals("Each interior is stored once, with a border for each mask", size, lod.getIndices().length);
+			assertTrue(lod.getBorderCount(0, TerrainLod.MASKS - 1) < lod.getInteriorCount(0));
+			
+			int levelZeroCount = lod.getIndexCount(0, 0);
+			lod.releaseIndices();
+			
+			assertNull(lod.getIndices());
+			assertEquals("Ranges are kept once indices are released", levelZeroCount, lod.getIndexCount(0, 0));
+		}
+	}
+	
+	@Test
+	public void GeometricErrorTest() {
+		int vertexCount = 17;
+		TerrainLod lod = new TerrainLod(vertexCount, 4);
+		
+		// A sloping plane is drawn exactly at every level
+		float[] heights = new float[vertexCount * vertexCount];
+		for (int x = 0; x < vertexCount; x++) {
+			for (int z = 0; z < vertexCount; z++)
+				heights[x * vertexCount + z] = 3 * x - 2 * z;
+		}
+		
+		for (float error : lod.calculateGeometricErrors(heights, 1))
+			assertEquals(0, error, 1e-4);
+		
+		// A spike at a vertex that only level 0 draws
+		heights = new float[vertexCount * vertexCount];
+		heights[5 * vertexCount + 7] = 30;
+		
+		float[] errors = lod.calculateGeometricErrors(heights, 15);
+		
+		assertEquals(0, errors[0], 0);
+		for (int level = 1; level < errors.length; level++)
+			assertEquals(2, errors[level], 1e-6);
+	}
+	
+	@Test
+	public void SelectLevelTest() {
+		float[] errors = {0, 0.5f, 2, 8};
+		
+		assertEquals("No error is allowed inside the tile", 0, TerrainLod.selectLevel(errors, 0, 1000, 4));
+		assertEquals(1, TerrainLod.selectLevel(errors, 125, 1000, 4));
+		assertEquals(1, TerrainLod.selectLevel(errors, 499, 1000, 4));
+		assertEquals(2, TerrainLod.selectLevel(errors, 500, 1000, 4));
+		assertEquals(3, TerrainLod.selectLevel(errors, 1e6f, 1000, 4));
+	}
+}
@@ -0,0 +1,189 @@
+package com.chrisali.javaflightsim.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class SimulationServerTest {
+	
+	private static final String JOB = "{\"duration\" : 2.0, \"outputs\" : [\"TIME\", \"ALT\", \"THETA\"], \"outputDecimation\" : 12}";
+	
+	private static final String ELEVATOR_DOUBLET_JOB = "{\"duration\" : 2.0, \"outputs\" : [\"TIME\", \"ALT\", \"THETA\"], \"outputDecimation\" : 12, "
+													 + "\"analysisControls\" : {\"analysisInputs\" : [{\"type\" : \"Doublet\", \"controlType\" : \"ELEVATOR\", "
+													 + "\"startTimeMS\" : 500, \"durationMS\" : 500, \"amplitude\" : 0.035}]}}";
+	
+	private static final String LONG_JOB = "{\"duration\" : 3600.0, \"outputs\" : [\"TIME\"], \"outputDecimation\" : 1000}";
+	
+	private final ObjectMapper mapper = new ObjectMapper();
+	
+	private File resultsDirectory;
+	private SimulationServer server;
+	
+	@Before
+	public void setUp() throws Exception {
+		resultsDirectory = Files.createTempDirectory("results").toFile();
+	}
+	
+	@After
+	public void tearDown() {
+		if (server != null)
+			server.close();
+		
+		for (File file : resultsDirectory.listFiles())
+			file.delete();
+		
+		resultsDirectory.delete();
+	}
+	
+	private void startServer(int workers, int queueCapacity) throws Exception {
+		server = new SimulationServer(FileUtilities.readSimulationConfiguration(), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+									  workers, queueCapacity, resultsDirectory);
+		server.start();
+	}
+	
+	private HttpURLConnection request(String method, String path, String body) throws Exception {
+		URL url = new URL("http", "127.0.0.1", server.getAddress().getPort(), path);
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		connection.setRequestMethod(method);
+		
+		if (body != null) {
+			connection.setDoOutput(true);
+			try (OutputStream os = connection.getOutputStream()) {
+				os.write(body.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		
+		return connection;
+	}
+	
+	private static String read(HttpURLConnection connection) throws Exception {
+		InputStream is = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		
+		try (InputStream in = is) {
+			byte[] buffer = new byte[4096];
+			for (int read; (read = in.read(buffer)) > 0;)
+				bytes.write(buffer, 0, read);
+		}
+		
+		return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+	}
+	
+	private String submit(String job) throws Exception {
+		HttpURLConnection connection = request("POST", "/jobs", job);
+		
+		assertEquals(202, connection.getResponseCode());
+		
+		JsonNode status = mapper.readTree(read(connection));
+		assertEquals("/jobs/" + status.get("id").asText(), connection.getHeaderField("Location"));
+		
+		return status.get("id").asText();
+	}
+	
+	private String results(String id) throws Exception {
+		HttpURLConnection connection = request("GET", "/jobs/" + id + "/results", null);
+		
+		assertEquals(200, connection.getResponseCode());
+		
+		return read(connection);
+	}
+	
+	@Test
+	public void StreamedResultsTest() throws Exception {
+		startServer(2, 4);
+		
+		String id = submit(JOB);
+		String[] lines = results(id).split("\n");
+		
+		// 240 steps at 120 Hz written every 12 steps
+		assertEquals("Time [sec],Alt [ft],theta [rad],", lines[0]);
+		assertEquals(21, lines.length);
+		// Time is logged at the start of each step
+		assertEquals(2.0 - 1.0/120, Double.parseDouble(lines[20].split(",")[0]), 1e-9);
+		
+		JsonNode status = mapper.readTree(read(request("GET", "/jobs/" + id, null)));
+		assertEquals("COMPLETED", status.get("state").asText());
+		assertEquals(20, status.get("rows").asLong());
+		
+		// Results of a finished job can be read again
+		assertEquals(String.join("\n", lines) + "\n", results(id));
+	}
+	
+	@Test
+	public void StreamAfterSubmissionTest() throws Exception {
+		startServer(4, 4);
+		
+		// Results requested as soon as each job is accepted, while it is still being started by a worker 
+		for (int i = 0; i < 20; i++) {
+			String[] lines = results(submit(JOB)).split("\n");
+			
+			assertEquals("Time [sec],Alt [ft],theta [rad],", lines[0]);
+			assertEquals(21, lines.length);
+		}
+	}
+	
+	@Test
+	public void ConcurrentJobsMatchTest() throws Exception {
+		startServer(4, 4);
+		
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 4; i++)
+			ids.add(submit(ELEVATOR_DOUBLET_JOB));
+		
+		String unperturbed = results(submit(JOB));
+		String expected = results(ids.get(0));
+		
+		for (String id : ids)
+			assertEquals("Jobs run at the same time should not affect each other", expected, results(id));
+		
+		assertNotEquals("Analysis inputs should be applied to the job", unperturbed, expected);
+	}
+	
+	@Test
+	public void BackpressureTest() throws Exception {
+		startServer(1, 1);
+		
+		String running = submit(LONG_JOB);
+		String queued  = submit(LONG_JOB);
+		
+		HttpURLConnection refused = request("POST", "/jobs", LONG_JOB);
+		assertEquals(503, refused.getResponseCode());
+		assertEquals("1", refused.getHeaderField("Retry-After"));
+		
+		assertEquals(400, request("POST", "/jobs", "{\"duration\" : -1}").getResponseCode());
+		assertEquals(404, request("GET", "/jobs/100", null).getResponseCode());
+		
+		// Cancelling the queued job frees space for another
+		assertEquals("CANCELLED", mapper.readTree(read(request("DELETE", "/jobs/" + queued, null))).get("state").asText());
+		String next = submit(LONG_JOB);
+		
+		read(request("DELETE", "/jobs/" + running, null));
+		read(request("DELETE", "/jobs/" + next, null));
+		
+		// Results of the cancelled running job end once it stops
+		assertFalse(results(running).isEmpty());
+		assertTrue(server.getJob(running).getState().isFinished());
+	}
+}
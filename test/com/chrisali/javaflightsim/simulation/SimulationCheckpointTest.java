@@ -0,0 +1,108 @@
+package com.chrisali.javaflightsim.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControlInput;
+import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControls;
+import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.Doublet;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.InitialConditions;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+public class SimulationCheckpointTest {
+	
+	private SimulationConfiguration configuration;
+	
+	@Before
+	public void setUp() {
+		configuration = FileUtilities.readSimulationConfiguration();
+		configuration.updateOptions(EnumSet.of(Options.ANALYSIS_MODE));
+	}
+	
+	private static AnalysisControls doublets(double elevatorAmplitude) {
+		List<AnalysisControlInput> inputs = new ArrayList<>();
+		inputs.add(new Doublet(FlightControl.AILERON, 1000, 500, 0.035));
+		inputs.add(new Doublet(FlightControl.ELEVATOR, 4000, 500, elevatorAmplitude));
+		
+		AnalysisControls analysisControls = new AnalysisControls();
+		analysisControls.setAnalysisInputs(inputs);
+		
+		return analysisControls;
+	}
+	
+	private static Map<SimOuts, Double> run(AnalysisSimulation analysis, double endTime) {
+		analysis.runUntil(endTime);
+		
+		return analysis.getSimulation().getSimOut();
+	}
+	
+	@Test
+	public void ForkMatchesContinuationTest() {
+		AnalysisSimulation original = new AnalysisSimulation(configuration, doublets(0.035));
+		original.runUntil(3.0);
+		
+		SimulationCheckpoint checkpoint = original.checkpoint();
+		assertEquals(3000, checkpoint.getTimeMS());
+		
+		Map<SimOuts, Double> continued = run(original, 8.0);
+		Map<SimOuts, Double> forked = run(checkpoint.fork(configuration, doublets(0.035)), 8.0);
+		
+		assertEquals("Fork should continue exactly as the original simulation", continued, forked);
+	}
+	
+	@Test
+	public void GroundRollRestoreTest() {
+		configuration.getInitialConditions().put(InitialConditions.INITD, 0.0);
+		configuration.getInitialConditions().put(InitialConditions.INITU, 60.0);
+		configuration.getInitialConditions().put(InitialConditions.INITW, 0.0);
+		
+		AnalysisSimulation analysis = new AnalysisSimulation(configuration, null);
+		analysis.runUntil(1.0);
+		
+		SimulationCheckpoint checkpoint = analysis.checkpoint();
+		Map<SimOuts, Double> expected = run(analysis, 3.0);
+		
+		// Restoring rewinds the simulation, including the landing gear, to the checkpoint
+		analysis.restore(checkpoint);
+		assertEquals(checkpoint, analysis.checkpoint());
+		assertEquals(expected, run(analysis, 3.0));
+	}
+	
+	@Test
+	public void ParallelForksTest() {
+		AnalysisSimulation original = new AnalysisSimulation(configuration, doublets(0.0));
+		original.runUntil(3.0);
+		
+		SimulationCheckpoint checkpoint = original.checkpoint();
+		
+		List<AnalysisControls> alternatives = Arrays.asList(doublets(-0.05), doublets(-0.02), doublets(0.02), doublets(0.05));
+		
+		List<Map<SimOuts, Double>> sequential = checkpoint.fork(configuration, alternatives).stream()
+																.map(fork -> run(fork, 8.0))
+																.collect(Collectors.toList());
+		
+		List<Map<SimOuts, Double>> parallel = checkpoint.fork(configuration, alternatives).parallelStream()
+															  .map(fork -> run(fork, 8.0))
+															  .collect(Collectors.toList());
+		
+		assertEquals("Forks run in parallel should not affect each other", sequential, parallel);
+		
+		// Each alternative elevator doublet leaves the aircraft in a different state
+		for (int i = 1; i < sequential.size(); i++)
+			assertNotEquals(sequential.get(i - 1).get(SimOuts.THETA), sequential.get(i).get(SimOuts.THETA));
+	}
+}
@@ -0,0 +1,129 @@
+package com.chrisali.javaflightsim.simulation.autopilot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.AnalysisSimulation;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.analysis.AnalysisControls;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.Trimming;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+public class AutopilotTest {
+	
+	private SimulationConfiguration configuration;
+	
+	@Before
+	public void setUp() {
+		configuration = FileUtilities.readSimulationConfiguration();
+		configuration.updateOptions(EnumSet.of(Options.ANALYSIS_MODE));
+		Trimming.trimSim(configuration, true);
+	}
+	
+	@Test
+	public void DeflectionCommandRoundTripTest() {
+		for (FlightControl control : new FlightControl[] {FlightControl.ELEVATOR, FlightControl.AILERON, FlightControl.RUDDER}) {
+			for (double deflection : new double[] {control.getMinimum(), -0.05, 0.0, 0.02, control.getMaximum()}) {
+				float value = Autopilot.deflectionCommand(control, deflection);
+				
+				// Mapping of axis values used by ControlParameterActuator for trimmable controls
+				double actuated = value <= 0 ? control.getMaximum() * value * value : control.getMinimum() * value * value;
+				
+				assertEquals(control + " deflection", deflection, actuated, 1e-6);
+			}
+		}
+		
+		assertEquals(-1.0f, Autopilot.deflectionCommand(FlightControl.ELEVATOR, 10.0), 0.0f);
+	}
+	
+	@Test
+	public void AltitudeHoldTest() {
+		AnalysisControls noInputs = new AnalysisControls();
+		noInputs.setAnalysisInputs(new ArrayList<>());
+		
+		AnalysisSimulation analysis = new AnalysisSimulation(configuration, noInputs);
+		analysis.runUntil(1.0);
+		
+		Map<SimOuts, Double> simOut = analysis.getSimulation().getSimOut();
+		double targetAltitude = simOut.get(SimOuts.ALT) + 100.0;
+		double heading = simOut.get(SimOuts.PSI);
+		
+		AutopilotConfiguration autopilotConfig = FileUtilities.readAutopilotConfiguration(configuration.getSelectedAircraft());
+		autopilotConfig.getEngagedModes().clear();
+		
+		Autopilot autopilot = new Autopilot(autopilotConfig, analysis.getSimulation(), 
+											analysis.getFlightControlsManager().getControlsState(), analysis.getDt());
+		autopilot.engage(AutopilotMode.ALTITUDE_HOLD, targetAltitude);
+		autopilot.engage(AutopilotMode.HEADING_HOLD);
+		autopilot.engage(AutopilotMode.AIRSPEED_HOLD);
+		analysis.getFlightControlsManager().setAutopilot(autopilot);
+		
+		analysis.runUntil(60.0);
+		simOut = analysis.getSimulation().getSimOut();
+		
+		assertEquals("Altitude should settle at the target", targetAltitude, simOut.get(SimOuts.ALT), 10.0);
+		assertEquals("Heading should be held", heading, simOut.get(SimOuts.PSI), Math.toRadians(2));
+		assertEquals("Wings should be level", 0.0, simOut.get(SimOuts.PHI), Math.toRadians(2));
+	}
+	
+	@Test
+	public void EvaluationIsRepeatableTest() throws IOException {
+		Map<AutopilotGain, Double> gains = new AutopilotConfiguration().getGains();
+		
+		try (AutopilotGainOptimizer optimizer = new AutopilotGainOptimizer(configuration, 2)) {
+			double[] scores = optimizer.evaluate(AutopilotMode.ROLL_HOLD, Arrays.asList(gains, gains, gains));
+			
+			assertEquals(scores[0], scores[1], 0.0);
+			assertEquals(scores[0], scores[2], 0.0);
+		}
+	}
+	
+	@Test
+	public void OptimizerImprovesScoreTest() throws IOException {
+		Map<AutopilotGain, Double> gains = new AutopilotConfiguration().getGains();
+		
+		try (AutopilotGainOptimizer optimizer = new AutopilotGainOptimizer(configuration, 2)) {
+			AutopilotGainOptimizer.TuningResult result = optimizer.optimize(AutopilotMode.PITCH_HOLD, gains, 2, 6, 1);
+			
+			assertEquals(13, result.getEvaluations());
+			assertTrue("Tuning should not worsen the score", result.getScore() <= result.getInitialScore());
+			assertEquals(result.getScore(), optimizer.evaluate(AutopilotMode.PITCH_HOLD, result.getGains()), 0.0);
+			
+			// Only the gains of the tuned mode change
+			assertEquals(gains.get(AutopilotGain.ROLL_KP), result.getGains().get(AutopilotGain.ROLL_KP));
+		}
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void MissingInitialGainTest() throws IOException {
+		Map<AutopilotGain, Double> gains = new HashMap<>(new AutopilotConfiguration().getGains());
+		gains.remove(AutopilotGain.PITCH_KI);
+		
+		try (AutopilotGainOptimizer optimizer = new AutopilotGainOptimizer(configuration, 2)) {
+			optimizer.optimize(AutopilotMode.PITCH_HOLD, gains, 2, 6, 1);
+		}
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void ZeroInitialGainTest() throws IOException {
+		Map<AutopilotGain, Double> gains = new AutopilotConfiguration().getGains();
+		gains.put(AutopilotGain.PITCH_KI, 0.0);
+		
+		try (AutopilotGainOptimizer optimizer = new AutopilotGainOptimizer(configuration, 2)) {
+			optimizer.optimize(AutopilotMode.PITCH_HOLD, gains, 2, 6, 1);
+		}
+	}
+}
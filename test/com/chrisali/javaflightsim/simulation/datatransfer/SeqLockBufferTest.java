@@ -0,0 +1,90 @@
+package com.chrisali.javaflightsim.simulation.datatransfer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class SeqLockBufferTest {
+	
+	private static final int SIZE = FlightDataType.values().length;
+
+	@Test
+	public void SnapshotRefreshTest() {
+		SeqLockBuffer buffer = new SeqLockBuffer(SIZE);
+		FlightDataSnapshot snapshot = new FlightDataSnapshot(buffer);
+		
+		assertFalse("Nothing published yet", snapshot.refresh());
+		assertFalse(snapshot.hasData());
+		
+		double[] values = new double[SIZE];
+		values[FlightDataType.ALTITUDE.ordinal()] = 5000;
+		buffer.publish(values);
+		
+		assertTrue(snapshot.refresh());
+		assertTrue(snapshot.hasData());
+		assertEquals(1, snapshot.getVersion());
+		assertEquals(5000, snapshot.get(FlightDataType.ALTITUDE), 0.0);
+		assertFalse("Same version should not be copied twice", snapshot.refresh());
+	}
+	
+	@Test
+	public void ConsistentReadsTest() throws InterruptedException {
+		final SeqLockBuffer buffer = new SeqLockBuffer(SIZE);
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final AtomicInteger tornReads = new AtomicInteger(0);
+		
+		// Each publish fills every element with the same value, so a torn read shows up as mismatched elements
+		Thread writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				double[] values = new double[SIZE];
+				for (int k = 1; k <= 200000; k++) {
+					for (int i = 0; i < SIZE; i++)
+						values[i] = k;
+					buffer.publish(values);
+				}
+				running.set(false);
+			}
+		});
+		
+		Thread[] readers = new Thread[3];
+		for (int r = 0; r < readers.length; r++) {
+			readers[r] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					double[] copy = new double[SIZE];
+					long lastVersion = 0;
+					while (running.get()) {
+						long version = buffer.read(copy);
+						
+						for (int i = 1; i < SIZE; i++) {
+							if (copy[i] != copy[0])
+								tornReads.incrementAndGet();
+						}
+						
+						if (version < lastVersion || copy[0] != version)
+							tornReads.incrementAndGet();
+						
+						lastVersion = version;
+					}
+				}
+			});
+		}
+		
+		for (Thread reader : readers)
+			reader.start();
+		writer.start();
+		
+		writer.join();
+		for (Thread reader : readers)
+			reader.join();
+		
+		assertEquals(0, tornReads.get());
+		assertEquals(200000, buffer.getVersion());
+	}
+}
@@ -0,0 +1,128 @@
+package com.chrisali.javaflightsim.simulation.datatransfer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.NetworkConfiguration;
+
+public class TelemetryTest {
+	
+	private static final int FRAMES = 20000;
+	
+	private DatagramChannel receiver;
+	private NetworkConfiguration configuration;
+	private FlightData flightData;
+	private Map<SimOuts, Double> simOut;
+	
+	@Before
+	public void setUp() throws Exception {
+		receiver = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		
+		configuration = new NetworkConfiguration();
+		configuration.setTelemetryAddress(InetAddress.getLoopbackAddress().getHostAddress());
+		configuration.setTelemetryPort(((InetSocketAddress) receiver.getLocalAddress()).getPort());
+		
+		simOut = new EnumMap<>(SimOuts.class);
+		for (SimOuts out : SimOuts.values())
+			simOut.put(out, (double) out.ordinal());
+		
+		flightData = new FlightData(null);
+		flightData.updateData(simOut);
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		receiver.close();
+	}
+
+	@Test
+	public void LoopbackThroughputTest() throws Exception {
+		configuration.setFlightDataChannels(EnumSet.of(FlightDataType.ALTITUDE, FlightDataType.HEADING));
+		configuration.setSimOutChannels(EnumSet.of(SimOuts.TAS, SimOuts.ALPHA));
+		
+		TelemetryDecoder decoder = new TelemetryDecoder();
+		ByteBuffer packet = ByteBuffer.allocateDirect(2048);
+		
+		try (TelemetryPublisher publisher = new TelemetryPublisher(configuration, flightData, null)) {
+			long start = System.nanoTime();
+			
+			for (int i = 0; i < FRAMES; i++) {
+				simOut.put(SimOuts.TIME, i * 0.01);
+				simOut.put(SimOuts.TAS, (double) i);
+				publisher.publish(simOut);
+				
+				assertEquals("Frame should not be dropped on loopback", 0, publisher.getDroppedFrames());
+				
+				packet.clear();
+				receiver.receive(packet);
+				packet.flip();
+				
+				assertTrue(decoder.decode(packet));
+				assertEquals(i, decoder.getSequence());
+				assertEquals(i, decoder.get(SimOuts.TAS), 0);
+			}
+			
+			double framesPerSec = FRAMES / ((System.nanoTime() - start) / 1e9);
+			assertTrue("Throughput should exceed 10k frames/s, was " + framesPerSec, framesPerSec > 10000);
+		}
+		
+		assertEquals(FRAMES, decoder.getDecodedFrames());
+		assertEquals(0, decoder.getLostFrames());
+		assertEquals((FRAMES - 1) * 0.01, decoder.getTime(), 1e-9);
+		assertEquals(SimOuts.ALT.ordinal(), decoder.get(FlightDataType.ALTITUDE), 0);
+		assertEquals(Math.toDegrees(SimOuts.PSI.ordinal()), decoder.get(FlightDataType.HEADING), 1e-9);
+		assertEquals(SimOuts.ALPHA.ordinal(), decoder.get(SimOuts.ALPHA), 0);
+		
+		assertTrue("Channels not sent should read as NaN", Double.isNaN(decoder.get(FlightDataType.PITCH)));
+		assertTrue("Channels not sent should read as NaN", Double.isNaN(decoder.get(SimOuts.BETA)));
+	}
+	
+	@Test
+	public void FrameLayoutTest() throws Exception {
+		configuration.setSimOutChannels(EnumSet.allOf(SimOuts.class));
+		
+		try (TelemetryPublisher publisher = new TelemetryPublisher(configuration, flightData, null)) {
+			assertEquals(TelemetryFrame.size(FlightDataType.values().length + SimOuts.values().length), publisher.getFrameSize());
+			assertTrue("Frame should fit in an unfragmented Ethernet datagram", publisher.getFrameSize() <= 1472);
+			
+			publisher.publish(simOut);
+		}
+		
+		ByteBuffer packet = ByteBuffer.allocate(2048);
+		receiver.receive(packet);
+		packet.flip();
+		
+		assertEquals(TelemetryFrame.MAGIC, packet.getInt(0));
+		assertEquals(0, packet.getLong(TelemetryFrame.SEQUENCE_OFFSET));
+		assertEquals(FlightDataType.values().length, packet.get(TelemetryFrame.FLIGHT_DATA_COUNT_OFFSET));
+		assertEquals(SimOuts.values().length, packet.get(TelemetryFrame.SIM_OUT_COUNT_OFFSET));
+		
+		TelemetryDecoder decoder = new TelemetryDecoder();
+		assertTrue(decoder.decode(packet));
+		for (SimOuts out : SimOuts.values())
+			assertEquals(out.ordinal(), decoder.get(out), 0);
+		
+		// Truncated and foreign packets are rejected without changing decoded values
+		ByteBuffer truncated = packet.duplicate();
+		truncated.limit(truncated.limit() - 1);
+		assertFalse(decoder.decode(truncated));
+		
+		packet.putInt(0, 0xCAFEBABE);
+		assertFalse(decoder.decode(packet));
+		assertEquals(1, decoder.getDecodedFrames());
+	}
+}
@@ -0,0 +1,70 @@
+package com.chrisali.javaflightsim.simulation.flightcontrols;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.setup.KeyCommand;
+
+public class ControlParameterQueueTest {
+
+	@Test
+	public void OrderAndOverflowTest() {
+		ControlParameterQueue queue = new ControlParameterQueue(3);
+		assertEquals(4, queue.getCapacity());
+		
+		for (int i = 0; i < 4; i++)
+			assertTrue(queue.offer(FlightControl.ELEVATOR, i));
+		
+		assertFalse("Full queue should drop changes", queue.offer(FlightControl.AILERON, 0));
+		assertEquals(1, queue.getDroppedCount());
+		
+		List<Float> values = new ArrayList<>();
+		assertEquals(4, queue.drainTo((parameter, value) -> values.add(value)));
+		assertEquals("Changes should be drained in order", "[0.0, 1.0, 2.0, 3.0]", values.toString());
+		
+		// Slots are reused after draining
+		queue.handleParameterChange(KeyCommand.GEAR_UP_DOWN, 1.0f);
+		assertEquals(1, queue.drainTo((parameter, value) -> assertEquals(KeyCommand.GEAR_UP_DOWN, parameter)));
+		assertEquals(0, queue.drainTo((parameter, value) -> {}));
+	}
+
+	@Test
+	public void ConcurrentProducersTest() throws Exception {
+		final int producers = 4, changesPerProducer = 50000;
+		ControlParameterQueue queue = new ControlParameterQueue(256);
+		
+		Thread[] threads = new Thread[producers];
+		for (int p = 0; p < producers; p++) {
+			final int producer = p;
+			threads[p] = new Thread(() -> {
+				for (int i = 0; i < changesPerProducer; i++) {
+					while (!queue.offer(FlightControl.values()[producer], i))
+						Thread.yield();
+				}
+			});
+			threads[p].start();
+		}
+		
+		// Changes from each producer must arrive complete and in the order that producer sent them
+		int[] expected = new int[producers];
+		int received = 0;
+		while (received < producers * changesPerProducer) {
+			received += queue.drainTo((parameter, value) -> {
+				int producer = ((FlightControl) parameter).ordinal();
+				assertEquals(expected[producer]++, (int) value);
+			});
+		}
+		
+		for (Thread thread : threads)
+			thread.join();
+		
+		for (int p = 0; p < producers; p++)
+			assertEquals(changesPerProducer, expected[p]);
+	}
+}
@@ -0,0 +1,134 @@
+package com.chrisali.javaflightsim.simulation.flightcontrols;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.integration.Integrate6DOFEquations;
+import com.chrisali.javaflightsim.simulation.integration.SimOuts;
+import com.chrisali.javaflightsim.simulation.setup.IntegratorConfig;
+import com.chrisali.javaflightsim.simulation.setup.Options;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+public class FlightControlsRecorderTest {
+	
+	private static final int STEPS = 1000;
+	
+	/**
+	 * Elevator moves for the first 100 steps, throttle is cut at step 500 and all other steps are unchanged 
+	 */
+	private static void setControls(FlightControlsState state, int step) {
+		if (step < 100)
+			state.set(FlightControl.ELEVATOR, -0.02 + 0.001 * Math.sin(step / 10.0));
+		if (step == 500)
+			state.set(FlightControl.THROTTLE_1, 0.3);
+	}
+
+	@Test
+	public void RoundTripTest() throws Exception {
+		SimulationConfiguration config = FileUtilities.readSimulationConfiguration();
+		FlightControlsState state = new FlightControlsState(config);
+		FlightControlsSnapshot expected = new FlightControlsSnapshot();
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		double[][] recorded = new double[STEPS][];
+		
+		try (FlightControlsRecorder recorder = new FlightControlsRecorder(bytes, 0.01)) {
+			for (int step = 0; step < STEPS; step++) {
+				setControls(state, step);
+				recorder.record(state);
+				
+				state.snapshot(expected);
+				recorded[step] = expected.values.clone();
+			}
+			
+			assertEquals(STEPS, recorder.getRecordedSteps());
+		}
+		
+		assertTrue("Unchanged steps should take almost no space, was " + bytes.size() + " bytes", bytes.size() < 2000);
+		
+		try (FlightControlsReplay replay = new FlightControlsReplay(new ByteArrayInputStream(bytes.toByteArray()))) {
+			assertEquals(0.01, replay.getDt(), 0.0);
+			
+			for (int step = 0; step < STEPS; step++) {
+				FlightControlsSnapshot controls = replay.next();
+				
+				for (int i = 0; i < recorded[step].length; i++) {
+					assertEquals("Step " + step + " control " + FlightControl.values()[i], 
+							 	 Double.doubleToRawLongBits(recorded[step][i]), Double.doubleToRawLongBits(controls.values[i]));
+				}
+			}
+			
+			assertTrue(replay.isFinished());
+			assertNull(replay.next());
+		}
+	}
+	
+	@Test
+	public void IdenticalTrajectoryTest() throws Exception {
+		SimulationConfiguration config = FileUtilities.readSimulationConfiguration();
+		config.getSimulationOptions().clear();
+		config.getSimulationOptions().add(Options.ANALYSIS_MODE);
+		double dt = config.getIntegratorConfig().get(IntegratorConfig.DT);
+		
+		// Record
+		FlightControlsState recordedState = new FlightControlsState(config);
+		Integrate6DOFEquations recordedSim = new Integrate6DOFEquations(recordedState, config);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		
+		try (FlightControlsRecorder recorder = new FlightControlsRecorder(bytes, dt)) {
+			for (int step = 0; step < STEPS; step++) {
+				setControls(recordedState, step);
+				recorder.record(recordedState);
+				recordedSim.step();
+			}
+		}
+		
+		// Replay
+		FlightControlsState replayedState = new FlightControlsState(config);
+		Integrate6DOFEquations replayedSim = new Integrate6DOFEquations(replayedState, config);
+		
+		try (FlightControlsReplay replay = new FlightControlsReplay(new ByteArrayInputStream(bytes.toByteArray()))) {
+			while (replay.next(replayedState))
+				replayedSim.step();
+		}
+		
+		for (SimOuts simOut : Arrays.asList(SimOuts.TIME, SimOuts.ALT, SimOuts.TAS, SimOuts.THETA, SimOuts.PHI, SimOuts.RPM_1)) {
+			assertEquals(simOut.toString(), Double.doubleToRawLongBits(recordedSim.getSimOut().get(simOut)), 
+						 Double.doubleToRawLongBits(replayedSim.getSimOut().get(simOut)));
+		}
+	}
+	
+	@Test
+	public void UnclosedRecordingTest() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		FlightControlsSnapshot controls = new FlightControlsSnapshot();
+		
+		try (FlightControlsRecorder recorder = new FlightControlsRecorder(bytes, 0.01)) {
+			for (int step = 1; step <= 3; step++) {
+				controls.set(FlightControl.RUDDER, step);
+				recorder.record(controls);
+			}
+			recorder.record(controls);
+		}
+		
+		// Remove the end of recording frame, as if the simulation had crashed
+		byte[] recording = bytes.toByteArray();
+		byte[] truncated = Arrays.copyOf(recording, recording.length - 1 - FlightControlsRecorder.MASK_BYTES);
+		
+		FlightControlsReplay replay = new FlightControlsReplay(new ByteArrayInputStream(truncated));
+		for (int step = 1; step <= 3; step++)
+			assertEquals(step, replay.next().get(FlightControl.RUDDER), 0.0);
+		
+		// Trailing unchanged steps are lost, but changes are kept
+		assertNull(replay.next());
+		replay.close();
+	}
+}
@@ -0,0 +1,61 @@
+package com.chrisali.javaflightsim.simulation.flightcontrols;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.EnumMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+
+public class FlightControlsStateTest {
+	
+	private FlightControlsState controlsState;
+	
+	@Before
+	public void setUp() {
+		EnumMap<FlightControl, Double> initialControls = new EnumMap<>(FlightControl.class);
+		initialControls.put(FlightControl.ELEVATOR, -0.05);
+		initialControls.put(FlightControl.THROTTLE_1, 0.6);
+		
+		SimulationConfiguration configuration = new SimulationConfiguration();
+		configuration.setInitialControls(initialControls);
+		
+		controlsState = new FlightControlsState(configuration);
+	}
+
+	@Test
+	public void InitialAndTrimValuesTest() {
+		assertEquals(-0.05, controlsState.get(FlightControl.ELEVATOR), 0.0);
+		assertEquals(-0.05, controlsState.getTrimValue(FlightControl.ELEVATOR), 0.0);
+		assertEquals(-0.05, controlsState.getTransientValue(FlightControl.ELEVATOR), 0.0);
+		assertEquals("Engines without initial values inherit engine 1's", 0.6, controlsState.get(FlightControl.THROTTLE_8), 0.0);
+		assertEquals("Controls without initial values are 0", 0.0, controlsState.get(FlightControl.FLAPS), 0.0);
+	}
+	
+	@Test
+	public void SnapshotIsolatedFromLaterWritesTest() {
+		FlightControlsSnapshot snapshot = new FlightControlsSnapshot();
+		
+		controlsState.set(FlightControl.AILERON, 0.1);
+		controlsState.snapshot(snapshot);
+		controlsState.set(FlightControl.AILERON, 0.2);
+		
+		assertEquals(0.1, snapshot.get(FlightControl.AILERON), 0.0);
+		
+		controlsState.snapshot(snapshot);
+		assertEquals(0.2, snapshot.get(FlightControl.AILERON), 0.0);
+	}
+	
+	@Test
+	public void ResetTest() {
+		controlsState.set(FlightControl.ELEVATOR, 0.2);
+		controlsState.set(FlightControl.THROTTLE_1, 1.0);
+		
+		controlsState.reset();
+		
+		assertEquals(-0.05, controlsState.get(FlightControl.ELEVATOR), 0.0);
+		assertEquals(0.6, controlsState.get(FlightControl.THROTTLE_1), 0.0);
+	}
+}
@@ -0,0 +1,171 @@
+package com.chrisali.javaflightsim.simulation.flightcontrols;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.setup.NetworkConfiguration;
+import com.chrisali.javaflightsim.simulation.setup.NetworkProtocol;
+import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
+
+public class NetworkControlInputTest {
+	
+	private AtomicInteger simTimeMS;
+	private NetworkConfiguration configuration;
+	private FlightControlsState controlsState;
+	private NetworkControlFrame frame;
+	
+	@Before
+	public void setUp() {
+		simTimeMS = new AtomicInteger(10000);
+		
+		configuration = new NetworkConfiguration();
+		configuration.setControlPort(0);
+		configuration.setMaxControlLatencyMS(100);
+		
+		SimulationConfiguration simConfig = new SimulationConfiguration();
+		simConfig.setInitialControls(new EnumMap<>(FlightControl.class));
+		controlsState = new FlightControlsState(simConfig);
+		
+		frame = new NetworkControlFrame();
+	}
+	
+	private static void awaitCount(LongSupplier counter, long expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		
+		while (counter.getAsLong() < expected && System.currentTimeMillis() < deadline)
+			Thread.sleep(1);
+		
+		assertEquals(expected, counter.getAsLong());
+	}
+
+	@Test
+	public void UdpSchedulingTest() throws Exception {
+		configuration.setControlProtocol(NetworkProtocol.UDP);
+		
+		try (NetworkControlInput input = new NetworkControlInput(configuration, simTimeMS);
+			 DatagramChannel sender = DatagramChannel.open()) {
+			input.start();
+			sender.connect(input.getLocalAddress());
+			
+			// Applied at the next step boundary
+			sender.write(frame.set(FlightControl.AILERON, 0.1).encode(0, Double.NaN));
+			awaitCount(input::getReceivedFrames, 1);
+			
+			input.apply(controlsState, simTimeMS.get());
+			assertEquals(0.1, controlsState.get(FlightControl.AILERON), 0.0);
+			assertTrue(input.isCommanded(FlightControl.AILERON));
+			
+			// Commands are held until changed
+			controlsState.set(FlightControl.AILERON, 0.0);
+			input.apply(controlsState, simTimeMS.get());
+			assertEquals(0.1, controlsState.get(FlightControl.AILERON), 0.0);
+			
+			// Commanded in the future; held until due
+			frame.clear();
+			sender.write(frame.set(FlightControl.ELEVATOR, -0.05).encode(1, 10.05));
+			awaitCount(input::getReceivedFrames, 2);
+			
+			input.apply(controlsState, 10040);
+			assertFalse(input.isCommanded(FlightControl.ELEVATOR));
+			input.apply(controlsState, 10050);
+			assertEquals(-0.05, controlsState.get(FlightControl.ELEVATOR), 0.0);
+			
+			// Stamped further back than the latency bound
+			sender.write(frame.encode(2, 9.8));
+			// Repeated sequence number
+			sender.write(frame.encode(2, Double.NaN));
+			// Skips sequence numbers 3 and 4, and releases aileron
+			frame.clear();
+			sender.write(frame.release(FlightControl.AILERON).encode(5, Double.NaN));
+			sender.write(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+			awaitCount(input::getMalformedFrames, 1);
+			
+			input.apply(controlsState, simTimeMS.get());
+			assertFalse(input.isCommanded(FlightControl.AILERON));
+			assertTrue(input.isCommanded(FlightControl.ELEVATOR));
+			
+			assertEquals(5, input.getReceivedFrames());
+			assertEquals(3, input.getAppliedFrames());
+			assertEquals(1, input.getLateFrames());
+			assertEquals(1, input.getOutOfOrderFrames());
+			assertEquals(2, input.getLostFrames());
+		}
+	}
+	
+	@Test
+	public void TcpStreamTest() throws Exception {
+		configuration.setControlProtocol(NetworkProtocol.TCP);
+		final int frames = 2000;
+		
+		try (NetworkControlInput input = new NetworkControlInput(configuration, simTimeMS)) {
+			input.start();
+			
+			try (SocketChannel sender = SocketChannel.open(input.getLocalAddress())) {
+				for (int i = 0; i < frames; i++) {
+					frame.set(FlightControl.THROTTLE_1, i / (double) frames);
+					if (i % 2 == 0)
+						frame.set(FlightControl.RUDDER, 0.01);
+					
+					ByteBuffer buffer = frame.encode(i, Double.NaN);
+					while (buffer.hasRemaining())
+						sender.write(buffer);
+					
+					// Keeps the ring from overflowing while the simulation thread is not stepping
+					if (i % 128 == 0) {
+						awaitCount(input::getReceivedFrames, i + 1);
+						input.apply(controlsState, simTimeMS.get());
+					}
+				}
+				
+				awaitCount(input::getReceivedFrames, frames);
+			}
+			
+			input.apply(controlsState, simTimeMS.get());
+			
+			assertEquals(frames, input.getAppliedFrames());
+			assertEquals(0, input.getLostFrames());
+			assertEquals(0, input.getDroppedFrames());
+			assertEquals((frames - 1) / (double) frames, controlsState.get(FlightControl.THROTTLE_1), 0.0);
+			assertEquals(0.01, controlsState.get(FlightControl.RUDDER), 0.0);
+		}
+	}
+	
+	@Test
+	public void BoundedLatencyTest() throws Exception {
+		configuration.setControlProtocol(NetworkProtocol.UDP);
+		
+		try (NetworkControlInput input = new NetworkControlInput(configuration, simTimeMS)) {
+			// Frames beyond the ring's capacity are dropped while the simulation thread is not stepping
+			for (int i = 0; i < 300; i++)
+				input.receive(frame.set(FlightControl.FLAPS, 0.1).encode(i, Double.NaN));
+			
+			assertEquals(300, input.getReceivedFrames());
+			assertEquals(44, input.getDroppedFrames());
+			
+			// Held up for longer than the latency bound, so none are applied
+			simTimeMS.addAndGet(200);
+			input.apply(controlsState, simTimeMS.get());
+			
+			assertEquals(256, input.getLateFrames());
+			assertEquals(0, input.getAppliedFrames());
+			assertFalse(input.isCommanded(FlightControl.FLAPS));
+			
+			input.receive(frame.encode(300, Double.NaN));
+			input.apply(controlsState, simTimeMS.get());
+			
+			assertEquals(1, input.getAppliedFrames());
+			assertEquals(0.1, controlsState.get(FlightControl.FLAPS), 0.0);
+		}
+	}
+}
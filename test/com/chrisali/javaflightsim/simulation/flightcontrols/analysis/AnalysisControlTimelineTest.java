@@ -0,0 +1,106 @@
+package com.chrisali.javaflightsim.simulation.flightcontrols.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.ControlParameter;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class AnalysisControlTimelineTest {
+	
+	private List<ControlParameter> parameters = new ArrayList<>();
+	private List<Float> values = new ArrayList<>();
+	
+	private void update(AnalysisControlTimeline timeline, int timeMS) {
+		parameters.clear();
+		values.clear();
+		timeline.update(timeMS, (parameter, value) -> { parameters.add(parameter); values.add(value); });
+	}
+
+	@Test
+	public void ActiveSetSweepTest() {
+		final double amplitude = 0.035, max = FlightControl.ELEVATOR.getMaximum();
+		AnalysisControlTimeline timeline = new AnalysisControlTimeline(Arrays.asList(
+				new Singlet(FlightControl.ELEVATOR, 2000, 500, amplitude),
+				new Doublet(FlightControl.ELEVATOR, 1000, 500, amplitude),
+				new Singlet(FlightControl.AILERON, 1500, 1000, amplitude)));
+		
+		update(timeline, 900);
+		assertEquals("No controls should be commanded before the first input", 0, parameters.size());
+		
+		update(timeline, 1000);
+		assertEquals(Arrays.asList(FlightControl.ELEVATOR), parameters);
+		assertEquals(amplitude/max, values.get(0), 1e-6);
+		
+		update(timeline, 1500);
+		assertEquals(Arrays.asList(FlightControl.ELEVATOR, FlightControl.AILERON), parameters);
+		assertEquals(-amplitude/max, values.get(0), 1e-6);
+		
+		// Overlapping inputs on the same control are summed
+		update(timeline, 2200);
+		assertEquals(2, timeline.getActiveCount());
+		assertEquals(amplitude/max, values.get(0), 1e-6);
+		
+		update(timeline, 3000);
+		assertEquals(0, timeline.getActiveCount());
+		assertEquals("Controls return to trim once their inputs end", Arrays.asList(0.0f, 0.0f), values);
+		
+		// Resetting the simulation time rewinds the timeline
+		update(timeline, 0);
+		assertEquals(0, parameters.size());
+	}
+	
+	@Test
+	public void InputShapesTest() {
+		ThreeTwoOneOne input3211 = new ThreeTwoOneOne(FlightControl.RUDDER, 0, 100, 1.0);
+		double[] expected = {1, 1, 1, -1, -1, 1, -1};
+		for (int i = 0; i < expected.length; i++)
+			assertEquals(expected[i], input3211.value(i * 100 + 50), 0.0);
+		assertEquals(700, input3211.getEndTimeMS());
+		
+		RandomBinarySequence prbs = new RandomBinarySequence(FlightControl.AILERON, 0, 12700, 1.0, 100, 7, 1);
+		double sum = 0;
+		for (int i = 0; i < 127; i++)
+			sum += prbs.value(i * 100);
+		assertEquals("Maximum length sequence has one more set bit than cleared bits", 1.0, sum, 0.0);
+		assertEquals(prbs.value(50), prbs.value(12750), 0.0);
+		
+		// A linear sweep from 0 to 2 Hz over 2 s completes 2 cycles
+		FrequencySweep sweep = new FrequencySweep(FlightControl.ELEVATOR, 0, 2000, 1.0, 0, 2, false);
+		int crossings = 0;
+		for (int t = 1; t <= 2000; t++) {
+			if (Math.signum(sweep.value(t)) != Math.signum(sweep.value(t - 1)))
+				crossings++;
+		}
+		assertEquals(4, crossings);
+		
+		Multisine multisine = new Multisine(FlightControl.ELEVATOR, 0, 10000, 0.5, new double[] {0.2, 0.4, 0.6, 0.8}, null);
+		for (int t = 0; t < 10000; t += 10)
+			assertTrue(Math.abs(multisine.value(t)) <= 0.5);
+	}
+	
+	@Test
+	public void InputTypesRoundTripTest() throws Exception {
+		AnalysisControls controls = new AnalysisControls();
+		controls.setAnalysisInputs(Arrays.asList(
+				new ThreeTwoOneOne(FlightControl.RUDDER, 0, 100, 0.1),
+				new FrequencySweep(FlightControl.ELEVATOR, 0, 10000, 0.1, 0.1, 5, true),
+				new Multisine(FlightControl.AILERON, 0, 10000, 0.1, new double[] {0.5, 1.0}, null),
+				new RandomBinarySequence(FlightControl.ELEVATOR, 0, 10000, 0.1, 200, 9, 5)));
+		
+		ObjectMapper mapper = new ObjectMapper();
+		String json = mapper.writeValueAsString(controls);
+		AnalysisControls read = mapper.readValue(json, AnalysisControls.class);
+		
+		assertEquals(json, mapper.writeValueAsString(read));
+		for (int i = 0; i < 4; i++) 
+			assertEquals(controls.getAnalysisInputs().get(i).value(1234), read.getAnalysisInputs().get(i).value(1234), 0.0);
+	}
+}
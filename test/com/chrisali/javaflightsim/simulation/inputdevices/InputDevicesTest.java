@@ -0,0 +1,132 @@
+package com.chrisali.javaflightsim.simulation.inputdevices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.flightcontrols.ControlParameter;
+import com.chrisali.javaflightsim.simulation.flightcontrols.ControlParameterQueue;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.setup.ControlsConfiguration.JoystickAssignments;
+import com.chrisali.javaflightsim.simulation.setup.JoystickAxis;
+import com.chrisali.javaflightsim.simulation.setup.KeyCommand;
+
+import net.java.games.input.Component.Identifier;
+import net.java.games.input.Controller;
+
+public class InputDevicesTest {
+	
+	private static final String JOYSTICK_NAME = "Simulated Joystick";
+
+	@Test
+	public void AxisFiltersTest() {
+		DeadZoneFilter deadZone = new DeadZoneFilter(0.2);
+		assertEquals(0.0f, deadZone.filter(0.15f, 0), 0.0f);
+		assertEquals(0.5f, deadZone.filter(0.6f, 0), 1e-6f);
+		assertEquals(-1.0f, deadZone.filter(-1.0f, 0), 1e-6f);
+		
+		ExponentialFilter exponential = new ExponentialFilter(2.0);
+		assertEquals(-0.25f, exponential.filter(-0.5f, 0), 1e-6f);
+		assertEquals(1.0f, exponential.filter(1.0f, 0), 1e-6f);
+		
+		RateLimitFilter rateLimit = new RateLimitFilter(2.0);
+		assertEquals(0.0f, rateLimit.filter(0.0f, 0), 0.0f);
+		assertEquals(0.2f, rateLimit.filter(1.0f, 0.1), 1e-6f);
+		assertFalse(rateLimit.isSettled());
+		assertEquals(1.0f, rateLimit.filter(1.0f, 1.0), 1e-6f);
+		assertTrue(rateLimit.isSettled());
+		
+		JoystickAxis axis = new JoystickAxis(FlightControl.ELEVATOR, 0.0, 1.0);
+		assertEquals("Default axis settings should not filter", 0, AxisFilterChain.fromJoystickAxis(axis).size());
+		
+		axis.setDeadZone(0.1);
+		axis.setSensitivity(1.5);
+		axis.setRateLimit(4.0);
+		assertEquals(3, AxisFilterChain.fromJoystickAxis(axis).size());
+	}
+	
+	@Test
+	public void SimulatedJoystickTest() {
+		SimulatedDevice joystick = new SimulatedDevice(JOYSTICK_NAME, Controller.Type.STICK, Identifier.Axis.X, Identifier.Axis.Y, Identifier.Button._0);
+		ControlParameterQueue queue = new ControlParameterQueue(64);
+		JoystickVisitor visitor = new JoystickVisitor(createAssignments(), queue);
+		
+		joystick.setValue(Identifier.Axis.Y, 0.5f);
+		joystick.setValue(Identifier.Button._0, 1.0f);
+		joystick.collectControlDeviceValues(visitor);
+		
+		List<ControlParameter> parameters = new ArrayList<>();
+		List<Float> values = new ArrayList<>();
+		queue.drainTo((parameter, value) -> { parameters.add(parameter); values.add(value); });
+		
+		assertEquals(2, parameters.size());
+		assertEquals(FlightControl.ELEVATOR, parameters.get(0));
+		assertEquals("Dead zone and sensitivity should be applied to axis", (0.3f/0.8f)*(0.3f/0.8f), values.get(0), 1e-6f);
+		assertEquals(KeyCommand.GEAR_UP_DOWN, parameters.get(1));
+		assertEquals(1.0f, values.get(1), 0.0f);
+		
+		// Unchanged components do not generate events
+		joystick.collectControlDeviceValues(visitor);
+		assertEquals(0, queue.drainTo((parameter, value) -> {}));
+	}
+	
+	@Test
+	public void PollerThreadTest() throws Exception {
+		SimulatedDevice keyboard = new SimulatedDevice("Simulated Keyboard", Controller.Type.KEYBOARD, Identifier.Key.G, Identifier.Key.A);
+		ControlParameterQueue queue = new ControlParameterQueue(64);
+		
+		Map<String, KeyCommand> keyAssignments = new HashMap<>();
+		keyAssignments.put("G", KeyCommand.GEAR_UP_DOWN);
+		
+		InputDevicePoller poller = new InputDevicePoller(500);
+		poller.addDevice(keyboard, new KeyboardVisitor(keyAssignments, queue));
+		poller.start();
+		
+		try {
+			keyboard.setValue(Identifier.Key.G, 1.0f);
+			keyboard.setValue(Identifier.Key.A, 1.0f);
+			
+			List<ControlParameter> parameters = new ArrayList<>();
+			long timeout = System.currentTimeMillis() + 5000;
+			while (parameters.isEmpty() && System.currentTimeMillis() < timeout) {
+				queue.drainTo((parameter, value) -> parameters.add(parameter));
+				Thread.sleep(5);
+			}
+			
+			// Held keys are only sent once, and unassigned keys are ignored
+			Thread.sleep(50);
+			queue.drainTo((parameter, value) -> parameters.add(parameter));
+			
+			assertEquals(1, parameters.size());
+			assertEquals(KeyCommand.GEAR_UP_DOWN, parameters.get(0));
+		} finally {
+			poller.stop();
+		}
+		
+		assertFalse(poller.isRunning());
+	}
+	
+	private static Map<String, JoystickAssignments> createAssignments() {
+		Map<String, JoystickAxis> axes = new HashMap<>();
+		axes.put(Identifier.Axis.Y.getName(), new JoystickAxis(FlightControl.ELEVATOR, 0.2, 2.0));
+		
+		Map<String, KeyCommand> buttons = new HashMap<>();
+		buttons.put(Identifier.Button._0.getName(), KeyCommand.GEAR_UP_DOWN);
+		
+		JoystickAssignments assignments = new JoystickAssignments();
+		assignments.setAxisAssignments(axes);
+		assignments.setButtonAssignments(buttons);
+		
+		Map<String, JoystickAssignments> joystickAssignments = new HashMap<>();
+		joystickAssignments.put(JOYSTICK_NAME, assignments);
+		
+		return joystickAssignments;
+	}
+}
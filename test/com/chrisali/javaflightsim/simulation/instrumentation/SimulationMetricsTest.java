@@ -0,0 +1,99 @@
+package com.chrisali.javaflightsim.simulation.instrumentation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+
+import org.junit.Test;
+
+public class SimulationMetricsTest {
+	
+	@Test
+	public void BucketBoundsTest() {
+		long[] values = {0, 1, 31, 32, 33, 63, 64, 100, 1_000, 16_667_000, 123_456_789, (1L << 39) + 12345};
+		
+		for (long value : values) {
+			int index = LatencyHistogram.bucketIndex(value);
+			long upper = LatencyHistogram.bucketUpperBound(index);
+			long lower = index > 0 ? LatencyHistogram.bucketUpperBound(index - 1) + 1 : 0;
+			
+			assertTrue(value + " above bucket upper bound " + upper, value <= upper);
+			assertTrue(value + " below bucket lower bound " + lower, value >= lower);
+			assertTrue("Bucket too wide for " + value, upper - lower <= Math.max(1, value / LatencyHistogram.SUB_BUCKETS));
+		}
+		
+		assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+	}
+	
+	@Test
+	public void PercentileTest() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		
+		for (long micros = 1; micros <= 10_000; micros++)
+			histogram.record(micros * 1000);
+		
+		assertEquals(10_000, histogram.getCount());
+		assertEquals(5_000_500, histogram.getMeanNanos(), 1e-6);
+		assertEquals(10_000_000, histogram.getMaxNanos());
+		
+		assertEquals(5_000_000,  histogram.getPercentileNanos(50),   5_000_000  / LatencyHistogram.SUB_BUCKETS);
+		assertEquals(9_900_000,  histogram.getPercentileNanos(99),   9_900_000  / LatencyHistogram.SUB_BUCKETS);
+		assertEquals(9_990_000,  histogram.getPercentileNanos(99.9), 9_990_000  / LatencyHistogram.SUB_BUCKETS);
+	}
+	
+	@Test
+	public void IntervalPercentileTest() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		
+		for (int i = 0; i < 1000; i++)
+			histogram.record(1_000_000);
+		
+		long[] from = histogram.snapshot(new long[LatencyHistogram.BUCKETS]);
+		
+		for (int i = 0; i < 10; i++)
+			histogram.record(1000);
+		
+		long[] to = histogram.snapshot(new long[LatencyHistogram.BUCKETS]);
+		
+		assertEquals(1000, LatencyHistogram.percentile(from, to, 99.9), 1000 / LatencyHistogram.SUB_BUCKETS);
+		assertEquals(0, LatencyHistogram.percentile(to, to, 50));
+	}
+	
+	@Test
+	public void MBeanRegistrationTest() throws Exception {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		SimulationMetrics metrics = new SimulationMetrics(1_000_000);
+		
+		metrics.start();
+		try {
+			for (int i = 0; i < 5; i++) {
+				long frameStart = System.nanoTime();
+				metrics.getStepTimer(TimedStep.SIMULATION).stop(frameStart);
+				
+				if (i == 4)
+					Thread.sleep(3);
+				
+				metrics.endFrame(frameStart);
+			}
+			metrics.catchUpStep();
+			metrics.droppedFrames(3);
+			
+			assertEquals(5L, server.getAttribute(SimulationMetrics.objectName(null), "FrameCount"));
+			assertEquals(1L, server.getAttribute(SimulationMetrics.objectName(null), "OverrunCount"));
+			assertEquals(1L, server.getAttribute(SimulationMetrics.objectName(null), "CatchUpStepCount"));
+			assertEquals(3L, server.getAttribute(SimulationMetrics.objectName(null), "DroppedFrameCount"));
+			assertEquals(5L, server.getAttribute(SimulationMetrics.objectName(TimedStep.SIMULATION), "Count"));
+			assertEquals(0L, server.getAttribute(SimulationMetrics.objectName(TimedStep.OUT_THE_WINDOW), "Count"));
+			assertTrue((Double) server.getAttribute(SimulationMetrics.objectName(TimedStep.FRAME), "MaxMicros") >= 3000);
+		} finally {
+			metrics.stop();
+		}
+		
+		assertFalse(server.isRegistered(SimulationMetrics.objectName(null)));
+		assertFalse(server.isRegistered(SimulationMetrics.objectName(TimedStep.SIMULATION)));
+	}
+}
@@ -0,0 +1,53 @@
+package com.chrisali.javaflightsim.simulation.propulsion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsSnapshot;
+
+public class EngineChannelsTest {
+
+	@Test
+	public void ChannelNamesTest() {
+		for (int i = 0; i < EngineChannels.MAX_ENGINES; i++) {
+			String suffix = "_" + (i + 1);
+			
+			assertEquals("THROTTLE" + suffix, EngineChannels.THROTTLE[i].name());
+			assertEquals("MIXTURE" + suffix, EngineChannels.MIXTURE[i].name());
+			assertEquals("THRUST" + suffix, EngineChannels.THRUST_OUT[i].name());
+			assertEquals("RPM" + suffix, EngineChannels.RPM_DATA[i].name());
+		}
+	}
+	
+	@Test
+	public void EngineUsesOwnControlsTest() {
+		FlightControlsSnapshot controls = new FlightControlsSnapshot();
+		
+		controls.set(FlightControl.THROTTLE_6, 1.0);
+		controls.set(FlightControl.MIXTURE_6, 1.0);
+		
+		Map<EnvironmentParameters, Double> environment = Environment.getAndUpdateEnvironmentParams(new double[] {0, 0, 0});
+		
+		Engine sixth = new FixedPitchPropEngine("Sixth", 200, 2700, 6.5, new double[] {0, 0, 0}, 6);
+		Engine first = new FixedPitchPropEngine("First", 200, 2700, 6.5, new double[] {0, 0, 0}, 1);
+		
+		sixth.updateEngineState(controls, environment, new double[] {100, 0, 0});
+		first.updateEngineState(controls, environment, new double[] {100, 0, 0});
+		
+		assertEquals(5, sixth.getChannel());
+		assertTrue("Engine 6 should produce thrust at full throttle", sixth.getEngineThrust()[0] > 0);
+		assertEquals("Engine 1 should produce no thrust at idle", 0.0, first.getEngineThrust()[0], 0.0);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void TooManyEnginesTest() {
+		new FixedPitchPropEngine().setEngineNumber(EngineChannels.MAX_ENGINES + 1);
+	}
+}
@@ -0,0 +1,83 @@
+package com.chrisali.javaflightsim.simulation.propulsion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.enviroment.Environment;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class EngineModelsTest {
+
+	private static final double RHO_SSL = 0.002377;
+	private static final double A_SSL   = 1116.4;
+
+	private FlightControlsSnapshot controls;
+
+	@Before
+	public void setUp() {
+		controls = new FlightControlsSnapshot();
+
+		controls.set(FlightControl.THROTTLE_1, 1.0);
+		controls.set(FlightControl.PROPELLER_1, 1.0);
+		controls.set(FlightControl.MIXTURE_1, 1.0);
+	}
+
+	@Test
+	public void ConstantSpeedGovernsTest() {
+		ConstantSpeedPropEngine engine = new ConstantSpeedPropEngine();
+
+		engine.updateEngineState(controls, RHO_SSL, A_SSL, 0, 0);
+		double staticThrust = engine.getEngineThrust()[0];
+
+		engine.updateEngineState(controls, RHO_SSL, A_SSL, 0, 200);
+		double cruiseThrust = engine.getEngineThrust()[0];
+
+		assertTrue("Static thrust should be positive", staticThrust > 0);
+		assertTrue("Thrust should fall with airspeed", cruiseThrust < staticThrust);
+		assertEquals("Governor should hold maximum RPM in cruise", engine.getMaxRPM(), engine.getRPM(), 1.0);
+
+		// Efficiency of propeller in cruise should be reasonable
+		double efficiency = cruiseThrust*200/(engine.getMaxBHP()*550);
+		assertTrue("Propeller efficiency should be between 0.5 and 0.9, was " + efficiency, efficiency > 0.5 && efficiency < 0.9);
+	}
+
+	@Test
+	public void TurbojetLapseTest() {
+		TurbojetEngine engine = new TurbojetEngine();
+
+		engine.updateEngineState(controls, RHO_SSL, A_SSL, 0, 0);
+		assertEquals(engine.getMaxThrust(), engine.getEngineThrust()[0], 1e-6);
+
+		double altitude = 30000;
+		engine.updateEngineState(controls, RHO_SSL*Environment.calculateDensityRatio(altitude), A_SSL, altitude, 0);
+		assertEquals("Thrust should lapse with density ratio", engine.getMaxThrust()*Math.pow(Environment.calculateDensityRatio(altitude), 0.7),
+					 engine.getEngineThrust()[0], 1e-6);
+		assertTrue("Fuel flow should be positive", engine.getFuelFlow() > 0);
+
+		controls.set(FlightControl.MIXTURE_1, 0.0);
+		engine.updateEngineState(controls, RHO_SSL, A_SSL, 0, 0);
+		assertEquals("Engine should shut down with fuel cut off", 0.0, engine.getEngineThrust()[0], 0.0);
+	}
+
+	@Test
+	public void EngineTypeRoundTripTest() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+
+		String json = mapper.writeValueAsString(new TurbopropEngine());
+		assertTrue(json.contains("\"engineType\":\"turboprop\""));
+
+		Engine engine = mapper.readValue(json, Engine.class);
+		assertTrue(engine instanceof TurbopropEngine);
+		assertEquals(750, engine.getMaxBHP(), 0.0);
+
+		// Engines written before engine types were introduced are read as fixed pitch propeller engines
+		Engine legacy = mapper.readValue("{\"engineName\":\"Legacy\",\"maxBHP\":180}", Engine.class);
+		assertTrue(legacy instanceof FixedPitchPropEngine);
+	}
+}
@@ -0,0 +1,135 @@
+package com.chrisali.javaflightsim.simulation.spatial;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpatialIndexTest {
+	
+	private static final int ITEMS = 2000;
+	
+	private SpatialIndex index;
+	private double[][] positions;
+	private Random random;
+	
+	@Before
+	public void setUp() {
+		index = new SpatialIndex(1000, 16);
+		positions = new double[ITEMS][];
+		random = new Random(42);
+		
+		for (int id = 0; id < ITEMS; id++) {
+			positions[id] = randomPosition();
+			index.insert(id, positions[id][0], positions[id][1], positions[id][2]);
+		}
+		
+		// Move most items, many to other cells, and remove some
+		for (int id = 0; id < ITEMS; id += 3) {
+			positions[id] = randomPosition();
+			index.update(id, positions[id][0], positions[id][1], positions[id][2]);
+		}
+		for (int id = 1; id < ITEMS; id += 7) {
+			positions[id][0] += 50;
+			index.update(id, positions[id][0], positions[id][1], positions[id][2]);
+		}
+		for (int id = 2; id < ITEMS; id += 11) {
+			assertTrue(index.remove(id));
+			positions[id] = null;
+		}
+	}
+	
+	private double[] randomPosition() {
+		return new double[] {(random.nextDouble() - 0.5) * 40000, (random.nextDouble() - 0.5) * 40000, random.nextDouble() * 5000};
+	}
+	
+	private static double distanceSquared(double[] a, double x, double y, double z) {
+		return Math.pow(a[0] - x, 2) + Math.pow(a[1] - y, 2) + Math.pow(a[2] - z, 2);
+	}
+	
+	@Test
+	public void RangeQueryMatchesBruteForceTest() {
+		for (double range : new double[] {500, 3000, 100000}) {
+			Set<Integer> found = new TreeSet<>();
+			index.queryRange(1000, -2000, 2500, range, found::add);
+			
+			Set<Integer> expected = new TreeSet<>();
+			for (int id = 0; id < ITEMS; id++) {
+				if (positions[id] != null && distanceSquared(positions[id], 1000, -2000, 2500) <= range * range)
+					expected.add(id);
+			}
+			
+			assertEquals("Range " + range, expected, found);
+		}
+	}
+	
+	@Test
+	public void NearestQueryMatchesBruteForceTest() {
+		int[] found = new int[10];
+		int count = index.queryNearest(-5000, 7000, 1000, 10, Double.POSITIVE_INFINITY, found);
+		
+		int[] expected = IntStream.range(0, ITEMS).filter(id -> positions[id] != null).boxed()
+								  .sorted((a, b) -> Double.compare(distanceSquared(positions[a], -5000, 7000, 1000), 
+										  						   distanceSquared(positions[b], -5000, 7000, 1000)))
+								  .limit(10).mapToInt(Integer::intValue).toArray();
+		
+		assertEquals(10, count);
+		assertArrayEquals(expected, found);
+		
+		// Nothing within a tiny range far from all items
+		assertEquals(0, index.queryNearest(1e6, 1e6, 0, 10, 10, found));
+	}
+	
+	@Test
+	public void SweptSphereQueryMatchesBruteForceTest() {
+		double[] start = {-15000, -15000, 0}, end = {15000, 12000, 5000};
+		double radius = 800;
+		
+		Set<Integer> found = new TreeSet<>();
+		index.querySweptSphere(start[0], start[1], start[2], end[0], end[1], end[2], radius, found::add);
+		
+		Set<Integer> expected = new TreeSet<>();
+		double[] d = {end[0] - start[0], end[1] - start[1], end[2] - start[2]};
+		double lengthSquared = d[0] * d[0] + d[1] * d[1] + d[2] * d[2];
+		for (int id = 0; id < ITEMS; id++) {
+			if (positions[id] == null)
+				continue;
+			
+			double[] p = positions[id];
+			double t = ((p[0] - start[0]) * d[0] + (p[1] - start[1]) * d[1] + (p[2] - start[2]) * d[2]) / lengthSquared;
+			t = Math.max(0, Math.min(1, t));
+			if (distanceSquared(p, start[0] + t * d[0], start[1] + t * d[1], start[2] + t * d[2]) <= radius * radius)
+				expected.add(id);
+		}
+		
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, found);
+	}
+	
+	@Test
+	public void ItemRadiusWidensQueriesTest() {
+		SpatialIndex spheres = new SpatialIndex(100, 4);
+		spheres.insert(0, 0, 0, 0, 2000);
+		spheres.insert(1, 50, 50, 0);
+		
+		int[] hits = new int[2];
+		int[] count = new int[1];
+		spheres.queryRange(2500, 0, 0, 600, id -> hits[count[0]++] = id);
+		
+		assertEquals("Sphere reaching into range should be found", 1, count[0]);
+		assertEquals(0, hits[0]);
+		
+		assertFalse(spheres.remove(5));
+		assertTrue(spheres.contains(1));
+		assertEquals(2, spheres.size());
+		assertArrayEquals(new double[] {50, 50, 0}, new double[] {spheres.getX(1), spheres.getY(1), spheres.getZ(1)}, 0.0);
+	}
+}
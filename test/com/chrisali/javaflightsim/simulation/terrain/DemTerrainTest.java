@@ -0,0 +1,161 @@
+package com.chrisali.javaflightsim.simulation.terrain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DemTerrainTest {
+	
+	private static final int SAMPLES = 121;
+	private static final double FT_TO_M = 0.3048;
+	private static final double TILE_SIZE = 24000;
+	private static final int VERTEX_COUNT = 65;
+	
+	private File directory;
+	
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("DemTerrainTest").toFile();
+		
+		// Two neighbouring grids, rising to the south and east with the same slope, so that they meet along their shared edge
+		writeGrid("N40W075.hgt", 0);
+		writeGrid("N40W074.hgt", SAMPLES - 1);
+	}
+	
+	@After
+	public void tearDown() {
+		for (File file : directory.listFiles())
+			file.delete();
+		directory.delete();
+	}
+	
+	/**
+	 * Writes a grid whose elevation is 10 m per row from the north edge plus 2 m per column from the west edge, offset by columnOffset  
+	 */
+	private void writeGrid(String name, int columnOffset) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(new File(directory, name)))) {
+			for (int row = 0; row < SAMPLES; row++) {
+				for (int column = 0; column < SAMPLES; column++)
+					out.writeShort(row == 3 && column == 3 ? ElevationGrid.VOID : row * 10 + (column + columnOffset) * 2);
+			}
+		}
+	}
+	
+	private static double expectedElevation(double latitude, double longitude) {
+		double row = (41 - latitude) * (SAMPLES - 1);
+		double column = (longitude + 75) * (SAMPLES - 1);
+		
+		return row * 10 + column * 2;
+	}
+	
+	@Test
+	public void ElevationGridTest() throws IOException {
+		ElevationGrid grid = new ElevationGrid(new File(directory, "N40W075.hgt"));
+		
+		assertEquals(40, grid.getLatitude());
+		assertEquals(-75, grid.getLongitude());
+		assertEquals(SAMPLES, grid.getSamplesPerSide());
+		assertEquals("N40W075.hgt", ElevationGrid.fileName(40, -75));
+		assertEquals("S01E010.hgt", ElevationGrid.fileName(-1, 10));
+		
+		assertEquals(0, grid.sample(0, 0));
+		assertEquals(50 * 10 + 7 * 2, grid.sample(50, 7));
+		
+		// The void is filled from the samples around it, which the grid's slope is linear between
+		assertEquals(3 * 10 + 3 * 2, grid.sample(3, 3));
+		assertEquals(expectedElevation(41 - 3.5 / (SAMPLES - 1), -75 + 3.5 / (SAMPLES - 1)), 
+					 grid.getElevation(41 - 3.5 / (SAMPLES - 1), -75 + 3.5 / (SAMPLES - 1)), 1e-6);
+		
+		assertEquals(expectedElevation(40.5, -74.5), grid.getElevation(40.5, -74.5), 1e-6);
+		assertEquals(expectedElevation(40.123, -74.987), grid.getElevation(40.123, -74.987), 1e-6);
+		assertTrue(grid.contains(40.5, -74.5));
+		
+		File badName = new File(directory, "heightMap.hgt");
+		Files.copy(new File(directory, "N40W075.hgt").toPath(), badName.toPath());
+		try {
+			new ElevationGrid(badName);
+			throw new AssertionError("Expected IOException");
+		} catch (IOException expected) {}
+	}
+	
+	@Test
+	public void GeoreferencedHeightsTest() {
+		DemTerrain terrain = new DemTerrain(directory, Math.toRadians(40.5), Math.toRadians(-74.2), TILE_SIZE, VERTEX_COUNT, 16);
+		double[] latLon = new double[2];
+		
+		// Origin lies at the initial latitude and longitude
+		assertEquals(expectedElevation(40.5, -74.2) / FT_TO_M, terrain.getHeight(0, 0), 1e-3);
+		
+		// Across both grids, elevation is linear in position, so interpolation over triangles finds it exactly 
+		for (double north = -100000; north <= 100000; north += 7919) {
+			for (double east = -100000; east <= 100000; east += 6113) {
+				terrain.toLatLon(north, east, latLon);
+				assertEquals(expectedElevation(latLon[0], latLon[1]) / FT_TO_M, terrain.getHeight(north, east), 1e-2);
+			}
+		}
+		
+		// One degree of latitude is about 60 nautical miles
+		terrain.toLatLon(364567, 0, latLon);
+		assertEquals(41.5, latLon[0], 0.01);
+		
+		// Sea level where there is no elevation model
+		assertEquals(0, terrain.getHeight(500000, 0), 0);
+		
+		double[] normal = new double[3];
+		terrain.getNormal(0, 0, normal);
+		assertTrue(normal[0] > 0 && normal[1] > 0.99 && normal[2] < 0);
+	}
+	
+	@Test
+	public void PrefetchesNeighbouringTilesTest() throws InterruptedException {
+		DemTerrain terrain = new DemTerrain(directory, Math.toRadians(40.5), Math.toRadians(-74.5), TILE_SIZE, VERTEX_COUNT, 64);
+		HeightField heightField = new HeightField(TILE_SIZE, VERTEX_COUNT);
+		
+		terrain.getHeight(100, 100);
+		
+		// The eight tiles around the one queried are sampled on the prefetch thread
+		long end = System.currentTimeMillis() + 10000;
+		while (terrain.getCachedTileCount() < 9) {
+			assertTrue("Tiles were prefetched in time", System.currentTimeMillis() < end);
+			Thread.sleep(5);
+		}
+		assertEquals(9, terrain.getCachedTileCount());
+		
+		// Prefetched tiles match those sampled when queried
+		DemTerrain unprefetched = new DemTerrain(directory, Math.toRadians(40.5), Math.toRadians(-74.5), TILE_SIZE, VERTEX_COUNT, 4);
+		heightField.putTile(1, -1, unprefetched.getTile(1, -1));
+		
+		assertEquals(heightField.getHeight(TILE_SIZE + 100, -100), terrain.getHeight(TILE_SIZE + 100, -100), 0);
+	}
+	
+	@Test
+	public void LeastRecentlyUsedCacheTest() {
+		DemTerrain terrain = new DemTerrain(directory, Math.toRadians(40.5), Math.toRadians(-74.5), TILE_SIZE, VERTEX_COUNT, 4);
+		HeightField heightField = new HeightField(TILE_SIZE, VERTEX_COUNT);
+		
+		double[] x = new double[10], z = new double[10], heights = new double[10];
+		for (int i = 0; i < 10; i++) {
+			x[i] = i * TILE_SIZE + 100;
+			z[i] = -i * TILE_SIZE / 2;
+			heightField.putTile(heightField.tileCoordinate(x[i]), heightField.tileCoordinate(z[i]), 
+								terrain.getTile(terrain.tileCoordinate(x[i]), terrain.tileCoordinate(z[i])));
+		}
+		assertEquals(4, terrain.getCachedTileCount());
+		
+		// Tiles sampled again after eviction match those sampled before
+		terrain.getHeights(x, z, heights, 10);
+		for (int i = 0; i < 10; i++)
+			assertEquals(heightField.getHeight(x[i], z[i]), heights[i], 0);
+		
+		assertEquals(4, terrain.getCachedTileCount());
+	}
+}
@@ -0,0 +1,162 @@
+package com.chrisali.javaflightsim.simulation.terrain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class HeightFieldTest {
+	
+	private static final double TILE_SIZE = 1000;
+	private static final int VERTEX_COUNT = 11;
+	private static final double GRID_SQUARE = TILE_SIZE / (VERTEX_COUNT - 1);
+	
+	private HeightField heightField;
+	private float[] tile;
+	private Random random;
+	
+	@Before
+	public void setUp() {
+		random = new Random(7);
+		heightField = new HeightField(TILE_SIZE, VERTEX_COUNT);
+		
+		tile = new float[VERTEX_COUNT * VERTEX_COUNT];
+		for (int i = 0; i < tile.length; i++)
+			tile[i] = random.nextFloat() * 200 - 100;
+		
+		for (int x = -2; x < 2; x++) {
+			for (int z = -2; z < 2; z++)
+				heightField.putTile(x, z, tile);
+		}
+	}
+	
+	/**
+	 * Barycentric interpolation written out as the out the window terrain does it, for comparison
+	 */
+	private double expectedHeight(double x, double z) {
+		double localX = (x - Math.floor(x / TILE_SIZE) * TILE_SIZE) / GRID_SQUARE;
+		double localZ = (z - Math.floor(z / TILE_SIZE) * TILE_SIZE) / GRID_SQUARE;
+		int gridX = (int) localX, gridZ = (int) localZ;
+		double xCoord = localX - gridX, zCoord = localZ - gridZ;
+		
+		double[] p1, p2, p3;
+		if (xCoord <= 1 - zCoord) {
+			p1 = new double[] {0, tile[gridX * VERTEX_COUNT + gridZ], 0};
+			p2 = new double[] {1, tile[(gridX + 1) * VERTEX_COUNT + gridZ], 0};
+			p3 = new double[] {0, tile[gridX * VERTEX_COUNT + gridZ + 1], 1};
+		} else {
+			p1 = new double[] {1, tile[(gridX + 1) * VERTEX_COUNT + gridZ], 0};
+			p2 = new double[] {1, tile[(gridX + 1) * VERTEX_COUNT + gridZ + 1], 1};
+			p3 = new double[] {0, tile[gridX * VERTEX_COUNT + gridZ + 1], 1};
+		}
+		
+		double det = (p2[2] - p3[2]) * (p1[0] - p3[0]) + (p3[0] - p2[0]) * (p1[2] - p3[2]);
+		double l1 = ((p2[2] - p3[2]) * (xCoord - p3[0]) + (p3[0] - p2[0]) * (zCoord - p3[2])) / det;
+		double l2 = ((p3[2] - p1[2]) * (xCoord - p3[0]) + (p1[0] - p3[0]) * (zCoord - p3[2])) / det;
+		double l3 = 1.0f - l1 - l2;
+		
+		return l1 * p1[1] + l2 * p2[1] + l3 * p3[1];
+	}
+	
+	@Test
+	public void HeightMatchesBarycentricInterpolationTest() {
+		// Grid points
+		for (int x = 0; x < VERTEX_COUNT - 1; x++) {
+			for (int z = 0; z < VERTEX_COUNT - 1; z++)
+				assertEquals(tile[x * VERTEX_COUNT + z], heightField.getHeight(x * GRID_SQUARE + TILE_SIZE, z * GRID_SQUARE - TILE_SIZE), 1e-4);
+		}
+		
+		// Random points in all tiles
+		for (int i = 0; i < 10000; i++) {
+			double x = (random.nextDouble() - 0.5) * 4 * TILE_SIZE;
+			double z = (random.nextDouble() - 0.5) * 4 * TILE_SIZE;
+			
+			assertEquals(expectedHeight(x, z), heightField.getHeight(x, z), 1e-6);
+		}
+	}
+	
+	@Test
+	public void BatchQueryMatchesSingleQueriesTest() {
+		int count = 5000;
+		double[] x = new double[count], z = new double[count], heights = new double[count];
+		for (int i = 0; i < count; i++) {
+			// Includes points outside of all tiles
+			x[i] = (random.nextDouble() - 0.5) * 6 * TILE_SIZE;
+			z[i] = (random.nextDouble() - 0.5) * 6 * TILE_SIZE;
+		}
+		
+		heightField.getHeights(x, z, heights, count);
+		
+		for (int i = 0; i < count; i++)
+			assertEquals(heightField.getHeight(x[i], z[i]), heights[i], 0);
+	}
+	
+	@Test
+	public void NormalOfPlaneTest() {
+		// Terrain that rises 0.5 in x and falls 0.25 in z per unit of distance
+		float[] plane = new float[VERTEX_COUNT * VERTEX_COUNT];
+		for (int x = 0; x < VERTEX_COUNT; x++) {
+			for (int z = 0; z < VERTEX_COUNT; z++)
+				plane[x * VERTEX_COUNT + z] = (float) (0.5 * x * GRID_SQUARE - 0.25 * z * GRID_SQUARE);
+		}
+		heightField.putTile(5, 5, plane);
+		
+		double length = Math.sqrt(0.5 * 0.5 + 1 + 0.25 * 0.25);
+		double[] normal = new double[3];
+		for (int i = 0; i < 100; i++) {
+			double x = (5 + random.nextDouble()) * TILE_SIZE;
+			double z = (5 + random.nextDouble()) * TILE_SIZE;
+			heightField.getNormal(x, z, normal);
+			
+			assertEquals(-0.5 / length, normal[0], 1e-6);
+			assertEquals(1 / length, normal[1], 1e-6);
+			assertEquals(0.25 / length, normal[2], 1e-6);
+		}
+		
+		// Straight up outside of all tiles
+		heightField.getNormal(-10 * TILE_SIZE, 0, normal);
+		assertEquals(0, normal[0], 0);
+		assertEquals(1, normal[1], 0);
+		assertEquals(0, normal[2], 0);
+	}
+	
+	@Test
+	public void PutAndRemoveTilesTest() {
+		assertEquals(16, heightField.getTileCount());
+		assertTrue(heightField.hasTile(-2, 1));
+		assertFalse(heightField.hasTile(2, 0));
+		assertEquals(0, heightField.getHeight(2.5 * TILE_SIZE, 0.5 * TILE_SIZE), 0);
+		
+		// Replacing a tile keeps the count
+		float[] flat = new float[VERTEX_COUNT * VERTEX_COUNT];
+		Arrays.fill(flat, 50);
+		heightField.putTile(0, 0, flat);
+		assertEquals(16, heightField.getTileCount());
+		assertEquals(50, heightField.getHeight(0.3 * TILE_SIZE, 0.6 * TILE_SIZE), 1e-6);
+		
+		assertTrue(heightField.removeTile(0, 0));
+		assertFalse(heightField.removeTile(0, 0));
+		assertEquals(15, heightField.getTileCount());
+		assertEquals(0, heightField.getHeight(0.3 * TILE_SIZE, 0.6 * TILE_SIZE), 0);
+		assertEquals(expectedHeight(1.3 * TILE_SIZE, 0.6 * TILE_SIZE), heightField.getHeight(1.3 * TILE_SIZE, 0.6 * TILE_SIZE), 1e-6);
+	}
+	
+	@Test
+	public void WorldTerrainTest() {
+		HeightField world = WorldTerrain.getHeightField();
+		
+		assertEquals(WorldTerrain.TILES_PER_SIDE * WorldTerrain.TILES_PER_SIDE, world.getTileCount());
+		assertEquals(WorldTerrain.TILE_SIZE, world.getTileSize(), 0);
+		assertTrue(world.hasTile(-WorldTerrain.TILES_PER_SIDE / 2, WorldTerrain.TILES_PER_SIDE / 2 - 1));
+		
+		for (int i = 0; i < 1000; i++) {
+			double height = world.getHeight((random.nextDouble() - 0.5) * 100000, (random.nextDouble() - 0.5) * 100000);
+			assertTrue(Math.abs(height) <= WorldTerrain.MAX_HEIGHT);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.chrisali.javaflightsim.simulation.traffic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class TrafficAlertServiceTest {
+	
+	// Ownship at 5000 ft flying north at 200 ft/sec
+	private static final double[] OWNSHIP = {0, 0, 5000, 200, 0, 0};
+	
+	private static List<TrafficAlert> alertsFor(TrafficRoute route, double north, double east, double altitude) {
+		TrafficEngine engine = new TrafficEngine(1, 1, 30000);
+		engine.addAircraft(route, north, east, altitude);
+		
+		TrafficAlertService service = new TrafficAlertService(engine, null);
+		service.setOwnship(OWNSHIP);
+		engine.update(0.05);
+		
+		return service.getAlerts();
+	}
+	
+	@Test
+	public void HeadOnTrafficResolutionAdvisoryTest() {
+		// 20 seconds from collision, head on at the same altitude
+		List<TrafficAlert> alerts = alertsFor(new TrafficRoute().addWaypoint(-100000, 0, 5000, 200), 8000, 0, 5000);
+		
+		assertEquals(1, alerts.size());
+		assertEquals(TrafficAlertLevel.RESOLUTION_ADVISORY, alerts.get(0).getLevel());
+		assertEquals(0, alerts.get(0).getBearing(), 1.0);
+		assertTrue(alerts.get(0).getTau() < 25);
+	}
+	
+	@Test
+	public void ConvergingTrafficAdvisoryTest() {
+		// 35 seconds from collision 
+		List<TrafficAlert> alerts = alertsFor(new TrafficRoute().addWaypoint(-100000, 0, 5000, 200), 14000, 0, 5300);
+		
+		assertEquals(TrafficAlertLevel.TRAFFIC_ADVISORY, alerts.get(0).getLevel());
+		assertEquals(300, alerts.get(0).getRelativeAltitude(), 1.0);
+	}
+	
+	@Test
+	public void SeparatedTrafficTest() {
+		// Head on, but well above
+		List<TrafficAlert> above = alertsFor(new TrafficRoute().addWaypoint(-100000, 0, 8000, 200), 8000, 0, 8000);
+		assertTrue(above.isEmpty());
+		
+		// Close, but flying away from the ownship faster than it follows
+		List<TrafficAlert> diverging = alertsFor(new TrafficRoute().addWaypoint(100000, 0, 5000, 400), 10000, 0, 5000);
+		assertEquals(1, diverging.size());
+		assertEquals(TrafficAlertLevel.PROXIMATE, diverging.get(0).getLevel());
+	}
+	
+	@Test
+	public void FastTrafficFoundAlongOwnshipPathTest() {
+		// Outside proximate range, but closing fast enough for an advisory
+		List<TrafficAlert> alerts = alertsFor(new TrafficRoute().addWaypoint(-100000, 0, 5000, 800), 38000, 0, 5000);
+		
+		assertEquals(TrafficAlertLevel.TRAFFIC_ADVISORY, alerts.get(0).getLevel());
+	}
+	
+	@Test
+	public void ModifiedTauTest() {
+		assertEquals(0.0, TrafficAlertService.modifiedTau(1000, -100, 2000), 0.0);
+		assertEquals(Double.POSITIVE_INFINITY, TrafficAlertService.modifiedTau(10000, 50, 2000), 0.0);
+		assertEquals((10000.0 * 10000 - 2000 * 2000) / (10000 * 400), TrafficAlertService.modifiedTau(10000, -400, 2000), 1e-9);
+	}
+}
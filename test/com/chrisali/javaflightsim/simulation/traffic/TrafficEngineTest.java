@@ -0,0 +1,102 @@
+package com.chrisali.javaflightsim.simulation.traffic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.setup.TrafficConfiguration;
+
+public class TrafficEngineTest {
+	
+	private static TrafficEngine randomTraffic(int aircraftCount, int workers) {
+		TrafficConfiguration configuration = new TrafficConfiguration();
+		configuration.setAircraftCount(aircraftCount);
+		
+		TrafficEngine engine = new TrafficEngine(aircraftCount, workers, configuration.getDrawDistance());
+		TrafficGenerator.addRandomTraffic(engine, configuration, 0, 0, 5000);
+		
+		return engine;
+	}
+	
+	@Test
+	public void FollowsRouteTest() {
+		TrafficRoute square = new TrafficRoute().addWaypoint(20000, 0, 3000, 200)
+												.addWaypoint(20000, 20000, 3000, 200)
+												.addWaypoint(0, 20000, 3000, 200)
+												.addWaypoint(0, 0, 3000, 200);
+		
+		TrafficEngine engine = new TrafficEngine(1, 1, 10000);
+		engine.addAircraft(square, 0, 0, 2000);
+		
+		// First leg takes 100 seconds, plus time to turn
+		for (int i = 0; i < 20 * 110; i++)
+			engine.update(0.05);
+		
+		assertEquals("Aircraft should be on its second leg", 1, engine.getWaypoint(0));
+		assertEquals("Aircraft should have climbed to the route's altitude", 3000, engine.getAltitude(0), 1.0);
+		assertEquals(200, engine.getSpeed(0), 1e-6);
+		
+		// Route is closed, so after a lap the aircraft heads for the first waypoint again
+		for (int i = 0; i < 20 * 300; i++)
+			engine.update(0.05);
+		
+		assertEquals(0, engine.getWaypoint(0));
+		assertTrue(Math.abs(engine.getEast(0)) < 5000);
+	}
+	
+	@Test
+	public void ParallelUpdateMatchesSerialTest() {
+		try (TrafficEngine serial = randomTraffic(5000, 1); TrafficEngine parallel = randomTraffic(5000, 4)) {
+			for (int i = 0; i < 200; i++) {
+				serial.update(0.05);
+				parallel.update(0.05);
+			}
+			
+			for (int i = 0; i < serial.size(); i++) {
+				assertEquals(serial.getNorth(i), parallel.getNorth(i), 0.0);
+				assertEquals(serial.getEast(i), parallel.getEast(i), 0.0);
+				assertEquals(serial.getAltitude(i), parallel.getAltitude(i), 0.0);
+				assertEquals(serial.getHeading(i), parallel.getHeading(i), 0.0);
+			}
+		}
+	}
+	
+	@Test
+	public void SnapshotWithinDrawDistanceTest() {
+		try (TrafficEngine engine = randomTraffic(2000, 2)) {
+			engine.setObserver(0, 0, 5000);
+			engine.setDrawDistance(20000);
+			engine.update(0.05);
+			
+			TrafficSnapshot snapshot = engine.getSnapshot();
+			
+			int expected = 0;
+			for (int i = 0; i < engine.size(); i++) {
+				if (Math.sqrt(Math.pow(engine.getNorth(i), 2) + Math.pow(engine.getEast(i), 2) + Math.pow(engine.getAltitude(i) - 5000, 2)) < 20000)
+					expected++;
+			}
+			
+			assertTrue("Some traffic should be in range", expected > 0);
+			assertEquals(Math.min(expected, TrafficEngine.MAX_VISIBLE), snapshot.size());
+			
+			for (int i = 0; i < snapshot.size(); i++) {
+				int id = snapshot.getId(i);
+				assertEquals(engine.getNorth(id), snapshot.getNorth(i), 0.0);
+				assertEquals(Math.toDegrees(engine.getHeading(id)), snapshot.getHeading(i), 1e-9);
+			}
+		}
+	}
+	
+	@Test
+	public void StartedEngineUpdatesTest() throws InterruptedException {
+		try (TrafficEngine engine = randomTraffic(100, 2)) {
+			engine.setObserver(0, 0, 5000);
+			engine.start(50);
+			
+			Thread.sleep(500);
+			
+			assertTrue(engine.getSnapshot().getTime() > 0.1);
+		}
+	}
+}
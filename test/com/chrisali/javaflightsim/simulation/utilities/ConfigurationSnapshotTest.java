@@ -0,0 +1,176 @@
+package com.chrisali.javaflightsim.simulation.utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.math3.analysis.interpolation.PiecewiseBicubicSplineInterpolatingFunction;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.junit.Test;
+
+import com.chrisali.javaflightsim.simulation.aircraft.Aircraft;
+import com.chrisali.javaflightsim.simulation.aircraft.LookupTable;
+import com.chrisali.javaflightsim.simulation.aircraft.StabilityDerivatives;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ConfigurationSnapshotTest {
+
+	private static final String AIRCRAFT_NAME = "TwinNavion";
+
+	private static final File AIRCRAFT_FILE = new File(SimDirectories.AIRCRAFT.toString() + File.separator + AIRCRAFT_NAME
+													   + File.separator + "Aircraft" + FileUtilities.CONFIG_EXT);
+
+	@Test
+	public void SnapshotMatchesJsonTest() {
+		FileUtilities.setUseSnapshots(false);
+		Aircraft fromJson = FileUtilities.readAircraftConfiguration(AIRCRAFT_NAME);
+		FileUtilities.setUseSnapshots(true);
+
+		ConfigurationSnapshots.write(AIRCRAFT_FILE, fromJson);
+		Aircraft fromSnapshot = ConfigurationSnapshots.read(AIRCRAFT_FILE, Aircraft.class);
+
+		assertNotNull("Snapshot should be readable after being written", fromSnapshot);
+		assertEquals("Names should be equal", fromJson.getName(), fromSnapshot.getName());
+		assertEquals("Engine count should be equal", fromJson.getEngines().size(), fromSnapshot.getEngines().size());
+		assertEquals("Mass properties should be equal", fromJson.getMassProps(), fromSnapshot.getMassProps());
+
+		for (StabilityDerivatives stabDer : fromJson.getStabDerivs().keySet()) {
+			LookupTable jsonTable = fromJson.getStabilityDerivative(stabDer);
+			LookupTable snapTable = fromSnapshot.getStabilityDerivative(stabDer);
+
+			assertNotNull(stabDer + " should exist in snapshot", snapTable);
+
+			if (jsonTable.getLookupValues() == null) {
+				assertEquals(stabDer + " should be equal", jsonTable.getValue(), snapTable.getValue());
+				continue;
+			}
+
+			for (double alpha = -0.2; alpha <= 0.25; alpha += 0.01) {
+				for (double flap = 0.0; flap <= 0.6; flap += 0.05) {
+					assertEquals(stabDer + " should interpolate identically",
+								 jsonTable.interpolate(alpha, flap), snapTable.interpolate(alpha, flap), 0.0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void StaleSnapshotIgnoredTest() throws IOException {
+		File source = File.createTempFile("SnapshotSource", FileUtilities.CONFIG_EXT);
+		source.deleteOnExit();
+
+		try {
+			Files.write(source.toPath(), "{\"name\":\"test\",\"value\":2.0}".getBytes());
+			ConfigurationSnapshots.write(source, new LookupTable(2.0, "test"));
+
+			LookupTable table = ConfigurationSnapshots.read(source, LookupTable.class);
+			assertNotNull("Snapshot should be readable after being written", table);
+			assertEquals("Value should survive snapshot", 2.0, table.interpolate(0, 0), 0.0);
+
+			assertTrue(source.setLastModified(source.lastModified() + 2000));
+			assertNull("Snapshot older than its source should be ignored", ConfigurationSnapshots.read(source, LookupTable.class));
+		} finally {
+			ConfigurationSnapshots.delete(source);
+			source.delete();
+		}
+	}
+
+	@Test
+	public void SplineCoefficientsNotSerializedToJsonTest() throws IOException {
+		LookupTable table = new LookupTable(new double[] {0, 1, 2, 3, 4}, new double[] {0, 1, 2, 3, 4},
+											createTable(new double[] {0, 1, 2, 3, 4}, new double[] {0, 1, 2, 3, 4}), 0.0, "test");
+
+		assertNotNull(table.getSplineCoefficients());
+		assertFalse("Spline coefficients should not be written to JSON files",
+					new ObjectMapper().writeValueAsString(table).contains("splineCoefficients"));
+	}
+
+	private static double[][] createTable(double[] x, double[] y) {
+		double[][] f = new double[x.length][y.length];
+
+		for (int i = 0; i < x.length; i++) {
+			for (int j = 0; j < y.length; j++)
+				f[i][j] = Math.sin(x[i] / 10.0) + (0.01 * x[i] * y[j]) + (0.001 * y[j] * y[j]) + Math.abs(x[i] - 3) * Math.cos(y[j]);
+		}
+
+		return f;
+	}
+
+	@Test
+	public void BicubicSplineTest() {
+		double[] x = {-14, -12, -10, -8, -6, -4, -2, 0, 2, 4, 6, 8, 10, 12, 14, 16};
+		double[] y = {0, 10, 20, 25, 30, 40, 55};
+		double[][] f = createTable(x, y);
+
+		double[] coefficients = InterpolationUtilities.calculateBicubicCoefficients(x, y, f);
+		PiecewiseBicubicSplineInterpolatingFunction pbsif = new PiecewiseBicubicSplineInterpolatingFunction(x, y, f);
+
+		// Spline must pass through each breakpoint
+		for (int i = 0; i < x.length; i++) {
+			for (int j = 0; j < y.length; j++)
+				assertEquals(f[i][j], InterpolationUtilities.bicubicValue(x, y, coefficients, x[i], y[j]), 1e-12);
+		}
+
+		// ...and be the same interpolant as the Apache Commons implementation, on and between them
+		for (int i = 0; i <= 200; i++) {
+			double xi = x[0] + (x[x.length - 1] - x[0]) * i / 200;
+
+			for (int j = 0; j <= 50; j++) {
+				double yi = y[0] + (y[y.length - 1] - y[0]) * j / 50;
+				assertEquals(pbsif.value(xi, yi), InterpolationUtilities.bicubicValue(x, y, coefficients, xi, yi), 1e-12);
+			}
+		}
+
+		for (int i = 0; i < x.length; i++) {
+			for (int j = 0; j < y.length; j++)
+				assertEquals(pbsif.value(x[i], y[j]), InterpolationUtilities.bicubicValue(x, y, coefficients, x[i], y[j]), 1e-12);
+		}
+	}
+
+	@Test
+	public void AircraftTablesMatchCommonsTest() {
+		FileUtilities.setUseSnapshots(false);
+
+		try {
+			for (String aircraftName : new String[] {"Navion", "TwinNavion"}) {
+				Aircraft aircraft = FileUtilities.readAircraftConfiguration(aircraftName);
+
+				for (StabilityDerivatives stabDer : aircraft.getStabDerivs().keySet()) {
+					LookupTable table = aircraft.getStabilityDerivative(stabDer);
+					if (table.getLookupValues() == null)
+						continue;
+
+					double[] x = table.getBreakPointAngle();
+					double[] y = table.getBreakPointFlap();
+					PiecewiseBicubicSplineInterpolatingFunction pbsif = new PiecewiseBicubicSplineInterpolatingFunction(x, y, table.getLookupValues());
+
+					for (int i = 0; i <= 200; i++) {
+						double xi = x[0] + (x[x.length - 1] - x[0]) * i / 200;
+
+						for (int j = 0; j <= 50; j++) {
+							double yi = y[0] + (y[y.length - 1] - y[0]) * j / 50;
+							assertEquals(aircraftName + " " + stabDer + " should match Apache Commons", 
+										 pbsif.value(xi, yi), table.interpolate(xi, yi), 1e-12);
+						}
+					}
+				}
+			}
+		} finally {
+			FileUtilities.setUseSnapshots(true);
+		}
+	}
+
+	@Test(expected=OutOfRangeException.class)
+	public void BicubicSplineOutOfRangeTest() {
+		double[] x = {0, 1, 2, 3, 4};
+		double[] y = {0, 1, 2, 3, 4};
+
+		InterpolationUtilities.bicubicValue(x, y, InterpolationUtilities.calculateBicubicCoefficients(x, y, createTable(x, y)), 4.5, 0.5);
+	}
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.tests;
+
+import com.chrisali.javaflightsim.simulation.utilities.FileUtilities;
+
+/**
+ * Compares the time taken to load all configuration files needed to start a simulation by parsing JSON
+ * against reading them from binary snapshots
+ */
+public class TestConfigurationLoading {
+
+	private static final int ITERATIONS = 50;
+
+	private static void loadAll(String aircraftName) {
+		FileUtilities.readSimulationConfiguration();
+		FileUtilities.readControlsConfiguration();
+		FileUtilities.readAnalysisControls();
+		FileUtilities.readPlotConfiguration();
+		FileUtilities.readAircraftConfiguration(aircraftName);
+	}
+
+	private static double timeLoading(String aircraftName, boolean useSnapshots) {
+		FileUtilities.setUseSnapshots(useSnapshots);
+
+		// Cold load, which writes snapshots if enabled, then warm up
+		loadAll(aircraftName);
+		for (int i = 0; i < 5; i++)
+			loadAll(aircraftName);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			loadAll(aircraftName);
+
+		return (System.nanoTime() - start) / (ITERATIONS * 1e6);
+	}
+
+	public static void main(String[] args) {
+		String aircraftName = args.length > 0 ? args[0] : "TwinNavion";
+
+		long start = System.nanoTime();
+		loadAll(aircraftName);
+		System.out.printf("First load (cold JVM):  %8.3f ms%n", (System.nanoTime() - start) / 1e6);
+
+		double json = timeLoading(aircraftName, false);
+		double snapshot = timeLoading(aircraftName, true);
+
+		System.out.printf("JSON:                   %8.3f ms/load%n", json);
+		System.out.printf("Snapshot:               %8.3f ms/load%n", snapshot);
+		System.out.printf("Speedup:                %8.2fx%n", json / snapshot);
+	}
+}
@@ -19,7 +19,6 @@
  ******************************************************************************/
 package com.chrisali.javaflightsim.tests;
 
-import java.util.EnumMap;
 import java.util.Map;
 
 import org.jfree.chart.ChartPanel;
@@ -37,6 +36,7 @@ import org.jfree.ui.RefineryUtilities;
 import com.chrisali.javaflightsim.simulation.enviroment.Environment;
 import com.chrisali.javaflightsim.simulation.enviroment.EnvironmentParameters;
 import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControlsSnapshot;
 import com.chrisali.javaflightsim.simulation.propulsion.Engine;
 import com.chrisali.javaflightsim.simulation.propulsion.FixedPitchPropEngine;
 import com.chrisali.javaflightsim.simulation.setup.SimulationConfiguration;
@@ -50,7 +50,7 @@ public class TestEngine extends ApplicationFrame {
 		
 		SimulationConfiguration configuration = FileUtilities.readSimulationConfiguration();
 		
-		EnumMap<FlightControl, Double> controls = configuration.getInitialControls();
+		FlightControlsSnapshot controls = new FlightControlsSnapshot(configuration.getInitialControls());
 		Map<EnvironmentParameters, Double> environmentParameters = Environment.getAndUpdateEnvironmentParams(new double[] {0,0,0});
 		StringBuilder constraint = new StringBuilder();
 		
@@ -106,7 +106,7 @@ public class TestEngine extends ApplicationFrame {
 							  .append(" ft/sec) and Altitude (Sea Level)");
 				
 				for (double throttle = 0; throttle < 1.0; throttle += 0.01) {
-					controls.put(FlightControl.THROTTLE_1, throttle);
+					controls.set(FlightControl.THROTTLE_1, throttle);
 					
 					defaultEngine.updateEngineState(controls, 
 													environmentParameters,
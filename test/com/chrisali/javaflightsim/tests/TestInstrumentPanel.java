@@ -61,7 +61,7 @@ public class TestInstrumentPanel {
 		SimulationRunner runner = new SimulationRunner(controller);
 		
 		InstrumentPanel panel = new InstrumentPanel();
-		runner.addFlightDataListener(panel);
+		panel.setFlightData(runner.getFlightData().createSnapshot());
 		
 		new Thread(runner).start();
 		
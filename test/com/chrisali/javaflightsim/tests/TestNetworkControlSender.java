@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (C) 2016-2018 Christopher Ali
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ *  If you have any questions about this project, you can visit
+ *  the project's GitHub repository at: http://github.com/chris-ali/j6dof-flight-sim/
+ ******************************************************************************/
+package com.chrisali.javaflightsim.tests;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import com.chrisali.javaflightsim.simulation.datatransfer.FlightDataType;
+import com.chrisali.javaflightsim.simulation.datatransfer.TelemetryDecoder;
+import com.chrisali.javaflightsim.simulation.flightcontrols.FlightControl;
+import com.chrisali.javaflightsim.simulation.flightcontrols.NetworkControlFrame;
+
+/**
+ * Stand-in for external guidance software, to be run alongside the simulator in network mode with controlProtocol set to 
+ * UDP in the network configuration. Telemetry is received on port 4950, and a simple wing leveler sends aileron commands 
+ * to port 4951, stamped with the time of the telemetry frame they respond to. Received and sent frame counts are 
+ * printed every second
+ */
+public class TestNetworkControlSender {
+	
+	private static final double ROLL_GAIN = 0.01; // rad of aileron per degree of roll; positive aileron rolls left
+	
+	public TestNetworkControlSender(int telemetryPort, InetSocketAddress controlAddress) throws Exception {
+		try (DatagramChannel telemetry = DatagramChannel.open().bind(new InetSocketAddress("127.0.0.1", telemetryPort));
+			 DatagramChannel commands = DatagramChannel.open().connect(controlAddress)) {
+			ByteBuffer packet = ByteBuffer.allocateDirect(2048);
+			TelemetryDecoder decoder = new TelemetryDecoder();
+			NetworkControlFrame frame = new NetworkControlFrame();
+			long sequence = 0;
+			
+			while (true) {
+				packet.clear();
+				telemetry.receive(packet);
+				packet.flip();
+				
+				if (!decoder.decode(packet))
+					continue;
+				
+				double aileron = ROLL_GAIN * decoder.get(FlightDataType.ROLL);
+				commands.write(frame.set(FlightControl.AILERON, aileron).encode(sequence++, decoder.getTime()));
+				
+				if (decoder.getDecodedFrames() % 120 == 0)
+					System.out.printf("Time: %.2f sec, Roll: %.2f deg, Aileron: %.4f rad, Telemetry received: %d, lost: %d, Commands sent: %d%n", 
+									  decoder.getTime(), decoder.get(FlightDataType.ROLL), aileron, decoder.getDecodedFrames(), 
+									  decoder.getLostFrames(), sequence);
+			}
+		}
+	}
+	
+	public static void main(String[] args) throws Exception {new TestNetworkControlSender(4950, new InetSocketAddress("127.0.0.1", 4951));}
+}